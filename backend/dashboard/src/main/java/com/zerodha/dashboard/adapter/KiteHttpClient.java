@@ -0,0 +1,111 @@
+package com.zerodha.dashboard.adapter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Shared HTTP client for the Zerodha Kite API (JDK HttpClient).
+ *
+ * One client (one connection pool) for every Kite call, with a connect timeout
+ * (zerodha.http.connect.timeout) and an overall timeout (zerodha.http.request.timeout) on
+ * every request instead of the old 30 s + 30 s per call.
+ *
+ * The API is asynchronous, but today's callers (ZerodhaApiAdapter, ZerodhaAuthController) are
+ * synchronous: they {@link #await} the response, so the calling thread waits for Kite - at most
+ * the two timeouts. On virtual threads (spring.threads.virtual.enabled) that wait only parks the
+ * virtual thread; on platform threads it holds the scheduler or request thread.
+ */
+@Component
+public class KiteHttpClient {
+
+    private static final Logger log = LoggerFactory.getLogger(KiteHttpClient.class);
+
+    @Value("${zerodha.http.connect.timeout:PT5S}")
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    @Value("${zerodha.http.request.timeout:PT15S}")
+    private Duration requestTimeout = Duration.ofSeconds(15);
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Built on first use, after the timeouts are injected
+    private volatile HttpClient client;
+
+    public CompletableFuture<HttpResponse<String>> getAsync(String url, Map<String, String> headers) {
+        HttpRequest.Builder request = request(url, headers).GET();
+        return client().sendAsync(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    public CompletableFuture<HttpResponse<String>> postFormAsync(String url, String form, Map<String, String> headers) {
+        HttpRequest.Builder request = request(url, headers)
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString(form));
+        return client().sendAsync(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Wait for a response, turning failures and timeouts into IOException.
+     */
+    public <T> T await(CompletableFuture<T> response) throws IOException {
+        try {
+            // The request timeout normally fires first; this bounds the wait if it doesn't
+            return response.get(requestTimeout.toMillis() + connectTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException io ? io : new IOException(cause);
+        } catch (TimeoutException e) {
+            response.cancel(true);
+            throw new IOException("Kite API call timed out after " + requestTimeout, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.cancel(true);
+            throw new InterruptedIOException("Interrupted while waiting for Kite API");
+        }
+    }
+
+    private HttpRequest.Builder request(String url, Map<String, String> headers) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url)).timeout(requestTimeout);
+        headers.forEach(request::header);
+        return request;
+    }
+
+    private HttpClient client() {
+        HttpClient current = client;
+        if (current == null) {
+            synchronized (this) {
+                current = client;
+                if (current == null) {
+                    HttpClient.Builder builder = HttpClient.newBuilder()
+                        .connectTimeout(connectTimeout)
+                        .followRedirects(HttpClient.Redirect.NORMAL);
+                    if (virtualThreads) {
+                        // Response handling (body decoding, completions) on virtual threads too
+                        builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+                    }
+                    current = builder.build();
+                    client = current;
+                    log.info("Kite HTTP client ready (connectTimeout={}, requestTimeout={}, virtualThreads={})",
+                        connectTimeout, requestTimeout, virtualThreads);
+                }
+            }
+        }
+        return current;
+    }
+}
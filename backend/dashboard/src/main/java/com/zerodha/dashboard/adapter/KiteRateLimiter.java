@@ -0,0 +1,78 @@
+package com.zerodha.dashboard.adapter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide request budget for the Zerodha Kite API.
+ *
+ * Every HTTP call made by {@link ZerodhaApiAdapter} takes a permit first, whichever underlying it is for,
+ * so adding underlyings never multiplies the request rate. Permits are handed out in arrival order at
+ * evenly spaced slots (1 / zerodha.rate.limit.per.second apart): a caller that arrives early sleeps until
+ * its slot instead of failing, and no single underlying can burst ahead of the others.
+ */
+@Component
+public class KiteRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(KiteRateLimiter.class);
+
+    @Value("${zerodha.rate.limit.per.second:10}")
+    private double requestsPerSecond = 10;
+
+    // Earliest System.nanoTime() at which the next permit may be used
+    private long nextFreeSlotNanos = 0;
+
+    private final AtomicLong permitsIssued = new AtomicLong();
+    private final AtomicLong throttledRequests = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+
+    /**
+     * Block until a request may be sent.
+     */
+    public void acquire() {
+        long waitNanos = reserve();
+        permitsIssued.incrementAndGet();
+        if (waitNanos <= 0) {
+            return;
+        }
+        throttledRequests.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.debug("Interrupted while waiting for a Kite API permit");
+        }
+    }
+
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        long slot = Math.max(nextFreeSlotNanos, now);
+        nextFreeSlotNanos = slot + intervalNanos();
+        return slot - now;
+    }
+
+    private long intervalNanos() {
+        return requestsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond) : 0;
+    }
+
+    public double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("requestsPerSecond", requestsPerSecond);
+        stats.put("permitsIssued", permitsIssued.get());
+        stats.put("throttledRequests", throttledRequests.get());
+        stats.put("totalWaitMs", TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get()));
+        return stats;
+    }
+}
@@ -0,0 +1,280 @@
+package com.zerodha.dashboard.adapter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only, gzip-compressed journal of raw Zerodha Kite responses.
+ *
+ * Every spot and quote response of a scheduled poll ({@link ZerodhaApiAdapter#pollDerivativesChain})
+ * is written as one JSON line:
+ * {"ts": epochMillis, "kind": SPOT|FUTURES|OPTIONS, "underlying": ..., "instruments": [...], "payload": raw}.
+ * Quote records carry the instrument metadata they were requested for, so a journal is
+ * self-contained and can be parsed back into chains by {@link ReplayMarketAdapter} without
+ * access to the instruments CSV of that day.
+ *
+ * CRITICAL: Each process run (and each UTC day) writes to its own file. A gzip member that was
+ * never closed (crash, kill -9) cannot be followed by another member in the same file, so files
+ * are never re-opened for append. Records are sync-flushed so a truncated file is still readable
+ * up to the last complete record.
+ */
+@Component
+public class MarketDataJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(MarketDataJournal.class);
+
+    public static final String KIND_SPOT = "SPOT";
+    public static final String KIND_FUTURES = "FUTURES";
+    public static final String KIND_OPTIONS = "OPTIONS";
+
+    private static final String FILE_PREFIX = "market-journal-";
+    private static final String FILE_SUFFIX = ".jsonl.gz";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Value("${market.journal.enabled:false}")
+    private boolean enabled;
+
+    @Value("${market.journal.directory:./journal}")
+    private String directory;
+
+    private Writer writer;
+    private Path currentFile;
+    private LocalDate currentDate;
+    private long recordsWritten = 0;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Record a raw spot price response.
+     */
+    public void recordSpot(String underlying, String payload) {
+        record(KIND_SPOT, underlying, Collections.emptyList(), payload);
+    }
+
+    /**
+     * Record a raw quote response together with the instruments it was requested for.
+     */
+    public void recordQuotes(String kind, String underlying, List<ZerodhaInstrument> instruments, String payload) {
+        record(kind, underlying, instruments, payload);
+    }
+
+    private synchronized void record(String kind, String underlying, List<ZerodhaInstrument> instruments, String payload) {
+        if (!enabled || payload == null || payload.isEmpty()) {
+            return;
+        }
+
+        try {
+            Instant now = Instant.now();
+            ensureWriter(LocalDate.ofInstant(now, ZoneOffset.UTC));
+
+            ObjectNode node = mapper.createObjectNode();
+            node.put("ts", now.toEpochMilli());
+            node.put("kind", kind);
+            node.put("underlying", underlying);
+            if (instruments != null && !instruments.isEmpty()) {
+                ArrayNode array = node.putArray("instruments");
+                for (ZerodhaInstrument instrument : instruments) {
+                    array.add(toNode(instrument));
+                }
+            }
+            node.put("payload", payload);
+
+            writer.write(mapper.writeValueAsString(node));
+            writer.write('\n');
+            writer.flush();
+            recordsWritten++;
+        } catch (Exception e) {
+            // Recording must never break live polling - drop the record and reopen on next write
+            log.warn("Failed to append {} record to market journal: {}", kind, e.getMessage());
+            closeWriter();
+        }
+    }
+
+    private void ensureWriter(LocalDate today) throws IOException {
+        if (writer != null && today.equals(currentDate)) {
+            return;
+        }
+        closeWriter();
+
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        currentFile = dir.resolve(FILE_PREFIX + today + "-" + System.currentTimeMillis() + FILE_SUFFIX);
+        // syncFlush=true so every flush() emits a complete deflate block
+        GZIPOutputStream gzip = new GZIPOutputStream(Files.newOutputStream(currentFile), BUFFER_SIZE, true);
+        writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_SIZE);
+        currentDate = today;
+        log.info("Market journal recording to {}", currentFile.toAbsolutePath());
+    }
+
+    private ObjectNode toNode(ZerodhaInstrument instrument) {
+        ObjectNode node = mapper.createObjectNode();
+        node.put("token", instrument.getInstrumentToken());
+        node.put("symbol", instrument.getTradingsymbol());
+        node.put("type", instrument.getInstrumentType());
+        if (instrument.getExpiry() != null) {
+            node.put("expiry", instrument.getExpiry().toString());
+        }
+        node.put("strike", instrument.getStrike());
+        node.put("lot", instrument.getLotSize());
+        node.put("tick", instrument.getTickSize());
+        return node;
+    }
+
+    private static ZerodhaInstrument fromNode(JsonNode node) {
+        ZerodhaInstrument instrument = new ZerodhaInstrument();
+        instrument.setInstrumentToken(node.path("token").asLong());
+        instrument.setTradingsymbol(node.path("symbol").asText(null));
+        instrument.setInstrumentType(node.path("type").asText(null));
+        if (node.hasNonNull("expiry")) {
+            instrument.setExpiry(LocalDate.parse(node.get("expiry").asText()));
+        }
+        instrument.setStrike(node.path("strike").asDouble());
+        instrument.setLotSize(node.path("lot").asInt());
+        instrument.setTickSize(node.path("tick").asDouble());
+        return instrument;
+    }
+
+    public synchronized long getRecordsWritten() {
+        return recordsWritten;
+    }
+
+    public synchronized Path getCurrentFile() {
+        return currentFile;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        closeWriter();
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("Failed to close market journal {}: {}", currentFile, e.getMessage());
+        }
+        writer = null;
+        currentDate = null;
+    }
+
+    /**
+     * Stream all records from a journal file, or from every journal file in a directory
+     * (in file-name order, which is chronological).
+     *
+     * @return number of records read
+     */
+    public static long read(Path source, Consumer<Entry> consumer) throws IOException {
+        return read(source, consumer, () -> false);
+    }
+
+    /**
+     * Like {@link #read(Path, Consumer)}, but stops reading as soon as stopped returns true.
+     */
+    public static long read(Path source, Consumer<Entry> consumer, BooleanSupplier stopped) throws IOException {
+        ObjectMapper reader = new ObjectMapper();
+        long count = 0;
+        for (Path file : resolveFiles(source)) {
+            if (stopped.getAsBoolean()) {
+                break;
+            }
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(file), BUFFER_SIZE), StandardCharsets.UTF_8))) {
+                String line;
+                while (!stopped.getAsBoolean() && (line = in.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    consumer.accept(parseEntry(reader.readTree(line)));
+                    count++;
+                }
+            } catch (EOFException e) {
+                // Journal of a process that did not shut down cleanly - keep what was flushed
+                log.warn("Market journal {} is truncated, replayed up to last complete record", file);
+            }
+        }
+        return count;
+    }
+
+    private static List<Path> resolveFiles(Path source) throws IOException {
+        if (!Files.isDirectory(source)) {
+            return List.of(source);
+        }
+        try (Stream<Path> files = Files.list(source)) {
+            return files
+                .filter(p -> p.getFileName().toString().startsWith(FILE_PREFIX))
+                .filter(p -> p.getFileName().toString().endsWith(FILE_SUFFIX))
+                .sorted()
+                .toList();
+        }
+    }
+
+    private static Entry parseEntry(JsonNode node) {
+        List<ZerodhaInstrument> instruments = new ArrayList<>();
+        for (JsonNode instrument : node.path("instruments")) {
+            instruments.add(fromNode(instrument));
+        }
+        return new Entry(
+            node.path("ts").asLong(),
+            node.path("kind").asText(),
+            node.path("underlying").asText(),
+            instruments,
+            node.path("payload").asText());
+    }
+
+    /**
+     * One journal record.
+     */
+    public static class Entry {
+        public final long timestampMillis;
+        public final String kind;
+        public final String underlying;
+        public final List<ZerodhaInstrument> instruments;
+        public final String payload;
+
+        public Entry(long timestampMillis, String kind, String underlying,
+                     List<ZerodhaInstrument> instruments, String payload) {
+            this.timestampMillis = timestampMillis;
+            this.kind = kind;
+            this.underlying = underlying;
+            this.instruments = instruments;
+            this.payload = payload;
+        }
+    }
+}
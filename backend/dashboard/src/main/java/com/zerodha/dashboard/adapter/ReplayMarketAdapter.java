@@ -0,0 +1,266 @@
+package com.zerodha.dashboard.adapter;
+
+import com.zerodha.dashboard.model.DerivativeContract;
+import com.zerodha.dashboard.model.DerivativesChain;
+import com.zerodha.dashboard.service.DynamicCacheUpdateScheduler;
+import com.zerodha.dashboard.service.EventTimeMarketClock;
+import com.zerodha.dashboard.service.MarketClock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Replays a {@link MarketDataJournal} through the live processing pipeline.
+ *
+ * Journaled raw responses are parsed with the same code paths as live polling
+ * ({@link ZerodhaApiAdapter}) and handed to {@link DynamicCacheUpdateScheduler#processChain},
+ * so caches and all independent metric services see exactly what they saw in production.
+ *
+ * Chain boundaries: a SPOT record starts a new chain (live polling always fetches spot first),
+ * FUTURES/OPTIONS records that follow are added to it. Quote records with no preceding spot are skipped.
+ *
+ * Speed: 1.0 = recorded pace, N = N times faster, <= 0 = as fast as possible (throughput benchmark).
+ * Replay should run with zerodha.enabled=false so live polling does not interleave with replayed chains,
+ * and with market.clock.mode=event so windows roll over at recorded market pace even when replaying faster than 1x.
+ */
+@Component
+public class ReplayMarketAdapter {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplayMarketAdapter.class);
+    private static final String DATA_SOURCE = "REPLAY";
+
+    private final ZerodhaApiAdapter zerodhaApiAdapter;
+    private final DynamicCacheUpdateScheduler dynamicCacheUpdateScheduler;
+    private final MarketClock marketClock;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile boolean stopRequested = false;
+    private volatile Thread replayThread;
+    private volatile ReplayStats lastStats;
+
+    public ReplayMarketAdapter(ZerodhaApiAdapter zerodhaApiAdapter,
+                               DynamicCacheUpdateScheduler dynamicCacheUpdateScheduler,
+                               MarketClock marketClock) {
+        this.zerodhaApiAdapter = zerodhaApiAdapter;
+        this.dynamicCacheUpdateScheduler = dynamicCacheUpdateScheduler;
+        this.marketClock = marketClock;
+    }
+
+    /**
+     * Start a replay on a dedicated thread.
+     *
+     * @return false if a replay is already running
+     */
+    public boolean startAsync(Path source, double speed) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        stopRequested = false;
+        Thread thread = new Thread(() -> {
+            try {
+                runReplay(source, speed);
+            } catch (Exception e) {
+                log.error("Market replay of {} failed: {}", source, e.getMessage(), e);
+            } finally {
+                running.set(false);
+                replayThread = null;
+            }
+        }, "market-replay");
+        thread.setDaemon(true);
+        replayThread = thread;
+        thread.start();
+        return true;
+    }
+
+    /**
+     * Replay synchronously on the calling thread.
+     */
+    public ReplayStats replay(Path source, double speed) throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A market replay is already running");
+        }
+        stopRequested = false;
+        try {
+            return runReplay(source, speed);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopRequested = true;
+        Thread thread = replayThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public ReplayStats getLastStats() {
+        return lastStats;
+    }
+
+    private ReplayStats runReplay(Path source, double speed) throws IOException {
+        log.info("Starting market replay of {} at {}", source, speed > 0 ? speed + "x" : "max speed");
+        if (marketClock instanceof EventTimeMarketClock eventClock) {
+            // Event time is monotonic - start over so an earlier session can be replayed
+            eventClock.reset();
+        }
+        ReplayState state = new ReplayState(speed);
+
+        long records = MarketDataJournal.read(source, state::accept, () -> stopRequested);
+        if (!stopRequested) {
+            state.flush();
+        }
+
+        long recordedSpan = state.firstChainTs < 0 ? 0 : state.lastChainTs - state.firstChainTs;
+        ReplayStats stats = new ReplayStats(records, state.chainsEmitted, state.recordsSkipped,
+            recordedSpan, System.currentTimeMillis() - state.wallStart, speed, stopRequested);
+        lastStats = stats;
+        log.info("Market replay finished: {} records, {} chains, recorded span {}ms, replayed in {}ms ({} chains/s){}",
+            stats.records, stats.chains, stats.recordedSpanMillis, stats.elapsedMillis,
+            String.format("%.1f", stats.getChainsPerSecond()), stats.stopped ? " - stopped early" : "");
+        return stats;
+    }
+
+    /**
+     * Builds chains from consecutive journal records and paces their emission.
+     */
+    private class ReplayState {
+        private final double speed;
+        private final long wallStart = System.currentTimeMillis();
+        private DerivativesChain pending;
+        private long pendingTs;
+        private long firstChainTs = -1;
+        private long lastChainTs = 0;
+        private long chainsEmitted = 0;
+        private long recordsSkipped = 0;
+
+        ReplayState(double speed) {
+            this.speed = speed;
+        }
+
+        void accept(MarketDataJournal.Entry entry) {
+            switch (entry.kind) {
+                case MarketDataJournal.KIND_SPOT -> {
+                    flush();
+                    Optional<BigDecimal> spot = zerodhaApiAdapter.parseSpotPrice(entry.payload, entry.underlying);
+                    if (spot.isEmpty()) {
+                        recordsSkipped++;
+                        return;
+                    }
+                    pending = new DerivativesChain(entry.underlying, spot.get());
+                    pending.setDailyStrikePrice(spot.get());
+                    pending.setTimestamp(Instant.ofEpochMilli(entry.timestampMillis));
+                    pending.setDataSource(DATA_SOURCE);
+                    pendingTs = entry.timestampMillis;
+                }
+                case MarketDataJournal.KIND_FUTURES -> {
+                    if (pending == null) {
+                        recordsSkipped++;
+                        return;
+                    }
+                    zerodhaApiAdapter.parseFuturesQuotes(entry.payload, entry.instruments, pending);
+                }
+                case MarketDataJournal.KIND_OPTIONS -> {
+                    if (pending == null) {
+                        recordsSkipped++;
+                        return;
+                    }
+                    zerodhaApiAdapter.parseOptionChainQuotes(entry.payload, entry.instruments, pending);
+                }
+                default -> recordsSkipped++;
+            }
+        }
+
+        void flush() {
+            if (pending == null) {
+                return;
+            }
+            DerivativesChain chain = pending;
+            pending = null;
+
+            if (chain.getTotalContracts() == 0) {
+                return;
+            }
+            pace(pendingTs);
+            stampRecordedTime(chain, pendingTs);
+            dynamicCacheUpdateScheduler.processChain(chain);
+            chainsEmitted++;
+        }
+
+        private void pace(long recordedTs) {
+            if (firstChainTs < 0) {
+                firstChainTs = recordedTs;
+            }
+            lastChainTs = recordedTs;
+            if (speed <= 0) {
+                return;
+            }
+            long target = wallStart + (long) ((recordedTs - firstChainTs) / speed);
+            long sleepMs = target - System.currentTimeMillis();
+            if (sleepMs > 0) {
+                try {
+                    Thread.sleep(sleepMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    stopRequested = true;
+                }
+            }
+        }
+
+        private void stampRecordedTime(DerivativesChain chain, long recordedTs) {
+            // Parsers stamp contracts with parse time - restore the time the quote was received
+            Instant recorded = Instant.ofEpochMilli(recordedTs);
+            List<DerivativeContract> all = new ArrayList<>(chain.getTotalContracts());
+            all.addAll(chain.getFutures());
+            all.addAll(chain.getCallOptions());
+            all.addAll(chain.getPutOptions());
+            for (DerivativeContract contract : all) {
+                contract.setTimestamp(recorded);
+            }
+        }
+    }
+
+    /**
+     * Summary of a replay run.
+     */
+    public static class ReplayStats {
+        public final long records;
+        public final long chains;
+        public final long recordsSkipped;
+        public final long recordedSpanMillis;
+        public final long elapsedMillis;
+        public final double speed;
+        public final boolean stopped;
+
+        public ReplayStats(long records, long chains, long recordsSkipped, long recordedSpanMillis,
+                           long elapsedMillis, double speed, boolean stopped) {
+            this.records = records;
+            this.chains = chains;
+            this.recordsSkipped = recordsSkipped;
+            this.recordedSpanMillis = recordedSpanMillis;
+            this.elapsedMillis = elapsedMillis;
+            this.speed = speed;
+            this.stopped = stopped;
+        }
+
+        public double getChainsPerSecond() {
+            return elapsedMillis > 0 ? chains * 1000.0 / elapsedMillis : chains;
+        }
+    }
+}
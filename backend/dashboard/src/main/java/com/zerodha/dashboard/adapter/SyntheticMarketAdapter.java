@@ -0,0 +1,156 @@
+package com.zerodha.dashboard.adapter;
+
+import com.zerodha.dashboard.model.DerivativeContract;
+import com.zerodha.dashboard.model.DerivativesChain;
+import com.zerodha.dashboard.model.TickSnapshot;
+import com.zerodha.dashboard.service.DynamicCacheUpdateScheduler;
+import com.zerodha.dashboard.service.MarketClock;
+import com.zerodha.dashboard.service.SyntheticMarketGenerator;
+import com.zerodha.dashboard.service.WallMarketClock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link MarketAdapter} backed by {@link SyntheticMarketGenerator} - a Kite-free feed for stress testing.
+ *
+ * Enabled with market.source=synthetic (keep zerodha.enabled=false). Every synthetic.chain.interval.ms
+ * one chain per configured underlying is generated and pushed through
+ * {@link DynamicCacheUpdateScheduler#processChain}, the same path as a live API poll.
+ *
+ * Saturation: when processing a round of chains takes longer than the interval, rounds are
+ * skipped (fixed-rate scheduling never overlaps) and counted in {@link #getStats()}.
+ *
+ * Chains are stamped from the adapter's own wall clock, not the application {@link MarketClock}:
+ * the feed is the source of market time, so with market.clock.mode=event the event clock
+ * follows the generated timestamps instead of freezing them.
+ */
+@Component
+public class SyntheticMarketAdapter implements MarketAdapter {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticMarketAdapter.class);
+    private static final String SOURCE_SYNTHETIC = "synthetic";
+
+    private final SyntheticMarketGenerator generator;
+    private final DynamicCacheUpdateScheduler dynamicCacheUpdateScheduler;
+    private final TaskScheduler taskScheduler;
+    private final MarketClock feedClock = new WallMarketClock();
+
+    @Value("${market.source:zerodha}")
+    private String marketSource;
+
+    @Value("${synthetic.chain.interval.ms:1000}")
+    private long chainIntervalMs;
+
+    private ScheduledFuture<?> scheduledTask;
+
+    // Throughput statistics
+    private final AtomicLong chainsEmitted = new AtomicLong();
+    private final AtomicLong contractsEmitted = new AtomicLong();
+    private final AtomicLong totalProcessingNanos = new AtomicLong();
+    private final AtomicLong maxRoundMillis = new AtomicLong();
+    private final AtomicLong overrunRounds = new AtomicLong();
+
+    public SyntheticMarketAdapter(SyntheticMarketGenerator generator,
+                                  DynamicCacheUpdateScheduler dynamicCacheUpdateScheduler,
+                                  TaskScheduler taskScheduler) {
+        this.generator = generator;
+        this.dynamicCacheUpdateScheduler = dynamicCacheUpdateScheduler;
+        this.taskScheduler = taskScheduler;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!SOURCE_SYNTHETIC.equalsIgnoreCase(marketSource)) {
+            return;
+        }
+        scheduledTask = taskScheduler.scheduleAtFixedRate(this::emitRound, Duration.ofMillis(chainIntervalMs));
+        log.info("Synthetic market feed started: {} underlyings, {} contracts, chain interval {}ms",
+            generator.getUnderlyings().size(), generator.getContractCount(), chainIntervalMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduledTask != null) {
+            scheduledTask.cancel(false);
+            scheduledTask = null;
+        }
+    }
+
+    /**
+     * Generate and process one chain for every synthetic underlying.
+     */
+    void emitRound() {
+        long start = System.nanoTime();
+        for (String underlying : generator.getUnderlyings()) {
+            fetchAndEmitSnapshots(underlying);
+        }
+        long roundMillis = (System.nanoTime() - start) / 1_000_000;
+        maxRoundMillis.accumulateAndGet(roundMillis, Math::max);
+        if (roundMillis > chainIntervalMs) {
+            overrunRounds.incrementAndGet();
+            log.warn("Synthetic round took {}ms, longer than the {}ms interval - pipeline is saturated",
+                roundMillis, chainIntervalMs);
+        }
+    }
+
+    @Override
+    public void fetchAndEmitSnapshots(String symbol) {
+        try {
+            DerivativesChain chain = generator.nextChain(symbol, feedClock.now());
+            if (chain == null) {
+                log.debug("Unknown synthetic underlying {}", symbol);
+                return;
+            }
+            long start = System.nanoTime();
+            dynamicCacheUpdateScheduler.processChain(chain);
+            totalProcessingNanos.addAndGet(System.nanoTime() - start);
+            chainsEmitted.incrementAndGet();
+            contractsEmitted.addAndGet(chain.getTotalContracts());
+        } catch (Exception e) {
+            log.error("Error emitting synthetic chain for {}: {}", symbol, e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Optional<TickSnapshot> getQuote(String symbol) {
+        Instant now = feedClock.now();
+        DerivativeContract contract = generator.getContract(symbol, now);
+        if (contract == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new TickSnapshot(contract.getInstrumentToken(), contract.getTradingsymbol(),
+            contract.getLastPrice(), contract.getVolume(), contract.getSegment(), now));
+    }
+
+    public Map<String, Object> getStats() {
+        long chains = chainsEmitted.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", scheduledTask != null);
+        stats.put("chainIntervalMs", chainIntervalMs);
+        // Reading the books would build them - only once the feed has used them
+        boolean built = generator.isInitialised();
+        stats.put("underlyings", built ? generator.getUnderlyings() : List.of());
+        stats.put("contracts", built ? generator.getContractCount() : 0);
+        stats.put("ticksGenerated", generator.getTicksGenerated());
+        stats.put("chainsEmitted", chains);
+        stats.put("contractsEmitted", contractsEmitted.get());
+        stats.put("avgChainProcessingMs", chains > 0 ? totalProcessingNanos.get() / 1e6 / chains : 0.0);
+        stats.put("maxRoundMs", maxRoundMillis.get());
+        stats.put("overrunRounds", overrunRounds.get());
+        return stats;
+    }
+}
@@ -2,6 +2,7 @@ package com.zerodha.dashboard.adapter;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zerodha.dashboard.constants.UnderlyingConstants;
 import com.zerodha.dashboard.model.DerivativeContract;
 import com.zerodha.dashboard.model.DerivativesChain;
 import com.zerodha.dashboard.model.TickSnapshot;
@@ -12,14 +13,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.net.HttpURLConnection;
-import java.net.URI;
-import java.net.URL;
+import java.net.http.HttpResponse;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
@@ -53,9 +50,16 @@ public class ZerodhaApiAdapter {
     private String apiKey;
 
     private final ZerodhaSessionService zerodhaSessionService;
+    private final MarketDataJournal marketDataJournal; // Raw response recorder for replay/backtesting
+    private final KiteRateLimiter kiteRateLimiter; // Shared request budget across all underlyings
+    private final KiteHttpClient kiteHttpClient; // Shared client with connect/request timeouts (awaited in line)
 
-    public ZerodhaApiAdapter(ZerodhaSessionService zerodhaSessionService) {
+    public ZerodhaApiAdapter(ZerodhaSessionService zerodhaSessionService, MarketDataJournal marketDataJournal,
+                             KiteRateLimiter kiteRateLimiter, KiteHttpClient kiteHttpClient) {
         this.zerodhaSessionService = zerodhaSessionService;
+        this.marketDataJournal = marketDataJournal;
+        this.kiteRateLimiter = kiteRateLimiter;
+        this.kiteHttpClient = kiteHttpClient;
     }
     
     // Zerodha Kite API endpoints
@@ -72,6 +76,10 @@ public class ZerodhaApiAdapter {
      * Get spot price for underlying from Zerodha Kite API
      */
     public Optional<BigDecimal> getSpotPrice(String underlying) {
+        return fetchSpotPrice(underlying, false);
+    }
+    
+    private Optional<BigDecimal> fetchSpotPrice(String underlying, boolean journal) {
         if (!zerodhaEnabled || apiKey.isEmpty()) {
             log.warn("Zerodha API is disabled or API key missing, cannot fetch spot price");
             return Optional.empty();
@@ -88,6 +96,9 @@ public class ZerodhaApiAdapter {
             
             String response = makeZerodhaApiCall(accessTokenOpt.get(), QUOTES_URL, createSpotPricePayload(underlying));
             if (response != null && !response.isEmpty()) {
+                if (journal) {
+                    marketDataJournal.recordSpot(underlying, response);
+                }
                 return parseSpotPrice(response, underlying);
             }
             
@@ -102,20 +113,37 @@ public class ZerodhaApiAdapter {
      * Get derivatives chain using Zerodha Kite API with automatic spot price fetching
      */
     public Optional<DerivativesChain> getDerivativesChain(String underlying) {
+        return fetchDerivativesChain(underlying, false);
+    }
+    
+    /**
+     * Derivatives chain for a scheduled poll. Only these fetches are written to the market
+     * journal, so a replay holds the polled chains and none of the ad-hoc (request, health
+     * check) fetches made in between.
+     */
+    public Optional<DerivativesChain> pollDerivativesChain(String underlying) {
+        return fetchDerivativesChain(underlying, true);
+    }
+    
+    private Optional<DerivativesChain> fetchDerivativesChain(String underlying, boolean journal) {
         // First get spot price from Zerodha Kite API
-        Optional<BigDecimal> spotPriceOpt = getSpotPrice(underlying);
+        Optional<BigDecimal> spotPriceOpt = fetchSpotPrice(underlying, journal);
         if (!spotPriceOpt.isPresent()) {
             log.warn("Could not fetch spot price for {}, skipping derivatives chain build", underlying);
             return Optional.empty();
         }
 
-        return getDerivativesChain(underlying, spotPriceOpt.get());
+        return fetchDerivativesChain(underlying, spotPriceOpt.get(), journal);
     }
     
     /**
      * Get derivatives chain using Zerodha Kite API with provided spot price
      */
     public Optional<DerivativesChain> getDerivativesChain(String underlying, BigDecimal spotPrice) {
+        return fetchDerivativesChain(underlying, spotPrice, false);
+    }
+    
+    private Optional<DerivativesChain> fetchDerivativesChain(String underlying, BigDecimal spotPrice, boolean journal) {
         if (!zerodhaEnabled || apiKey.isEmpty()) {
             log.warn("Zerodha API is disabled or API key missing, returning empty chain");
             return Optional.empty();
@@ -139,7 +167,7 @@ public class ZerodhaApiAdapter {
             chain.setDataSource("ZERODHA_KITE");
             
             // Fetch futures data first to establish a reference price
-            boolean futuresSuccess = fetchFuturesData(chain, underlying, accessToken);
+            boolean futuresSuccess = fetchFuturesData(chain, underlying, accessToken, journal);
             if (!futuresSuccess) {
                 log.warn("Failed to fetch futures from Zerodha Kite API");
             }
@@ -157,7 +185,7 @@ public class ZerodhaApiAdapter {
             }
 
             // Fetch option chain data using the reference price to focus on relevant strikes
-            boolean optionsSuccess = fetchOptionChainData(chain, underlying, referencePrice, accessToken);
+            boolean optionsSuccess = fetchOptionChainData(chain, underlying, referencePrice, accessToken, journal);
             if (!optionsSuccess) {
                 log.warn("Failed to fetch option chain from Zerodha Kite API");
             }
@@ -208,12 +236,13 @@ public class ZerodhaApiAdapter {
         return Optional.empty();
     }
     
-    private boolean fetchOptionChainData(DerivativesChain chain, String underlying, BigDecimal referencePrice, String accessToken) {
+    private boolean fetchOptionChainData(DerivativesChain chain, String underlying, BigDecimal referencePrice, String accessToken,
+                                         boolean journal) {
         try {
             log.info("Fetching option chain data from Zerodha Kite API for {}", underlying);
             
             // Get NIFTY option instruments
-            List<ZerodhaInstrument> optionInstruments = getNiftyOptionInstruments(underlying, referencePrice, accessToken);
+            List<ZerodhaInstrument> optionInstruments = getOptionInstruments(underlying, referencePrice, accessToken);
             if (optionInstruments.isEmpty()) {
                 log.warn("No option instruments found for {}", underlying);
                 return false;
@@ -236,6 +265,11 @@ public class ZerodhaApiAdapter {
                 String quoteResponse = fetchQuotes(batch, accessToken);
                 
                 if (quoteResponse != null && !quoteResponse.isEmpty()) {
+                    if (journal) {
+                        // tokens were built from optionInstruments in order, so the sublists line up
+                        marketDataJournal.recordQuotes(MarketDataJournal.KIND_OPTIONS, underlying,
+                            optionInstruments.subList(i, Math.min(i + batchSize, optionInstruments.size())), quoteResponse);
+                    }
                     parseOptionChainQuotes(quoteResponse, optionInstruments, chain);
                     hasData = true;
                 }
@@ -249,12 +283,12 @@ public class ZerodhaApiAdapter {
         return false;
     }
     
-    private boolean fetchFuturesData(DerivativesChain chain, String underlying, String accessToken) {
+    private boolean fetchFuturesData(DerivativesChain chain, String underlying, String accessToken, boolean journal) {
         try {
             log.info("Fetching futures data from Zerodha Kite API for {}", underlying);
             
             // Get NIFTY futures instruments
-            List<ZerodhaInstrument> futuresInstruments = getNiftyFuturesInstruments(underlying, accessToken);
+            List<ZerodhaInstrument> futuresInstruments = getFuturesInstruments(underlying, accessToken);
             if (futuresInstruments.isEmpty()) {
                 log.warn("No futures instruments found for {}", underlying);
                 return false;
@@ -271,6 +305,9 @@ public class ZerodhaApiAdapter {
             String quoteResponse = fetchQuotes(tokens, accessToken);
             
             if (quoteResponse != null && !quoteResponse.isEmpty()) {
+                if (journal) {
+                    marketDataJournal.recordQuotes(MarketDataJournal.KIND_FUTURES, underlying, futuresInstruments, quoteResponse);
+                }
                 parseFuturesQuotes(quoteResponse, futuresInstruments, chain);
                 return chain.getFutures().size() > 0;
             }
@@ -293,31 +330,19 @@ public class ZerodhaApiAdapter {
                 fullUrl += "?" + queryParams;
             }
             
-            URL url = URI.create(fullUrl).toURL();
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            // Every Kite call draws from the same budget, whichever underlying it is for
+            kiteRateLimiter.acquire();
             
-            // Set headers for Zerodha Kite API
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("X-Kite-Version", "3");
-            connection.setRequestProperty("Authorization", "token " + apiKey + ":" + accessToken);
+            HttpResponse<String> response = kiteHttpClient.await(kiteHttpClient.getAsync(fullUrl, Map.of(
+                "X-Kite-Version", "3",
+                "Authorization", "token " + apiKey + ":" + accessToken)));
             
-            connection.setConnectTimeout(30000);
-            connection.setReadTimeout(30000);
-            
-            int responseCode = connection.getResponseCode();
+            int responseCode = response.statusCode();
             log.debug("Zerodha Kite API response code: {} for URL: {}", responseCode, fullUrl);
             
             if (responseCode == 200) {
-                BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                StringBuilder response = new StringBuilder();
-                String line;
-                
-                while ((line = reader.readLine()) != null) {
-                    response.append(line).append("\n");
-                }
-                reader.close();
-                
-                String responseStr = response.toString().trim();
+                // Line endings normalized as before (the instruments CSV is split on \n)
+                String responseStr = response.body().replace("\r\n", "\n").trim();
                 log.debug("Zerodha Kite API response length: {}", responseStr.length());
                 log.debug("Zerodha Kite API response (first 500 chars): {}", responseStr.length() > 500 ? responseStr.substring(0, 500) : responseStr);
                 
@@ -343,16 +368,7 @@ public class ZerodhaApiAdapter {
                 
                 return responseStr;
             } else {
-                // Read error response
-                BufferedReader errorReader = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
-                StringBuilder errorResponse = new StringBuilder();
-                String line;
-                while ((line = errorReader.readLine()) != null) {
-                    errorResponse.append(line);
-                }
-                errorReader.close();
-                
-                log.warn("Zerodha Kite API returned error code: {} with response: {}", responseCode, errorResponse.toString());
+                log.warn("Zerodha Kite API returned error code: {} with response: {}", responseCode, response.body());
                 if (responseCode == 401 || responseCode == 403) {
                     log.warn("Zerodha responded with authentication error ({}). Clearing cached session.", responseCode);
                     zerodhaSessionService.clearSession();
@@ -468,27 +484,27 @@ public class ZerodhaApiAdapter {
      * Get NIFTY option instruments (CE and PE)
      * Dynamic filtering: Get options for current month, if empty get next month
      */
-    private List<ZerodhaInstrument> getNiftyOptionInstruments(String underlying, BigDecimal referencePrice, String accessToken) throws IOException {
+    private List<ZerodhaInstrument> getOptionInstruments(String underlying, BigDecimal referencePrice, String accessToken) throws IOException {
         List<ZerodhaInstrument> allInstruments = getInstruments("NFO", accessToken);
         LocalDate today = LocalDate.now();
 
-        List<ZerodhaInstrument> niftyOptions = allInstruments.stream()
+        List<ZerodhaInstrument> underlyingOptions = allInstruments.stream()
             .filter(i -> {
                 String symbol = i.getTradingsymbol();
                 if (symbol == null) return false;
-                boolean isNifty = symbol.startsWith(underlying.toUpperCase());
+                boolean isUnderlying = matchesUnderlying(i, underlying);
                 boolean isOption = "CE".equalsIgnoreCase(i.getInstrumentType()) || "PE".equalsIgnoreCase(i.getInstrumentType());
-                return isNifty && isOption && i.getExpiry() != null && !i.getExpiry().isBefore(today);
+                return isUnderlying && isOption && i.getExpiry() != null && !i.getExpiry().isBefore(today);
             })
             .collect(Collectors.toList());
 
-        if (niftyOptions.isEmpty()) {
+        if (underlyingOptions.isEmpty()) {
             log.warn("No NIFTY options found for {}", underlying);
             return Collections.emptyList();
         }
 
         // Focus on the nearest upcoming expiry (weekly)
-        Optional<LocalDate> nearestExpiryOpt = niftyOptions.stream()
+        Optional<LocalDate> nearestExpiryOpt = underlyingOptions.stream()
             .map(ZerodhaInstrument::getExpiry)
             .filter(Objects::nonNull)
             .filter(expiry -> !expiry.isBefore(today))
@@ -496,10 +512,10 @@ public class ZerodhaApiAdapter {
 
         if (nearestExpiryOpt.isPresent()) {
             LocalDate nearestExpiry = nearestExpiryOpt.get();
-            niftyOptions = niftyOptions.stream()
+            underlyingOptions = underlyingOptions.stream()
                 .filter(i -> nearestExpiry.equals(i.getExpiry()))
                 .collect(Collectors.toList());
-            log.info("Selected {} instruments for nearest expiry {}", niftyOptions.size(), nearestExpiry);
+            log.info("Selected {} instruments for nearest expiry {}", underlyingOptions.size(), nearestExpiry);
         } else {
             log.warn("Unable to determine nearest weekly expiry, retaining full option list");
         }
@@ -507,7 +523,7 @@ public class ZerodhaApiAdapter {
         if (referencePrice != null && referencePrice.compareTo(BigDecimal.ZERO) > 0) {
             double ref = referencePrice.doubleValue();
 
-            List<ZerodhaInstrument> sorted = niftyOptions.stream()
+            List<ZerodhaInstrument> sorted = underlyingOptions.stream()
                 .sorted(Comparator.comparingDouble(ZerodhaInstrument::getStrike))
                 .collect(Collectors.toList());
 
@@ -539,7 +555,7 @@ public class ZerodhaApiAdapter {
             }
         }
 
-        List<ZerodhaInstrument> fallback = niftyOptions.stream()
+        List<ZerodhaInstrument> fallback = underlyingOptions.stream()
             .sorted(Comparator.comparingDouble(ZerodhaInstrument::getStrike))
             .limit(400)
             .collect(Collectors.toList());
@@ -550,7 +566,7 @@ public class ZerodhaApiAdapter {
     /**
      * Get NIFTY futures instruments
      */
-    private List<ZerodhaInstrument> getNiftyFuturesInstruments(String underlying, String accessToken) throws IOException {
+    private List<ZerodhaInstrument> getFuturesInstruments(String underlying, String accessToken) throws IOException {
         List<ZerodhaInstrument> allInstruments = getInstruments("NFO", accessToken);
         LocalDate today = LocalDate.now();
         
@@ -562,19 +578,32 @@ public class ZerodhaApiAdapter {
                 String symbol = i.getTradingsymbol();
                 if (symbol == null) return false;
                 
-                boolean isNifty = symbol.startsWith(underlying.toUpperCase());
+                boolean isUnderlying = matchesUnderlying(i, underlying);
                 boolean isFutures = "FUT".equals(i.getInstrumentType());
                 boolean isCurrentExpiry = i.getExpiry() != null && 
                     (i.getExpiry().equals(currentMonthExpiry) || 
                      i.getExpiry().isAfter(today) && i.getExpiry().isBefore(currentMonthExpiry.plusMonths(2)));
                 
-                return isNifty && isFutures && isCurrentExpiry;
+                return isUnderlying && isFutures && isCurrentExpiry;
             })
             .sorted(Comparator.comparing(ZerodhaInstrument::getExpiry))
             .limit(10) // Limit to next few expiries
             .collect(Collectors.toList());
     }
     
+    /**
+     * Match an NFO instrument to an underlying by its instrument name ("NIFTY", "BANKNIFTY", "RELIANCE").
+     * A tradingsymbol prefix alone is ambiguous - "NIFTY" is also a prefix of "NIFTYNXT50" contracts -
+     * so the prefix is only used when the instruments dump has no name column.
+     */
+    private boolean matchesUnderlying(ZerodhaInstrument instrument, String underlying) {
+        String normalized = UnderlyingConstants.normalize(underlying);
+        if (StringUtils.hasText(instrument.getName())) {
+            return normalized.equalsIgnoreCase(instrument.getName().trim());
+        }
+        return instrument.getTradingsymbol().startsWith(normalized);
+    }
+    
     /**
      * Get current month expiry (typically last Thursday)
      * NOTE: This is used for futures, not options (options are weekly)
@@ -621,30 +650,25 @@ public class ZerodhaApiAdapter {
     
     private String createSpotPricePayload(String underlying) {
         // CRITICAL FIX: Zerodha quote API works with tradingsymbol, not just token
-        // For NIFTY index, use tradingsymbol "NIFTY 50" instead of token
-        if ("NIFTY".equalsIgnoreCase(underlying)) {
-            return "i=NSE:NIFTY%2050";  // URL encoded "NIFTY 50"
-        }
-        // For other underlyings, try to construct from symbol
-        return "i=NSE:" + URLEncoder.encode(underlying, StandardCharsets.UTF_8);
+        // Indices are quoted by index name ("NIFTY 50", "NIFTY BANK", ...), stocks by their own symbol
+        // URLEncoder encodes spaces as '+', Kite expects %20
+        return "i=NSE:" + URLEncoder.encode(UnderlyingConstants.spotSymbol(underlying), StandardCharsets.UTF_8)
+            .replace("+", "%20");
     }
     
     private String createQuotePayload(String symbol) {
         return "i=NSE:" + symbol;
     }
     
-    private Optional<BigDecimal> parseSpotPrice(String jsonResponse, String underlying) {
+    // Package-private: also used by ReplayMarketAdapter to parse journaled responses
+    Optional<BigDecimal> parseSpotPrice(String jsonResponse, String underlying) {
         try {
             JsonNode root = mapper.readTree(jsonResponse);
             JsonNode dataNode = root.path("data");
             
             // CRITICAL FIX: Response key is tradingsymbol format, not token
             // For NIFTY, the key is "NSE:NIFTY 50" not "NSE:256265"
-            String symbolKey = "NSE:NIFTY 50"; // NIFTY index tradingsymbol
-            if (!"NIFTY".equalsIgnoreCase(underlying)) {
-                // For other underlyings, try to find by symbol
-                symbolKey = "NSE:" + underlying;
-            }
+            String symbolKey = "NSE:" + UnderlyingConstants.spotSymbol(underlying);
             
             // Try symbol key first
             if (dataNode.has(symbolKey)) {
@@ -709,7 +733,7 @@ public class ZerodhaApiAdapter {
     /**
      * Parse option chain quotes and populate derivatives chain
      */
-    private void parseOptionChainQuotes(String jsonResponse, List<ZerodhaInstrument> instruments, DerivativesChain chain) {
+    void parseOptionChainQuotes(String jsonResponse, List<ZerodhaInstrument> instruments, DerivativesChain chain) {
         try {
             JsonNode root = mapper.readTree(jsonResponse);
             JsonNode dataNode = root.path("data");
@@ -853,7 +877,7 @@ public class ZerodhaApiAdapter {
     /**
      * Parse futures quotes and populate derivatives chain
      */
-    private void parseFuturesQuotes(String jsonResponse, List<ZerodhaInstrument> instruments, DerivativesChain chain) {
+    void parseFuturesQuotes(String jsonResponse, List<ZerodhaInstrument> instruments, DerivativesChain chain) {
         try {
             JsonNode root = mapper.readTree(jsonResponse);
             JsonNode dataNode = root.path("data");
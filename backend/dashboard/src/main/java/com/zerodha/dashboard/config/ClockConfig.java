@@ -0,0 +1,31 @@
+package com.zerodha.dashboard.config;
+
+import com.zerodha.dashboard.service.EventTimeMarketClock;
+import com.zerodha.dashboard.service.MarketClock;
+import com.zerodha.dashboard.service.WallMarketClock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selects the time source for window and metric engines.
+ *
+ * market.clock.mode=wall (default) - live polling, windows follow wall-clock time
+ * market.clock.mode=event - replay/backtest, windows follow quote timestamps
+ */
+@Configuration
+public class ClockConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ClockConfig.class);
+
+    @Bean
+    public MarketClock marketClock(@Value("${market.clock.mode:wall}") String mode) {
+        if ("event".equalsIgnoreCase(mode)) {
+            log.info("Using event-time market clock (windows follow quote timestamps)");
+            return new EventTimeMarketClock();
+        }
+        return new WallMarketClock();
+    }
+}
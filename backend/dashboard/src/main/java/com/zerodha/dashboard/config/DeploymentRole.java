@@ -0,0 +1,46 @@
+package com.zerodha.dashboard.config;
+
+/**
+ * What this instance does in a (possibly split) deployment - dashboard.role.
+ *
+ * STANDALONE (default) - polls Kite, computes metrics and serves HTTP, no replication
+ * INGEST - polls Kite and computes metrics like STANDALONE, and publishes every cache update
+ * SERVE - never polls; keeps an in-memory replica from the ingest node's publications
+ */
+public enum DeploymentRole {
+    STANDALONE,
+    INGEST,
+    SERVE;
+
+    public static DeploymentRole parse(String value) {
+        if (value == null || value.isBlank()) {
+            return STANDALONE;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown dashboard.role '" + value + "' (expected standalone, ingest or serve)");
+        }
+    }
+
+    /**
+     * Whether this instance polls Kite and runs the metric engines.
+     */
+    public boolean polls() {
+        return this != SERVE;
+    }
+
+    /**
+     * Whether cache updates are published for serve nodes.
+     */
+    public boolean publishes() {
+        return this == INGEST;
+    }
+
+    /**
+     * Whether this instance consumes published updates.
+     */
+    public boolean replicates() {
+        return this == SERVE;
+    }
+}
@@ -0,0 +1,85 @@
+package com.zerodha.dashboard.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps how many requests that call Kite live (real-derivatives, debug-derivatives, the API health
+ * check, Zerodha login) run at once. Past web.live.max.concurrent, such requests get 503
+ * with Retry-After right away instead of queueing, so a Kite slowdown can only ever occupy
+ * that many request threads and cached endpoints (/api/latest, /api/basic, metrics, chain
+ * rows, strike monitoring) keep being served.
+ */
+@Component
+public class LiveRequestLimiter implements HandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveRequestLimiter.class);
+
+    /** Endpoints that may call Kite on the request thread */
+    public static final List<String> LIVE_PATHS = List.of(
+            "/api/real-derivatives/**",
+            "/api/debug-derivatives",
+            "/api/health",
+            "/api/zerodha/callback");
+
+    private static final String PERMIT_ATTRIBUTE = LiveRequestLimiter.class.getName() + ".permit";
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public LiveRequestLimiter(@Value("${web.live.max.concurrent:4}") int maxConcurrent) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.permits = new Semaphore(this.maxConcurrent);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            return true; // async re-dispatch of a request that already holds a permit
+        }
+        if (!permits.tryAcquire()) {
+            long count = rejected.incrementAndGet();
+            if (count == 1 || count % 100 == 0) {
+                log.warn("Live request limit ({}) reached - rejected {} request(s) so far, latest {}",
+                        maxConcurrent, count, request.getRequestURI());
+            }
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"LIVE_CAPACITY_EXCEEDED\","
+                    + "\"message\":\"Too many live Kite requests in flight - retry shortly or use /api/latest\"}");
+            return false;
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permits.release();
+        }
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+}
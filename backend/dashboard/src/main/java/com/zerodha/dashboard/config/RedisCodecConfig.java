@@ -0,0 +1,49 @@
+package com.zerodha.dashboard.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zerodha.dashboard.service.BinaryPayloadCodec;
+import com.zerodha.dashboard.service.JsonPayloadCodec;
+import com.zerodha.dashboard.service.PayloadCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+/**
+ * Redis payload encoding.
+ *
+ * Cache services store codec bytes through a byte-array RedisTemplate (string keys, raw values).
+ * redis.payload.codec selects the codec: binary (default) or json.
+ */
+@Configuration
+public class RedisCodecConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisCodecConfig.class);
+
+    @Bean
+    public PayloadCodec payloadCodec(
+            ObjectMapper objectMapper,
+            @Value("${redis.payload.codec:binary}") String codec) {
+        PayloadCodec payloadCodec = JsonPayloadCodec.NAME.equalsIgnoreCase(codec != null ? codec.trim() : "")
+            ? new JsonPayloadCodec(objectMapper)
+            : new BinaryPayloadCodec(objectMapper);
+        log.info("Redis payload codec: {}", payloadCodec.getName());
+        return payloadCodec;
+    }
+
+    @Bean
+    public RedisTemplate<String, byte[]> payloadRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(StringRedisSerializer.UTF_8);
+        template.setHashKeySerializer(StringRedisSerializer.UTF_8);
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.setHashValueSerializer(RedisSerializer.byteArray());
+        return template;
+    }
+}
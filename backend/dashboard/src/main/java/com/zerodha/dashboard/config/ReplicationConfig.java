@@ -0,0 +1,27 @@
+package com.zerodha.dashboard.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Deployment role for split ingest/serve deployments.
+ *
+ * dashboard.role=standalone (default) - single instance, no replication
+ * dashboard.role=ingest - the one poller; publishes cache updates on Redis pub/sub
+ * dashboard.role=serve - stateless read replica behind the load balancer (set zerodha.enabled=false)
+ */
+@Configuration
+public class ReplicationConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicationConfig.class);
+
+    @Bean
+    public DeploymentRole deploymentRole(@Value("${dashboard.role:standalone}") String role) {
+        DeploymentRole deploymentRole = DeploymentRole.parse(role);
+        log.info("Deployment role: {}", deploymentRole);
+        return deploymentRole;
+    }
+}
@@ -1,5 +1,6 @@
 package com.zerodha.dashboard.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.TaskScheduler;
@@ -8,29 +9,22 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 @Configuration
 public class SchedulingConfig {
     
+    // Same switch as Spring Boot's virtual-thread mode for Tomcat request handling
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    
     @Bean
     public TaskScheduler taskScheduler() {
         ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
         scheduler.setPoolSize(5);
         scheduler.setThreadNamePrefix("cache-update-");
+        if (virtualThreads) {
+            // Still at most one run per task at a time; a task blocked on Kite just parks its virtual thread
+            scheduler.setThreadFactory(Thread.ofVirtual().name("cache-update-", 1).factory());
+        }
         scheduler.setWaitForTasksToCompleteOnShutdown(true);
         scheduler.setAwaitTerminationSeconds(60);
         scheduler.initialize();
         return scheduler;
     }
 }
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
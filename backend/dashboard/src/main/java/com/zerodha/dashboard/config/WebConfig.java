@@ -1,6 +1,10 @@
 package com.zerodha.dashboard.config;
 
+import com.zerodha.dashboard.service.ResponseEncodingService;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -12,6 +16,12 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final LiveRequestLimiter liveRequestLimiter;
+
+    public WebConfig(LiveRequestLimiter liveRequestLimiter) {
+        this.liveRequestLimiter = liveRequestLimiter;
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // Serve static files from /static/ directory
@@ -20,6 +30,23 @@ public class WebConfig implements WebMvcConfigurer {
                 .setCachePeriod(0); // Disable caching for development
     }
 
+    @Override
+    public void configureContentNegotiation(ContentNegotiationConfigurer configurer) {
+        // ?format=columnar|msgpack|json as an alternative to the Accept header (handy from a browser)
+        configurer.favorParameter(true)
+                .parameterName("format")
+                .mediaType("json", MediaType.APPLICATION_JSON)
+                .mediaType("columnar", ResponseEncodingService.COLUMNAR_JSON)
+                .mediaType("msgpack", ResponseEncodingService.MSGPACK);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Endpoints that call Kite on the request thread share a small concurrency budget
+        registry.addInterceptor(liveRequestLimiter)
+                .addPathPatterns(LiveRequestLimiter.LIVE_PATHS);
+    }
+
     @Override
     public void addViewControllers(ViewControllerRegistry registry) {
         // Redirect root to index.html (for React Router)
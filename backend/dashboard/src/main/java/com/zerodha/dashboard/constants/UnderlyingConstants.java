@@ -0,0 +1,44 @@
+package com.zerodha.dashboard.constants;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Constants for the underlyings the dashboard can poll and their NSE spot symbols.
+ * Index underlyings are quoted under their index name (e.g. NIFTY -> "NIFTY 50"),
+ * stock underlyings under their own tradingsymbol.
+ */
+public final class UnderlyingConstants {
+    private UnderlyingConstants() {
+        // Utility class - prevent instantiation
+    }
+
+    /** Underlying used when a request or caller does not name one */
+    public static final String DEFAULT_UNDERLYING = "NIFTY";
+
+    /** NSE index tradingsymbols for index derivatives underlyings */
+    public static final Map<String, String> INDEX_SPOT_SYMBOLS = Map.of(
+        "NIFTY", "NIFTY 50",
+        "BANKNIFTY", "NIFTY BANK",
+        "FINNIFTY", "NIFTY FIN SERVICE",
+        "MIDCPNIFTY", "NIFTY MID SELECT"
+    );
+
+    /**
+     * Normalize an underlying name (trimmed, upper case). Blank names map to {@link #DEFAULT_UNDERLYING}.
+     */
+    public static String normalize(String underlying) {
+        if (underlying == null || underlying.isBlank()) {
+            return DEFAULT_UNDERLYING;
+        }
+        return underlying.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * NSE tradingsymbol carrying the spot price for an underlying.
+     */
+    public static String spotSymbol(String underlying) {
+        String normalized = normalize(underlying);
+        return INDEX_SPOT_SYMBOLS.getOrDefault(normalized, normalized);
+    }
+}
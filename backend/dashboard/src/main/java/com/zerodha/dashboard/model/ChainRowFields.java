@@ -0,0 +1,102 @@
+package com.zerodha.dashboard.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Per-side fields of a strike row (see {@link StrikeIndex.Row}), selectable by name.
+ * Shared by the chain-rows endpoint and its push feed so both project rows the same way.
+ */
+public final class ChainRowFields {
+
+    /** Selectable per-side fields, in response order */
+    private static final Map<String, Function<DerivativeContract, Object>> FIELDS = new LinkedHashMap<>();
+
+    static {
+        FIELDS.put("token", DerivativeContract::getInstrumentToken);
+        FIELDS.put("symbol", DerivativeContract::getTradingsymbol);
+        FIELDS.put("expiry", DerivativeContract::getExpiryDate);
+        FIELDS.put("ltp", DerivativeContract::getLastPrice);
+        FIELDS.put("change", DerivativeContract::getChange);
+        FIELDS.put("changePct", DerivativeContract::getChangePercent);
+        FIELDS.put("oi", DerivativeContract::getOpenInterest);
+        FIELDS.put("volume", DerivativeContract::getVolume);
+        FIELDS.put("bid", DerivativeContract::getBid);
+        FIELDS.put("ask", DerivativeContract::getAsk);
+        FIELDS.put("bidQty", DerivativeContract::getBidQuantity);
+        FIELDS.put("askQty", DerivativeContract::getAskQuantity);
+        FIELDS.put("eatenDelta", DerivativeContract::getEatenDelta);
+        FIELDS.put("bidEaten", DerivativeContract::getBidEaten);
+        FIELDS.put("askEaten", DerivativeContract::getAskEaten);
+        FIELDS.put("ltpMove", DerivativeContract::getLtpMovementDirection);
+        FIELDS.put("ltpMoveConfidence", DerivativeContract::getLtpMovementConfidence);
+        FIELDS.put("ltpMoveIntensity", DerivativeContract::getLtpMovementIntensity);
+        FIELDS.put("open", DerivativeContract::getOpen);
+        FIELDS.put("high", DerivativeContract::getHigh);
+        FIELDS.put("low", DerivativeContract::getLow);
+        FIELDS.put("close", DerivativeContract::getClose);
+    }
+
+    private ChainRowFields() {
+    }
+
+    public static Set<String> names() {
+        return FIELDS.keySet();
+    }
+
+    /**
+     * Requested fields in canonical order, all fields if none given, null if any is unknown.
+     */
+    public static List<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return List.copyOf(FIELDS.keySet());
+        }
+        List<String> requested = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String trimmed = field.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!FIELDS.containsKey(trimmed)) {
+                return null;
+            }
+            requested.add(trimmed);
+        }
+        if (requested.isEmpty()) {
+            return List.copyOf(FIELDS.keySet());
+        }
+        List<String> ordered = new ArrayList<>(requested.size());
+        for (String field : FIELDS.keySet()) {
+            if (requested.contains(field)) {
+                ordered.add(field);
+            }
+        }
+        return List.copyOf(ordered);
+    }
+
+    /**
+     * {strike, ce: {field: value}, pe: {field: value}} with only the selected fields.
+     */
+    public static Map<String, Object> project(StrikeIndex.Row row, List<String> selected) {
+        Map<String, Object> projected = new LinkedHashMap<>();
+        projected.put("strike", row.getStrike());
+        projected.put("ce", project(row.getCall(), selected));
+        projected.put("pe", project(row.getPut(), selected));
+        return projected;
+    }
+
+    private static Map<String, Object> project(DerivativeContract contract, List<String> selected) {
+        if (contract == null) {
+            return null;
+        }
+        Map<String, Object> side = new LinkedHashMap<>();
+        for (String field : selected) {
+            side.put(field, FIELDS.get(field).apply(contract));
+        }
+        return side;
+    }
+}
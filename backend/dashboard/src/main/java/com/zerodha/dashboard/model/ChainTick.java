@@ -0,0 +1,60 @@
+package com.zerodha.dashboard.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One entry of the chain history (see ChainHistoryService).
+ * A keyframe carries every contract of the chain; any other tick carries only the
+ * contracts that changed since the previous tick of the same underlying.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChainTick {
+    private String underlying;
+    private long timestampMillis;
+    private boolean keyframe;
+    private BigDecimal spotPrice;
+    private String trendClassification;
+    private Double trendScore;
+    private Double spotLtpTrendPercent;
+    private String spotLtpTrendDirection;
+    private List<DerivativeContract> contracts = new ArrayList<>();
+
+    public ChainTick() {
+    }
+
+    public ChainTick(String underlying, long timestampMillis, boolean keyframe) {
+        this.underlying = underlying;
+        this.timestampMillis = timestampMillis;
+        this.keyframe = keyframe;
+    }
+
+    public String getUnderlying() { return underlying; }
+    public void setUnderlying(String underlying) { this.underlying = underlying; }
+
+    public long getTimestampMillis() { return timestampMillis; }
+    public void setTimestampMillis(long timestampMillis) { this.timestampMillis = timestampMillis; }
+
+    public boolean isKeyframe() { return keyframe; }
+    public void setKeyframe(boolean keyframe) { this.keyframe = keyframe; }
+
+    public BigDecimal getSpotPrice() { return spotPrice; }
+    public void setSpotPrice(BigDecimal spotPrice) { this.spotPrice = spotPrice; }
+
+    public String getTrendClassification() { return trendClassification; }
+    public void setTrendClassification(String trendClassification) { this.trendClassification = trendClassification; }
+
+    public Double getTrendScore() { return trendScore; }
+    public void setTrendScore(Double trendScore) { this.trendScore = trendScore; }
+
+    public Double getSpotLtpTrendPercent() { return spotLtpTrendPercent; }
+    public void setSpotLtpTrendPercent(Double spotLtpTrendPercent) { this.spotLtpTrendPercent = spotLtpTrendPercent; }
+
+    public String getSpotLtpTrendDirection() { return spotLtpTrendDirection; }
+    public void setSpotLtpTrendDirection(String spotLtpTrendDirection) { this.spotLtpTrendDirection = spotLtpTrendDirection; }
+
+    public List<DerivativeContract> getContracts() { return contracts; }
+    public void setContracts(List<DerivativeContract> contracts) { this.contracts = contracts; }
+}
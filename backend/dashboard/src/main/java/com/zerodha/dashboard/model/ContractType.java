@@ -0,0 +1,32 @@
+package com.zerodha.dashboard.model;
+
+/**
+ * Contract classification used by the per-contract metric pipeline.
+ * Derived from the exchange instrument type (FUT, CE, PE) - never from the tradingsymbol,
+ * where "CE"/"PE" can also appear inside the underlying name.
+ */
+public enum ContractType {
+    FUTURES,
+    CALLS,
+    PUTS,
+    UNKNOWN;
+
+    /**
+     * Classify a contract by its instrument type.
+     */
+    public static ContractType of(DerivativeContract contract) {
+        if (contract == null || contract.getInstrumentType() == null) {
+            return UNKNOWN;
+        }
+        switch (contract.getInstrumentType()) {
+            case "FUT":
+                return FUTURES;
+            case "CE":
+                return CALLS;
+            case "PE":
+                return PUTS;
+            default:
+                return UNKNOWN;
+        }
+    }
+}
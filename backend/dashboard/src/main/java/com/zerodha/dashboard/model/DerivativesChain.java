@@ -10,6 +10,9 @@ import java.util.ArrayList;
  * Contains futures and options data organized by segments
  */
 public class DerivativesChain {
+    /** Half-width of the strike monitoring band around the daily strike (points) */
+    public static final BigDecimal MONITORING_BAND = new BigDecimal("50");
+
     private String underlying; // NIFTY
     private BigDecimal spotPrice;
     private BigDecimal dailyStrikePrice; // Daily reference strike price for monitoring
@@ -166,8 +169,8 @@ public class DerivativesChain {
         if (dailyStrikePrice == null) return monitoring;
         
         // Find contracts with strike prices around the daily strike
-        BigDecimal upperStrike = dailyStrikePrice.add(new BigDecimal("50")); // +50 points
-        BigDecimal lowerStrike = dailyStrikePrice.subtract(new BigDecimal("50")); // -50 points
+        BigDecimal upperStrike = dailyStrikePrice.add(MONITORING_BAND); // +50 points
+        BigDecimal lowerStrike = dailyStrikePrice.subtract(MONITORING_BAND); // -50 points
         
         // Add call options around daily strike
         callOptions.stream()
@@ -190,7 +193,7 @@ public class DerivativesChain {
         List<DerivativeContract> aboveStrike = new ArrayList<>();
         if (dailyStrikePrice == null) return aboveStrike;
         
-        BigDecimal upperStrike = dailyStrikePrice.add(new BigDecimal("50"));
+        BigDecimal upperStrike = dailyStrikePrice.add(MONITORING_BAND);
         
         callOptions.stream()
             .filter(contract -> contract.getStrikePrice() != null)
@@ -204,7 +207,7 @@ public class DerivativesChain {
         List<DerivativeContract> belowStrike = new ArrayList<>();
         if (dailyStrikePrice == null) return belowStrike;
         
-        BigDecimal lowerStrike = dailyStrikePrice.subtract(new BigDecimal("50"));
+        BigDecimal lowerStrike = dailyStrikePrice.subtract(MONITORING_BAND);
         
         putOptions.stream()
             .filter(contract -> contract.getStrikePrice() != null)
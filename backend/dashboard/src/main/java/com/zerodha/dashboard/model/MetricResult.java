@@ -5,7 +5,7 @@ import java.time.Instant;
 
 /**
  * Represents a windowed metric calculation result with metadata.
- * Used for trendScore, ltpMovement, bidAskEaten, spotLtpMovement features.
+ * Used for trendScore, ltpMovement, bidAskEaten, spotLtpMovement, greeks features.
  */
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class MetricResult {
@@ -65,6 +65,10 @@ public class MetricResult {
     private Double putsScore; // For trendScore
     private Long bidEaten; // For bidAskEaten
     private Long askEaten; // For bidAskEaten
+    private Double delta; // For greeks (value is the implied volatility)
+    private Double gamma; // For greeks
+    private Double theta; // For greeks (per calendar day)
+    private Double vega; // For greeks (per vol point)
     
     public MetricResult() {
     }
@@ -252,7 +256,36 @@ public class MetricResult {
     public void setAskEaten(Long askEaten) {
         this.askEaten = askEaten;
     }
+    
+    public Double getDelta() {
+        return delta;
+    }
+    
+    public void setDelta(Double delta) {
+        this.delta = delta;
+    }
+    
+    public Double getGamma() {
+        return gamma;
+    }
+    
+    public void setGamma(Double gamma) {
+        this.gamma = gamma;
+    }
+    
+    public Double getTheta() {
+        return theta;
+    }
+    
+    public void setTheta(Double theta) {
+        this.theta = theta;
+    }
+    
+    public Double getVega() {
+        return vega;
+    }
+    
+    public void setVega(Double vega) {
+        this.vega = vega;
+    }
 }
-
-
-
@@ -0,0 +1,210 @@
+package com.zerodha.dashboard.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Strike-sorted view of one chain version: one row per strike with its call and put side
+ * by side. Built once when a chain is published; band and above/below lookups are then a
+ * binary search plus a subList view instead of a pass over both option lists.
+ *
+ * Immutable - safe to share between request threads. Contracts are the chain's own
+ * instances and must not be modified by readers.
+ */
+public final class StrikeIndex {
+
+    /**
+     * Call and put at one strike (either side may be null).
+     */
+    public static final class Row {
+        private final BigDecimal strike;
+        private final DerivativeContract call;
+        private final DerivativeContract put;
+
+        Row(BigDecimal strike, DerivativeContract call, DerivativeContract put) {
+            this.strike = strike;
+            this.call = call;
+            this.put = put;
+        }
+
+        public BigDecimal getStrike() { return strike; }
+        public DerivativeContract getCall() { return call; }
+        public DerivativeContract getPut() { return put; }
+    }
+
+    private final DerivativesChain source;
+    private final List<DerivativeContract> sourceCalls;
+    private final List<DerivativeContract> sourcePuts;
+    private final int sourceSize;
+    private final String underlying;
+    private final BigDecimal spotPrice;
+    private final BigDecimal dailyStrikePrice;
+    private final Instant timestamp;
+    private final List<Row> rows;
+    private final BigDecimal[] strikes;
+
+    private StrikeIndex(DerivativesChain chain, List<Row> rows) {
+        this.source = chain;
+        this.sourceCalls = chain.getCallOptions();
+        this.sourcePuts = chain.getPutOptions();
+        this.sourceSize = sizeOf(sourceCalls) + sizeOf(sourcePuts);
+        this.underlying = chain.getUnderlying();
+        this.spotPrice = chain.getSpotPrice();
+        this.dailyStrikePrice = chain.getDailyStrikePrice();
+        this.timestamp = chain.getTimestamp();
+        this.rows = Collections.unmodifiableList(rows);
+        this.strikes = new BigDecimal[rows.size()];
+        for (int i = 0; i < strikes.length; i++) {
+            strikes[i] = rows.get(i).strike;
+        }
+    }
+
+    /**
+     * Index the options of a chain. Contracts without a strike are left out; if a strike has
+     * more than one contract on a side (several expiries) the first one in chain order is kept.
+     */
+    public static StrikeIndex of(DerivativesChain chain) {
+        TreeMap<BigDecimal, DerivativeContract[]> byStrike = new TreeMap<>(Comparator.naturalOrder());
+        collect(byStrike, chain.getCallOptions(), 0);
+        collect(byStrike, chain.getPutOptions(), 1);
+        List<Row> rows = new ArrayList<>(byStrike.size());
+        byStrike.forEach((strike, pair) -> rows.add(new Row(strike, pair[0], pair[1])));
+        return new StrikeIndex(chain, rows);
+    }
+
+    /**
+     * True if this index was built from this chain instance and its option lists have not
+     * been replaced or resized since.
+     */
+    public boolean isBuiltFrom(DerivativesChain chain) {
+        return chain == source
+            && chain.getCallOptions() == sourceCalls
+            && chain.getPutOptions() == sourcePuts
+            && sizeOf(sourceCalls) + sizeOf(sourcePuts) == sourceSize
+            && chain.getTimestamp() == timestamp
+            && chain.getDailyStrikePrice() == dailyStrikePrice;
+    }
+
+    public String getUnderlying() { return underlying; }
+    public BigDecimal getSpotPrice() { return spotPrice; }
+    public BigDecimal getDailyStrikePrice() { return dailyStrikePrice; }
+    public Instant getTimestamp() { return timestamp; }
+
+    /**
+     * All rows in ascending strike order.
+     */
+    public List<Row> getRows() { return rows; }
+
+    /**
+     * Rows with lower <= strike <= upper. A null bound leaves that side open.
+     */
+    public List<Row> between(BigDecimal lower, BigDecimal upper) {
+        int from = lower != null ? firstAtOrAbove(lower) : 0;
+        int to = upper != null ? firstAbove(upper) : rows.size();
+        return from < to ? rows.subList(from, to) : List.of();
+    }
+
+    /**
+     * Rows with strike > bound.
+     */
+    public List<Row> above(BigDecimal bound) {
+        return rows.subList(firstAbove(bound), rows.size());
+    }
+
+    /**
+     * Rows with strike < bound.
+     */
+    public List<Row> below(BigDecimal bound) {
+        return rows.subList(0, firstAtOrAbove(bound));
+    }
+
+    /**
+     * Calls of the given rows, in row order.
+     */
+    public static List<DerivativeContract> calls(List<Row> rows) {
+        List<DerivativeContract> calls = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            if (row.call != null) {
+                calls.add(row.call);
+            }
+        }
+        return calls;
+    }
+
+    /**
+     * Puts of the given rows, in row order.
+     */
+    public static List<DerivativeContract> puts(List<Row> rows) {
+        List<DerivativeContract> puts = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            if (row.put != null) {
+                puts.add(row.put);
+            }
+        }
+        return puts;
+    }
+
+    /**
+     * Window of a list for pagination (no limit = to the end); offset past the end gives an
+     * empty list.
+     */
+    public static <T> List<T> page(List<T> items, int offset, Integer limit) {
+        int from = Math.min(Math.max(offset, 0), items.size());
+        int to = limit == null ? items.size() : (int) Math.min(items.size(), (long) from + Math.max(limit, 0));
+        return items.subList(from, to);
+    }
+
+    private int firstAtOrAbove(BigDecimal value) {
+        int low = 0;
+        int high = strikes.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (strikes[mid].compareTo(value) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int firstAbove(BigDecimal value) {
+        int low = 0;
+        int high = strikes.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (strikes[mid].compareTo(value) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void collect(TreeMap<BigDecimal, DerivativeContract[]> byStrike,
+                                List<DerivativeContract> contracts, int side) {
+        if (contracts == null) {
+            return;
+        }
+        for (DerivativeContract contract : contracts) {
+            if (contract == null || contract.getStrikePrice() == null) {
+                continue;
+            }
+            // TreeMap compares with compareTo, so 25000 and 25000.00 share a row
+            DerivativeContract[] pair = byStrike.computeIfAbsent(contract.getStrikePrice(), k -> new DerivativeContract[2]);
+            if (pair[side] == null) {
+                pair[side] = contract;
+            }
+        }
+    }
+
+    private static int sizeOf(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+}
@@ -1,17 +1,20 @@
 package com.zerodha.dashboard.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zerodha.dashboard.constants.UnderlyingConstants;
 import com.zerodha.dashboard.model.DerivativesChain;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service to cache basic table values (8 columns: LTP, Bid Qty, Ask Qty, Delta, Bid Price, Ask Price, Volume, OI).
@@ -26,24 +29,29 @@ public class BasicValuesCacheService {
     private static final Logger log = LoggerFactory.getLogger(BasicValuesCacheService.class);
     private static final String CACHE_KEY_PREFIX = "zerodha:basic:";
     
-    private final StringRedisTemplate redisTemplate;
-    private final ObjectMapper objectMapper;
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final PayloadCodec payloadCodec;
+    private final RedisWriteBehindService writeBehind;
+    private final ReplicationPublisher replicationPublisher;
     private final Duration cacheTtl;
-    private final String cacheKey;
     
-    // In-memory cache for ultra-fast access (atomic updates)
-    private volatile DerivativesChain inMemoryCache = null;
-    private final ReentrantReadWriteLock cacheLock = new ReentrantReadWriteLock();
+    // In-memory cache per underlying for ultra-fast access (whole-chain replacement is atomic)
+    private final Map<String, DerivativesChain> inMemoryCache = new ConcurrentHashMap<>();
+    // Bumped on every in-memory write, so readers can tell chain versions apart (see getVersion)
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    private final AtomicLong versionSequence = new AtomicLong();
     
     public BasicValuesCacheService(
-            StringRedisTemplate redisTemplate,
-            ObjectMapper objectMapper,
-            @Value("${redis.basic.cache.ttl:PT10M}") Duration cacheTtl,
-            @Value("${redis.basic.cache.key:zerodha:basic:NIFTY}") String cacheKey) {
+            RedisTemplate<String, byte[]> redisTemplate,
+            PayloadCodec payloadCodec,
+            RedisWriteBehindService writeBehind,
+            ReplicationPublisher replicationPublisher,
+            @Value("${redis.basic.cache.ttl:PT10M}") Duration cacheTtl) {
         this.redisTemplate = redisTemplate;
-        this.objectMapper = objectMapper;
+        this.payloadCodec = payloadCodec;
+        this.writeBehind = writeBehind;
+        this.replicationPublisher = replicationPublisher;
         this.cacheTtl = cacheTtl;
-        this.cacheKey = CACHE_KEY_PREFIX + cacheKey;
     }
     
     /**
@@ -66,27 +74,28 @@ public class BasicValuesCacheService {
             return;
         }
         
+        String underlying = UnderlyingConstants.normalize(rawChain.getUnderlying());
+        String cacheKey = cacheKey(underlying);
+        
         try {
             // Create a clean chain with ONLY basic values (no calculated metrics)
             DerivativesChain basicChain = createBasicChain(rawChain);
             
             // Serialize the basic chain atomically
-            String chainJson = objectMapper.writeValueAsString(basicChain);
+            byte[] payload = payloadCodec.encode(basicChain);
             
             // Update in-memory cache first (atomic write)
-            cacheLock.writeLock().lock();
-            try {
-                inMemoryCache = basicChain;
-            } finally {
-                cacheLock.writeLock().unlock();
-            }
+            inMemoryCache.put(underlying, basicChain);
+            bumpVersion(underlying);
             
-            // Update Redis cache
-            redisTemplate.opsForValue().set(cacheKey, chainJson, cacheTtl);
+            // Persist to Redis off the poll thread (latest wins if Redis is behind)
+            writeBehind.submitValue(cacheKey, payload, cacheTtl);
+            // Serve nodes replicate the same bytes (no-op unless dashboard.role=ingest)
+            replicationPublisher.publish(ReplicationMessage.Type.BASIC, underlying, payload);
             
             log.debug("Updated basic values cache for key={}, contracts={}", 
                     cacheKey, basicChain.getTotalContracts());
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
             log.error("Failed to serialize basic DerivativesChain for cache update", e);
         } catch (Exception e) {
             log.error("Error updating basic values cache", e);
@@ -211,33 +220,40 @@ public class BasicValuesCacheService {
     }
     
     /**
-     * Get the latest cached basic values snapshot.
-     * Returns from in-memory cache first (fastest), falls back to Redis if needed.
+     * Get the latest cached basic values snapshot for the default underlying.
      */
     public Optional<DerivativesChain> getLatest() {
+        return getLatest(UnderlyingConstants.DEFAULT_UNDERLYING);
+    }
+    
+    /**
+     * Get the latest cached basic values snapshot for an underlying.
+     * Returns from in-memory cache first (fastest), falls back to Redis if needed.
+     */
+    public Optional<DerivativesChain> getLatest(String underlying) {
+        String normalized = UnderlyingConstants.normalize(underlying);
+        String cacheKey = cacheKey(normalized);
+        
         // Try in-memory cache first (ultra-fast)
-        cacheLock.readLock().lock();
-        try {
-            if (inMemoryCache != null) {
-                log.debug("Basic values cache hit from in-memory for key={}", cacheKey);
-                return Optional.of(inMemoryCache);
-            }
-        } finally {
-            cacheLock.readLock().unlock();
+        DerivativesChain cached = inMemoryCache.get(normalized);
+        if (cached != null) {
+            log.debug("Basic values cache hit from in-memory for key={}", cacheKey);
+            return Optional.of(cached);
         }
         
-        // Fallback to Redis
+        // Fallback to Redis (skipped while it is known to be down)
+        if (!writeBehind.isRedisAvailable()) {
+            log.debug("Redis unavailable - no in-memory entry for key={}", cacheKey);
+            return Optional.empty();
+        }
         try {
-            String chainJson = redisTemplate.opsForValue().get(cacheKey);
-            if (chainJson != null) {
-                DerivativesChain chain = objectMapper.readValue(chainJson, DerivativesChain.class);
+            byte[] payload = redisTemplate.opsForValue().get(cacheKey);
+            if (payload != null) {
+                DerivativesChain chain = payloadCodec.decode(payload, DerivativesChain.class);
                 
-                // Update in-memory cache
-                cacheLock.writeLock().lock();
-                try {
-                    inMemoryCache = chain;
-                } finally {
-                    cacheLock.writeLock().unlock();
+                // Update in-memory cache (don't overwrite a newer snapshot written meanwhile)
+                if (inMemoryCache.putIfAbsent(normalized, chain) == null) {
+                    bumpVersion(normalized);
                 }
                 
                 log.debug("Basic values cache hit from Redis for key={}", cacheKey);
@@ -246,7 +262,7 @@ public class BasicValuesCacheService {
                 log.debug("Basic values cache miss for key={}", cacheKey);
                 return Optional.empty();
             }
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
             log.error("Failed to deserialize basic DerivativesChain from cache", e);
             return Optional.empty();
         } catch (Exception e) {
@@ -256,17 +272,61 @@ public class BasicValuesCacheService {
     }
     
     /**
-     * Clear the cache (useful for testing or manual refresh)
+     * Apply a chain replicated from the ingest node (serve nodes only).
+     * Memory only - the ingest node has already written Redis.
+     */
+    public void applyReplica(DerivativesChain chain) {
+        if (chain == null) {
+            return;
+        }
+        String underlying = UnderlyingConstants.normalize(chain.getUnderlying());
+        inMemoryCache.put(underlying, chain);
+        bumpVersion(underlying);
+    }
+    
+    /**
+     * Version of the in-memory basic values for an underlying (0 if none). Changes whenever
+     * the entry is written, including when the same chain instance is published again
+     * after it was updated. Read it before getLatest: a newer chain with an older version
+     * only costs an extra re-encode, never a stale response.
+     */
+    public long getVersion(String underlying) {
+        return versions.getOrDefault(UnderlyingConstants.normalize(underlying), 0L);
+    }
+    
+    /**
+     * Underlyings that currently have a snapshot in memory.
+     */
+    public Set<String> getCachedUnderlyings() {
+        return Set.copyOf(inMemoryCache.keySet());
+    }
+    
+    /**
+     * Clear the cache for every underlying (useful for testing or manual refresh)
      */
     public void clearCache() {
-        cacheLock.writeLock().lock();
-        try {
-            inMemoryCache = null;
-        } finally {
-            cacheLock.writeLock().unlock();
+        for (String underlying : Set.copyOf(inMemoryCache.keySet())) {
+            clearCache(underlying);
         }
+    }
+    
+    /**
+     * Clear the cache for one underlying
+     */
+    public void clearCache(String underlying) {
+        String normalized = UnderlyingConstants.normalize(underlying);
+        String cacheKey = cacheKey(normalized);
+        inMemoryCache.remove(normalized);
+        bumpVersion(normalized);
         redisTemplate.delete(cacheKey);
         log.info("Cleared basic values cache for key={}", cacheKey);
     }
+    
+    private void bumpVersion(String underlying) {
+        versions.put(underlying, versionSequence.incrementAndGet());
+    }
+    
+    private static String cacheKey(String underlying) {
+        return CACHE_KEY_PREFIX + underlying;
+    }
 }
-
@@ -0,0 +1,302 @@
+package com.zerodha.dashboard.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary payloads for Redis.
+ *
+ * Layout: [format version byte][token stream]. The token stream is the Jackson token sequence
+ * of the value (same annotations and modules as the HTTP JSON), written as:
+ * - one tag byte per token
+ * - integers as zig-zag varints, doubles as 8 raw bytes
+ * - BigDecimal as (scale, unscaled) varints - no decimal text to format or parse
+ * - field names and short string values written once, then referenced by index
+ *   (a 400-contract chain repeats the same ~40 field names and a handful of values like "NFO-FO")
+ *
+ * Decoding replays the tokens into the ObjectMapper, so model classes need no codec-specific code.
+ * The version byte is bumped when the token encoding changes; older versions stay readable here.
+ * Payloads that start with '{' or '[' are legacy JSON and are still decoded.
+ */
+public class BinaryPayloadCodec implements PayloadCodec {
+
+    public static final String NAME = "binary";
+    public static final byte FORMAT_VERSION = 1;
+
+    private static final int MAX_SHARED_STRING_LENGTH = 64;
+    private static final int MAX_SHARED_ENTRIES = 1024;
+
+    // Token tags
+    private static final int TAG_START_OBJECT = 1;
+    private static final int TAG_END_OBJECT = 2;
+    private static final int TAG_START_ARRAY = 3;
+    private static final int TAG_END_ARRAY = 4;
+    private static final int TAG_FIELD = 5;
+    private static final int TAG_FIELD_NEW = 6;
+    private static final int TAG_FIELD_REF = 7;
+    private static final int TAG_STRING = 8;
+    private static final int TAG_STRING_NEW = 9;
+    private static final int TAG_STRING_REF = 10;
+    private static final int TAG_LONG = 11;
+    private static final int TAG_BIG_INTEGER = 12;
+    private static final int TAG_DOUBLE = 13;
+    private static final int TAG_DECIMAL = 14;
+    private static final int TAG_BIG_DECIMAL = 15;
+    private static final int TAG_TRUE = 16;
+    private static final int TAG_FALSE = 17;
+    private static final int TAG_NULL = 18;
+
+    private final ObjectMapper objectMapper;
+
+    public BinaryPayloadCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        TokenBuffer tokens = new TokenBuffer(objectMapper, false);
+        objectMapper.writeValue(tokens, value);
+
+        Output out = new Output();
+        out.write(FORMAT_VERSION);
+        Map<String, Integer> names = new HashMap<>();
+        Map<String, Integer> strings = new HashMap<>();
+
+        try (JsonParser parser = tokens.asParser(objectMapper)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                switch (token) {
+                    case START_OBJECT -> out.write(TAG_START_OBJECT);
+                    case END_OBJECT -> out.write(TAG_END_OBJECT);
+                    case START_ARRAY -> out.write(TAG_START_ARRAY);
+                    case END_ARRAY -> out.write(TAG_END_ARRAY);
+                    case FIELD_NAME -> writeShared(out, names, parser.currentName(), TAG_FIELD, TAG_FIELD_NEW, TAG_FIELD_REF);
+                    case VALUE_STRING -> writeShared(out, strings, parser.getText(), TAG_STRING, TAG_STRING_NEW, TAG_STRING_REF);
+                    case VALUE_NUMBER_INT -> writeInteger(out, parser);
+                    case VALUE_NUMBER_FLOAT -> writeFloat(out, parser);
+                    case VALUE_TRUE -> out.write(TAG_TRUE);
+                    case VALUE_FALSE -> out.write(TAG_FALSE);
+                    case VALUE_NULL -> out.write(TAG_NULL);
+                    default -> throw new IOException("Unsupported token in payload: " + token);
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public <T> T decode(byte[] payload, Class<T> type) throws IOException {
+        return decode(payload, objectMapper.constructType(type));
+    }
+
+    @Override
+    public <T> T decode(byte[] payload, JavaType type) throws IOException {
+        if (payload == null || payload.length == 0) {
+            throw new IOException("Empty payload");
+        }
+        if (PayloadCodec.isJsonPayload(payload)) {
+            // Written before the binary codec was enabled
+            return objectMapper.readValue(payload, type);
+        }
+        if (payload[0] != FORMAT_VERSION) {
+            throw new IOException("Unsupported payload format version: " + payload[0]);
+        }
+
+        TokenBuffer tokens = readTokens(ByteBuffer.wrap(payload, 1, payload.length - 1));
+        try (JsonParser parser = tokens.asParser(objectMapper)) {
+            return objectMapper.readValue(parser, type);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    private TokenBuffer readTokens(ByteBuffer in) throws IOException {
+        TokenBuffer tokens = new TokenBuffer(objectMapper, false);
+        List<String> names = new ArrayList<>();
+        List<String> strings = new ArrayList<>();
+
+        try {
+            while (in.hasRemaining()) {
+                int tag = in.get();
+                switch (tag) {
+                    case TAG_START_OBJECT -> tokens.writeStartObject();
+                    case TAG_END_OBJECT -> tokens.writeEndObject();
+                    case TAG_START_ARRAY -> tokens.writeStartArray();
+                    case TAG_END_ARRAY -> tokens.writeEndArray();
+                    case TAG_FIELD -> tokens.writeFieldName(readUtf(in));
+                    case TAG_FIELD_NEW -> {
+                        String name = readUtf(in);
+                        names.add(name);
+                        tokens.writeFieldName(name);
+                    }
+                    case TAG_FIELD_REF -> tokens.writeFieldName(names.get(readVarInt(in)));
+                    case TAG_STRING -> tokens.writeString(readUtf(in));
+                    case TAG_STRING_NEW -> {
+                        String value = readUtf(in);
+                        strings.add(value);
+                        tokens.writeString(value);
+                    }
+                    case TAG_STRING_REF -> tokens.writeString(strings.get(readVarInt(in)));
+                    case TAG_LONG -> tokens.writeNumber(readZigZag(in));
+                    case TAG_BIG_INTEGER -> tokens.writeNumber(new BigInteger(readBytes(in)));
+                    case TAG_DOUBLE -> tokens.writeNumber(in.getDouble());
+                    case TAG_DECIMAL -> {
+                        int scale = (int) readZigZag(in);
+                        tokens.writeNumber(BigDecimal.valueOf(readZigZag(in), scale));
+                    }
+                    case TAG_BIG_DECIMAL -> {
+                        int scale = (int) readZigZag(in);
+                        tokens.writeNumber(new BigDecimal(new BigInteger(readBytes(in)), scale));
+                    }
+                    case TAG_TRUE -> tokens.writeBoolean(true);
+                    case TAG_FALSE -> tokens.writeBoolean(false);
+                    case TAG_NULL -> tokens.writeNull();
+                    default -> throw new IOException("Corrupt payload: unknown tag " + tag);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Truncated buffer or bad reference index
+            throw new IOException("Corrupt payload: " + e.getMessage(), e);
+        }
+        return tokens;
+    }
+
+    private static void writeShared(Output out, Map<String, Integer> table, String value,
+                                    int plainTag, int newTag, int refTag) {
+        Integer index = table.get(value);
+        if (index != null) {
+            out.write(refTag);
+            out.writeVarInt(index);
+        } else if (value.length() <= MAX_SHARED_STRING_LENGTH && table.size() < MAX_SHARED_ENTRIES) {
+            table.put(value, table.size());
+            out.write(newTag);
+            out.writeUtf(value);
+        } else {
+            out.write(plainTag);
+            out.writeUtf(value);
+        }
+    }
+
+    private static void writeInteger(Output out, JsonParser parser) throws IOException {
+        if (parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER) {
+            out.write(TAG_BIG_INTEGER);
+            out.writeLengthPrefixed(parser.getBigIntegerValue().toByteArray());
+        } else {
+            out.write(TAG_LONG);
+            out.writeZigZag(parser.getLongValue());
+        }
+    }
+
+    private static void writeFloat(Output out, JsonParser parser) throws IOException {
+        if (parser.getNumberType() != JsonParser.NumberType.BIG_DECIMAL) {
+            out.write(TAG_DOUBLE);
+            out.writeDouble(parser.getDoubleValue());
+            return;
+        }
+        BigDecimal decimal = parser.getDecimalValue();
+        BigInteger unscaled = decimal.unscaledValue();
+        if (unscaled.bitLength() < 64) {
+            out.write(TAG_DECIMAL);
+            out.writeZigZag(decimal.scale());
+            out.writeZigZag(unscaled.longValue());
+        } else {
+            out.write(TAG_BIG_DECIMAL);
+            out.writeZigZag(decimal.scale());
+            out.writeLengthPrefixed(unscaled.toByteArray());
+        }
+    }
+
+    private static int readVarInt(ByteBuffer in) throws IOException {
+        long value = readVarLong(in);
+        if (value > Integer.MAX_VALUE) {
+            throw new IOException("Corrupt payload: length/index out of range");
+        }
+        return (int) value;
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static long readZigZag(ByteBuffer in) {
+        long raw = readVarLong(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    private static byte[] readBytes(ByteBuffer in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.get(bytes);
+        return bytes;
+    }
+
+    private static String readUtf(ByteBuffer in) throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Growable output buffer with varint helpers (no per-call checked exceptions).
+     */
+    private static final class Output extends ByteArrayOutputStream {
+
+        Output() {
+            super(4096);
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeDouble(double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                write((int) (bits >>> shift));
+            }
+        }
+
+        void writeLengthPrefixed(byte[] bytes) {
+            writeVarInt(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        void writeUtf(String value) {
+            writeLengthPrefixed(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.constants.UnderlyingConstants;
+import com.zerodha.dashboard.model.ChainTick;
+import com.zerodha.dashboard.model.DerivativeContract;
+import com.zerodha.dashboard.model.DerivativesChain;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short intraday history of processed chains, one capped log per underlying.
+ *
+ * Each poll appends a {@link ChainTick} holding only the contracts that changed since the
+ * previous tick (market fields or computed metrics), plus a full keyframe every
+ * history.keyframe.every ticks. A reader seeds its state from the nearest keyframe at or
+ * before the requested start, so a lost tick only affects history until the next keyframe.
+ *
+ * Stores (history.store):
+ * - redis (default): one Redis Stream per underlying (zerodha:history:UNDERLYING), XADD with
+ *   approximate MAXLEN history.max.entries, appended through the write-behind queue.
+ *   Entry ids are the poll time in millis, so ranges are queried by timestamp. An append that
+ *   is dropped or rejected by Redis (e.g. an id not above the stream's last one) makes the
+ *   next tick a keyframe, as a failed encode does.
+ * - memory: the same log kept in-process with the same MAXLEN behaviour (exact trimming)
+ *
+ * Ticks are encoded with the configured PayloadCodec.
+ */
+@Service
+public class ChainHistoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChainHistoryService.class);
+    public static final String KEY_PREFIX = "zerodha:history:";
+    private static final byte[] FIELD_KEYFRAME = "k".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FIELD_DATA = "d".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] KEYFRAME_YES = "1".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] KEYFRAME_NO = "0".getBytes(StandardCharsets.UTF_8);
+    private static final int PAGE_SIZE = 500;
+
+    /**
+     * Receives the ticks of a range in order, with the full chain state after applying each one.
+     * {@code first} marks the first tick of the range - its state is a complete snapshot.
+     */
+    @FunctionalInterface
+    public interface TickVisitor {
+        void visit(ChainTick tick, Map<String, DerivativeContract> state, boolean first) throws IOException;
+    }
+
+    /**
+     * One appended entry as stored: id (millis + sequence), keyframe flag and encoded tick.
+     */
+    private static final class Entry {
+        final long millis;
+        final long sequence;
+        final boolean keyframe;
+        final byte[] data;
+
+        Entry(long millis, long sequence, boolean keyframe, byte[] data) {
+            this.millis = millis;
+            this.sequence = sequence;
+            this.keyframe = keyframe;
+            this.data = data;
+        }
+
+        boolean after(long otherMillis, long otherSequence) {
+            return millis > otherMillis || (millis == otherMillis && sequence > otherSequence);
+        }
+    }
+
+    /**
+     * What was last recorded for an underlying - the baseline for the next delta.
+     */
+    private static final class RecordState {
+        final Map<String, Long> fingerprints = new HashMap<>();
+        long lastMillis = -1;
+        long lastSequence = 0;
+        int ticksSinceKeyframe = Integer.MAX_VALUE;
+        // Set from the write-behind thread when an append was lost
+        final AtomicBoolean appendLost = new AtomicBoolean();
+    }
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final RedisWriteBehindService writeBehind;
+    private final LeaderElectionService leaderElection;
+    private final PayloadCodec payloadCodec;
+
+    @Value("${history.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${history.store:redis}")
+    private String store = "redis";
+
+    @Value("${history.max.entries:21600}")
+    private long maxEntries = 21600; // 6 hours at one poll per second
+
+    @Value("${history.keyframe.every:60}")
+    private int keyframeEvery = 60;
+
+    @Value("${history.max.ticks.per.request:20000}")
+    private int maxTicksPerRequest = 20000;
+
+    private final Map<String, RecordState> recordStates = new ConcurrentHashMap<>();
+    private final Map<String, Deque<Entry>> memoryLogs = new ConcurrentHashMap<>();
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong keyframes = new AtomicLong();
+    private final AtomicLong appendedContracts = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public ChainHistoryService(
+            RedisTemplate<String, byte[]> redisTemplate,
+            RedisWriteBehindService writeBehind,
+            LeaderElectionService leaderElection,
+            PayloadCodec payloadCodec) {
+        this.redisTemplate = redisTemplate;
+        this.writeBehind = writeBehind;
+        this.leaderElection = leaderElection;
+        this.payloadCodec = payloadCodec;
+    }
+
+    private boolean useRedis() {
+        return !"memory".equalsIgnoreCase(store);
+    }
+
+    private static String streamKey(String underlying) {
+        return KEY_PREFIX + underlying;
+    }
+
+    /**
+     * Append one processed chain. Called on the poll thread after all metrics ran.
+     */
+    public void record(DerivativesChain chain) {
+        if (!enabled || chain == null) {
+            return;
+        }
+        String underlying = UnderlyingConstants.normalize(chain.getUnderlying());
+        if (useRedis() && !leaderElection.writesAllowed()) {
+            // Follower: the leader owns the stream. Start over with a keyframe after takeover.
+            recordStates.remove(underlying);
+            return;
+        }
+        RecordState state = recordStates.computeIfAbsent(underlying, key -> new RecordState());
+        long millis = chain.getTimestamp() != null ? chain.getTimestamp().toEpochMilli() : System.currentTimeMillis();
+
+        boolean keyframe = state.appendLost.getAndSet(false) || state.ticksSinceKeyframe >= keyframeEvery;
+        ChainTick tick = new ChainTick(underlying, millis, keyframe);
+        tick.setSpotPrice(chain.getSpotPrice());
+        tick.setTrendClassification(chain.getTrendClassification());
+        tick.setTrendScore(chain.getTrendScore());
+        tick.setSpotLtpTrendPercent(chain.getSpotLtpTrendPercent());
+        tick.setSpotLtpTrendDirection(chain.getSpotLtpTrendDirection());
+        collectChanged(chain.getFutures(), state, keyframe, tick.getContracts());
+        collectChanged(chain.getCallOptions(), state, keyframe, tick.getContracts());
+        collectChanged(chain.getPutOptions(), state, keyframe, tick.getContracts());
+
+        // Ids must increase - two polls in the same millisecond get consecutive sequences
+        long sequence = 0;
+        if (millis <= state.lastMillis) {
+            millis = state.lastMillis;
+            sequence = state.lastSequence + 1;
+        }
+        state.lastMillis = millis;
+        state.lastSequence = sequence;
+        state.ticksSinceKeyframe = keyframe ? 1 : state.ticksSinceKeyframe + 1;
+
+        try {
+            byte[] data = payloadCodec.encode(tick);
+            append(underlying, new Entry(millis, sequence, keyframe, data), state);
+            appended.incrementAndGet();
+            appendedContracts.addAndGet(tick.getContracts().size());
+            if (keyframe) {
+                keyframes.incrementAndGet();
+            }
+        } catch (Exception e) {
+            // Next tick must be a keyframe - this delta is lost
+            state.ticksSinceKeyframe = Integer.MAX_VALUE;
+            long count = failed.incrementAndGet();
+            if (count == 1 || count % 100 == 0) {
+                log.warn("Failed to append chain history for {} ({} failures so far): {}", underlying, count, e.getMessage());
+            }
+        }
+    }
+
+    private void collectChanged(List<DerivativeContract> contracts, RecordState state, boolean keyframe,
+                                List<DerivativeContract> out) {
+        if (contracts == null) {
+            return;
+        }
+        for (DerivativeContract contract : contracts) {
+            if (contract == null || contract.getInstrumentToken() == null) {
+                continue;
+            }
+            long fingerprint = fingerprint(contract);
+            Long previous = state.fingerprints.put(contract.getInstrumentToken(), fingerprint);
+            if (keyframe || previous == null || previous != fingerprint) {
+                out.add(contract);
+            }
+        }
+    }
+
+    /**
+     * Hash of everything that moves between polls (quotes and computed metrics).
+     */
+    static long fingerprint(DerivativeContract contract) {
+        long hash = Objects.hash(contract.getLastPrice(), contract.getBid(), contract.getAsk(),
+            contract.getBidQuantity(), contract.getAskQuantity(), contract.getOpenInterest());
+        hash = hash * 31 + Long.hashCode(contract.getVolume());
+        hash = hash * 31 + Objects.hash(contract.getEatenDelta(), contract.getBidEaten(), contract.getAskEaten(),
+            contract.getLtpMovementDirection(), contract.getLtpMovementConfidence(), contract.getLtpMovementIntensity());
+        return hash;
+    }
+
+    private void append(String underlying, Entry entry, RecordState state) {
+        if (!useRedis()) {
+            Deque<Entry> entries = memoryLogs.computeIfAbsent(underlying, key -> new ArrayDeque<>());
+            synchronized (entries) {
+                entries.addLast(entry);
+                while (entries.size() > maxEntries) {
+                    entries.removeFirst();
+                }
+            }
+            return;
+        }
+        Map<byte[], byte[]> fields = new LinkedHashMap<>();
+        fields.put(FIELD_KEYFRAME, entry.keyframe ? KEYFRAME_YES : KEYFRAME_NO);
+        fields.put(FIELD_DATA, entry.data);
+        ByteRecord record = StreamRecords.rawBytes(fields)
+            .withStreamKey(streamKey(underlying).getBytes(StandardCharsets.UTF_8))
+            .withId(RecordId.of(entry.millis, entry.sequence));
+        RedisStreamCommands.XAddOptions options = RedisStreamCommands.XAddOptions.maxlen(maxEntries).approximateTrimming(true);
+        // Unique write-behind key per tick - appends must not be coalesced away
+        writeBehind.submit(streamKey(underlying) + "#" + entry.millis + "-" + entry.sequence,
+            connection -> connection.streamCommands().xAdd(record, options),
+            () -> onAppendLost(underlying, state));
+    }
+
+    private void onAppendLost(String underlying, RecordState state) {
+        // Readers would apply the next deltas to a state missing this one - start over with a keyframe
+        state.appendLost.set(true);
+        long count = failed.incrementAndGet();
+        if (count == 1 || count % 100 == 0) {
+            log.warn("Chain history append for {} was not stored ({} failures so far)", underlying, count);
+        }
+    }
+
+    /**
+     * Replay the history of an underlying between two timestamps (inclusive, epoch millis).
+     * Returns the number of ticks visited (capped at history.max.ticks.per.request).
+     */
+    public int replay(String underlying, long fromMillis, long toMillis, TickVisitor visitor) throws IOException {
+        String normalized = UnderlyingConstants.normalize(underlying);
+        Map<String, DerivativeContract> state = new LinkedHashMap<>();
+
+        // Seed from the nearest keyframe before the range (plus the deltas after it)
+        List<Entry> seed = entriesBefore(normalized, fromMillis);
+        for (Entry entry : seed) {
+            apply(decode(entry), state);
+        }
+
+        int visited = 0;
+        long cursorMillis = fromMillis;
+        long cursorSequence = -1;
+        while (visited < maxTicksPerRequest) {
+            List<Entry> page = entriesAfter(normalized, cursorMillis, cursorSequence, toMillis,
+                Math.min(PAGE_SIZE, maxTicksPerRequest - visited));
+            if (page.isEmpty()) {
+                break;
+            }
+            for (Entry entry : page) {
+                ChainTick tick = decode(entry);
+                apply(tick, state);
+                visitor.visit(tick, state, visited == 0);
+                visited++;
+                cursorMillis = entry.millis;
+                cursorSequence = entry.sequence;
+            }
+        }
+        return visited;
+    }
+
+    private ChainTick decode(Entry entry) throws IOException {
+        return payloadCodec.decode(entry.data, ChainTick.class);
+    }
+
+    private static void apply(ChainTick tick, Map<String, DerivativeContract> state) {
+        if (tick.isKeyframe()) {
+            state.clear();
+        }
+        for (DerivativeContract contract : tick.getContracts()) {
+            state.put(contract.getInstrumentToken(), contract);
+        }
+    }
+
+    /**
+     * Entries strictly after (millis, sequence) and up to toMillis, oldest first.
+     */
+    private List<Entry> entriesAfter(String underlying, long millis, long sequence, long toMillis, int limit) {
+        if (!useRedis()) {
+            List<Entry> page = new ArrayList<>();
+            Deque<Entry> entries = memoryLogs.get(underlying);
+            if (entries == null) {
+                return page;
+            }
+            synchronized (entries) {
+                for (Entry entry : entries) {
+                    if (entry.millis > toMillis || page.size() >= limit) {
+                        break;
+                    }
+                    if (entry.after(millis, sequence)) {
+                        page.add(entry);
+                    }
+                }
+            }
+            return page;
+        }
+        String start = sequence < 0 ? millis + "-0" : millis + "-" + (sequence + 1);
+        String end = toMillis + "-" + Long.MAX_VALUE;
+        byte[] key = streamKey(underlying).getBytes(StandardCharsets.UTF_8);
+        List<ByteRecord> records = redisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+            connection.streamCommands().xRange(key, Range.closed(start, end), Limit.limit().count(limit)));
+        return toEntries(records);
+    }
+
+    /**
+     * The latest keyframe before fromMillis and every entry after it up to fromMillis, oldest first.
+     * Empty if there is no keyframe within history.keyframe.every entries before the range.
+     */
+    private List<Entry> entriesBefore(String underlying, long fromMillis) {
+        List<Entry> newestFirst = new ArrayList<>();
+        if (!useRedis()) {
+            Deque<Entry> entries = memoryLogs.get(underlying);
+            if (entries == null) {
+                return newestFirst;
+            }
+            synchronized (entries) {
+                Iterator<Entry> iterator = entries.descendingIterator();
+                while (iterator.hasNext() && newestFirst.size() < keyframeEvery) {
+                    Entry entry = iterator.next();
+                    if (entry.millis < fromMillis) {
+                        newestFirst.add(entry);
+                    }
+                }
+            }
+        } else {
+            String end = (fromMillis - 1) + "-" + Long.MAX_VALUE;
+            byte[] key = streamKey(underlying).getBytes(StandardCharsets.UTF_8);
+            List<ByteRecord> records = redisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                connection.streamCommands().xRevRange(key, Range.of(Range.Bound.unbounded(), Range.Bound.inclusive(end)),
+                    Limit.limit().count(keyframeEvery)));
+            newestFirst.addAll(toEntries(records));
+        }
+
+        List<Entry> seed = new ArrayList<>();
+        for (Entry entry : newestFirst) {
+            seed.add(entry);
+            if (entry.keyframe) {
+                Collections.reverse(seed);
+                return seed;
+            }
+        }
+        return List.of();
+    }
+
+    private static List<Entry> toEntries(List<ByteRecord> records) {
+        List<Entry> entries = new ArrayList<>();
+        if (records == null) {
+            return entries;
+        }
+        for (ByteRecord record : records) {
+            byte[] data = null;
+            boolean keyframe = false;
+            for (Map.Entry<byte[], byte[]> field : record.getValue().entrySet()) {
+                if (Arrays.equals(field.getKey(), FIELD_DATA)) {
+                    data = field.getValue();
+                } else if (Arrays.equals(field.getKey(), FIELD_KEYFRAME)) {
+                    keyframe = Arrays.equals(field.getValue(), KEYFRAME_YES);
+                }
+            }
+            if (data != null) {
+                RecordId id = record.getId();
+                entries.add(new Entry(id.getTimestamp(), id.getSequence(), keyframe, data));
+            }
+        }
+        return entries;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("store", useRedis() ? "redis" : "memory");
+        stats.put("maxEntries", maxEntries);
+        stats.put("appended", appended.get());
+        stats.put("keyframes", keyframes.get());
+        stats.put("appendedContracts", appendedContracts.get());
+        stats.put("failed", failed.get());
+        return stats;
+    }
+}
@@ -0,0 +1,229 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.constants.UnderlyingConstants;
+import com.zerodha.dashboard.model.ChainRowFields;
+import com.zerodha.dashboard.model.DerivativeContract;
+import com.zerodha.dashboard.model.MetricResult;
+import com.zerodha.dashboard.model.StrikeIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Push feed of an option chain: each client follows one underlying, a strike range, a set of
+ * row fields and a set of metric features.
+ *
+ * Events (keys in brackets - an undelivered event is replaced by the next one with its key):
+ * - "chain" [chain]: spot price, daily strike and timestamp of a newly published chain
+ * - "row" [row:strike]: {strike, ce, pe} with the selected fields, only when it changed
+ * - "metric" [metric:symbol:feature]: MetricResult of the underlying or of a contract in range
+ *
+ * A new client first gets the current chain, its rows and the latest final metrics.
+ * Delivery, conflation and slow-client dropping are done by {@link PushDeliveryService}.
+ */
+@Service
+public class ChainPushService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChainPushService.class);
+
+    /**
+     * One client and what it follows. Rows last offered are kept per client so unchanged
+     * rows are not sent again; they are replaced as a whole on every publish, so they never
+     * outgrow the strike range.
+     */
+    static final class Subscription {
+        final PushDeliveryService.Client client;
+        final String underlying;
+        final BigDecimal minStrike;
+        final BigDecimal maxStrike;
+        final List<String> fields;
+        final Set<String> features;
+        private Map<String, Map<String, Object>> lastRows = Map.of();
+        private StrikeIndex lastIndex;
+
+        Subscription(PushDeliveryService.Client client, String underlying, BigDecimal minStrike,
+                     BigDecimal maxStrike, List<String> fields, Set<String> features) {
+            this.client = client;
+            this.underlying = underlying;
+            this.minStrike = minStrike;
+            this.maxStrike = maxStrike;
+            this.fields = fields;
+            this.features = features;
+        }
+
+        boolean inRange(BigDecimal strike) {
+            return (minStrike == null || strike.compareTo(minStrike) >= 0)
+                && (maxStrike == null || strike.compareTo(maxStrike) <= 0);
+        }
+
+        boolean wantsFeature(String feature) {
+            return features == null || features.contains(feature);
+        }
+    }
+
+    /**
+     * Strike of every contract token of one strike index.
+     */
+    private static final class TokenStrikes {
+        final StrikeIndex index;
+        final String underlying;
+        final Map<String, BigDecimal> strikes;
+
+        TokenStrikes(StrikeIndex index) {
+            this.index = index;
+            this.underlying = UnderlyingConstants.normalize(index.getUnderlying());
+            Map<String, BigDecimal> byToken = new HashMap<>();
+            for (StrikeIndex.Row row : index.getRows()) {
+                addToken(byToken, row.getCall(), row.getStrike());
+                addToken(byToken, row.getPut(), row.getStrike());
+            }
+            this.strikes = Map.copyOf(byToken);
+        }
+
+        private static void addToken(Map<String, BigDecimal> byToken, DerivativeContract contract, BigDecimal strike) {
+            if (contract != null && contract.getInstrumentToken() != null) {
+                byToken.put(contract.getInstrumentToken(), strike);
+            }
+        }
+    }
+
+    private final PushDeliveryService pushDeliveryService;
+    private final LatestSnapshotCacheService latestSnapshotCacheService;
+    private final MetricsCacheService metricsCacheService;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final Map<String, TokenStrikes> tokenStrikes = new ConcurrentHashMap<>();
+
+    public ChainPushService(PushDeliveryService pushDeliveryService,
+                            LatestSnapshotCacheService latestSnapshotCacheService,
+                            MetricsCacheService metricsCacheService,
+                            MetricsStreamService metricsStreamService) {
+        this.pushDeliveryService = pushDeliveryService;
+        this.latestSnapshotCacheService = latestSnapshotCacheService;
+        this.metricsCacheService = metricsCacheService;
+        latestSnapshotCacheService.addStrikeIndexListener(this::onChain);
+        metricsStreamService.addEventListener(this::onMetric);
+    }
+
+    /**
+     * Open a chain feed.
+     *
+     * @param underlying normalized underlying
+     * @param minStrike lowest strike (inclusive), null for no limit
+     * @param maxStrike highest strike (inclusive), null for no limit
+     * @param fields row fields, as parsed by {@link ChainRowFields#parse}
+     * @param features metric features, null for all
+     */
+    public SseEmitter subscribe(String underlying, BigDecimal minStrike, BigDecimal maxStrike,
+                                List<String> fields, Set<String> features) {
+        PushDeliveryService.Client client = pushDeliveryService.open("chain:" + underlying);
+        Subscription subscription = new Subscription(client, underlying, minStrike, maxStrike,
+            List.copyOf(fields), features != null ? Set.copyOf(features) : null);
+        client.onClose(() -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+
+        latestSnapshotCacheService.getStrikeIndex(underlying).ifPresent(index -> {
+            offerChain(subscription, index);
+            offerCurrentMetrics(subscription, strikesOf(index));
+        });
+        log.debug("Chain feed opened: underlying={}, strikes={}..{}, fields={}, features={}",
+            underlying, minStrike, maxStrike, fields, features);
+        return client.getEmitter();
+    }
+
+    void onChain(StrikeIndex index) {
+        String underlying = strikesOf(index).underlying;
+        for (Subscription subscription : subscriptions) {
+            if (subscription.underlying.equals(underlying)) {
+                offerChain(subscription, index);
+            }
+        }
+    }
+
+    void onMetric(MetricsStreamService.StreamEvent event) {
+        MetricResult result = event.result;
+        for (Subscription subscription : subscriptions) {
+            if (!subscription.wantsFeature(result.getFeature())) {
+                continue;
+            }
+            if (result.getSymbol().equals(subscription.underlying)) {
+                offerMetric(subscription, result);
+                continue;
+            }
+            TokenStrikes strikes = tokenStrikes.get(subscription.underlying);
+            BigDecimal strike = strikes != null ? strikes.strikes.get(result.getSymbol()) : null;
+            if (strike != null && subscription.inRange(strike)) {
+                offerMetric(subscription, result);
+            }
+        }
+    }
+
+    private TokenStrikes strikesOf(StrikeIndex index) {
+        return tokenStrikes.compute(UnderlyingConstants.normalize(index.getUnderlying()), (key, current) ->
+            current != null && current.index == index ? current : new TokenStrikes(index));
+    }
+
+    private void offerChain(Subscription subscription, StrikeIndex index) {
+        synchronized (subscription) {
+            StrikeIndex last = subscription.lastIndex;
+            if (last != null && last.getTimestamp() != null && index.getTimestamp() != null
+                    && index.getTimestamp().isBefore(last.getTimestamp())) {
+                return; // a newer chain was already offered
+            }
+            if (last == null || last != index) {
+                Map<String, Object> chain = new LinkedHashMap<>();
+                chain.put("underlying", index.getUnderlying());
+                chain.put("spotPrice", index.getSpotPrice());
+                chain.put("dailyStrikePrice", index.getDailyStrikePrice());
+                chain.put("timestamp", index.getTimestamp());
+                pushDeliveryService.offer(subscription.client, "chain",
+                    new PushDeliveryService.Message(null, "chain", chain));
+            }
+
+            // Rows are projected now: the contracts are updated in place by the next poll
+            Map<String, Map<String, Object>> rows = new HashMap<>();
+            for (StrikeIndex.Row row : index.between(subscription.minStrike, subscription.maxStrike)) {
+                String key = "row:" + row.getStrike().stripTrailingZeros().toPlainString();
+                Map<String, Object> projected = ChainRowFields.project(row, subscription.fields);
+                rows.put(key, projected);
+                if (!projected.equals(subscription.lastRows.get(key))) {
+                    pushDeliveryService.offer(subscription.client, key,
+                        new PushDeliveryService.Message(null, "row", projected));
+                }
+            }
+            subscription.lastRows = rows;
+            subscription.lastIndex = index;
+        }
+    }
+
+    private void offerCurrentMetrics(Subscription subscription, TokenStrikes strikes) {
+        offerFinals(subscription, subscription.underlying);
+        strikes.strikes.forEach((token, strike) -> {
+            if (subscription.inRange(strike)) {
+                offerFinals(subscription, token);
+            }
+        });
+    }
+
+    private void offerFinals(Subscription subscription, String symbol) {
+        for (MetricResult result : metricsCacheService.getMirroredResults(symbol).values()) {
+            if ("final".equals(result.getStatus()) && subscription.wantsFeature(result.getFeature())) {
+                offerMetric(subscription, result);
+            }
+        }
+    }
+
+    private void offerMetric(Subscription subscription, MetricResult result) {
+        pushDeliveryService.offer(subscription.client, "metric:" + result.getSymbol() + ':' + result.getFeature(),
+            new PushDeliveryService.Message(null, "metric", result));
+    }
+}
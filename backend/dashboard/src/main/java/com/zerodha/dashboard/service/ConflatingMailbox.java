@@ -0,0 +1,68 @@
+package com.zerodha.dashboard.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Undelivered messages of one push client, at most one per key: a newer message for a key
+ * replaces the pending one, so a client that falls behind receives the latest state instead
+ * of every intermediate update. Holds at most {@code capacity} keys.
+ *
+ * A replaced message moves to the end, so a drained batch keeps the order in which the
+ * remaining messages were offered.
+ */
+final class ConflatingMailbox<M> {
+
+    enum Offer { ADDED, CONFLATED, FULL }
+
+    private final int capacity;
+    private final LinkedHashMap<String, M> pending = new LinkedHashMap<>();
+    private long oldestPendingAt;
+
+    ConflatingMailbox(int capacity) {
+        this.capacity = capacity;
+    }
+
+    synchronized Offer offer(String key, M message, long now) {
+        if (pending.remove(key) != null) {
+            pending.put(key, message);
+            return Offer.CONFLATED;
+        }
+        if (pending.size() >= capacity) {
+            return Offer.FULL;
+        }
+        if (pending.isEmpty()) {
+            oldestPendingAt = now;
+        }
+        pending.put(key, message);
+        return Offer.ADDED;
+    }
+
+    /**
+     * Take everything pending, in delivery order.
+     */
+    synchronized List<M> drain() {
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+        List<M> messages = new ArrayList<>(pending.values());
+        pending.clear();
+        return messages;
+    }
+
+    /**
+     * How long the oldest undelivered message has been waiting (0 if none).
+     */
+    synchronized long lag(long now) {
+        return pending.isEmpty() ? 0 : now - oldestPendingAt;
+    }
+
+    synchronized int size() {
+        return pending.size();
+    }
+
+    synchronized void clear() {
+        pending.clear();
+    }
+}
@@ -0,0 +1,48 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.model.ContractType;
+import com.zerodha.dashboard.model.DerivativeContract;
+import com.zerodha.dashboard.model.DerivativesChain;
+
+import java.time.Instant;
+
+/**
+ * Per-contract metric calculation, run by the fused contract pass
+ * ({@link com.zerodha.dashboard.service.impl.FusedContractMetricService}).
+ *
+ * Instead of walking the chain itself, a kernel is handed every contract of the chain
+ * in a single shared loop. Kernels keep their own state, window management and cache keys,
+ * exactly like an {@link IndependentMetricService}.
+ */
+public interface ContractMetricKernel {
+
+    /**
+     * Called once per chain before any contract is visited.
+     */
+    default void beginChain(DerivativesChain chain, Instant now) {
+    }
+
+    /**
+     * Process one contract. The contract type is classified once by the caller.
+     * Failures must stay local to the contract - the pass continues with the next one.
+     */
+    void visitContract(DerivativeContract contract, ContractType contractType, Instant now);
+
+    /**
+     * Called once per chain after every contract has been visited (chain-level metadata).
+     */
+    default void endChain(DerivativesChain chain, Instant now) {
+    }
+
+    /**
+     * Get the name of this kernel (for logging/debugging).
+     */
+    String getKernelName();
+
+    /**
+     * Check if this kernel is enabled.
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+}
@@ -1,8 +1,12 @@
 package com.zerodha.dashboard.service;
 
 import com.zerodha.dashboard.adapter.ZerodhaApiAdapter;
+import com.zerodha.dashboard.config.DeploymentRole;
+import com.zerodha.dashboard.constants.UnderlyingConstants;
 import com.zerodha.dashboard.constants.WindowConstants;
+import com.zerodha.dashboard.model.DerivativeContract;
 import com.zerodha.dashboard.model.DerivativesChain;
+import com.zerodha.dashboard.model.TickSnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,14 +17,21 @@ import org.springframework.stereotype.Service;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 
 /**
  * Dynamic scheduler service that updates the cache at a configurable interval.
  * The interval can be changed at runtime via API calls.
+ * 
+ * Multiple underlyings (zerodha.underlyings=NIFTY,BANKNIFTY,...) share this one scheduler:
+ * polls are spread evenly over the interval in round-robin order, so every underlying is
+ * refreshed once per interval and all of them draw from the same Kite request budget.
  */
 @Service
 public class DynamicCacheUpdateScheduler {
@@ -36,6 +47,15 @@ public class DynamicCacheUpdateScheduler {
     private final List<IndependentMetricService> independentServices;
     private final TaskScheduler taskScheduler;
     private final StringRedisTemplate redisTemplate;
+    private final RedisWriteBehindService redisWriteBehindService;
+    private final DeploymentRole deploymentRole;
+    private final ReplicaSubscriber replicaSubscriber;
+    private final ReplicationPublisher replicationPublisher;
+    private final LeaderElectionService leaderElection;
+    private final EngineCheckpointService engineCheckpointService;
+    private final ChainHistoryService chainHistoryService;
+    private final TickColumnStore tickColumnStore;
+    private final RedisService redisService;
     
     @Value("${zerodha.enabled:false}")
     private boolean zerodhaEnabled;
@@ -46,6 +66,13 @@ public class DynamicCacheUpdateScheduler {
     @Value("${cache.update.interval.ms:1000}")
     private long defaultIntervalMs;
     
+    @Value("${zerodha.underlyings:NIFTY}")
+    private String underlyingsConfig;
+    
+    // Underlyings polled in round-robin order (parsed from zerodha.underlyings)
+    private volatile List<String> underlyings = List.of(UnderlyingConstants.DEFAULT_UNDERLYING);
+    private int nextUnderlyingIndex = 0;
+    
     private ScheduledFuture<?> scheduledTask;
     private volatile long currentIntervalMs;
     
@@ -61,6 +88,7 @@ public class DynamicCacheUpdateScheduler {
     private volatile String lastError = null;
     private volatile int consecutiveFailures = 0;
     private static final int MAX_CONSECUTIVE_FAILURES = 3;
+    private final Map<String, Instant> lastSuccessfulPollByUnderlying = new ConcurrentHashMap<>();
 
     public DynamicCacheUpdateScheduler(
             ZerodhaApiAdapter zerodhaApiAdapter,
@@ -69,6 +97,15 @@ public class DynamicCacheUpdateScheduler {
             ZerodhaSessionService zerodhaSessionService,
             TaskScheduler taskScheduler,
             StringRedisTemplate redisTemplate,
+            RedisWriteBehindService redisWriteBehindService,
+            DeploymentRole deploymentRole,
+            ReplicaSubscriber replicaSubscriber,
+            ReplicationPublisher replicationPublisher,
+            LeaderElectionService leaderElection,
+            EngineCheckpointService engineCheckpointService,
+            ChainHistoryService chainHistoryService,
+            TickColumnStore tickColumnStore,
+            RedisService redisService,
             List<IndependentMetricService> independentServices) {
         this.zerodhaApiAdapter = zerodhaApiAdapter;
         this.latestSnapshotCacheService = latestSnapshotCacheService;
@@ -76,21 +113,56 @@ public class DynamicCacheUpdateScheduler {
         this.zerodhaSessionService = zerodhaSessionService;
         this.taskScheduler = taskScheduler;
         this.redisTemplate = redisTemplate;
+        this.redisWriteBehindService = redisWriteBehindService;
+        this.deploymentRole = deploymentRole;
+        this.replicaSubscriber = replicaSubscriber;
+        this.replicationPublisher = replicationPublisher;
+        this.leaderElection = leaderElection;
+        this.engineCheckpointService = engineCheckpointService;
+        this.chainHistoryService = chainHistoryService;
+        this.tickColumnStore = tickColumnStore;
+        this.redisService = redisService;
         // Initialize independent services list (injected by Spring)
         this.independentServices = independentServices != null ? independentServices : List.of();
     }
     
     @PostConstruct
     public void init() {
+        underlyings = parseUnderlyings(underlyingsConfig);
+        
         // Load interval from Redis or use default
         long interval = loadIntervalFromRedis();
         if (interval <= 0) {
             interval = defaultIntervalMs;
         }
         currentIntervalMs = interval;
+        // Followers run the leader's raw chains through the same pipeline to stay warm
+        replicaSubscriber.setRawChainConsumer(this::processChain);
         startScheduler(interval);
-        log.info("Dynamic cache update scheduler initialized with interval: {}ms ({}s)", 
-            interval, interval / 1000.0);
+        log.info("Dynamic cache update scheduler initialized with interval: {}ms ({}s) for underlyings {}", 
+            interval, interval / 1000.0, underlyings);
+    }
+    
+    static List<String> parseUnderlyings(String config) {
+        List<String> parsed = new ArrayList<>();
+        if (config != null) {
+            for (String part : config.split(",")) {
+                if (!part.isBlank()) {
+                    String underlying = UnderlyingConstants.normalize(part);
+                    if (!parsed.contains(underlying)) {
+                        parsed.add(underlying);
+                    }
+                }
+            }
+        }
+        return parsed.isEmpty() ? List.of(UnderlyingConstants.DEFAULT_UNDERLYING) : List.copyOf(parsed);
+    }
+    
+    /**
+     * Underlyings polled by this scheduler, in round-robin order.
+     */
+    public List<String> getUnderlyings() {
+        return underlyings;
     }
     
     @PreDestroy
@@ -102,6 +174,7 @@ public class DynamicCacheUpdateScheduler {
         lastFailedPoll = null;
         lastError = null;
         consecutiveFailures = 0;
+        lastSuccessfulPollByUnderlying.clear();
         log.info("DynamicCacheUpdateScheduler shutdown complete");
     }
     
@@ -151,6 +224,10 @@ public class DynamicCacheUpdateScheduler {
     }
     
     private void startScheduler(long intervalMs) {
+        if (!deploymentRole.polls()) {
+            log.info("Deployment role {} does not poll - data is replicated from the ingest node", deploymentRole);
+            return;
+        }
         if (!cacheUpdateEnabled || !zerodhaEnabled) {
             log.debug("Scheduler disabled or Zerodha not enabled");
             return;
@@ -161,12 +238,16 @@ public class DynamicCacheUpdateScheduler {
         // Initialize scheduled time
         nextScheduledTimeMs = System.currentTimeMillis();
         
+        // Each underlying is polled once per interval - spread the polls evenly across it
+        // instead of bursting all underlyings at the start of every interval
+        long pollSpacingMs = Math.max(1, intervalMs / underlyings.size());
+        
         // Start immediately, then self-schedule at exact intervals
         // This prevents task queuing that causes inconsistent updates
-        updateCacheAndScheduleNext(intervalMs);
+        updateCacheAndScheduleNext(pollSpacingMs);
         
-        log.info("Started cache update scheduler with interval: {}ms ({}s)", 
-            intervalMs, intervalMs / 1000.0);
+        log.info("Started cache update scheduler with interval: {}ms ({}s), {} underlying(s) polled every {}ms in turn", 
+            intervalMs, intervalMs / 1000.0, underlyings.size(), pollSpacingMs);
     }
     
     /**
@@ -220,6 +301,12 @@ public class DynamicCacheUpdateScheduler {
             return;
         }
         
+        // Only the elected leader spends Kite quota; followers keep ticking so they
+        // start polling on the first tick after taking over
+        if (!leaderElection.isLeader()) {
+            return;
+        }
+        
         // Set in-progress flag for API call
         updateInProgress = true;
         
@@ -232,22 +319,26 @@ public class DynamicCacheUpdateScheduler {
                 return;
             }
             
+            // Round-robin: the turn only advances when a poll actually runs, so a skipped
+            // (overlapping) tick never costs an underlying its turn
+            String underlying = nextUnderlying();
+            
             long apiCallStartTime = System.currentTimeMillis();
-            log.debug("API poll started (interval: {}ms)", currentIntervalMs);
+            log.debug("API poll started for {} (interval: {}ms)", underlying, currentIntervalMs);
             
             // STEP 1: Make API call to Zerodha (synchronous - wait for response)
             // CRITICAL: API call waits for Zerodha response
             // This is the only blocking operation - everything else is independent
-            Optional<DerivativesChain> chainOpt = zerodhaApiAdapter.getDerivativesChain("NIFTY");
+            Optional<DerivativesChain> chainOpt = zerodhaApiAdapter.pollDerivativesChain(underlying);
             
             long apiCallDuration = System.currentTimeMillis() - apiCallStartTime;
             if (apiCallDuration > 100) {
-                log.warn("API call took {}ms (unusually slow)", apiCallDuration);
+                log.warn("API call for {} took {}ms (unusually slow)", underlying, apiCallDuration);
             }
             
             if (!chainOpt.isPresent()) {
-                log.warn("API polling failed: No data returned from Zerodha API");
-                lastError = "No data returned from Zerodha API";
+                log.warn("API polling failed: No data returned from Zerodha API for {}", underlying);
+                lastError = "No data returned from Zerodha API for " + underlying;
                 lastFailedPoll = Instant.now();
                 consecutiveFailures++;
                 
@@ -260,11 +351,13 @@ public class DynamicCacheUpdateScheduler {
             
             // Success - update tracking
             lastSuccessfulPoll = Instant.now();
+            lastSuccessfulPollByUnderlying.put(underlying, lastSuccessfulPoll);
             lastError = null;
             consecutiveFailures = 0;
             
             // STEP 2: Get RAW chain from API response
             DerivativesChain rawChain = chainOpt.get();
+            replicationPublisher.publishRaw(rawChain);
             
             // STEP 3: Update cache IMMEDIATELY with raw data
             // CRITICAL: Cache is updated immediately after API response
@@ -280,41 +373,7 @@ public class DynamicCacheUpdateScheduler {
             // STEP 5: Process features using live response (doesn't block next poll)
             // CRITICAL: Features fetch from live response directly (not cache) for consistency
             // Processing happens independently - doesn't affect polling schedule
-            // Feature calculations are INDEPENDENT of API polling rate:
-            // - Each service operates as a microservice with own window management
-            // - Windows are epoch-aligned time boundaries (e.g., 0-3s, 3-6s for 3s window)
-            // - Services collect data points at each API polling cycle
-            // - Final values are calculated and stored when windows complete (at epoch boundaries)
-            // - Window completion is based on configured window intervals, NOT API polling rate
-            for (IndependentMetricService service : independentServices) {
-                if (!service.isEnabled()) {
-                    continue;
-                }
-                
-                try {
-                    // Each service processes independently - isolated error handling
-                    // Services use the live response directly (not cache) for calculations
-                    // They collect data points and calculate based on window intervals
-                    // Final values are stored in MetricsCacheService when windows complete
-                    // They also populate window metadata on the chain (for UI timers)
-                    // Basic values (LTP, Bid Qty, Ask Qty, Delta) are NOT modified
-                    boolean success = service.process(rawChain);
-                    if (!success) {
-                        log.warn("{} service returned false, but continuing with other services", 
-                            service.getServiceName());
-                    }
-                } catch (Exception e) {
-                    // Isolated error handling - one service failure doesn't affect others
-                    log.error("Error in {} service: {}", service.getServiceName(), e.getMessage(), e);
-                    // Continue with next service
-                }
-            }
-            
-            // STEP 6: Update cache with processed data (includes window metadata)
-            // This ensures window metadata from features is available in cache
-            basicValuesCacheService.updateCache(rawChain);
-            latestSnapshotCacheService.updateCache(rawChain);
-            log.debug("Cache updated with processed data (includes window metadata)");
+            processFeatures(rawChain);
             
             long apiCallDurationTotal = System.currentTimeMillis() - apiCallStartTime;
             log.debug("API poll and processing completed in {}ms for {} contracts", 
@@ -334,6 +393,94 @@ public class DynamicCacheUpdateScheduler {
         }
     }
     
+    /**
+     * Run a chain through the same pipeline as a live API poll: raw cache update,
+     * all independent metric services, then cache update with window metadata.
+     * Used by ReplayMarketAdapter to feed journaled market data through the real engines.
+     */
+    public void processChain(DerivativesChain rawChain) {
+        if (rawChain == null) {
+            return;
+        }
+        replicationPublisher.publishRaw(rawChain);
+        basicValuesCacheService.updateCache(rawChain);
+        latestSnapshotCacheService.updateCache(rawChain);
+        processFeatures(rawChain);
+    }
+    
+    /**
+     * Process features for a chain and update caches with the processed data.
+     */
+    private void processFeatures(DerivativesChain rawChain) {
+        // Feature calculations are INDEPENDENT of API polling rate:
+        // - Each service operates as a microservice with own window management
+        // - Windows are epoch-aligned time boundaries (e.g., 0-3s, 3-6s for 3s window)
+        // - Services collect data points at each API polling cycle
+        // - Final values are calculated and stored when windows complete (at epoch boundaries)
+        // - Window completion is based on configured window intervals, NOT API polling rate
+        for (IndependentMetricService service : independentServices) {
+            if (!service.isEnabled()) {
+                continue;
+            }
+            
+            try {
+                // Each service processes independently - isolated error handling
+                // Services use the live response directly (not cache) for calculations
+                // They collect data points and calculate based on window intervals
+                // Final values are stored in MetricsCacheService when windows complete
+                // They also populate window metadata on the chain (for UI timers)
+                // Basic values (LTP, Bid Qty, Ask Qty, Delta) are NOT modified
+                boolean success = service.process(rawChain);
+                if (!success) {
+                    log.warn("{} service returned false, but continuing with other services", 
+                        service.getServiceName());
+                }
+            } catch (Exception e) {
+                // Isolated error handling - one service failure doesn't affect others
+                log.error("Error in {} service: {}", service.getServiceName(), e.getMessage(), e);
+                // Continue with next service
+            }
+        }
+        
+        // STEP 6: Update cache with processed data (includes window metadata)
+        // This ensures window metadata from features is available in cache
+        basicValuesCacheService.updateCache(rawChain);
+        latestSnapshotCacheService.updateCache(rawChain);
+        log.debug("Cache updated with processed data (includes window metadata)");
+        
+        // Last tick of every instrument, readable by token (RedisSnapshotKey.byToken)
+        redisService.saveSnapshotsAsync(rawChain.getUnderlying(), toTickSnapshots(rawChain));
+        chainHistoryService.record(rawChain);
+        tickColumnStore.record(rawChain);
+        
+        // Engines are between polls here - a consistent moment to copy their state
+        engineCheckpointService.maybeCheckpoint();
+    }
+    
+    private static List<TickSnapshot> toTickSnapshots(DerivativesChain chain) {
+        Instant timestamp = chain.getTimestamp() != null ? chain.getTimestamp() : Instant.now();
+        List<TickSnapshot> snapshots = new ArrayList<>();
+        for (List<DerivativeContract> contracts : Arrays.asList(chain.getFutures(), chain.getCallOptions(), chain.getPutOptions())) {
+            if (contracts == null) {
+                continue;
+            }
+            for (DerivativeContract contract : contracts) {
+                if (contract.getInstrumentToken() != null && !contract.getInstrumentToken().isEmpty()) {
+                    snapshots.add(new TickSnapshot(contract.getInstrumentToken(), contract.getTradingsymbol(),
+                        contract.getLastPrice(), contract.getVolume(), contract.getSegment(), timestamp));
+                }
+            }
+        }
+        return snapshots;
+    }
+    
+    private synchronized String nextUnderlying() {
+        List<String> current = underlyings;
+        String underlying = current.get(nextUnderlyingIndex % current.size());
+        nextUnderlyingIndex = (nextUnderlyingIndex + 1) % current.size();
+        return underlying;
+    }
+    
     private void stopScheduler() {
         if (scheduledTask != null && !scheduledTask.isCancelled()) {
             scheduledTask.cancel(false);
@@ -354,6 +501,18 @@ public class DynamicCacheUpdateScheduler {
         status.put("consecutiveFailures", consecutiveFailures);
         status.put("hasWarning", consecutiveFailures >= MAX_CONSECUTIVE_FAILURES);
         status.put("currentIntervalMs", currentIntervalMs);
+        status.put("underlyings", underlyings);
+        status.put("lastSuccessfulPollByUnderlying", new java.util.HashMap<>(lastSuccessfulPollByUnderlying));
+        // Persistence runs behind the poll loop - report whether Redis is keeping up
+        status.put("redisWriteBehind", redisWriteBehindService.getStats());
+        status.put("deploymentRole", deploymentRole.name());
+        status.put("leaderElection", leaderElection.getStatus());
+        status.put("engineCheckpoint", engineCheckpointService.getStats());
+        status.put("chainHistory", chainHistoryService.getStats());
+        status.put("tickStore", tickColumnStore.getStats());
+        if (deploymentRole.replicates() || leaderElection.isElectionActive()) {
+            status.put("replication", replicaSubscriber.getStats());
+        }
         return status;
     }
     
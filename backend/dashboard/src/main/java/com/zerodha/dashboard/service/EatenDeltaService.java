@@ -7,6 +7,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -263,8 +265,14 @@ public class EatenDeltaService {
      * Returns window start/end times based on current window.
      */
     public WindowMetadata getWindowMetadata(Instant now) {
-        long currentEpochMillis = now.toEpochMilli();
-        long windowId = computeWindowId(currentEpochMillis);
+        return getWindowMetadata(computeWindowId(now.toEpochMilli()));
+    }
+    
+    /**
+     * Window start/end of a window ID (e.g. of the last completed window), at the current window
+     * size - after a resize, the completed window is replaced at the next rollover.
+     */
+    public WindowMetadata getWindowMetadata(long windowId) {
         long windowStartMillis = windowId * windowSizeMillis;
         long windowEndMillis = windowStartMillis + windowSizeMillis;
         
@@ -290,6 +298,84 @@ public class EatenDeltaService {
         }
     }
     
+    /**
+     * Checkpoint of all contract states (see EngineCheckpointService).
+     */
+    public static class Checkpoint {
+        public long windowSizeMillis;
+        public List<ContractCheckpoint> contracts = new ArrayList<>();
+    }
+    
+    /**
+     * One contract's snapshot, active accumulator and last completed window.
+     * completedWindowId is null when no window has completed yet.
+     */
+    public static class ContractCheckpoint {
+        public String token;
+        public boolean hasSnapshot;
+        public Long lastBidQty;
+        public Long lastAskQty;
+        public long activeWindowId;
+        public long askEatenSum;
+        public long bidEatenSum;
+        public Long completedWindowId;
+        public long completedAskEaten;
+        public long completedBidEaten;
+    }
+    
+    /**
+     * Copy all contract states. Call from the thread that processes polls.
+     */
+    public Checkpoint exportCheckpoint() {
+        Checkpoint checkpoint = new Checkpoint();
+        checkpoint.windowSizeMillis = windowSizeMillis;
+        contractStates.forEach((token, state) -> {
+            ContractCheckpoint contract = new ContractCheckpoint();
+            contract.token = token;
+            if (state.lastSnapshot != null) {
+                contract.hasSnapshot = true;
+                contract.lastBidQty = state.lastSnapshot.bidQty;
+                contract.lastAskQty = state.lastSnapshot.askQty;
+            }
+            contract.activeWindowId = state.activeWindowId;
+            contract.askEatenSum = state.activeWindow.askEatenSum;
+            contract.bidEatenSum = state.activeWindow.bidEatenSum;
+            if (state.lastCompletedWindow != null) {
+                contract.completedWindowId = state.lastCompletedWindow.windowId;
+                contract.completedAskEaten = state.lastCompletedWindow.askEaten;
+                contract.completedBidEaten = state.lastCompletedWindow.bidEaten;
+            }
+            checkpoint.contracts.add(contract);
+        });
+        return checkpoint;
+    }
+    
+    /**
+     * Replace all contract states with a checkpoint. Returns false (and changes nothing)
+     * if it was taken with a different window size.
+     */
+    public boolean restoreCheckpoint(Checkpoint checkpoint) {
+        if (checkpoint == null || checkpoint.windowSizeMillis != windowSizeMillis) {
+            return false;
+        }
+        contractStates.clear();
+        for (ContractCheckpoint contract : checkpoint.contracts) {
+            ContractEatenState state = new ContractEatenState(contract.activeWindowId);
+            if (contract.hasSnapshot) {
+                state.lastSnapshot = new Snapshot(contract.lastBidQty, contract.lastAskQty);
+            }
+            state.activeWindow.add(contract.askEatenSum, contract.bidEatenSum);
+            if (contract.completedWindowId != null) {
+                state.lastCompletedWindow = new WindowResult(contract.completedWindowId,
+                    contract.completedAskEaten, contract.completedBidEaten,
+                    contract.completedAskEaten - contract.completedBidEaten);
+            }
+            contractStates.put(contract.token, state);
+        }
+        log.info("EATEN_DELTA: Restored {} contract states from checkpoint", contractStates.size());
+        return true;
+    }
+    
     /**
      * Clear all state (useful for testing or reset).
      */
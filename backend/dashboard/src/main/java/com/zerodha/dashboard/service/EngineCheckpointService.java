@@ -0,0 +1,311 @@
+package com.zerodha.dashboard.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Periodic checkpoints of metric-engine state, restored on startup so a restart mid-session
+ * keeps showing values instead of blanking every metric until a full window completes.
+ *
+ * Covers the per-contract accumulators of EatenDeltaService and LtpMovementService, and the
+ * per-underlying caches, history and window positions of TrendCalculationService and
+ * SpotLtpTrendService.
+ *
+ * State is copied on the poll thread after a chain is processed (at most once per
+ * checkpoint.interval.ms), so a checkpoint never sees a half-processed poll. Encoding and
+ * writing happen off that thread. One more checkpoint is taken on shutdown.
+ *
+ * Stores (checkpoint.store):
+ * - file (default): checkpoint.path, written through a memory-mapped temp file that is
+ *   renamed over the previous checkpoint, so a crash mid-write leaves the old one intact
+ * - redis: one key written through the write-behind queue (leader only, fenced)
+ *
+ * Both use the same frame: [magic][version][savedAt millis][payload length][crc32][payload],
+ * payload encoded with the configured PayloadCodec. On startup a checkpoint older than
+ * checkpoint.max.age.ms is ignored. An engine whose window size changed since the
+ * checkpoint is skipped.
+ */
+@Service
+public class EngineCheckpointService {
+
+    private static final Logger log = LoggerFactory.getLogger(EngineCheckpointService.class);
+    public static final String REDIS_KEY = "zerodha:checkpoint:engines";
+
+    static final int MAGIC = 0x5A434B50; // "ZCKP"
+    static final byte FRAME_VERSION = 1;
+    static final int HEADER_BYTES = 4 + 1 + 8 + 4 + 8;
+
+    /**
+     * Everything that is checkpointed, one entry per engine.
+     */
+    public static class EngineCheckpoint {
+        public EatenDeltaService.Checkpoint eatenDelta;
+        public LtpMovementService.Checkpoint ltpMovement;
+        public TrendCalculationService.Checkpoint trend;
+        public SpotLtpTrendService.Checkpoint spotLtpTrend;
+    }
+
+    private final EatenDeltaService eatenDeltaService;
+    private final LtpMovementService ltpMovementService;
+    private final TrendCalculationService trendCalculationService;
+    private final SpotLtpTrendService spotLtpTrendService;
+    private final PayloadCodec payloadCodec;
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final RedisWriteBehindService writeBehind;
+    private final TaskScheduler taskScheduler;
+
+    @Value("${checkpoint.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${checkpoint.store:file}")
+    private String store = "file";
+
+    @Value("${checkpoint.path:./checkpoint/engine-checkpoint.bin}")
+    private String path = "./checkpoint/engine-checkpoint.bin";
+
+    @Value("${checkpoint.interval.ms:5000}")
+    private long intervalMs = 5000;
+
+    @Value("${checkpoint.max.age.ms:60000}")
+    private long maxAgeMs = 60000;
+
+    private volatile long lastCheckpointMs = 0;
+    private final AtomicBoolean writing = new AtomicBoolean(false);
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong skippedBusy = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile int lastSizeBytes = 0;
+    private volatile Instant lastWrittenAt = null;
+    private volatile Instant restoredFrom = null;
+    private volatile String lastError = null;
+
+    public EngineCheckpointService(
+            EatenDeltaService eatenDeltaService,
+            LtpMovementService ltpMovementService,
+            TrendCalculationService trendCalculationService,
+            SpotLtpTrendService spotLtpTrendService,
+            PayloadCodec payloadCodec,
+            RedisTemplate<String, byte[]> redisTemplate,
+            RedisWriteBehindService writeBehind,
+            TaskScheduler taskScheduler) {
+        this.eatenDeltaService = eatenDeltaService;
+        this.ltpMovementService = ltpMovementService;
+        this.trendCalculationService = trendCalculationService;
+        this.spotLtpTrendService = spotLtpTrendService;
+        this.payloadCodec = payloadCodec;
+        this.redisTemplate = redisTemplate;
+        this.writeBehind = writeBehind;
+        this.taskScheduler = taskScheduler;
+    }
+
+    @PostConstruct
+    public void restoreOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            byte[] frame = readFrame();
+            if (frame == null) {
+                log.info("No engine checkpoint found ({} store) - metrics start from empty windows", store);
+                return;
+            }
+            restore(frame, System.currentTimeMillis());
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            log.warn("Could not restore engine checkpoint: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void checkpointOnShutdown() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            write(encodeFrame(capture(), System.currentTimeMillis()));
+            log.info("Engine checkpoint written on shutdown ({} bytes)", lastSizeBytes);
+        } catch (Exception e) {
+            log.warn("Failed to write engine checkpoint on shutdown: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Called by the scheduler after each processed chain; captures state once per interval.
+     */
+    public void maybeCheckpoint() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastCheckpointMs < intervalMs) {
+            return;
+        }
+        if (!writing.compareAndSet(false, true)) {
+            // Previous checkpoint still being written - try again on the next poll
+            skippedBusy.incrementAndGet();
+            return;
+        }
+        lastCheckpointMs = now;
+        EngineCheckpoint checkpoint;
+        try {
+            checkpoint = capture();
+        } catch (RuntimeException e) {
+            writing.set(false);
+            throw e;
+        }
+        taskScheduler.schedule(() -> {
+            try {
+                write(encodeFrame(checkpoint, now));
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                lastError = e.getMessage();
+                log.warn("Failed to write engine checkpoint: {}", e.getMessage());
+            } finally {
+                writing.set(false);
+            }
+        }, Instant.now());
+    }
+
+    EngineCheckpoint capture() {
+        EngineCheckpoint checkpoint = new EngineCheckpoint();
+        checkpoint.eatenDelta = eatenDeltaService.exportCheckpoint();
+        checkpoint.ltpMovement = ltpMovementService.exportCheckpoint();
+        checkpoint.trend = trendCalculationService.exportCheckpoint();
+        checkpoint.spotLtpTrend = spotLtpTrendService.exportCheckpoint();
+        return checkpoint;
+    }
+
+    byte[] encodeFrame(EngineCheckpoint checkpoint, long savedAtMillis) throws IOException {
+        byte[] payload = payloadCodec.encode(checkpoint);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        frame.putInt(MAGIC);
+        frame.put(FRAME_VERSION);
+        frame.putLong(savedAtMillis);
+        frame.putInt(payload.length);
+        frame.putLong(crc.getValue());
+        frame.put(payload);
+        return frame.array();
+    }
+
+    /**
+     * Validate a frame and hand each engine its part. Returns false if the frame is too old.
+     */
+    boolean restore(byte[] frame, long nowMillis) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        if (frame.length < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.get() != FRAME_VERSION) {
+            throw new IOException("Not an engine checkpoint (or unsupported version)");
+        }
+        long savedAtMillis = buffer.getLong();
+        int length = buffer.getInt();
+        long expectedCrc = buffer.getLong();
+        if (length < 0 || length != buffer.remaining()) {
+            throw new IOException("Truncated engine checkpoint");
+        }
+        byte[] payload = new byte[length];
+        buffer.get(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if (crc.getValue() != expectedCrc) {
+            throw new IOException("Engine checkpoint checksum mismatch");
+        }
+
+        long ageMs = nowMillis - savedAtMillis;
+        if (ageMs > maxAgeMs) {
+            log.info("Engine checkpoint is {}s old (max {}s) - not restoring", ageMs / 1000, maxAgeMs / 1000);
+            return false;
+        }
+
+        EngineCheckpoint checkpoint = payloadCodec.decode(payload, EngineCheckpoint.class);
+        Map<String, Boolean> restored = new HashMap<>();
+        restored.put("eatenDelta", eatenDeltaService.restoreCheckpoint(checkpoint.eatenDelta));
+        restored.put("ltpMovement", ltpMovementService.restoreCheckpoint(checkpoint.ltpMovement));
+        restored.put("trend", trendCalculationService.restoreCheckpoint(checkpoint.trend));
+        restored.put("spotLtpTrend", spotLtpTrendService.restoreCheckpoint(checkpoint.spotLtpTrend));
+        restoredFrom = Instant.ofEpochMilli(savedAtMillis);
+        log.info("Restored engine checkpoint from {} ({}ms old): {}", restoredFrom, ageMs, restored);
+        return true;
+    }
+
+    private boolean useRedis() {
+        return "redis".equalsIgnoreCase(store);
+    }
+
+    private byte[] readFrame() throws IOException {
+        if (useRedis()) {
+            return redisTemplate.opsForValue().get(REDIS_KEY);
+        }
+        Path file = Paths.get(path);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            byte[] frame = new byte[mapped.remaining()];
+            mapped.get(frame);
+            return frame;
+        }
+    }
+
+    private void write(byte[] frame) throws IOException {
+        if (useRedis()) {
+            // Expired means too old to restore anyway
+            writeBehind.submitValue(REDIS_KEY, frame, Duration.ofMillis(Math.max(1000, maxAgeMs)));
+        } else {
+            Path file = Paths.get(path).toAbsolutePath();
+            Path parent = file.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, frame.length);
+                mapped.put(frame);
+                mapped.force();
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        written.incrementAndGet();
+        lastSizeBytes = frame.length;
+        lastWrittenAt = Instant.now();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("store", useRedis() ? "redis" : "file");
+        stats.put("written", written.get());
+        stats.put("skippedBusy", skippedBusy.get());
+        stats.put("failed", failed.get());
+        stats.put("lastSizeBytes", lastSizeBytes);
+        stats.put("lastWrittenAt", lastWrittenAt);
+        stats.put("restoredFrom", restoredFrom);
+        stats.put("lastError", lastError);
+        return stats;
+    }
+}
@@ -0,0 +1,52 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.model.DerivativesChain;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Event-time {@link MarketClock} - time advances only with the timestamps of processed chains.
+ *
+ * CRITICAL: Event time is monotonic. A chain stamped earlier than the latest observed event
+ * (out-of-order or duplicate data) does not move the clock backwards, so completed windows
+ * are never reopened.
+ *
+ * Before the first chain is observed the clock falls back to wall-clock time.
+ */
+public class EventTimeMarketClock implements MarketClock {
+
+    private static final long UNSET = Long.MIN_VALUE;
+
+    private final AtomicLong eventTimeMillis = new AtomicLong(UNSET);
+
+    @Override
+    public Instant now() {
+        long current = eventTimeMillis.get();
+        return current == UNSET ? Instant.now() : Instant.ofEpochMilli(current);
+    }
+
+    @Override
+    public Instant now(DerivativesChain chain) {
+        if (chain != null && chain.getTimestamp() != null) {
+            advanceTo(chain.getTimestamp());
+        }
+        return now();
+    }
+
+    /**
+     * Advance event time to the given instant (ignored if it is not later than current event time).
+     */
+    public void advanceTo(Instant eventTime) {
+        long millis = eventTime.toEpochMilli();
+        eventTimeMillis.accumulateAndGet(millis, (current, candidate) ->
+            current == UNSET ? candidate : Math.max(current, candidate));
+    }
+
+    /**
+     * Forget observed event time (e.g. before replaying another session).
+     */
+    public void reset() {
+        eventTimeMillis.set(UNSET);
+    }
+}
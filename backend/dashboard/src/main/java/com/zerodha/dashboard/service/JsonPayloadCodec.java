@@ -0,0 +1,44 @@
+package com.zerodha.dashboard.service;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+
+/**
+ * Plain JSON payloads (UTF-8 bytes). Kept for debugging with redis-cli and as a fallback
+ * while binary payloads are rolled out. Cannot read payloads written by {@link BinaryPayloadCodec}.
+ */
+public class JsonPayloadCodec implements PayloadCodec {
+
+    public static final String NAME = "json";
+
+    private final ObjectMapper objectMapper;
+
+    public JsonPayloadCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        return objectMapper.writeValueAsBytes(value);
+    }
+
+    @Override
+    public <T> T decode(byte[] payload, Class<T> type) throws IOException {
+        return decode(payload, objectMapper.constructType(type));
+    }
+
+    @Override
+    public <T> T decode(byte[] payload, JavaType type) throws IOException {
+        if (!PayloadCodec.isJsonPayload(payload)) {
+            throw new IOException("Payload is not JSON - written by another codec?");
+        }
+        return objectMapper.readValue(payload, type);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
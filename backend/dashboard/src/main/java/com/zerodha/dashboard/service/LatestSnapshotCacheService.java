@@ -1,17 +1,24 @@
 package com.zerodha.dashboard.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zerodha.dashboard.constants.UnderlyingConstants;
 import com.zerodha.dashboard.model.DerivativesChain;
+import com.zerodha.dashboard.model.StrikeIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * Service to cache the latest derivatives chain snapshot for fast retrieval.
@@ -24,24 +31,32 @@ public class LatestSnapshotCacheService {
     private static final Logger log = LoggerFactory.getLogger(LatestSnapshotCacheService.class);
     private static final String CACHE_KEY_PREFIX = "zerodha:latest:";
     
-    private final StringRedisTemplate redisTemplate;
-    private final ObjectMapper objectMapper;
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final PayloadCodec payloadCodec;
+    private final RedisWriteBehindService writeBehind;
+    private final ReplicationPublisher replicationPublisher;
     private final Duration cacheTtl;
-    private final String cacheKey;
     
-    // In-memory cache for ultra-fast access (atomic updates)
-    private volatile DerivativesChain inMemoryCache = null;
-    private final ReentrantReadWriteLock cacheLock = new ReentrantReadWriteLock();
+    // In-memory cache per underlying for ultra-fast access (whole-chain replacement is atomic)
+    private final Map<String, DerivativesChain> inMemoryCache = new ConcurrentHashMap<>();
+    // Bumped on every in-memory write, so readers can tell chain versions apart (see getVersion)
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    private final AtomicLong versionSequence = new AtomicLong();
+    // Strike index of each cached chain, rebuilt only when a new chain version is published
+    private final Map<String, StrikeIndex> strikeIndexes = new ConcurrentHashMap<>();
+    private final List<Consumer<StrikeIndex>> strikeIndexListeners = new CopyOnWriteArrayList<>();
     
     public LatestSnapshotCacheService(
-            StringRedisTemplate redisTemplate,
-            ObjectMapper objectMapper,
-            @Value("${redis.latest.cache.ttl:PT10M}") Duration cacheTtl,
-            @Value("${redis.latest.cache.key:zerodha:latest:NIFTY}") String cacheKey) {
+            RedisTemplate<String, byte[]> redisTemplate,
+            PayloadCodec payloadCodec,
+            RedisWriteBehindService writeBehind,
+            ReplicationPublisher replicationPublisher,
+            @Value("${redis.latest.cache.ttl:PT10M}") Duration cacheTtl) {
         this.redisTemplate = redisTemplate;
-        this.objectMapper = objectMapper;
+        this.payloadCodec = payloadCodec;
+        this.writeBehind = writeBehind;
+        this.replicationPublisher = replicationPublisher;
         this.cacheTtl = cacheTtl;
-        this.cacheKey = CACHE_KEY_PREFIX + cacheKey;
     }
     
     /**
@@ -54,24 +69,26 @@ public class LatestSnapshotCacheService {
             return;
         }
         
+        String underlying = UnderlyingConstants.normalize(chain.getUnderlying());
+        String cacheKey = cacheKey(underlying);
+        
         try {
             // Serialize the entire chain atomically
-            String chainJson = objectMapper.writeValueAsString(chain);
+            byte[] payload = payloadCodec.encode(chain);
             
             // Update in-memory cache first (atomic write)
-            cacheLock.writeLock().lock();
-            try {
-                inMemoryCache = chain;
-            } finally {
-                cacheLock.writeLock().unlock();
-            }
+            inMemoryCache.put(underlying, chain);
+            bumpVersion(underlying);
+            publishStrikes(underlying, chain);
             
-            // Update Redis cache
-            redisTemplate.opsForValue().set(cacheKey, chainJson, cacheTtl);
+            // Persist to Redis off the poll thread (latest wins if Redis is behind)
+            writeBehind.submitValue(cacheKey, payload, cacheTtl);
+            // Serve nodes replicate the same bytes (no-op unless dashboard.role=ingest)
+            replicationPublisher.publish(ReplicationMessage.Type.LATEST, underlying, payload);
             
             log.debug("Updated latest snapshot cache for key={}, contracts={}", 
                     cacheKey, chain.getTotalContracts());
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
             log.error("Failed to serialize DerivativesChain for cache update", e);
         } catch (Exception e) {
             log.error("Error updating latest snapshot cache", e);
@@ -79,33 +96,41 @@ public class LatestSnapshotCacheService {
     }
     
     /**
-     * Get the latest cached snapshot.
-     * Returns from in-memory cache first (fastest), falls back to Redis if needed.
+     * Get the latest cached snapshot for the default underlying.
      */
     public Optional<DerivativesChain> getLatest() {
+        return getLatest(UnderlyingConstants.DEFAULT_UNDERLYING);
+    }
+    
+    /**
+     * Get the latest cached snapshot for an underlying.
+     * Returns from in-memory cache first (fastest), falls back to Redis if needed.
+     */
+    public Optional<DerivativesChain> getLatest(String underlying) {
+        String normalized = UnderlyingConstants.normalize(underlying);
+        String cacheKey = cacheKey(normalized);
+        
         // Try in-memory cache first (ultra-fast)
-        cacheLock.readLock().lock();
-        try {
-            if (inMemoryCache != null) {
-                log.debug("Cache hit from in-memory for key={}", cacheKey);
-                return Optional.of(inMemoryCache);
-            }
-        } finally {
-            cacheLock.readLock().unlock();
+        DerivativesChain cached = inMemoryCache.get(normalized);
+        if (cached != null) {
+            log.debug("Cache hit from in-memory for key={}", cacheKey);
+            return Optional.of(cached);
         }
         
-        // Fallback to Redis
+        // Fallback to Redis (skipped while it is known to be down)
+        if (!writeBehind.isRedisAvailable()) {
+            log.debug("Redis unavailable - no in-memory entry for key={}", cacheKey);
+            return Optional.empty();
+        }
         try {
-            String chainJson = redisTemplate.opsForValue().get(cacheKey);
-            if (chainJson != null) {
-                DerivativesChain chain = objectMapper.readValue(chainJson, DerivativesChain.class);
+            byte[] payload = redisTemplate.opsForValue().get(cacheKey);
+            if (payload != null) {
+                DerivativesChain chain = payloadCodec.decode(payload, DerivativesChain.class);
                 
-                // Update in-memory cache
-                cacheLock.writeLock().lock();
-                try {
-                    inMemoryCache = chain;
-                } finally {
-                    cacheLock.writeLock().unlock();
+                // Update in-memory cache (don't overwrite a newer snapshot written meanwhile)
+                if (inMemoryCache.putIfAbsent(normalized, chain) == null) {
+                    bumpVersion(normalized);
+                    indexStrikes(normalized, chain);
                 }
                 
                 log.debug("Cache hit from Redis for key={}", cacheKey);
@@ -114,7 +139,7 @@ public class LatestSnapshotCacheService {
                 log.debug("Cache miss for key={}", cacheKey);
                 return Optional.empty();
             }
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
             log.error("Failed to deserialize DerivativesChain from cache", e);
             return Optional.empty();
         } catch (Exception e) {
@@ -124,27 +149,101 @@ public class LatestSnapshotCacheService {
     }
     
     /**
-     * Clear the cache (useful for testing or manual refresh)
+     * Apply a chain replicated from the ingest node (serve nodes only).
+     * Memory only - the ingest node has already written Redis.
+     */
+    public void applyReplica(DerivativesChain chain) {
+        if (chain == null) {
+            return;
+        }
+        String underlying = UnderlyingConstants.normalize(chain.getUnderlying());
+        inMemoryCache.put(underlying, chain);
+        bumpVersion(underlying);
+        publishStrikes(underlying, chain);
+    }
+    
+    /**
+     * Strike index of the latest snapshot for an underlying (loading it from Redis if needed).
+     */
+    public Optional<StrikeIndex> getStrikeIndex(String underlying) {
+        String normalized = UnderlyingConstants.normalize(underlying);
+        StrikeIndex index = strikeIndexes.get(normalized);
+        if (index != null) {
+            return Optional.of(index);
+        }
+        return getLatest(normalized).map(chain -> indexStrikes(normalized, chain));
+    }
+    
+    /**
+     * Called with the strike index every time a chain is published (updateCache or a
+     * replica), also when the index is reused because only contract values changed.
+     * Runs on the publishing thread.
+     */
+    public void addStrikeIndexListener(Consumer<StrikeIndex> listener) {
+        strikeIndexListeners.add(listener);
+    }
+    
+    /**
+     * Version of the in-memory snapshot for an underlying (0 if none). Changes whenever
+     * the entry is written, including when the same chain instance is published again
+     * after it was updated. Read it before getLatest: a newer chain with an older version
+     * only costs an extra re-encode, never a stale response.
+     */
+    public long getVersion(String underlying) {
+        return versions.getOrDefault(UnderlyingConstants.normalize(underlying), 0L);
+    }
+    
+    /**
+     * Underlyings that currently have a snapshot in memory.
+     */
+    public Set<String> getCachedUnderlyings() {
+        return Set.copyOf(inMemoryCache.keySet());
+    }
+    
+    /**
+     * Clear the cache for every underlying (useful for testing or manual refresh)
      */
     public void clearCache() {
-        cacheLock.writeLock().lock();
-        try {
-            inMemoryCache = null;
-        } finally {
-            cacheLock.writeLock().unlock();
+        for (String underlying : Set.copyOf(inMemoryCache.keySet())) {
+            clearCache(underlying);
         }
+    }
+    
+    /**
+     * Clear the cache for one underlying
+     */
+    public void clearCache(String underlying) {
+        String normalized = UnderlyingConstants.normalize(underlying);
+        String cacheKey = cacheKey(normalized);
+        inMemoryCache.remove(normalized);
+        bumpVersion(normalized);
+        strikeIndexes.remove(normalized);
         redisTemplate.delete(cacheKey);
         log.info("Cleared latest snapshot cache for key={}", cacheKey);
     }
+    
+    private StrikeIndex indexStrikes(String underlying, DerivativesChain chain) {
+        // The scheduler publishes each chain twice (raw, then with window metadata)
+        return strikeIndexes.compute(underlying, (key, current) ->
+            current != null && current.isBuiltFrom(chain) ? current : StrikeIndex.of(chain));
+    }
+    
+    private void publishStrikes(String underlying, DerivativesChain chain) {
+        StrikeIndex index = indexStrikes(underlying, chain);
+        for (Consumer<StrikeIndex> listener : strikeIndexListeners) {
+            try {
+                listener.accept(index);
+            } catch (Exception e) {
+                log.warn("Strike index listener failed for underlying={}", underlying, e);
+            }
+        }
+    }
+    
+    private void bumpVersion(String underlying) {
+        versions.put(underlying, versionSequence.incrementAndGet());
+    }
+    
+    private static String cacheKey(String underlying) {
+        return CACHE_KEY_PREFIX + underlying;
+    }
 }
-
-
-
-
-
-
-
-
-
-
-
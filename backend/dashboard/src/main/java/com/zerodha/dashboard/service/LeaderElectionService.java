@@ -0,0 +1,224 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.config.DeploymentRole;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Lease-based leader election for the poller across replicas (leader.election.enabled=true).
+ *
+ * The leader holds {zerodha:poller}:leader (value = instance id, PX = leader.lease.ms) and renews it
+ * every leader.renew.ms. Followers try to acquire it on the same cadence, so a dead leader is
+ * replaced within one lease; keep the lease at or below the polling interval for takeover within
+ * one poll.
+ *
+ * Every acquisition increments {zerodha:poller}:fencing (same hash tag, so the acquire script
+ * touches a single Redis Cluster slot) and the new value is the leader's fencing
+ * token. Redis writes carry the token and are rejected by their Lua scripts once a newer leader
+ * has written the same key (each key's fence is stored in its own slot), so a paused or
+ * partitioned ex-leader cannot overwrite its successor's data.
+ * A leader that cannot renew steps down on its own when its local lease deadline passes.
+ *
+ * Disabled (default): every polling role is leader, as before.
+ */
+@Service
+public class LeaderElectionService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderElectionService.class);
+    public static final String LEADER_KEY = "{zerodha:poller}:leader";
+    public static final String FENCING_KEY = "{zerodha:poller}:fencing";
+
+    // SET NX the lease; on success take the next fencing token
+    private static final String ACQUIRE_SCRIPT =
+        "if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then\n" +
+        "  return redis.call('INCR', KEYS[2])\n" +
+        "end\n" +
+        "return 0\n";
+
+    // Extend the lease only if we still own it
+    private static final String RENEW_SCRIPT =
+        "if redis.call('GET', KEYS[1]) == ARGV[1] then\n" +
+        "  return redis.call('PEXPIRE', KEYS[1], ARGV[2])\n" +
+        "end\n" +
+        "return 0\n";
+
+    private static final String RELEASE_SCRIPT =
+        "if redis.call('GET', KEYS[1]) == ARGV[1] then\n" +
+        "  return redis.call('DEL', KEYS[1])\n" +
+        "end\n" +
+        "return 0\n";
+
+    private final StringRedisTemplate redisTemplate;
+    private final DeploymentRole deploymentRole;
+    private final TaskScheduler taskScheduler;
+    private final String instanceId;
+
+    private final DefaultRedisScript<Long> acquireScript = new DefaultRedisScript<>(ACQUIRE_SCRIPT, Long.class);
+    private final DefaultRedisScript<Long> renewScript = new DefaultRedisScript<>(RENEW_SCRIPT, Long.class);
+    private final DefaultRedisScript<Long> releaseScript = new DefaultRedisScript<>(RELEASE_SCRIPT, Long.class);
+
+    @Value("${leader.election.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${leader.lease.ms:1000}")
+    private long leaseMs = 1000;
+
+    @Value("${leader.renew.ms:250}")
+    private long renewMs = 250;
+
+    private ScheduledFuture<?> heartbeat;
+
+    private volatile boolean leader = false;
+    private volatile long fencingToken = 0;
+    private volatile long leaseDeadlineMs = 0;
+    private volatile Instant leaderSince = null;
+    private volatile String lastError = null;
+    private volatile long transitions = 0;
+
+    public LeaderElectionService(
+            StringRedisTemplate redisTemplate,
+            DeploymentRole deploymentRole,
+            TaskScheduler taskScheduler) {
+        this.redisTemplate = redisTemplate;
+        this.deploymentRole = deploymentRole;
+        this.taskScheduler = taskScheduler;
+        this.instanceId = ManagementFactory.getRuntimeMXBean().getName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!isElectionActive()) {
+            return;
+        }
+        heartbeat = taskScheduler.scheduleAtFixedRate(this::tick, Duration.ofMillis(Math.max(50, renewMs)));
+        log.info("Leader election enabled: instance={}, lease={}ms, renew every {}ms", instanceId, leaseMs, renewMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (heartbeat != null) {
+            heartbeat.cancel(false);
+        }
+        if (leader) {
+            // Hand over immediately instead of letting followers wait for the lease to expire
+            try {
+                redisTemplate.execute(releaseScript, List.of(LEADER_KEY), instanceId);
+                log.info("Released poller leadership (fencing token {})", fencingToken);
+            } catch (Exception e) {
+                log.warn("Failed to release poller leadership: {}", e.getMessage());
+            }
+            stepDown("shutdown");
+        }
+    }
+
+    /**
+     * One election round: renew if leading, otherwise try to acquire.
+     */
+    void tick() {
+        long attemptStartMs = System.currentTimeMillis();
+        try {
+            if (leader) {
+                Long renewed = redisTemplate.execute(renewScript, List.of(LEADER_KEY), instanceId, String.valueOf(leaseMs));
+                if (renewed != null && renewed == 1L) {
+                    leaseDeadlineMs = attemptStartMs + leaseMs;
+                } else {
+                    stepDown("lease lost to another instance");
+                }
+            } else {
+                Long token = redisTemplate.execute(acquireScript, List.of(LEADER_KEY, FENCING_KEY), instanceId, String.valueOf(leaseMs));
+                if (token != null && token > 0) {
+                    fencingToken = token;
+                    leaseDeadlineMs = attemptStartMs + leaseMs;
+                    leader = true;
+                    leaderSince = Instant.now();
+                    transitions++;
+                    log.info("Acquired poller leadership: instance={}, fencing token={}", instanceId, token);
+                }
+            }
+            lastError = null;
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            log.debug("Leader election round failed: {}", e.getMessage());
+        }
+
+        // Cannot reach Redis to renew - give up before a follower can legitimately take over
+        if (leader && System.currentTimeMillis() >= leaseDeadlineMs) {
+            stepDown("lease expired without renewal");
+        }
+    }
+
+    private void stepDown(String reason) {
+        if (!leader) {
+            return;
+        }
+        leader = false;
+        fencingToken = 0;
+        leaderSince = null;
+        transitions++;
+        log.warn("Stepped down as poller leader: {}", reason);
+    }
+
+    /**
+     * Whether election is running for this instance (enabled and in a polling role).
+     */
+    public boolean isElectionActive() {
+        return enabled && deploymentRole.polls();
+    }
+
+    /**
+     * Whether this instance should poll Kite and compute metrics right now.
+     */
+    public boolean isLeader() {
+        if (!isElectionActive()) {
+            return deploymentRole.polls();
+        }
+        return leader && System.currentTimeMillis() < leaseDeadlineMs;
+    }
+
+    /**
+     * Whether this instance may write shared Redis state. Followers keep warm in memory only.
+     */
+    public boolean writesAllowed() {
+        return !isElectionActive() || isLeader();
+    }
+
+    /**
+     * Fencing token to attach to Redis writes, 0 when election is not active (unfenced writes).
+     */
+    public long currentFencingToken() {
+        return isElectionActive() && isLeader() ? fencingToken : 0;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("enabled", isElectionActive());
+        status.put("instanceId", instanceId);
+        status.put("leader", isLeader());
+        status.put("fencingToken", fencingToken);
+        status.put("leaderSince", leaderSince);
+        status.put("leaseMs", leaseMs);
+        status.put("transitions", transitions);
+        status.put("lastError", lastError);
+        return status;
+    }
+}
@@ -1,112 +1,253 @@
 package com.zerodha.dashboard.service;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.stream.Stream;
 
 /**
  * Service for handling file-based logging with rotation
  * Maintains maximum 10 log files, rotating when limit is reached
+ *
+ * Frontend log lines are formatted on the request thread and queued; one "frontend-log-writer"
+ * thread appends them in batches through a FileChannel that stays open until rotation.
+ * The queue is bounded (app.logging.queue.capacity lines) - when the writer cannot keep up,
+ * new lines are dropped and counted instead of making requests wait for the disk.
+ * Files are rotated when they reach app.logging.max.file.bytes or app.logging.rotate.interval,
+ * and old files are cleaned up only after a rotation.
  */
 @Service
 public class LoggingService {
     private static final Logger log = LoggerFactory.getLogger(LoggingService.class);
-    private static final int MAX_LOG_FILES = 10;
     private static final DateTimeFormatter FILE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
-    
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+
     @Value("${app.logging.directory:logs}")
-    private String logDirectory;
-    
+    private String logDirectory = "logs";
+
     @Value("${app.logging.enabled:true}")
-    private boolean loggingEnabled;
-    
+    private boolean loggingEnabled = true;
+
+    @Value("${app.logging.max.files:10}")
+    private int maxLogFiles = 10;
+
+    @Value("${app.logging.max.file.bytes:10485760}")
+    private long maxFileBytes = 10 * 1024 * 1024;
+
+    @Value("${app.logging.rotate.interval:PT24H}")
+    private Duration rotateInterval = Duration.ofHours(24);
+
+    @Value("${app.logging.queue.capacity:10000}")
+    private int queueCapacity = 10_000;
+
+    @Value("${app.logging.flush.interval.ms:200}")
+    private long flushIntervalMs = 200;
+
+    // Lines waiting for the writer; queued counts them since ConcurrentLinkedQueue.size() is O(n)
+    private final Queue<String> lines = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong rotations = new AtomicLong();
+
+    private volatile Thread writerThread;
+    private volatile boolean running = false;
+    private volatile boolean accepting = false;
+
+    // Owned by the writer thread
     private Path logDirPath;
     private String currentLogFile;
-    
-    public LoggingService() {
-        // Will be initialized in init() after @Value injection
-    }
-    
+    private FileChannel channel;
+    private long currentSize;
+    private long openedAtMillis;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+
     /**
-     * Initialize logging directory and current log file
+     * Initialize logging directory and start the writer
      */
-    private void init() {
-        if (logDirPath != null) {
-            return; // Already initialized
+    @PostConstruct
+    public void start() {
+        if (!loggingEnabled || !open()) {
+            return;
         }
-        
+        running = true;
+        Thread thread = new Thread(this::runWriter, "frontend-log-writer");
+        thread.setDaemon(true);
+        writerThread = thread;
+        thread.start();
+        log.info("Logging service initialized. Log directory: {}, Current file: {}",
+                logDirPath.toAbsolutePath(), currentLogFile);
+    }
+
+    /**
+     * Create the directory, open the current file and start accepting lines (no writer thread).
+     */
+    boolean open() {
         try {
             logDirPath = Paths.get(logDirectory);
             if (!Files.exists(logDirPath)) {
                 Files.createDirectories(logDirPath);
                 log.info("Created log directory: {}", logDirPath.toAbsolutePath());
             }
-            
-            // Create initial log file
-            currentLogFile = createNewLogFile();
-            log.info("Logging service initialized. Log directory: {}, Current file: {}", 
-                    logDirPath.toAbsolutePath(), currentLogFile);
+            openLogFile(createNewLogFile());
+            cleanupOldLogs();
         } catch (IOException e) {
             log.error("Failed to initialize logging directory: {}", e.getMessage(), e);
+            return false;
+        }
+        accepting = true;
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        accepting = false;
+        running = false;
+        Thread thread = writerThread;
+        if (thread == null) {
+            closeChannel();
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        log.info("Logging service stopped ({} line(s) written, {} dropped)", written.get(), dropped.get());
     }
-    
+
     /**
-     * Write logs to file
+     * Queue logs for writing. Returns the number of entries accepted; the rest were
+     * dropped because the queue is full.
      */
-    public void writeLogs(List<Map<String, Object>> logEntries) {
-        if (!loggingEnabled) {
-            return;
+    public int writeLogs(List<Map<String, Object>> logEntries) {
+        if (!loggingEnabled || !accepting) {
+            return 0;
         }
-        
-        init(); // Ensure directory is initialized
-        
-        if (logDirPath == null || currentLogFile == null) {
-            log.warn("Logging service not properly initialized, skipping log write");
-            return;
+
+        int count = 0;
+        for (Map<String, Object> entry : logEntries) {
+            if (queued.incrementAndGet() > queueCapacity) {
+                queued.decrementAndGet();
+                int rejected = logEntries.size() - count;
+                long before = dropped.getAndAdd(rejected);
+                if (before == 0 || before / 1000 != (before + rejected) / 1000) {
+                    log.warn("Frontend log queue full ({} lines) - dropped {} line(s) so far",
+                            queueCapacity, before + rejected);
+                }
+                break;
+            }
+            lines.offer(formatLogEntry(entry));
+            count++;
+        }
+        // No wake-up: the writer picks lines up every flush interval, in one batch
+        accepted.addAndGet(count);
+        return count;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", loggingEnabled);
+        stats.put("currentFile", currentLogFile);
+        stats.put("queued", queued.get());
+        stats.put("accepted", accepted.get());
+        stats.put("written", written.get());
+        stats.put("dropped", dropped.get());
+        stats.put("rotations", rotations.get());
+        return stats;
+    }
+
+    private void runWriter() {
+        long parkNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs));
+        while (running) {
+            // Idle: wait out the flush interval. Busy: lines that arrived during the last write
+            // are the next batch, so a backlog drains without waiting (and a wake-up is harmless)
+            if (lines.isEmpty()) {
+                LockSupport.parkNanos(this, parkNanos);
+            }
+            writePending();
         }
-        
+        // Last lines queued before shutdown
+        writePending();
+        closeChannel();
+    }
+
+    /**
+     * Append everything queued, then rotate if the file is due.
+     */
+    void writePending() {
         try {
-            Path logFilePath = logDirPath.resolve(currentLogFile);
-            
-            // Check if current log file is getting too large (e.g., > 10MB)
-            if (Files.exists(logFilePath) && Files.size(logFilePath) > 10 * 1024 * 1024) {
-                rotateLogFile();
-                logFilePath = logDirPath.resolve(currentLogFile);
+            String line;
+            while ((line = lines.poll()) != null) {
+                queued.decrementAndGet();
+                append(line.getBytes(StandardCharsets.UTF_8));
+                append(System.lineSeparator().getBytes(StandardCharsets.UTF_8));
+                written.incrementAndGet();
             }
-            
-            try (BufferedWriter writer = Files.newBufferedWriter(logFilePath, 
-                    java.nio.file.StandardOpenOption.CREATE, 
-                    java.nio.file.StandardOpenOption.APPEND)) {
-                
-                for (Map<String, Object> entry : logEntries) {
-                    String logLine = formatLogEntry(entry);
-                    writer.write(logLine);
-                    writer.newLine();
-                }
-                
-                writer.flush();
+            flushBuffer();
+            if (currentSize >= maxFileBytes
+                    || (currentSize > 0 && System.currentTimeMillis() - openedAtMillis >= rotateInterval.toMillis())) {
+                rotateLogFile();
             }
-            
-            // Clean up old log files
-            cleanupOldLogs();
-            
         } catch (IOException e) {
             log.error("Failed to write logs to file: {}", e.getMessage(), e);
+            buffer.clear();
+            reopenAfterFailure();
         }
     }
-    
+
+    private void append(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.remaining()) {
+            flushBuffer();
+            if (bytes.length > buffer.capacity()) {
+                writeFully(ByteBuffer.wrap(bytes));
+                return;
+            }
+        }
+        buffer.put(bytes);
+    }
+
+    private void flushBuffer() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            currentSize += channel.write(bytes);
+        }
+    }
+
     /**
      * Format a log entry as a single line
      */
@@ -117,20 +258,20 @@ public class LoggingService {
         sb.append(entry.getOrDefault("level", "INFO").toString().toUpperCase());
         sb.append(" | ");
         sb.append(entry.getOrDefault("message", ""));
-        
+
         if (entry.containsKey("data") && entry.get("data") != null) {
             sb.append(" | Data: ");
             sb.append(entry.get("data"));
         }
-        
+
         if (entry.containsKey("url") && entry.get("url") != null) {
             sb.append(" | URL: ");
             sb.append(entry.get("url"));
         }
-        
+
         return sb.toString();
     }
-    
+
     /**
      * Create a new log file with timestamp
      */
@@ -138,28 +279,68 @@ public class LoggingService {
         String timestamp = LocalDateTime.now().format(FILE_DATE_FORMAT);
         return String.format("frontend-%s.log", timestamp);
     }
-    
+
+    private void openLogFile(String fileName) throws IOException {
+        currentLogFile = fileName;
+        channel = FileChannel.open(logDirPath.resolve(fileName),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        currentSize = channel.size();
+        openedAtMillis = System.currentTimeMillis();
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close log file {}: {}", currentLogFile, e.getMessage());
+        }
+        channel = null;
+    }
+
     /**
      * Rotate to a new log file
      */
-    private void rotateLogFile() {
-        currentLogFile = createNewLogFile();
+    private void rotateLogFile() throws IOException {
+        String next = createNewLogFile();
+        if (next.equals(currentLogFile)) {
+            return; // same second - keep appending, rotate on the next write
+        }
+        closeChannel();
+        openLogFile(next);
+        rotations.incrementAndGet();
         log.info("Rotated to new log file: {}", currentLogFile);
+        cleanupOldLogs();
     }
-    
+
+    private void reopenAfterFailure() {
+        closeChannel();
+        try {
+            Files.createDirectories(logDirPath);
+            openLogFile(createNewLogFile());
+        } catch (IOException e) {
+            log.error("Failed to reopen log file: {}", e.getMessage());
+            // Don't spin on a broken disk
+            LockSupport.parkNanos(this, TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+
     /**
-     * Clean up old log files, keeping only the most recent MAX_LOG_FILES
+     * Clean up old log files, keeping only the most recent maxLogFiles
      */
     private void cleanupOldLogs() {
         try {
             if (!Files.exists(logDirPath)) {
                 return;
             }
-            
+
             try (Stream<Path> paths = Files.list(logDirPath)) {
                 List<Path> logFiles = paths
-                    .filter(path -> path.getFileName().toString().startsWith("frontend-") 
+                    .filter(path -> path.getFileName().toString().startsWith("frontend-")
                             && path.getFileName().toString().endsWith(".log"))
+                    .filter(path -> !path.getFileName().toString().equals(currentLogFile))
                     .sorted((a, b) -> {
                         try {
                             return Files.getLastModifiedTime(b).compareTo(Files.getLastModifiedTime(a));
@@ -168,15 +349,16 @@ public class LoggingService {
                         }
                     })
                     .toList();
-                
-                // Delete files beyond MAX_LOG_FILES
-                if (logFiles.size() > MAX_LOG_FILES) {
-                    for (int i = MAX_LOG_FILES; i < logFiles.size(); i++) {
+
+                // Delete files beyond maxLogFiles (the current file counts as one)
+                int keep = Math.max(0, maxLogFiles - 1);
+                if (logFiles.size() > keep) {
+                    for (int i = keep; i < logFiles.size(); i++) {
                         try {
                             Files.delete(logFiles.get(i));
                             log.debug("Deleted old log file: {}", logFiles.get(i).getFileName());
                         } catch (IOException e) {
-                            log.warn("Failed to delete old log file {}: {}", 
+                            log.warn("Failed to delete old log file {}: {}",
                                     logFiles.get(i).getFileName(), e.getMessage());
                         }
                     }
@@ -187,18 +369,3 @@ public class LoggingService {
         }
     }
 }
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
@@ -426,8 +426,14 @@ public class LtpMovementService {
      * Returns window start/end times based on current window.
      */
     public WindowMetadata getWindowMetadata(Instant now) {
-        long currentEpochMillis = now.toEpochMilli();
-        long windowId = computeWindowId(currentEpochMillis);
+        return getWindowMetadata(computeWindowId(now.toEpochMilli()));
+    }
+    
+    /**
+     * Window start/end of a window ID (e.g. of the last completed window), at the current window
+     * size - after a resize, the completed window is replaced at the next rollover.
+     */
+    public WindowMetadata getWindowMetadata(long windowId) {
         long windowStartMillis = windowId * windowSizeMillis;
         long windowEndMillis = windowStartMillis + windowSizeMillis;
         
@@ -453,6 +459,100 @@ public class LtpMovementService {
         }
     }
     
+    /**
+     * Checkpoint of all contract states (see EngineCheckpointService).
+     */
+    public static class Checkpoint {
+        public long windowSizeMillis;
+        public int movementCacheSize;
+        public List<ContractCheckpoint> contracts = new ArrayList<>();
+    }
+    
+    /**
+     * One contract's snapshot, active accumulator and last completed window.
+     * The movement sequence is stored as one char per movement ('U' / 'D');
+     * completedDirection is null when no window has completed yet.
+     */
+    public static class ContractCheckpoint {
+        public String token;
+        public BigDecimal lastPrice;
+        public long activeWindowId;
+        public int upCount;
+        public int downCount;
+        public double maxChangePercent;
+        public String sequence;
+        public long completedWindowId;
+        public String completedDirection;
+        public int completedConfidence;
+        public String completedIntensity;
+    }
+    
+    /**
+     * Copy all contract states. Call from the thread that processes polls.
+     */
+    public Checkpoint exportCheckpoint() {
+        Checkpoint checkpoint = new Checkpoint();
+        checkpoint.windowSizeMillis = windowSizeMillis;
+        checkpoint.movementCacheSize = movementCacheSize;
+        contractStates.forEach((token, state) -> {
+            ContractCheckpoint contract = new ContractCheckpoint();
+            contract.token = token;
+            contract.lastPrice = state.lastSnapshot != null ? state.lastSnapshot.lastPrice : null;
+            contract.activeWindowId = state.activeWindowId;
+            contract.upCount = state.activeWindow.upCount;
+            contract.downCount = state.activeWindow.downCount;
+            contract.maxChangePercent = state.activeWindow.maxChangePercent;
+            StringBuilder sequence = new StringBuilder(state.activeWindow.sequence.size());
+            for (Movement movement : state.activeWindow.sequence) {
+                sequence.append("UP".equals(movement.direction) ? 'U' : 'D');
+            }
+            contract.sequence = sequence.toString();
+            if (state.lastCompletedWindow != null) {
+                contract.completedWindowId = state.lastCompletedWindow.windowId;
+                contract.completedDirection = state.lastCompletedWindow.direction;
+                contract.completedConfidence = state.lastCompletedWindow.confidence;
+                contract.completedIntensity = state.lastCompletedWindow.intensity;
+            }
+            checkpoint.contracts.add(contract);
+        });
+        return checkpoint;
+    }
+    
+    /**
+     * Replace all contract states with a checkpoint. Returns false (and changes nothing)
+     * if it was taken with a different window or movement cache size.
+     */
+    public boolean restoreCheckpoint(Checkpoint checkpoint) {
+        if (checkpoint == null || checkpoint.windowSizeMillis != windowSizeMillis
+                || checkpoint.movementCacheSize != movementCacheSize) {
+            return false;
+        }
+        contractStates.clear();
+        for (ContractCheckpoint contract : checkpoint.contracts) {
+            ContractLtpMovementState state = new ContractLtpMovementState(contract.activeWindowId);
+            if (contract.lastPrice != null) {
+                state.lastSnapshot = new LtpSnapshot(contract.lastPrice);
+            }
+            LtpWindowAccumulator window = state.activeWindow;
+            if (contract.sequence != null) {
+                for (int i = 0; i < contract.sequence.length(); i++) {
+                    // Per-movement change % is not kept - only the window maximum matters
+                    window.sequence.add(new Movement(contract.sequence.charAt(i) == 'U' ? "UP" : "DOWN", 0.0));
+                }
+            }
+            window.upCount = contract.upCount;
+            window.downCount = contract.downCount;
+            window.maxChangePercent = contract.maxChangePercent;
+            if (contract.completedDirection != null) {
+                state.lastCompletedWindow = new LtpWindowResult(contract.completedWindowId,
+                    contract.completedDirection, contract.completedConfidence, contract.completedIntensity);
+            }
+            contractStates.put(contract.token, state);
+        }
+        log.info("LTP_MOVEMENT: Restored {} contract states from checkpoint", contractStates.size());
+        return true;
+    }
+    
     /**
      * Clear all state (useful for testing or reset).
      */
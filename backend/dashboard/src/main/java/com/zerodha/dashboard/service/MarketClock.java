@@ -0,0 +1,31 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.model.DerivativesChain;
+
+import java.time.Instant;
+
+/**
+ * Time source for all window and metric engines.
+ *
+ * Windows are epoch-aligned, so whoever supplies "now" decides when windows roll over.
+ * - {@link WallMarketClock}: wall-clock time (live polling, default)
+ * - {@link EventTimeMarketClock}: time taken from the quote timestamps of processed chains,
+ *   so a replayed or backtested session rolls windows at market pace regardless of processing speed
+ *
+ * Selected with market.clock.mode=wall|event (see ClockConfig).
+ */
+public interface MarketClock {
+
+    /**
+     * Current time according to this clock.
+     */
+    Instant now();
+
+    /**
+     * Current time while processing the given chain.
+     * Event-time clocks advance to the chain timestamp; wall clocks ignore it.
+     */
+    default Instant now(DerivativesChain chain) {
+        return now();
+    }
+}
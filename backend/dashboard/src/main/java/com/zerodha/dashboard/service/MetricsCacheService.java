@@ -1,82 +1,118 @@
 package com.zerodha.dashboard.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.zerodha.dashboard.model.MetricResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.connection.ReturnType;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * Service for storing and retrieving windowed metric results in Redis.
  * Uses atomic writes with version tracking to ensure consistency.
  * 
- * Redis Schema:
- * - latest:{symbol} → Redis hash with fields: trendScore, ltpMovement, bidAskEaten, spotLtpMovement
- * - Each field value is a JSON string containing MetricResult
- * - version:{symbol}:{feature} → Redis string containing the current version number
+ * Redis Schema - one hash per symbol, metrics:{symbol} (the braces are a Redis Cluster hash tag):
+ * - <feature> → MetricResult encoded by the configured PayloadCodec
+ *   (trendScore, ltpMovement, bidAskEaten, spotLtpMovement)
+ * - #v:<feature> → current version number of that feature
+ * - #fence → highest leader fencing token that wrote the hash
+ * The TTL is set when the hash is created and not refreshed by later writes, so a symbol's
+ * metrics expire DEFAULT_TTL after its first write of the day.
+ * 
+ * Writes never block the caller: this process is the only writer, so versions are assigned
+ * from an in-memory counter, the result is published to an in-memory mirror (read first by
+ * getLatestResult/getLatestResults), and the Redis write is handed to {@link RedisWriteBehindService}.
+ * Value and version are still written together in one Lua call.
  */
 @Service
 public class MetricsCacheService {
     
     private static final Logger log = LoggerFactory.getLogger(MetricsCacheService.class);
-    private static final String KEY_PREFIX_LATEST = "latest:";
-    private static final String KEY_PREFIX_VERSION = "version:";
+    private static final String KEY_PREFIX = "metrics:";
+    private static final String VERSION_FIELD_PREFIX = "#v:";
     private static final Duration DEFAULT_TTL = Duration.ofHours(24);
     
-    private final StringRedisTemplate redisTemplate;
-    private final ObjectMapper objectMapper;
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final PayloadCodec payloadCodec;
+    private final RedisWriteBehindService writeBehind;
+    private final ReplicationPublisher replicationPublisher;
     
-    // Lua script for atomic write with version increment
-    private static final String ATOMIC_WRITE_SCRIPT = 
-        "local hashKey = KEYS[1]\n" +
-        "local versionKey = KEYS[2]\n" +
+    // Lua script for atomic write of value + version in the symbol's hash (version <= 0 leaves
+    // the version alone; a version never goes backwards). A write fenced with a token older than
+    // the last one that wrote this hash is rejected with -1. The fence lives in the hash itself,
+    // so the script touches a single key and runs unchanged on Redis Cluster.
+    private static final byte[] ATOMIC_WRITE_SCRIPT = (
+        "local key = KEYS[1]\n" +
         "local field = ARGV[1]\n" +
-        "local valueJson = ARGV[2]\n" +
-        "local expectedVersion = tonumber(ARGV[3])\n" +
+        "local version = tonumber(ARGV[3])\n" +
+        "local ttl = tonumber(ARGV[4])\n" +
+        "local token = tonumber(ARGV[5])\n" +
+        "local versionField = '#v:' .. field\n" +
         "\n" +
-        "local currentVersion = tonumber(redis.call('GET', versionKey) or '0')\n" +
-        "if expectedVersion and expectedVersion > 0 and currentVersion ~= expectedVersion then\n" +
-        "  return {err = 'VERSION_MISMATCH', current = currentVersion, expected = expectedVersion}\n" +
+        "local created = redis.call('EXISTS', key) == 0\n" +
+        "local current = redis.call('HMGET', key, '#fence', versionField)\n" +
+        "local fence = tonumber(current[1] or '0')\n" +
+        "if token > 0 and fence > token then\n" +
+        "  return -1\n" +
+        "end\n" +
+        "local fields = {field, ARGV[2]}\n" +
+        "if version > tonumber(current[2] or '0') then\n" +
+        "  fields[#fields + 1] = versionField\n" +
+        "  fields[#fields + 1] = version\n" +
+        "end\n" +
+        "if token > fence then\n" +
+        "  fields[#fields + 1] = '#fence'\n" +
+        "  fields[#fields + 1] = token\n" +
+        "end\n" +
+        "redis.call('HSET', key, unpack(fields))\n" +
+        "if created then\n" +
+        "  redis.call('EXPIRE', key, ttl)\n" +
         "end\n" +
         "\n" +
-        "local newVersion = currentVersion + 1\n" +
-        "redis.call('HSET', hashKey, field, valueJson)\n" +
-        "redis.call('SET', versionKey, newVersion)\n" +
-        "redis.call('EXPIRE', hashKey, 86400)\n" +
-        "redis.call('EXPIRE', versionKey, 86400)\n" +
-        "\n" +
-        "return {ok = true, version = newVersion}\n";
+        "return version\n").getBytes(StandardCharsets.UTF_8);
     
-    @SuppressWarnings("rawtypes")
-    private final DefaultRedisScript<Map> atomicWriteScript;
+    // In-memory mirror: symbol -> feature -> latest result (served without touching Redis)
+    private final Map<String, Map<String, MetricResult>> latestResults = new ConcurrentHashMap<>();
+    // Current version per symbol:feature (this process is the single writer)
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    // Told about every result as it reaches the mirror (e.g. MetricsStreamService)
+    private final List<Consumer<MetricResult>> resultListeners = new CopyOnWriteArrayList<>();
     
-    public MetricsCacheService(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+    public MetricsCacheService(
+            RedisTemplate<String, byte[]> redisTemplate,
+            PayloadCodec payloadCodec,
+            RedisWriteBehindService writeBehind,
+            ReplicationPublisher replicationPublisher) {
         this.redisTemplate = redisTemplate;
-        this.objectMapper = objectMapper;
-        @SuppressWarnings("rawtypes")
-        DefaultRedisScript<Map> script = new DefaultRedisScript<>();
-        script.setScriptText(ATOMIC_WRITE_SCRIPT);
-        script.setResultType(Map.class);
-        this.atomicWriteScript = script;
+        this.payloadCodec = payloadCodec;
+        this.writeBehind = writeBehind;
+        this.replicationPublisher = replicationPublisher;
     }
     
     /**
-     * Store a final metric result atomically with version increment.
+     * Store a final metric result with version increment.
+     * The result is visible in memory immediately; Redis is updated asynchronously.
      * 
      * @param result The metric result to store
-     * @return The new version number, or null if write failed
+     * @return The new version number, or null if the result could not be stored
      */
     public Long storeFinalResult(MetricResult result) {
         if (result == null || result.getSymbol() == null || result.getFeature() == null) {
@@ -96,31 +132,18 @@ public class MetricsCacheService {
                 result.setComputedAt(Instant.now());
             }
             
-            String hashKey = KEY_PREFIX_LATEST + symbol;
-            String versionKey = KEY_PREFIX_VERSION + symbol + ":" + feature;
-            String valueJson = objectMapper.writeValueAsString(result);
+            // Next version: continue from the caller's view if we have not seen this key yet
+            long seed = result.getVersion() != null ? result.getVersion() : 0L;
+            long newVersion = versions.merge(versionId(symbol, feature), seed + 1, (current, ignored) -> current + 1);
+            result.setVersion(newVersion);
             
-            // Use Lua script for atomic write
-            List<String> keys = Arrays.asList(hashKey, versionKey);
-            List<String> args = Arrays.asList(feature, valueJson, String.valueOf(result.getVersion() != null ? result.getVersion() : 0));
+            byte[] payload = payloadCodec.encode(result);
+            mirror(result);
+            submitWrite(symbol, feature, payload, newVersion, true);
             
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = redisTemplate.execute(atomicWriteScript, keys, args.toArray());
-            
-            if (response != null && "ok".equals(response.get("ok"))) {
-                Long newVersion = ((Number) response.get("version")).longValue();
-                result.setVersion(newVersion);
-                log.debug("Stored final result for symbol={}, feature={}, version={}", symbol, feature, newVersion);
-                return newVersion;
-            } else if (response != null && "VERSION_MISMATCH".equals(response.get("err"))) {
-                log.warn("Version mismatch for symbol={}, feature={}. Current={}, Expected={}", 
-                    symbol, feature, response.get("current"), response.get("expected"));
-                return null;
-            } else {
-                log.error("Failed to store final result for symbol={}, feature={}", symbol, feature);
-                return null;
-            }
-        } catch (JsonProcessingException e) {
+            log.debug("Stored final result for symbol={}, feature={}, version={}", symbol, feature, newVersion);
+            return newVersion;
+        } catch (IOException e) {
             log.error("Failed to serialize MetricResult for symbol={}, feature={}", 
                 result.getSymbol(), result.getFeature(), e);
             return null;
@@ -132,7 +155,7 @@ public class MetricsCacheService {
     }
     
     /**
-     * Store a partial metric result (non-atomic, doesn't increment version).
+     * Store a partial metric result (doesn't increment version).
      * Used for in-progress calculations.
      */
     public void storePartialResult(MetricResult result) {
@@ -150,15 +173,14 @@ public class MetricsCacheService {
                 result.setComputedAt(Instant.now());
             }
             
-            String hashKey = KEY_PREFIX_LATEST + symbol;
-            String valueJson = objectMapper.writeValueAsString(result);
-            
-            // Non-atomic write for partial results (doesn't affect version)
-            redisTemplate.opsForHash().put(hashKey, feature, valueJson);
-            redisTemplate.expire(hashKey, DEFAULT_TTL);
+            byte[] payload = payloadCodec.encode(result);
+            mirror(result);
+            // Shares the key with final writes so latest-wins never reorders final/partial;
+            // the current version is re-written unchanged
+            submitWrite(symbol, feature, payload, versions.getOrDefault(versionId(symbol, feature), 0L), false);
             
             log.debug("Stored partial result for symbol={}, feature={}", symbol, feature);
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
             log.error("Failed to serialize partial MetricResult for symbol={}, feature={}", 
                 result.getSymbol(), result.getFeature(), e);
         } catch (Exception e) {
@@ -167,6 +189,76 @@ public class MetricsCacheService {
         }
     }
     
+    /**
+     * Apply a result replicated from the ingest node (serve nodes only).
+     * Memory only - the ingest node has already written Redis.
+     */
+    public void applyReplica(MetricResult result) {
+        if (result == null || result.getSymbol() == null || result.getFeature() == null) {
+            return;
+        }
+        mirror(result);
+        if (result.getVersion() != null) {
+            versions.merge(versionId(result.getSymbol(), result.getFeature()), result.getVersion(), Math::max);
+        }
+    }
+    
+    /**
+     * Register a listener for every stored or replicated result (final and partial).
+     * Listeners run on the storing thread and must return quickly.
+     */
+    public void addResultListener(Consumer<MetricResult> listener) {
+        resultListeners.add(listener);
+    }
+    
+    /**
+     * Latest results of one symbol held in memory (no Redis read).
+     */
+    public Map<String, MetricResult> getMirroredResults(String symbol) {
+        Map<String, MetricResult> mirrored = symbol != null ? latestResults.get(symbol) : null;
+        return mirrored != null ? Map.copyOf(mirrored) : Map.of();
+    }
+    
+    private void mirror(MetricResult result) {
+        latestResults.computeIfAbsent(result.getSymbol(), s -> new ConcurrentHashMap<>())
+            .put(result.getFeature(), result);
+        for (Consumer<MetricResult> listener : resultListeners) {
+            try {
+                listener.accept(result);
+            } catch (Exception e) {
+                log.warn("Metric result listener failed for symbol={}, feature={}", result.getSymbol(), result.getFeature(), e);
+            }
+        }
+    }
+    
+    private void submitWrite(String symbol, String feature, byte[] payload, long version, boolean isFinal) {
+        String hashKey = hashKey(symbol);
+        byte[][] keysAndArgs = {
+            hashKey.getBytes(StandardCharsets.UTF_8),
+            feature.getBytes(StandardCharsets.UTF_8),
+            payload,
+            String.valueOf(version).getBytes(StandardCharsets.UTF_8),
+            String.valueOf(DEFAULT_TTL.toSeconds()).getBytes(StandardCharsets.UTF_8),
+            String.valueOf(writeBehind.fencingToken()).getBytes(StandardCharsets.UTF_8)
+        };
+        writeBehind.submit(hashKey + "#" + feature, connection -> connection.scriptingCommands()
+            .eval(ATOMIC_WRITE_SCRIPT, ReturnType.INTEGER, 1, keysAndArgs));
+        if (isFinal) {
+            // A final must reach serve nodes even if the next window's partial follows right away
+            replicationPublisher.publishFinal(ReplicationMessage.Type.METRIC, versionId(symbol, feature), version, payload);
+        } else {
+            replicationPublisher.publish(ReplicationMessage.Type.METRIC, versionId(symbol, feature), payload);
+        }
+    }
+    
+    private static String versionId(String symbol, String feature) {
+        return symbol + ":" + feature;
+    }
+    
+    static String hashKey(String symbol) {
+        return KEY_PREFIX + "{" + symbol + "}";
+    }
+    
     /**
      * Retrieve the latest metric result for a symbol and feature.
      * 
@@ -179,17 +271,25 @@ public class MetricsCacheService {
             return Optional.empty();
         }
         
+        Map<String, MetricResult> mirrored = latestResults.get(symbol);
+        MetricResult cached = mirrored != null ? mirrored.get(feature) : null;
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        if (!writeBehind.isRedisAvailable()) {
+            return Optional.empty();
+        }
+        
         try {
-            String hashKey = KEY_PREFIX_LATEST + symbol;
-            Object valueJson = redisTemplate.opsForHash().get(hashKey, feature);
+            Object payload = redisTemplate.opsForHash().get(hashKey(symbol), feature);
             
-            if (valueJson == null) {
+            if (payload == null) {
                 return Optional.empty();
             }
             
-            MetricResult result = objectMapper.readValue(valueJson.toString(), MetricResult.class);
+            MetricResult result = payloadCodec.decode((byte[]) payload, MetricResult.class);
             return Optional.of(result);
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
             log.error("Failed to deserialize MetricResult for symbol={}, feature={}", symbol, feature, e);
             return Optional.empty();
         } catch (Exception e) {
@@ -212,22 +312,33 @@ public class MetricsCacheService {
             return results;
         }
         
+        Map<String, MetricResult> mirrored = latestResults.get(symbol);
+        if (mirrored != null || !writeBehind.isRedisAvailable()) {
+            if (mirrored != null) {
+                mirrored.forEach((feature, result) -> {
+                    if (features == null || features.contains(feature)) {
+                        results.put(feature, result);
+                    }
+                });
+            }
+            return results;
+        }
+        
         try {
-            String hashKey = KEY_PREFIX_LATEST + symbol;
-            Map<Object, Object> hashData = redisTemplate.opsForHash().entries(hashKey);
+            Map<Object, Object> hashData = redisTemplate.opsForHash().entries(hashKey(symbol));
             
             for (Map.Entry<Object, Object> entry : hashData.entrySet()) {
                 String feature = entry.getKey().toString();
                 
-                // Filter by requested features if specified
-                if (features != null && !features.contains(feature)) {
+                // Skip version/fence fields and filter by requested features if specified
+                if (feature.startsWith("#") || (features != null && !features.contains(feature))) {
                     continue;
                 }
                 
                 try {
-                    MetricResult result = objectMapper.readValue(entry.getValue().toString(), MetricResult.class);
+                    MetricResult result = payloadCodec.decode((byte[]) entry.getValue(), MetricResult.class);
                     results.put(feature, result);
-                } catch (JsonProcessingException e) {
+                } catch (IOException e) {
                     log.warn("Failed to deserialize MetricResult for symbol={}, feature={}", symbol, feature, e);
                 }
             }
@@ -238,18 +349,115 @@ public class MetricsCacheService {
         return results;
     }
     
+    /**
+     * Latest results of many symbols at once (e.g. every contract of a chain).
+     * Symbols held in the in-memory mirror are served from it; the rest are read from Redis
+     * with one pipelined HGETALL per symbol in a single round trip.
+     * 
+     * @param symbols Symbols to look up (duplicates and nulls are ignored)
+     * @param features Optional features to keep. If null, keeps all.
+     * @param minVersion Optional lowest version to keep. If null, keeps all.
+     * @return symbol -> feature -> result, in the order of symbols; symbols without results are left out
+     */
+    public Map<String, Map<String, MetricResult>> getLatestResults(Collection<String> symbols, Set<String> features,
+                                                                   Long minVersion) {
+        Map<String, Map<String, MetricResult>> results = new LinkedHashMap<>();
+        if (symbols == null || symbols.isEmpty()) {
+            return results;
+        }
+        
+        List<String> missing = new ArrayList<>();
+        for (String symbol : new LinkedHashSet<>(symbols)) {
+            if (symbol == null) {
+                continue;
+            }
+            Map<String, MetricResult> mirrored = latestResults.get(symbol);
+            if (mirrored == null) {
+                missing.add(symbol);
+                results.put(symbol, null); // keeps the caller's order once Redis has answered
+                continue;
+            }
+            Map<String, MetricResult> kept = new HashMap<>();
+            mirrored.forEach((feature, result) -> {
+                if (keep(feature, result, features, minVersion)) {
+                    kept.put(feature, result);
+                }
+            });
+            results.put(symbol, kept);
+        }
+        
+        if (!missing.isEmpty() && writeBehind.isRedisAvailable()) {
+            try {
+                List<Object> hashes = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    for (String symbol : missing) {
+                        connection.hashCommands().hGetAll(hashKey(symbol).getBytes(StandardCharsets.UTF_8));
+                    }
+                    return null;
+                });
+                for (int i = 0; i < missing.size() && i < hashes.size(); i++) {
+                    if (hashes.get(i) instanceof Map<?, ?> hash) {
+                        results.put(missing.get(i), decodeHash(missing.get(i), hash, features, minVersion));
+                    }
+                }
+                log.debug("Read metrics of {} symbol(s) missing from memory in one pipeline", missing.size());
+            } catch (Exception e) {
+                log.error("Error retrieving latest results for {} symbol(s)", missing.size(), e);
+            }
+        }
+        
+        results.values().removeIf(kept -> kept == null || kept.isEmpty());
+        return results;
+    }
+    
+    private Map<String, MetricResult> decodeHash(String symbol, Map<?, ?> hash, Set<String> features, Long minVersion) {
+        Map<String, MetricResult> decoded = new HashMap<>();
+        for (Map.Entry<?, ?> entry : hash.entrySet()) {
+            Object key = entry.getKey();
+            String feature = key instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : String.valueOf(key);
+            if (feature.startsWith("#") || !(entry.getValue() instanceof byte[] payload)) {
+                continue;
+            }
+            try {
+                MetricResult result = payloadCodec.decode(payload, MetricResult.class);
+                if (keep(feature, result, features, minVersion)) {
+                    decoded.put(feature, result);
+                }
+            } catch (IOException e) {
+                log.warn("Failed to deserialize MetricResult for symbol={}, feature={}", symbol, feature, e);
+            }
+        }
+        return decoded;
+    }
+    
+    private static boolean keep(String feature, MetricResult result, Set<String> features, Long minVersion) {
+        if (features != null && !features.contains(feature)) {
+            return false;
+        }
+        return minVersion == null || (result.getVersion() != null && result.getVersion() >= minVersion);
+    }
+    
     /**
      * Get the current version for a symbol and feature.
+     * Served from memory; Redis is read once per key (e.g. after a restart) and only while reachable.
      */
     public Long getVersion(String symbol, String feature) {
         if (symbol == null || feature == null) {
             return 0L;
         }
         
+        Long known = versions.get(versionId(symbol, feature));
+        if (known != null) {
+            return known;
+        }
+        if (!writeBehind.isRedisAvailable()) {
+            return 0L;
+        }
+        
         try {
-            String versionKey = KEY_PREFIX_VERSION + symbol + ":" + feature;
-            String versionStr = redisTemplate.opsForValue().get(versionKey);
-            return versionStr != null ? Long.parseLong(versionStr) : 0L;
+            Object version = redisTemplate.opsForHash().get(hashKey(symbol), VERSION_FIELD_PREFIX + feature);
+            long stored = version != null ? Long.parseLong(new String((byte[]) version, StandardCharsets.UTF_8)) : 0L;
+            // A store may have raced ahead of this read - keep the higher version
+            return versions.merge(versionId(symbol, feature), stored, Math::max);
         } catch (Exception e) {
             log.error("Error retrieving version for symbol={}, feature={}", symbol, feature, e);
             return 0L;
@@ -264,12 +472,12 @@ public class MetricsCacheService {
             return;
         }
         
+        latestResults.remove(symbol);
+        versions.keySet().removeIf(id -> id.startsWith(symbol + ":"));
+        
         try {
-            String hashKey = KEY_PREFIX_LATEST + symbol;
-            redisTemplate.delete(hashKey);
-            
-            // Also clear version keys (we'd need to know all features, so we'll just expire them)
-            // In practice, we can iterate through known features
+            // Values and versions live in the same hash
+            redisTemplate.delete(hashKey(symbol));
             log.info("Cleared metrics for symbol={}", symbol);
         } catch (Exception e) {
             log.error("Error clearing metrics for symbol={}", symbol, e);
@@ -0,0 +1,253 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.model.MetricResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Server-Sent Events for metric results, so clients hear about a completed window when it
+ * happens instead of polling /api/metrics/latest.
+ *
+ * - "final" events: sent once per completed window of a symbol/feature. Services re-store the
+ *   last completed window on every poll; those repeats (same window end) are not sent again.
+ *   Finals without a window (recomputed per poll) are sent once per version.
+ * - "partial" events: only to subscribers that ask for them, at most one per symbol/feature
+ *   every metrics.stream.partial.interval.ms.
+ *
+ * Event ids are a stream sequence number; the data is the MetricResult with its version.
+ * Per-feature versions cannot be resumed with one Last-Event-ID, so the last
+ * metrics.stream.replay.size events are kept: a client reconnecting with Last-Event-ID gets
+ * the events it missed, or the current final results if it was gone too long.
+ *
+ * Events are handed to {@link PushDeliveryService}: per client, an undelivered event of a
+ * symbol/feature is replaced by the next one, and clients that stay behind are dropped.
+ */
+@Service
+public class MetricsStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(MetricsStreamService.class);
+
+    public static final String ALL_SYMBOLS = "*";
+
+    @Value("${metrics.stream.partial.interval.ms:1000}")
+    private long partialIntervalMs = 1000;
+
+    @Value("${metrics.stream.replay.size:2048}")
+    private int replaySize = 2048;
+
+    /**
+     * One event as sent (sequence number + result).
+     */
+    static final class StreamEvent {
+        final long id;
+        final String name;
+        final MetricResult result;
+
+        StreamEvent(long id, String name, MetricResult result) {
+            this.id = id;
+            this.name = name;
+            this.result = result;
+        }
+    }
+
+    /**
+     * One connected client and what it asked for.
+     */
+    static final class Subscription {
+        final PushDeliveryService.Client client;
+        final Set<String> symbols;
+        final Set<String> features;
+        final boolean partials;
+
+        Subscription(PushDeliveryService.Client client, Set<String> symbols, Set<String> features, boolean partials) {
+            this.client = client;
+            this.symbols = symbols;
+            this.features = features;
+            this.partials = partials;
+        }
+
+        boolean wants(StreamEvent event) {
+            MetricResult result = event.result;
+            return (symbols.contains(ALL_SYMBOLS) || symbols.contains(result.getSymbol()))
+                && (features == null || features.contains(result.getFeature()))
+                && (partials || "final".equals(event.name));
+        }
+    }
+
+    private final MetricsCacheService metricsCacheService;
+    private final PushDeliveryService pushDeliveryService;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final List<Consumer<StreamEvent>> eventListeners = new CopyOnWriteArrayList<>();
+    // symbol:feature -> identity of the last final sent / time of the last partial sent
+    private final Map<String, String> lastFinal = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastPartialAt = new ConcurrentHashMap<>();
+    private final Deque<StreamEvent> replay = new ArrayDeque<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public MetricsStreamService(MetricsCacheService metricsCacheService, PushDeliveryService pushDeliveryService) {
+        this.metricsCacheService = metricsCacheService;
+        this.pushDeliveryService = pushDeliveryService;
+        metricsCacheService.addResultListener(this::onResult);
+    }
+
+    /**
+     * Open a stream.
+     *
+     * @param symbols symbols to follow ("*" for all)
+     * @param features features to follow, null for all
+     * @param partials also send throttled partial results
+     * @param lastEventId Last-Event-ID sent by a reconnecting client, or null
+     */
+    public SseEmitter subscribe(Set<String> symbols, Set<String> features, boolean partials, String lastEventId) {
+        PushDeliveryService.Client client = pushDeliveryService.open("metrics");
+        Subscription subscription = new Subscription(client, Set.copyOf(symbols),
+            features != null ? Set.copyOf(features) : null, partials);
+        client.onClose(() -> subscriptions.remove(subscription));
+
+        // Catch-up and going live under the replay lock, so no event is missed or sent twice
+        Long resumeFrom = parseEventId(lastEventId);
+        synchronized (replay) {
+            for (StreamEvent event : catchUp(subscription, resumeFrom)) {
+                deliver(subscription, event);
+            }
+            if (!client.isClosed()) {
+                subscriptions.add(subscription);
+            }
+        }
+        log.debug("SSE subscription opened: symbols={}, features={}, partials={}, lastEventId={}",
+            symbols, features, partials, lastEventId);
+        return client.getEmitter();
+    }
+
+    /**
+     * Called with every event as it is sent (after de-duplication and throttling),
+     * on the thread that stored the result.
+     */
+    void addEventListener(Consumer<StreamEvent> listener) {
+        eventListeners.add(listener);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("subscribers", subscriptions.size());
+        stats.put("lastEventId", sequence.get());
+        stats.put("delivery", pushDeliveryService.getStats());
+        return stats;
+    }
+
+    void onResult(MetricResult result) {
+        String id = result.getSymbol() + ":" + result.getFeature();
+        String name;
+        if ("final".equals(result.getStatus())) {
+            String identity = finalIdentity(result);
+            if (identity.equals(lastFinal.put(id, identity))) {
+                return; // same completed window stored again
+            }
+            name = "final";
+        } else if ("partial".equals(result.getStatus())) {
+            long now = System.currentTimeMillis();
+            Long last = lastPartialAt.get(id);
+            if (last != null && now - last < partialIntervalMs) {
+                return;
+            }
+            lastPartialAt.put(id, now);
+            name = "partial";
+        } else {
+            return;
+        }
+
+        StreamEvent event;
+        synchronized (replay) {
+            event = new StreamEvent(sequence.incrementAndGet(), name, result);
+            replay.addLast(event);
+            while (replay.size() > replaySize) {
+                replay.removeFirst();
+            }
+            // Offering only touches mailboxes - sockets are written by the delivery pool
+            for (Subscription subscription : subscriptions) {
+                if (subscription.wants(event)) {
+                    deliver(subscription, event);
+                }
+            }
+        }
+        for (Consumer<StreamEvent> listener : eventListeners) {
+            try {
+                listener.accept(event);
+            } catch (Exception e) {
+                log.warn("Metric stream listener failed for {}", id, e);
+            }
+        }
+    }
+
+    private void deliver(Subscription subscription, StreamEvent event) {
+        MetricResult result = event.result;
+        pushDeliveryService.offer(subscription.client, result.getSymbol() + ':' + result.getFeature(),
+            new PushDeliveryService.Message(String.valueOf(event.id), event.name, result));
+    }
+
+    /**
+     * Events to send before going live: missed events if they are all still in the replay
+     * buffer, otherwise the current final results.
+     */
+    List<StreamEvent> catchUp(Subscription subscription, Long resumeFrom) {
+        List<StreamEvent> events = new ArrayList<>();
+        long current;
+        synchronized (replay) {
+            current = sequence.get();
+            StreamEvent oldest = replay.peekFirst();
+            if (resumeFrom != null && resumeFrom <= current && (oldest == null || oldest.id <= resumeFrom + 1)) {
+                for (StreamEvent event : replay) {
+                    if (event.id > resumeFrom && subscription.wants(event)) {
+                        events.add(event);
+                    }
+                }
+                return events;
+            }
+        }
+        for (String symbol : subscription.symbols) {
+            if (ALL_SYMBOLS.equals(symbol)) {
+                continue; // no snapshot of every contract - new events only
+            }
+            metricsCacheService.getMirroredResults(symbol).values().stream()
+                .filter(result -> "final".equals(result.getStatus()))
+                .map(result -> new StreamEvent(current, "final", result))
+                .filter(subscription::wants)
+                .forEach(events::add);
+        }
+        return events;
+    }
+
+    private static String finalIdentity(MetricResult result) {
+        if (result.getWindowEnd() != null) {
+            return "window:" + result.getWindowEnd();
+        }
+        // Not windowed - each stored final is a new version, even when its value did not change
+        return "version:" + result.getVersion();
+    }
+
+    private static Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.zerodha.dashboard.service;
+
+import java.util.Arrays;
+
+/**
+ * Black-Scholes pricing, implied volatility and greeks over a whole option chain at once.
+ *
+ * Contracts are laid out as parallel primitive arrays ({@link Batch}) and priced in one flat
+ * loop - no boxing, no per-contract objects. Implied volatility is found by Newton iteration
+ * on vega, kept inside a shrinking bisection bracket so it cannot diverge on deep ITM/OTM
+ * strikes. The volatility already in {@link Batch#iv} is used as the starting point, so a
+ * chain seeded with the previous poll's IVs typically converges in one or two steps.
+ *
+ * Conventions: time in years, rate and dividend yield continuously compounded, theta per
+ * calendar day, vega per 1 vol point (0.01). A price outside the no-arbitrage bounds has no
+ * implied volatility; its IV and greeks are NaN.
+ */
+public final class OptionGreeksEngine {
+
+    static final double MIN_VOL = 1e-4;
+    static final double MAX_VOL = 5.0;
+    static final double DEFAULT_SEED_VOL = 0.25;
+    private static final double PRICE_TOLERANCE = 1e-8;
+    private static final double VOL_TOLERANCE = 1e-10;
+    private static final int MAX_ITERATIONS = 64;
+    private static final double INV_SQRT_2PI = 0.3989422804014327;
+    private static final double DAYS_PER_YEAR = 365.0;
+
+    /**
+     * Inputs and outputs of one chain, index i being one contract.
+     * Inputs: call, strike, timeYears, price, and iv as the starting volatility (NaN for none).
+     * Outputs: iv, delta, gamma, theta, vega and the Newton iterations used.
+     */
+    public static final class Batch {
+        private int size;
+        public boolean[] call = new boolean[0];
+        public double[] strike = new double[0];
+        public double[] timeYears = new double[0];
+        public double[] price = new double[0];
+        public double[] iv = new double[0];
+        public double[] delta = new double[0];
+        public double[] gamma = new double[0];
+        public double[] theta = new double[0];
+        public double[] vega = new double[0];
+        public int[] iterations = new int[0];
+
+        public Batch() {
+        }
+
+        public Batch(int capacity) {
+            ensureCapacity(capacity);
+        }
+
+        /**
+         * Make room for {@code count} contracts and set the size; arrays are reused between polls.
+         */
+        public void resize(int count) {
+            ensureCapacity(count);
+            size = count;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (strike.length >= capacity) {
+                return;
+            }
+            int grown = Math.max(capacity, strike.length * 2);
+            call = Arrays.copyOf(call, grown);
+            strike = Arrays.copyOf(strike, grown);
+            timeYears = Arrays.copyOf(timeYears, grown);
+            price = Arrays.copyOf(price, grown);
+            iv = Arrays.copyOf(iv, grown);
+            delta = Arrays.copyOf(delta, grown);
+            gamma = Arrays.copyOf(gamma, grown);
+            theta = Arrays.copyOf(theta, grown);
+            vega = Arrays.copyOf(vega, grown);
+            iterations = Arrays.copyOf(iterations, grown);
+        }
+    }
+
+    private OptionGreeksEngine() {
+    }
+
+    /**
+     * Solve IV and compute greeks for every contract of the batch, in place.
+     */
+    public static void compute(Batch batch, double spot, double rate, double dividendYield) {
+        for (int i = 0, n = batch.size; i < n; i++) {
+            double k = batch.strike[i];
+            double t = batch.timeYears[i];
+            double p = batch.price[i];
+            boolean isCall = batch.call[i];
+            if (!(spot > 0) || !(k > 0) || !(t > 0) || !(p > 0)) {
+                clear(batch, i);
+                continue;
+            }
+            double sqrtT = Math.sqrt(t);
+            double df = Math.exp(-rate * t);
+            double qf = Math.exp(-dividendYield * t);
+            double forwardSpot = spot * qf;
+            double discountedStrike = k * df;
+            double logMoneyness = Math.log(spot / k) + (rate - dividendYield) * t;
+
+            // No-arbitrage bounds: at or below intrinsic (or above the upper bound) there is no IV
+            double lower = isCall ? Math.max(0.0, forwardSpot - discountedStrike) : Math.max(0.0, discountedStrike - forwardSpot);
+            double upper = isCall ? forwardSpot : discountedStrike;
+            if (p <= lower || p >= upper) {
+                clear(batch, i);
+                continue;
+            }
+
+            double lo = MIN_VOL;
+            double hi = MAX_VOL;
+            double vol = batch.iv[i];
+            if (!(vol > lo && vol < hi)) {
+                vol = DEFAULT_SEED_VOL;
+            }
+            int iteration = 0;
+            while (true) {
+                double volSqrtT = vol * sqrtT;
+                double d1 = (logMoneyness + 0.5 * volSqrtT * volSqrtT) / volSqrtT;
+                double d2 = d1 - volSqrtT;
+                double model = isCall
+                    ? forwardSpot * cnd(d1) - discountedStrike * cnd(d2)
+                    : discountedStrike * cnd(-d2) - forwardSpot * cnd(-d1);
+                double vegaRaw = forwardSpot * pdf(d1) * sqrtT;
+                double diff = model - p;
+                if (Math.abs(diff) < PRICE_TOLERANCE || iteration >= MAX_ITERATIONS) {
+                    break;
+                }
+                // Price rises with volatility, so the sign of diff says which side the root is on
+                if (diff > 0) {
+                    hi = vol;
+                } else {
+                    lo = vol;
+                }
+                double next = vegaRaw > 0 ? vol - diff / vegaRaw : Double.NaN;
+                if (!(next > lo && next < hi)) {
+                    next = 0.5 * (lo + hi);
+                }
+                iteration++;
+                if (Math.abs(next - vol) < VOL_TOLERANCE) {
+                    vol = next;
+                    break;
+                }
+                vol = next;
+            }
+
+            double volSqrtT = vol * sqrtT;
+            double d1 = (logMoneyness + 0.5 * volSqrtT * volSqrtT) / volSqrtT;
+            double d2 = d1 - volSqrtT;
+            double density = pdf(d1);
+            double decay = -forwardSpot * density * vol / (2.0 * sqrtT);
+            batch.iv[i] = vol;
+            batch.iterations[i] = iteration;
+            batch.gamma[i] = qf * density / (spot * volSqrtT);
+            batch.vega[i] = forwardSpot * density * sqrtT / 100.0;
+            if (isCall) {
+                batch.delta[i] = qf * cnd(d1);
+                batch.theta[i] = (decay - rate * discountedStrike * cnd(d2)
+                    + dividendYield * forwardSpot * cnd(d1)) / DAYS_PER_YEAR;
+            } else {
+                batch.delta[i] = -qf * cnd(-d1);
+                batch.theta[i] = (decay + rate * discountedStrike * cnd(-d2)
+                    - dividendYield * forwardSpot * cnd(-d1)) / DAYS_PER_YEAR;
+            }
+        }
+    }
+
+    /**
+     * Black-Scholes price of one option (used to check the solver and by tests).
+     */
+    public static double price(boolean call, double spot, double strike, double timeYears, double vol,
+                               double rate, double dividendYield) {
+        double sqrtT = Math.sqrt(timeYears);
+        double volSqrtT = vol * sqrtT;
+        double d1 = (Math.log(spot / strike) + (rate - dividendYield) * timeYears + 0.5 * volSqrtT * volSqrtT) / volSqrtT;
+        double d2 = d1 - volSqrtT;
+        double forwardSpot = spot * Math.exp(-dividendYield * timeYears);
+        double discountedStrike = strike * Math.exp(-rate * timeYears);
+        return call
+            ? forwardSpot * cnd(d1) - discountedStrike * cnd(d2)
+            : discountedStrike * cnd(-d2) - forwardSpot * cnd(-d1);
+    }
+
+    private static void clear(Batch batch, int i) {
+        batch.iv[i] = Double.NaN;
+        batch.delta[i] = Double.NaN;
+        batch.gamma[i] = Double.NaN;
+        batch.theta[i] = Double.NaN;
+        batch.vega[i] = Double.NaN;
+        batch.iterations[i] = 0;
+    }
+
+    static double pdf(double x) {
+        return INV_SQRT_2PI * Math.exp(-0.5 * x * x);
+    }
+
+    /**
+     * Standard normal CDF, double precision (Hart 1968, as given by West 2005).
+     * One exp and two rational polynomials - no erf call.
+     */
+    static double cnd(double x) {
+        double abs = Math.abs(x);
+        double c;
+        if (abs > 37.0) {
+            c = 0.0;
+        } else {
+            double e = Math.exp(-0.5 * abs * abs);
+            if (abs < 7.07106781186547) {
+                double b = 3.52624965998911e-02 * abs + 0.700383064443688;
+                b = b * abs + 6.37396220353165;
+                b = b * abs + 33.912866078383;
+                b = b * abs + 112.079291497871;
+                b = b * abs + 221.213596169931;
+                b = b * abs + 220.206867912376;
+                c = e * b;
+                b = 8.83883476483184e-02 * abs + 1.75566716318264;
+                b = b * abs + 16.064177579207;
+                b = b * abs + 86.7807322029461;
+                b = b * abs + 296.564248779674;
+                b = b * abs + 637.333633378831;
+                b = b * abs + 793.826512519948;
+                b = b * abs + 440.413735824752;
+                c = c / b;
+            } else {
+                double b = abs + 0.65;
+                b = abs + 4.0 / b;
+                b = abs + 3.0 / b;
+                b = abs + 2.0 / b;
+                b = abs + 1.0 / b;
+                c = e / b / 2.506628274631;
+            }
+        }
+        return x > 0 ? 1.0 - c : c;
+    }
+}
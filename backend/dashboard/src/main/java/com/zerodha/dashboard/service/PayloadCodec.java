@@ -0,0 +1,41 @@
+package com.zerodha.dashboard.service;
+
+import com.fasterxml.jackson.databind.JavaType;
+
+import java.io.IOException;
+
+/**
+ * Encodes cache payloads to the bytes stored in Redis and back.
+ *
+ * Redis only ever sees codec output - JSON text stays at the HTTP edge.
+ * The implementation is chosen by redis.payload.codec (see RedisCodecConfig).
+ */
+public interface PayloadCodec {
+
+    /**
+     * Encode a value (chain, metric result, snapshot list, ...) for storage.
+     */
+    byte[] encode(Object value) throws IOException;
+
+    /**
+     * Decode a stored payload into the given type.
+     */
+    <T> T decode(byte[] payload, Class<T> type) throws IOException;
+
+    /**
+     * Decode a stored payload into a generic type (e.g. List of snapshots).
+     */
+    <T> T decode(byte[] payload, JavaType type) throws IOException;
+
+    /**
+     * Codec name (for logging/debugging).
+     */
+    String getName();
+
+    /**
+     * Payloads written before the codec layer are plain JSON objects or arrays.
+     */
+    static boolean isJsonPayload(byte[] payload) {
+        return payload != null && payload.length > 0 && (payload[0] == '{' || payload[0] == '[');
+    }
+}
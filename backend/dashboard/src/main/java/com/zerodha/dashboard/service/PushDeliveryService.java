@@ -0,0 +1,285 @@
+package com.zerodha.dashboard.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivery of push feeds (Server-Sent Events) to clients, with a bounded memory cost per client.
+ *
+ * Feeds offer keyed messages to a client; they land in the client's {@link ConflatingMailbox}
+ * (latest message per key, at most push.mailbox.capacity keys) and are written out by a virtual
+ * thread per client drain, at most one at a time per client - a socket stuck in a write parks only
+ * its own client's thread. Offering never blocks the caller.
+ *
+ * A client is dropped (its stream completed, mailbox discarded) when its mailbox is full or
+ * when it has been behind for longer than push.max.lag.ms - either messages waiting that long,
+ * or a write stuck on its socket that long. Browsers reconnect on their own; the feed then
+ * sends them the current state.
+ */
+@Service
+public class PushDeliveryService {
+
+    private static final Logger log = LoggerFactory.getLogger(PushDeliveryService.class);
+
+    private static final String HEARTBEAT_KEY = "#heartbeat";
+
+    @Value("${push.mailbox.capacity:4096}")
+    private int mailboxCapacity = 4096;
+
+    @Value("${push.max.lag.ms:10000}")
+    private long maxLagMs = 10_000;
+
+    @Value("${push.timeout.ms:1800000}")
+    private long timeoutMs = 1_800_000;
+
+    @Value("${push.heartbeat.ms:15000}")
+    private long heartbeatMs = 15_000;
+
+    /**
+     * One event to send; a message without a name or data is sent as a comment line.
+     */
+    public static final class Message {
+        private final String id;
+        private final String name;
+        private final Object data;
+
+        public Message(String id, String name, Object data) {
+            this.id = id;
+            this.name = name;
+            this.data = data;
+        }
+
+        static Message comment(String text) {
+            return new Message(null, null, text);
+        }
+
+        SseEmitter.SseEventBuilder toEvent() {
+            if (name == null) {
+                return SseEmitter.event().comment(String.valueOf(data));
+            }
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON);
+            return id != null ? event.id(id) : event;
+        }
+    }
+
+    /**
+     * One connected client of a feed.
+     */
+    public static final class Client {
+        private final String feed;
+        private final SseEmitter emitter;
+        private final ConflatingMailbox<Message> mailbox;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final List<Runnable> closeListeners = new CopyOnWriteArrayList<>();
+        private volatile long sendingSince;
+
+        Client(String feed, SseEmitter emitter, int capacity) {
+            this.feed = feed;
+            this.emitter = emitter;
+            this.mailbox = new ConflatingMailbox<>(capacity);
+        }
+
+        public String getFeed() { return feed; }
+        public SseEmitter getEmitter() { return emitter; }
+        public boolean isClosed() { return closed.get(); }
+
+        /**
+         * Run when the client goes away, whether it disconnected or was dropped.
+         */
+        public void onClose(Runnable listener) {
+            closeListeners.add(listener);
+            if (closed.get()) {
+                listener.run();
+            }
+        }
+
+        long lag(long now) {
+            long since = sendingSince;
+            return Math.max(mailbox.lag(now), since > 0 ? now - since : 0);
+        }
+    }
+
+    private final TaskScheduler taskScheduler;
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong conflated = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private ExecutorService executor;
+    private ScheduledFuture<?> watchdog;
+    private ScheduledFuture<?> heartbeat;
+
+    public PushDeliveryService(TaskScheduler taskScheduler) {
+        this.taskScheduler = taskScheduler;
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("push-delivery-", 1).factory());
+        watchdog = taskScheduler.scheduleAtFixedRate(() -> checkClients(System.currentTimeMillis()),
+            Duration.ofMillis(Math.max(100, maxLagMs / 10)));
+        if (heartbeatMs > 0) {
+            // Comment lines keep proxies from closing quiet streams between windows
+            heartbeat = taskScheduler.scheduleAtFixedRate(() -> {
+                for (Client client : clients) {
+                    offer(client, HEARTBEAT_KEY, Message.comment("keep-alive"));
+                }
+            }, Duration.ofMillis(heartbeatMs));
+        }
+        log.info("Push delivery started: mailboxCapacity={}, maxLagMs={}", mailboxCapacity, maxLagMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (watchdog != null) {
+            watchdog.cancel(false);
+        }
+        if (heartbeat != null) {
+            heartbeat.cancel(false);
+        }
+        for (Client client : clients) {
+            close(client);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Register a new client of a feed; the caller returns its emitter from the handler.
+     */
+    public Client open(String feed) {
+        return open(feed, new SseEmitter(timeoutMs));
+    }
+
+    Client open(String feed, SseEmitter emitter) {
+        Client client = new Client(feed, emitter, mailboxCapacity);
+        emitter.onCompletion(() -> close(client));
+        emitter.onTimeout(() -> close(client));
+        emitter.onError(error -> close(client));
+        clients.add(client);
+        return client;
+    }
+
+    /**
+     * Queue a message for a client, replacing any undelivered message with the same key.
+     */
+    public void offer(Client client, String key, Message message) {
+        if (client.isClosed()) {
+            return;
+        }
+        switch (client.mailbox.offer(key, message, System.currentTimeMillis())) {
+            case FULL -> drop(client, "mailbox full (" + mailboxCapacity + " keys)");
+            case CONFLATED -> {
+                conflated.incrementAndGet();
+                schedule(client);
+            }
+            case ADDED -> schedule(client);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("clients", clients.size());
+        stats.put("delivered", delivered.get());
+        stats.put("conflated", conflated.get());
+        stats.put("dropped", dropped.get());
+        stats.put("pending", clients.stream().mapToInt(client -> client.mailbox.size()).sum());
+        return stats;
+    }
+
+    /**
+     * Drop clients that have been behind for too long.
+     */
+    void checkClients(long now) {
+        for (Client client : clients) {
+            long lag = client.lag(now);
+            if (lag > maxLagMs) {
+                drop(client, "behind by " + lag + "ms");
+            }
+        }
+    }
+
+    private void schedule(Client client) {
+        if (client.scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> deliver(client));
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                client.scheduled.set(false);
+            }
+        }
+    }
+
+    private void deliver(Client client) {
+        try {
+            List<Message> batch;
+            while (!client.isClosed() && !(batch = client.mailbox.drain()).isEmpty()) {
+                client.sendingSince = System.currentTimeMillis();
+                for (Message message : batch) {
+                    client.emitter.send(message.toEvent());
+                    delivered.incrementAndGet();
+                }
+                client.sendingSince = 0;
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away
+            log.debug("Push client of {} disconnected: {}", client.feed, e.getMessage());
+            close(client);
+        } finally {
+            client.sendingSince = 0;
+            client.scheduled.set(false);
+        }
+        // A message offered while the last batch was going out found the client still scheduled
+        if (!client.isClosed() && client.mailbox.size() > 0) {
+            schedule(client);
+        }
+    }
+
+    private void drop(Client client, String reason) {
+        if (client.isClosed()) {
+            return;
+        }
+        dropped.incrementAndGet();
+        log.info("Dropping slow push client of {}: {}", client.feed, reason);
+        close(client);
+    }
+
+    private void close(Client client) {
+        if (!client.closed.compareAndSet(false, true)) {
+            return;
+        }
+        clients.remove(client);
+        client.mailbox.clear();
+        try {
+            client.emitter.complete();
+        } catch (Exception e) {
+            log.debug("Completing push client of {} failed: {}", client.feed, e.getMessage());
+        }
+        for (Runnable listener : client.closeListeners) {
+            listener.run();
+        }
+    }
+}
@@ -3,10 +3,30 @@ package com.zerodha.dashboard.service;
 import com.zerodha.dashboard.model.TickSnapshot;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 public interface RedisService {
     boolean saveSnapshot(TickSnapshot snapshot);
     Optional<TickSnapshot> getSnapshotByToken(String instrumentToken);
     void expireKey(String key, Duration duration);
+
+    /**
+     * Store many snapshots in one pipelined round trip, each key with its own expiry.
+     * @return number of snapshots written
+     */
+    int saveSnapshots(Collection<TickSnapshot> snapshots);
+
+    /**
+     * Queue one poll's snapshots for an underlying on the write-behind queue as a single entry
+     * (flushed as one pipeline, leader only; a newer poll replaces a pending one).
+     * For the ingest path, which must not wait on Redis.
+     */
+    void saveSnapshotsAsync(String underlying, Collection<TickSnapshot> snapshots);
+
+    /**
+     * Fetch many snapshots with a single MGET. Tokens without a snapshot are absent from the result.
+     */
+    Map<String, TickSnapshot> getSnapshots(Collection<String> instrumentTokens);
 }
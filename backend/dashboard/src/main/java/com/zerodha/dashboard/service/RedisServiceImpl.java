@@ -1,15 +1,23 @@
 package com.zerodha.dashboard.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.zerodha.dashboard.model.TickSnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 
@@ -17,18 +25,24 @@ import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactor
 public class RedisServiceImpl implements RedisService {
 
     private static final Logger log = LoggerFactory.getLogger(RedisServiceImpl.class);
-    private final StringRedisTemplate redisTemplate;
-    private final ObjectMapper objectMapper;
+    // Write-behind key of a poll's tick snapshots (a queue key, not a Redis key)
+    private static final String SNAPSHOT_BATCH_PREFIX = "snapshots:";
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final PayloadCodec payloadCodec;
+    private final RedisWriteBehindService writeBehind;
     private final Duration expiryDuration;
     private final String redisNamespace;
 
     public RedisServiceImpl(
-            StringRedisTemplate redisTemplate,
-            ObjectMapper objectMapper,
+            RedisTemplate<String, byte[]> redisTemplate,
+            PayloadCodec payloadCodec,
+            RedisWriteBehindService writeBehind,
             @Value("${redis.snapshot.ttl:PT5M}") Duration expiryDuration,
             @Value("${redis.namespace:zerodha:snapshot:}") String redisNamespace) {
         this.redisTemplate = redisTemplate;
-        this.objectMapper = objectMapper;
+        this.payloadCodec = payloadCodec;
+        this.writeBehind = writeBehind;
         this.expiryDuration = expiryDuration;
         this.redisNamespace = redisNamespace;
     }
@@ -42,11 +56,11 @@ public class RedisServiceImpl implements RedisService {
         String tokenKey = RedisSnapshotKey.byToken(snapshot.getInstrumentToken(), redisNamespace);
         log.debug("Saving snapshot for instrumentToken={}", snapshot.getInstrumentToken());
         try {
-            String snapshotJson = objectMapper.writeValueAsString(snapshot);
-            redisTemplate.opsForValue().set(tokenKey, snapshotJson, expiryDuration);
-            log.info("Saved snapshot for key={}", tokenKey);
+            byte[] payload = payloadCodec.encode(snapshot);
+            redisTemplate.opsForValue().set(tokenKey, payload, expiryDuration);
+            log.debug("Saved snapshot for key={}", tokenKey);
             return true;
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
             log.error("Failed to serialize TickSnapshot for token={}", snapshot.getInstrumentToken(), e);
             return false;
         } catch (Exception e) {
@@ -63,17 +77,17 @@ public class RedisServiceImpl implements RedisService {
         }
         String tokenKey = RedisSnapshotKey.byToken(instrumentToken, redisNamespace);
         log.debug("Fetching snapshot for instrumentToken={}", instrumentToken);
-        String snapshotJson = redisTemplate.opsForValue().get(tokenKey);
-        if (snapshotJson != null) {
-            log.info("Cache hit for key={}", tokenKey);
+        byte[] payload = redisTemplate.opsForValue().get(tokenKey);
+        if (payload != null) {
+            log.debug("Cache hit for key={}", tokenKey);
             try {
-                return Optional.of(objectMapper.readValue(snapshotJson, TickSnapshot.class));
-            } catch (JsonProcessingException e) {
+                return Optional.of(payloadCodec.decode(payload, TickSnapshot.class));
+            } catch (IOException e) {
                 log.error("Failed to deserialize TickSnapshot for key={}", tokenKey, e);
                 return Optional.empty();
             }
         } else {
-            log.info("Cache miss for key={}", tokenKey);
+            log.debug("Cache miss for key={}", tokenKey);
             return Optional.empty();
         }
     }
@@ -84,6 +98,86 @@ public class RedisServiceImpl implements RedisService {
         log.debug("Expired key={}", key);
     }
 
+    @Override
+    public int saveSnapshots(Collection<TickSnapshot> snapshots) {
+        Map<String, byte[]> payloads = encodeAll(snapshots);
+        if (payloads.isEmpty()) {
+            return 0;
+        }
+        Expiration expiration = Expiration.from(expiryDuration);
+        try {
+            // SET with PX per key rather than MSET + EXPIRE: value and TTL land together
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Map.Entry<String, byte[]> entry : payloads.entrySet()) {
+                    connection.stringCommands().set(entry.getKey().getBytes(StandardCharsets.UTF_8), entry.getValue(),
+                        expiration, RedisStringCommands.SetOption.upsert());
+                }
+                return null;
+            });
+            log.debug("Saved {} snapshot(s) in one pipeline", payloads.size());
+            return payloads.size();
+        } catch (Exception e) {
+            log.error("Redis saveSnapshots error for {} snapshot(s)", payloads.size(), e);
+            return 0;
+        }
+    }
+
+    @Override
+    public void saveSnapshotsAsync(String underlying, Collection<TickSnapshot> snapshots) {
+        // One write-behind entry per underlying, not per token: a poll's ~600 ticks take one slot
+        // of the queue, and the next poll replaces them whole if they have not been flushed yet
+        writeBehind.submitValues(SNAPSHOT_BATCH_PREFIX + underlying, encodeAll(snapshots), expiryDuration);
+    }
+
+    @Override
+    public Map<String, TickSnapshot> getSnapshots(Collection<String> instrumentTokens) {
+        Map<String, TickSnapshot> result = new LinkedHashMap<>();
+        if (instrumentTokens == null || instrumentTokens.isEmpty()) {
+            return result;
+        }
+        List<String> tokens = new ArrayList<>(instrumentTokens);
+        List<String> keys = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            keys.add(RedisSnapshotKey.byToken(token, redisNamespace));
+        }
+        List<byte[]> payloads = redisTemplate.opsForValue().multiGet(keys);
+        if (payloads == null) {
+            return result;
+        }
+        for (int i = 0; i < tokens.size() && i < payloads.size(); i++) {
+            byte[] payload = payloads.get(i);
+            if (payload == null) {
+                continue;
+            }
+            try {
+                result.put(tokens.get(i), payloadCodec.decode(payload, TickSnapshot.class));
+            } catch (IOException e) {
+                log.error("Failed to deserialize TickSnapshot for key={}", keys.get(i), e);
+            }
+        }
+        log.debug("Fetched {} of {} snapshot(s) with one MGET", result.size(), tokens.size());
+        return result;
+    }
+
+    private Map<String, byte[]> encodeAll(Collection<TickSnapshot> snapshots) {
+        Map<String, byte[]> payloads = new LinkedHashMap<>();
+        if (snapshots == null) {
+            return payloads;
+        }
+        for (TickSnapshot snapshot : snapshots) {
+            if (snapshot == null || snapshot.getInstrumentToken() == null) {
+                continue;
+            }
+            try {
+                payloads.put(RedisSnapshotKey.byToken(snapshot.getInstrumentToken(), redisNamespace),
+                    payloadCodec.encode(snapshot));
+            } catch (IOException e) {
+                log.error("Failed to serialize TickSnapshot for token={}", snapshot.getInstrumentToken(), e);
+            }
+        }
+        return payloads;
+    }
+
     // Added for graceful shutdown, although Spring usually manages connections
     public void close() {
         if (redisTemplate != null && redisTemplate.getConnectionFactory() != null) {
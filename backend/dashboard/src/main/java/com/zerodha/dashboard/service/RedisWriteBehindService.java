@@ -0,0 +1,462 @@
+package com.zerodha.dashboard.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind for cache persistence - the poll thread never waits on Redis.
+ *
+ * Callers update their in-memory state first (readers are served from there) and submit
+ * the Redis write here. Writes are coalesced per key (latest wins: a key that is written again
+ * before it is flushed is only flushed once, with the newest payload) and drained by one
+ * writer thread, which sends each batch as a single Lettuce pipeline.
+ *
+ * The flush itself is synchronous: the writer thread waits for each batch's replies (one round
+ * trip per batch - Lettuce pipelining does not wait per command). This is deliberate rather than
+ * the Lettuce async or reactive API: writes are RedisConnection callbacks (fenced Lua EVALs, XADD,
+ * PUBLISH) that run unchanged in a pipeline, and a single waiting writer keeps batches in order
+ * and makes requeue and backoff on failure simple. Only this thread ever waits on Redis; the poll
+ * thread and request threads never do.
+ *
+ * The queue is bounded by distinct pending keys (redis.writebehind.capacity). When it is full,
+ * writes for new keys are dropped and counted - memory stays authoritative either way.
+ *
+ * If Redis is down, the batch is put back (unless a newer write for the key arrived meanwhile),
+ * the writer backs off, and {@link #isRedisAvailable()} reports the degraded state.
+ * A command Redis rejects (e.g. an XADD with a stale id) is counted and not retried.
+ * Writers that must know when a write is lost (dropped, or in a batch with a rejected command)
+ * pass an onLost callback to {@link #submit(String, Write, Runnable)}.
+ *
+ * With leader election active, submits from a follower are discarded, and values are written
+ * through a fenced SET carrying the leader's fencing token from submit time - Redis rejects
+ * the write if a newer leader has written the key since. The fence of each key is kept next to
+ * it in {key}#fence (same hash tag, same Redis Cluster slot) and expires with it.
+ */
+@Service
+public class RedisWriteBehindService {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisWriteBehindService.class);
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    // SET value and fence with TTL unless a newer leader already wrote this key
+    private static final byte[] FENCED_SET_SCRIPT = (
+        "local fence = tonumber(redis.call('GET', KEYS[2]) or '0')\n" +
+        "if fence > tonumber(ARGV[2]) then\n" +
+        "  return 0\n" +
+        "end\n" +
+        "redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[3])\n" +
+        "redis.call('SET', KEYS[2], ARGV[2], 'PX', ARGV[3])\n" +
+        "return 1\n").getBytes(StandardCharsets.UTF_8);
+    private static final String FENCE_SUFFIX = "#fence";
+
+    /**
+     * One pending Redis write, applied on the writer thread inside a pipeline.
+     */
+    @FunctionalInterface
+    public interface Write {
+        void apply(RedisConnection connection);
+    }
+
+    private static final class Pending {
+        final Write write;
+        final Runnable onLost;
+        final long enqueuedNanos;
+
+        Pending(Write write, Runnable onLost, long enqueuedNanos) {
+            this.write = write;
+            this.onLost = onLost;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+
+        void lost() {
+            if (onLost != null) {
+                try {
+                    onLost.run();
+                } catch (Exception e) {
+                    log.warn("Write-behind onLost callback failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final LeaderElectionService leaderElection;
+
+    @Value("${redis.writebehind.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${redis.writebehind.capacity:4096}")
+    private int capacity = 4096;
+
+    @Value("${redis.writebehind.batch.size:512}")
+    private int batchSize = 512;
+
+    @Value("${redis.writebehind.retry.backoff.ms:500}")
+    private long retryBackoffMs = 500;
+
+    // Latest pending write per key + flush order of keys (each key queued at most once)
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private BlockingQueue<String> keys;
+
+    private volatile Thread writerThread;
+    private volatile boolean running = false;
+
+    // Health + stats
+    private volatile boolean redisAvailable = true;
+    private volatile String lastError = null;
+    private volatile Instant lastFailure = null;
+    private volatile Instant lastFlush = null;
+    private volatile long lastFlushLatencyMs = 0;
+    private volatile long lastFlushMaxAgeMs = 0;
+    private volatile long maxFlushLatencyMs = 0;
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong notLeader = new AtomicLong();
+    private final AtomicLong flushedWrites = new AtomicLong();
+    private final AtomicLong flushedBatches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong rejectedWrites = new AtomicLong();
+    private final AtomicLong totalFlushLatencyMs = new AtomicLong();
+
+    public RedisWriteBehindService(RedisTemplate<String, byte[]> redisTemplate, LeaderElectionService leaderElection) {
+        this.redisTemplate = redisTemplate;
+        this.leaderElection = leaderElection;
+    }
+
+    @PostConstruct
+    public void start() {
+        keys = new LinkedBlockingQueue<>(Math.max(1, capacity));
+        if (!enabled) {
+            log.info("Redis write-behind disabled - cache writes go to Redis synchronously");
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::runWriter, "redis-write-behind");
+        thread.setDaemon(true);
+        writerThread = thread;
+        thread.start();
+        log.info("Redis write-behind started (capacity={} keys, batchSize={})", capacity, batchSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        Thread thread = writerThread;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Last attempt to persist what is still pending
+        if (!keys.isEmpty()) {
+            flushPending(Integer.MAX_VALUE);
+        }
+        log.info("Redis write-behind stopped, {} write(s) left unflushed", keys.size());
+    }
+
+    /**
+     * Queue a write for a key. Returns immediately; a pending write for the same key is replaced.
+     */
+    public void submit(String key, Write write) {
+        submit(key, write, null);
+    }
+
+    /**
+     * Queue a write, with a callback run (on the writer thread, or the caller's if the queue is
+     * full) if the write is dropped or its batch had a command Redis rejected. A batch's
+     * rejections are not traced back to one write, so every write in it counts as lost.
+     */
+    public void submit(String key, Write write, Runnable onLost) {
+        if (!leaderElection.writesAllowed()) {
+            // Follower - the leader owns shared Redis state
+            notLeader.incrementAndGet();
+            return;
+        }
+        submitted.incrementAndGet();
+        Pending next = new Pending(write, onLost, System.nanoTime());
+        if (!enabled) {
+            applySynchronously(key, next);
+            return;
+        }
+
+        Pending previous = pending.put(key, next);
+        if (previous != null) {
+            // Key already queued - the newer payload replaces the old one
+            coalesced.incrementAndGet();
+            return;
+        }
+        if (!keys.offer(key)) {
+            pending.remove(key);
+            next.lost();
+            long count = dropped.incrementAndGet();
+            if (count == 1 || count % 1000 == 0) {
+                log.warn("Redis write-behind queue full ({} keys) - dropped {} write(s) so far", capacity, count);
+            }
+        }
+    }
+
+    /**
+     * Queue a SET with TTL (the common case for snapshot caches).
+     */
+    public void submitValue(String key, byte[] value, Duration ttl) {
+        long token = fencingToken();
+        submit(key, connection -> set(connection, key, value, ttl, token));
+    }
+
+    /**
+     * Queue a SET with TTL for each of a group of keys as ONE pending write under batchKey.
+     * The group takes a single slot of the queue however many keys it has, and a newer group
+     * under the same batchKey replaces a pending one whole - for high-cardinality data written
+     * together (a poll's tick snapshots) that must not crowd out other keys.
+     */
+    public void submitValues(String batchKey, Map<String, byte[]> values, Duration ttl) {
+        if (values.isEmpty()) {
+            return;
+        }
+        long token = fencingToken();
+        Map<String, byte[]> batch = Map.copyOf(values);
+        submit(batchKey, connection -> batch.forEach((key, value) -> set(connection, key, value, ttl, token)));
+    }
+
+    private static void set(RedisConnection connection, String key, byte[] value, Duration ttl, long token) {
+        byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+        if (token <= 0) {
+            connection.stringCommands().set(rawKey, value, Expiration.from(ttl), RedisStringCommands.SetOption.upsert());
+            return;
+        }
+        byte[][] keysAndArgs = {
+            rawKey,
+            fenceKey(key).getBytes(StandardCharsets.UTF_8),
+            value,
+            String.valueOf(token).getBytes(StandardCharsets.UTF_8),
+            String.valueOf(ttl.toMillis()).getBytes(StandardCharsets.UTF_8)
+        };
+        connection.scriptingCommands().eval(FENCED_SET_SCRIPT, ReturnType.INTEGER, 2, keysAndArgs);
+    }
+
+    /**
+     * Key holding the fence of a value key, in the same Redis Cluster slot: the value key's
+     * hash tag if it has one, otherwise the whole value key as the tag (a '}' outside a hash tag
+     * cannot be wrapped - cache keys never have one).
+     */
+    static String fenceKey(String key) {
+        int open = key.indexOf('{');
+        int close = open >= 0 ? key.indexOf('}', open + 1) : -1;
+        if (close > open + 1) {
+            return key + FENCE_SUFFIX;
+        }
+        return "{" + key + "}" + FENCE_SUFFIX;
+    }
+
+    /**
+     * Fencing token to attach to writes submitted now (0 = unfenced, election not active).
+     */
+    public long fencingToken() {
+        return leaderElection.currentFencingToken();
+    }
+
+    private void runWriter() {
+        long backoffMs = retryBackoffMs;
+        while (running) {
+            try {
+                String first = keys.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                // This key plus whatever else is queued, up to batchSize
+                if (flushBatch(first, batchSize)) {
+                    backoffMs = retryBackoffMs;
+                } else {
+                    Thread.sleep(backoffMs);
+                    backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+                }
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+            } catch (Exception e) {
+                log.error("Redis write-behind writer error: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Flush up to maxWrites queued keys on the calling thread.
+     */
+    boolean flushPending(int maxWrites) {
+        String first = keys.poll();
+        return first == null || flushBatch(first, maxWrites);
+    }
+
+    /**
+     * Flush one batch starting with the given key. Returns false if Redis rejected the batch.
+     */
+    private boolean flushBatch(String first, int maxWrites) {
+        List<String> batchKeys = new ArrayList<>();
+        batchKeys.add(first);
+        keys.drainTo(batchKeys, Math.max(0, maxWrites - 1));
+
+        List<String> writeKeys = new ArrayList<>(batchKeys.size());
+        List<Pending> writes = new ArrayList<>(batchKeys.size());
+        for (String key : batchKeys) {
+            Pending write = pending.remove(key);
+            if (write != null) {
+                writeKeys.add(key);
+                writes.add(write);
+            }
+        }
+        if (writes.isEmpty()) {
+            return true;
+        }
+
+        long startNanos = System.nanoTime();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Pending write : writes) {
+                    write.write.apply(connection);
+                }
+                return null;
+            });
+
+            long endNanos = System.nanoTime();
+            recordFlush(writes, startNanos, endNanos);
+            if (!redisAvailable) {
+                log.info("Redis reachable again - write-behind resumed ({} write(s) flushed)", writes.size());
+            }
+            redisAvailable = true;
+            return true;
+        } catch (Exception e) {
+            if (e instanceof RedisPipelineException pipelineException && !pipelineException.getPipelineResult().isEmpty()) {
+                // Redis answered: the failing command(s) were rejected, the rest of the pipeline
+                // was applied. Retrying would only repeat the rejection and stall the queue.
+                recordFlush(writes, startNanos, System.nanoTime());
+                long rejected = pipelineException.getPipelineResult().stream().filter(Throwable.class::isInstance).count();
+                long count = rejectedWrites.addAndGet(Math.max(1, rejected));
+                lastError = e.getMessage();
+                if (count == rejected || count % 100 == 0) {
+                    log.warn("Redis rejected {} write(s) so far: {}", count, e.getMessage());
+                }
+                writes.forEach(Pending::lost);
+                redisAvailable = true;
+                return true;
+            }
+            failedBatches.incrementAndGet();
+            lastError = e.getMessage();
+            lastFailure = Instant.now();
+            if (redisAvailable) {
+                log.warn("Redis write failed - serving from memory until it recovers: {}", e.getMessage());
+            }
+            redisAvailable = false;
+            requeue(writeKeys, writes);
+            return false;
+        }
+    }
+
+    private void requeue(List<String> writeKeys, List<Pending> writes) {
+        for (int i = 0; i < writeKeys.size(); i++) {
+            String key = writeKeys.get(i);
+            // A newer write for the key supersedes the failed one (and is already queued)
+            if (pending.putIfAbsent(key, writes.get(i)) == null && !keys.offer(key)) {
+                pending.remove(key);
+                writes.get(i).lost();
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    private void recordFlush(List<Pending> writes, long startNanos, long endNanos) {
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(endNanos - startNanos);
+        long oldestEnqueued = Long.MAX_VALUE;
+        for (Pending write : writes) {
+            oldestEnqueued = Math.min(oldestEnqueued, write.enqueuedNanos);
+        }
+        lastFlushLatencyMs = latencyMs;
+        lastFlushMaxAgeMs = TimeUnit.NANOSECONDS.toMillis(endNanos - oldestEnqueued);
+        maxFlushLatencyMs = Math.max(maxFlushLatencyMs, latencyMs);
+        totalFlushLatencyMs.addAndGet(latencyMs);
+        flushedBatches.incrementAndGet();
+        flushedWrites.addAndGet(writes.size());
+        lastFlush = Instant.now();
+    }
+
+    private void applySynchronously(String key, Pending write) {
+        try {
+            redisTemplate.execute((RedisCallback<Object>) connection -> {
+                write.write.apply(connection);
+                return null;
+            });
+            redisAvailable = true;
+        } catch (Exception e) {
+            write.lost();
+            redisAvailable = false;
+            lastError = e.getMessage();
+            lastFailure = Instant.now();
+            log.warn("Redis write failed for key={}: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * False after a failed flush, until the next successful one.
+     * Readers should not expect Redis fallbacks to work while this is false.
+     */
+    public boolean isRedisAvailable() {
+        return redisAvailable;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long batches = flushedBatches.get();
+        stats.put("enabled", enabled);
+        stats.put("redisAvailable", redisAvailable);
+        stats.put("pendingKeys", pending.size());
+        stats.put("capacity", capacity);
+        stats.put("submitted", submitted.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("dropped", dropped.get());
+        stats.put("suppressedNotLeader", notLeader.get());
+        stats.put("flushedWrites", flushedWrites.get());
+        stats.put("flushedBatches", batches);
+        stats.put("failedBatches", failedBatches.get());
+        stats.put("rejectedWrites", rejectedWrites.get());
+        stats.put("lastFlushLatencyMs", lastFlushLatencyMs);
+        stats.put("lastFlushMaxAgeMs", lastFlushMaxAgeMs);
+        stats.put("maxFlushLatencyMs", maxFlushLatencyMs);
+        stats.put("avgFlushLatencyMs", batches > 0 ? (double) totalFlushLatencyMs.get() / batches : 0.0);
+        stats.put("lastFlush", lastFlush);
+        stats.put("lastFailure", lastFailure);
+        stats.put("lastError", lastError);
+        return stats;
+    }
+}
@@ -0,0 +1,178 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.config.DeploymentRole;
+import com.zerodha.dashboard.model.DerivativesChain;
+import com.zerodha.dashboard.model.MetricResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the in-memory caches of a serve node (dashboard.role=serve) in sync with the ingest node.
+ *
+ * Subscribes to {@link RedisSnapshotKey#PUBSUB_CHANNEL} and applies each message to the
+ * in-memory side of the matching cache only - the ingest node already wrote Redis.
+ * Messages older than what a stream has already applied are ignored (pub/sub delivery order
+ * is not guaranteed across reconnects). Before the first message for a stream arrives, the
+ * caches fall back to reading Redis as usual.
+ *
+ * With leader election active, polling replicas subscribe as well: a follower runs every RAW
+ * chain from the leader through its own pipeline (see {@link #setRawChainConsumer}), keeping
+ * its metric windows warm for takeover. The leader ignores the channel.
+ */
+@Service
+public class ReplicaSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaSubscriber.class);
+
+    private final DeploymentRole deploymentRole;
+    private final RedisConnectionFactory connectionFactory;
+    private final PayloadCodec payloadCodec;
+    private final LatestSnapshotCacheService latestSnapshotCacheService;
+    private final BasicValuesCacheService basicValuesCacheService;
+    private final MetricsCacheService metricsCacheService;
+    private final LeaderElectionService leaderElection;
+
+    private RedisMessageListenerContainer container;
+    private volatile Consumer<DerivativesChain> rawChainConsumer = null;
+
+    // Last applied sequence per stream (type:key)
+    private final Map<String, Long> appliedSequences = new ConcurrentHashMap<>();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong stale = new AtomicLong();
+    private final AtomicLong ignored = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile Instant lastMessageAt = null;
+    private volatile long lastLagMs = 0;
+
+    public ReplicaSubscriber(
+            DeploymentRole deploymentRole,
+            RedisConnectionFactory connectionFactory,
+            PayloadCodec payloadCodec,
+            LatestSnapshotCacheService latestSnapshotCacheService,
+            BasicValuesCacheService basicValuesCacheService,
+            MetricsCacheService metricsCacheService,
+            LeaderElectionService leaderElection) {
+        this.deploymentRole = deploymentRole;
+        this.connectionFactory = connectionFactory;
+        this.payloadCodec = payloadCodec;
+        this.latestSnapshotCacheService = latestSnapshotCacheService;
+        this.basicValuesCacheService = basicValuesCacheService;
+        this.metricsCacheService = metricsCacheService;
+        this.leaderElection = leaderElection;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!deploymentRole.replicates() && !leaderElection.isElectionActive()) {
+            return;
+        }
+        RedisMessageListenerContainer listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.addMessageListener(
+            (message, pattern) -> handle(message.getBody()),
+            new ChannelTopic(RedisSnapshotKey.PUBSUB_CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+        container = listenerContainer;
+        log.info("Subscribed to {} as {} - replicating from the polling leader", RedisSnapshotKey.PUBSUB_CHANNEL, deploymentRole);
+    }
+
+    /**
+     * Where a follower sends RAW chains (the scheduler's pipeline).
+     */
+    public void setRawChainConsumer(Consumer<DerivativesChain> rawChainConsumer) {
+        this.rawChainConsumer = rawChainConsumer;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (container != null) {
+            try {
+                container.destroy();
+            } catch (Exception e) {
+                log.warn("Error stopping replication listener: {}", e.getMessage());
+            }
+            container = null;
+        }
+    }
+
+    /**
+     * Apply one published frame.
+     */
+    void handle(byte[] body) {
+        received.incrementAndGet();
+        try {
+            ReplicationMessage message = ReplicationMessage.fromBytes(body);
+            if (!accepts(message.getType())) {
+                ignored.incrementAndGet();
+                return;
+            }
+            String stream = message.getType() + ":" + message.getKey();
+
+            // Atomically claim the sequence - an older (or duplicate) message loses
+            long sequence = message.getSequence();
+            Long winner = appliedSequences.merge(stream, sequence, Math::max);
+            if (winner != sequence) {
+                stale.incrementAndGet();
+                return;
+            }
+
+            switch (message.getType()) {
+                case LATEST -> latestSnapshotCacheService.applyReplica(
+                    payloadCodec.decode(message.getPayload(), DerivativesChain.class));
+                case BASIC -> basicValuesCacheService.applyReplica(
+                    payloadCodec.decode(message.getPayload(), DerivativesChain.class));
+                case METRIC -> metricsCacheService.applyReplica(
+                    payloadCodec.decode(message.getPayload(), MetricResult.class));
+                case RAW -> rawChainConsumer.accept(
+                    payloadCodec.decode(message.getPayload(), DerivativesChain.class));
+            }
+
+            applied.incrementAndGet();
+            lastMessageAt = Instant.now();
+            lastLagMs = Math.max(0, System.currentTimeMillis() - message.getPublishedAtMillis());
+        } catch (Exception e) {
+            long count = failed.incrementAndGet();
+            if (count == 1 || count % 100 == 0) {
+                log.warn("Failed to apply replicated update ({} failures so far): {}", count, e.getMessage());
+            }
+        }
+    }
+
+    private boolean accepts(ReplicationMessage.Type type) {
+        if (type == ReplicationMessage.Type.RAW) {
+            // Only followers recompute; the leader would see its own chains
+            return rawChainConsumer != null && leaderElection.isElectionActive() && !leaderElection.isLeader();
+        }
+        return deploymentRole.replicates();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("role", deploymentRole.name());
+        stats.put("subscribed", container != null && container.isRunning());
+        stats.put("streams", appliedSequences.size());
+        stats.put("received", received.get());
+        stats.put("applied", applied.get());
+        stats.put("stale", stale.get());
+        stats.put("ignored", ignored.get());
+        stats.put("failed", failed.get());
+        stats.put("lastMessageAt", lastMessageAt);
+        stats.put("lastLagMs", lastLagMs);
+        return stats;
+    }
+}
@@ -0,0 +1,89 @@
+package com.zerodha.dashboard.service;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One replicated cache update, as sent on {@link RedisSnapshotKey#PUBSUB_CHANNEL}.
+ *
+ * Frame: [frame version][type][key length][key][sequence][publishedAt millis][payload].
+ * The payload is the same codec output the ingest node stored in Redis, so it is
+ * encoded once and never re-parsed on the way out.
+ *
+ * Sequence numbers come from one counter per ingest process, seeded from the clock
+ * at startup, so they keep increasing across ingest restarts.
+ */
+public class ReplicationMessage {
+
+    static final byte FRAME_VERSION = 1;
+
+    public enum Type {
+        /** Full chain for the latest snapshot cache (key = underlying) */
+        LATEST,
+        /** Basic-values chain (key = underlying) */
+        BASIC,
+        /** Metric result (key = symbol:feature) */
+        METRIC,
+        /** Raw polled chain before metrics (key = underlying), feeds follower engines */
+        RAW
+    }
+
+    private final Type type;
+    private final String key;
+    private final long sequence;
+    private final long publishedAtMillis;
+    private final byte[] payload;
+
+    public ReplicationMessage(Type type, String key, long sequence, long publishedAtMillis, byte[] payload) {
+        this.type = type;
+        this.key = key;
+        this.sequence = sequence;
+        this.publishedAtMillis = publishedAtMillis;
+        this.payload = payload;
+    }
+
+    public byte[] toBytes() {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 1 + 2 + keyBytes.length + 8 + 8 + payload.length);
+        buffer.put(FRAME_VERSION);
+        buffer.put((byte) type.ordinal());
+        buffer.putShort((short) keyBytes.length);
+        buffer.put(keyBytes);
+        buffer.putLong(sequence);
+        buffer.putLong(publishedAtMillis);
+        buffer.put(payload);
+        return buffer.array();
+    }
+
+    public static ReplicationMessage fromBytes(byte[] bytes) throws IOException {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            byte version = buffer.get();
+            if (version != FRAME_VERSION) {
+                throw new IOException("Unsupported replication frame version: " + version);
+            }
+            int typeIndex = buffer.get();
+            if (typeIndex < 0 || typeIndex >= Type.values().length) {
+                throw new IOException("Unknown replication message type: " + typeIndex);
+            }
+            byte[] keyBytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+            buffer.get(keyBytes);
+            long sequence = buffer.getLong();
+            long publishedAtMillis = buffer.getLong();
+            byte[] payload = new byte[buffer.remaining()];
+            buffer.get(payload);
+            return new ReplicationMessage(Type.values()[typeIndex], new String(keyBytes, StandardCharsets.UTF_8),
+                sequence, publishedAtMillis, payload);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated replication message", e);
+        }
+    }
+
+    public Type getType() { return type; }
+    public String getKey() { return key; }
+    public long getSequence() { return sequence; }
+    public long getPublishedAtMillis() { return publishedAtMillis; }
+    public byte[] getPayload() { return payload; }
+}
@@ -0,0 +1,114 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.config.DeploymentRole;
+import com.zerodha.dashboard.model.DerivativesChain;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes cache updates from the ingest node to serve nodes (dashboard.role=ingest).
+ *
+ * Every message is a complete, versioned value (whole chain or whole metric result), so a
+ * serve node that misses a pub/sub message heals on the next one and never has to replay
+ * history. Publishing goes through the write-behind queue under a per-stream key: it never
+ * blocks the poll thread, and if Redis falls behind only the newest update per stream is sent.
+ * Final metric results are the exception ({@link #publishFinal}): each one is its own write-behind
+ * entry on a stream of its own, so the partial of the next window can neither replace it before
+ * it is sent nor make serve nodes discard it as older.
+ *
+ * With leader election active, the leader also publishes every raw polled chain (RAW) so
+ * followers can run the same metric engines and take over with warm window state.
+ * Followers publish nothing - their write-behind submits are discarded.
+ *
+ * No-op in every other role.
+ */
+@Service
+public class ReplicationPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicationPublisher.class);
+    private static final byte[] CHANNEL = RedisSnapshotKey.PUBSUB_CHANNEL.getBytes(StandardCharsets.UTF_8);
+    static final String FINAL_STREAM_SUFFIX = "#final";
+
+    private final DeploymentRole deploymentRole;
+    private final RedisWriteBehindService writeBehind;
+    private final PayloadCodec payloadCodec;
+    private final LeaderElectionService leaderElection;
+
+    // Clock-seeded so sequences keep increasing when the ingest node restarts
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis() * 1000);
+    private final AtomicLong published = new AtomicLong();
+
+    public ReplicationPublisher(
+            DeploymentRole deploymentRole,
+            RedisWriteBehindService writeBehind,
+            PayloadCodec payloadCodec,
+            LeaderElectionService leaderElection) {
+        this.deploymentRole = deploymentRole;
+        this.writeBehind = writeBehind;
+        this.payloadCodec = payloadCodec;
+        this.leaderElection = leaderElection;
+        if (deploymentRole.publishes()) {
+            log.info("Replication publisher active on channel {}", RedisSnapshotKey.PUBSUB_CHANNEL);
+        }
+    }
+
+    /**
+     * Publish an already-encoded cache value.
+     */
+    public void publish(ReplicationMessage.Type type, String key, byte[] payload) {
+        if (!deploymentRole.publishes()) {
+            return;
+        }
+        send(type, key, payload);
+    }
+
+    /**
+     * Publish a final (closed-window) value; never coalesced with later updates of the stream.
+     */
+    public void publishFinal(ReplicationMessage.Type type, String key, long version, byte[] payload) {
+        if (!deploymentRole.publishes()) {
+            return;
+        }
+        send(type, key + FINAL_STREAM_SUFFIX, "publish:" + type + ":" + key + "#" + version, payload);
+    }
+
+    /**
+     * Publish a raw polled chain for followers (leader election only). Encodes synchronously,
+     * so call it before the metric services start mutating the chain.
+     */
+    public void publishRaw(DerivativesChain rawChain) {
+        if (!leaderElection.isElectionActive() || !leaderElection.isLeader()) {
+            return;
+        }
+        try {
+            send(ReplicationMessage.Type.RAW, rawChain.getUnderlying(), payloadCodec.encode(rawChain));
+        } catch (IOException e) {
+            log.warn("Failed to encode raw chain for followers: {}", e.getMessage());
+        }
+    }
+
+    private void send(ReplicationMessage.Type type, String key, byte[] payload) {
+        send(type, key, "publish:" + type + ":" + key, payload);
+    }
+
+    private void send(ReplicationMessage.Type type, String key, String writeKey, byte[] payload) {
+        ReplicationMessage message = new ReplicationMessage(
+            type, key, sequence.incrementAndGet(), System.currentTimeMillis(), payload);
+        byte[] frame = message.toBytes();
+        writeBehind.submit(writeKey, connection -> connection.publish(CHANNEL, frame));
+        published.incrementAndGet();
+    }
+
+    public boolean isActive() {
+        return deploymentRole.publishes();
+    }
+
+    public long getPublishedCount() {
+        return published.get();
+    }
+}
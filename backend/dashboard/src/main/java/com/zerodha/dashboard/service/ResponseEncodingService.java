@@ -0,0 +1,180 @@
+package com.zerodha.dashboard.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Alternative HTTP encodings of cached responses, encoded once per version.
+ *
+ * - columnar JSON ({@link #COLUMNAR_JSON}): every array of objects becomes
+ *   {"count": n, "field1": [...], "field2": [...]} and every object whose values are all
+ *   objects (e.g. metrics by feature) becomes the same with an extra "key" column, so a
+ *   400-contract chain carries each property name once instead of 400 times.
+ *   Empty arrays and objects are left as they are.
+ * - MessagePack ({@link #MSGPACK}): the same document as the JSON response (field names and
+ *   value formats from the application ObjectMapper), written as MessagePack - any MessagePack
+ *   library decodes it, e.g. @msgpack/msgpack in the browser.
+ *
+ * Callers pass a slot (what is encoded, e.g. "latest:NIFTY") and a version; the bytes are
+ * reused until the version of that slot changes.
+ */
+@Service
+public class ResponseEncodingService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseEncodingService.class);
+
+    public static final String COLUMNAR_JSON_VALUE = "application/vnd.dashboard.columnar+json";
+    public static final MediaType COLUMNAR_JSON = MediaType.parseMediaType(COLUMNAR_JSON_VALUE);
+    public static final String MSGPACK_VALUE = "application/msgpack";
+    public static final MediaType MSGPACK = MediaType.parseMediaType(MSGPACK_VALUE);
+
+    private static final int MAX_SLOTS = 256;
+
+    public enum Format {
+        COLUMNAR(COLUMNAR_JSON),
+        MSGPACK(ResponseEncodingService.MSGPACK);
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public MediaType getMediaType() { return mediaType; }
+    }
+
+    private static final class Encoded {
+        final Object version;
+        final byte[] bytes;
+
+        Encoded(Object version, byte[] bytes) {
+            this.version = version;
+            this.bytes = bytes;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper msgpackMapper = new ObjectMapper(new MessagePackFactory());
+    private final Map<String, Encoded> encoded = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong encodes = new AtomicLong();
+
+    public ResponseEncodingService(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Encoded bytes of value, reusing the previous encoding of this slot if its version
+     * is unchanged. A null version encodes without caching.
+     */
+    public byte[] encode(String slot, Object version, Object value, Format format) throws IOException {
+        if (version == null) {
+            return encodeNow(value, format);
+        }
+        String key = slot + '|' + format.name();
+        Encoded current = encoded.get(key);
+        if (current != null && current.version.equals(version)) {
+            hits.incrementAndGet();
+            return current.bytes;
+        }
+        byte[] bytes = encodeNow(value, format);
+        if (encoded.size() >= MAX_SLOTS && current == null) {
+            // Slots include client-chosen parts (metrics feature lists) - keep the map bounded
+            encoded.clear();
+        }
+        encoded.put(key, new Encoded(version, bytes));
+        return bytes;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("slots", encoded.size());
+        stats.put("hits", hits.get());
+        stats.put("encodes", encodes.get());
+        return stats;
+    }
+
+    private byte[] encodeNow(Object value, Format format) throws IOException {
+        encodes.incrementAndGet();
+        byte[] bytes = switch (format) {
+            case COLUMNAR -> objectMapper.writeValueAsBytes(toColumns(objectMapper.valueToTree(value)));
+            // Tree from the application mapper, so dates and decimals match the JSON response
+            case MSGPACK -> msgpackMapper.writeValueAsBytes(objectMapper.valueToTree(value));
+        };
+        log.debug("Encoded {} as {} ({} bytes)", value.getClass().getSimpleName(), format, bytes.length);
+        return bytes;
+    }
+
+    /**
+     * Pivot arrays of objects (and maps of objects) into one array per field.
+     */
+    static JsonNode toColumns(JsonNode node) {
+        JsonNodeFactory nodes = JsonNodeFactory.instance;
+        if (node.isArray()) {
+            if (node.isEmpty() || !allObjects(node.elements())) {
+                ArrayNode array = nodes.arrayNode(node.size());
+                node.forEach(element -> array.add(toColumns(element)));
+                return array;
+            }
+            return pivot(node, null);
+        }
+        if (node.isObject()) {
+            if (!node.isEmpty() && allObjects(node.elements())) {
+                return pivot(node, node.fieldNames());
+            }
+            ObjectNode object = nodes.objectNode();
+            node.properties().forEach(field -> object.set(field.getKey(), toColumns(field.getValue())));
+            return object;
+        }
+        return node;
+    }
+
+    private static ObjectNode pivot(JsonNode records, Iterator<String> keys) {
+        JsonNodeFactory nodes = JsonNodeFactory.instance;
+        Set<String> fields = new LinkedHashSet<>();
+        records.forEach(record -> record.fieldNames().forEachRemaining(fields::add));
+
+        ObjectNode columns = nodes.objectNode();
+        columns.put("count", records.size());
+        if (keys != null) {
+            ArrayNode keyColumn = columns.putArray("key");
+            keys.forEachRemaining(keyColumn::add);
+        }
+        for (String field : fields) {
+            ArrayNode column = nodes.arrayNode(records.size());
+            for (JsonNode record : records) {
+                JsonNode value = record.get(field);
+                column.add(value == null ? nodes.nullNode() : value);
+            }
+            // Don't clobber the count/key columns if a record happens to use those names
+            columns.set(columns.has(field) ? "_" + field : field, column);
+        }
+        return columns;
+    }
+
+    private static boolean allObjects(Iterator<JsonNode> elements) {
+        while (elements.hasNext()) {
+            if (!elements.next().isObject()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
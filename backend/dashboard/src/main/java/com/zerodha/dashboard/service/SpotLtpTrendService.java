@@ -1,5 +1,6 @@
 package com.zerodha.dashboard.service;
 
+import com.zerodha.dashboard.constants.UnderlyingConstants;
 import com.zerodha.dashboard.model.DerivativeContract;
 import com.zerodha.dashboard.model.DerivativesChain;
 import org.slf4j.Logger;
@@ -8,7 +9,10 @@ import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service to calculate spot LTP trend with stability confirmation.
@@ -33,7 +37,6 @@ public class SpotLtpTrendService {
     
     // Feature and symbol constants for WindowManager
     private static final String SPOT_LTP_FEATURE = "spotLtpMovement";
-    private static final String SPOT_LTP_SYMBOL = "NIFTY"; // Spot LTP is chain-level
     
     // Configuration constants
     private static final double MIN_MOVE_PERCENT = 0.02; // Minimum movement threshold (0.02%)
@@ -44,23 +47,14 @@ public class SpotLtpTrendService {
     
     // Use WindowManager for synchronized window tracking
     private final WindowManager windowManager;
+    private final MarketClock marketClock; // Wall or event time - decides when windows roll over
     
-    // Rolling buffer of LTP values with timestamps
-    private final List<LtpSnapshot> ltpBuffer = new ArrayList<>();
+    // Per-underlying calculation state - each underlying's spot trends independently
+    private final Map<String, SpotLtpState> states = new ConcurrentHashMap<>();
     
-    // COMPLETED WINDOW RESULT - Result from PREVIOUS completed window (DISPLAYED IN UI)
-    private volatile double completedTrendPercent = 0.0;
-    private volatile String completedTrendDirection = "NEUTRAL";
-    
-    // CURRENT WINDOW RESULT - Running calculation for CURRENT window (NOT displayed until window completes)
-    private volatile double currentTrendPercent = 0.0;
-    private volatile String currentTrendDirection = "NEUTRAL";
-    
-    // Track if we've completed at least one window
-    private volatile boolean hasCompletedWindow = false;
-    
-    public SpotLtpTrendService(WindowManager windowManager) {
+    public SpotLtpTrendService(WindowManager windowManager, MarketClock marketClock) {
         this.windowManager = windowManager;
+        this.marketClock = marketClock;
     }
     
     /**
@@ -96,18 +90,21 @@ public class SpotLtpTrendService {
         this.windowSeconds = normalizedSeconds; // Use normalized value to match WindowManager
         
         if (oldWindow != normalizedSeconds) {
-            // Reset window tracking when size changes
-            // Synchronize with WindowManager (pass normalized value)
-            windowManager.updateWindowSize(SPOT_LTP_FEATURE, SPOT_LTP_SYMBOL, normalizedSeconds);
-            synchronized (ltpBuffer) {
-                ltpBuffer.clear();
+            // Reset window tracking when size changes - window size is shared by all underlyings
+            for (Map.Entry<String, SpotLtpState> entry : states.entrySet()) {
+                SpotLtpState state = entry.getValue();
+                // Synchronize with WindowManager (pass normalized value)
+                windowManager.updateWindowSize(SPOT_LTP_FEATURE, entry.getKey(), normalizedSeconds);
+                synchronized (state.ltpBuffer) {
+                    state.ltpBuffer.clear();
+                }
+                state.currentTrendPercent = 0.0;
+                state.currentTrendDirection = "NEUTRAL";
+                state.hasCompletedWindow = false;
+                // DON'T clear completedTrendPercent/Direction - keep displaying last result for smooth transition
             }
-            currentTrendPercent = 0.0;
-            currentTrendDirection = "NEUTRAL";
-            hasCompletedWindow = false;
-            // DON'T clear completedTrendPercent/Direction - keep displaying last result for smooth transition
-            log.info("SPOT_LTP_TREND WINDOW SIZE CHANGED: {}s -> {}s (normalized from {}s). Buffer cleared. hasCompletedWindow=false. Display: {} ({}%)", 
-                oldWindow, normalizedSeconds, seconds, completedTrendDirection, String.format("%.2f", completedTrendPercent));
+            log.info("SPOT_LTP_TREND WINDOW SIZE CHANGED: {}s -> {}s (normalized from {}s). Buffers cleared for {} underlying(s). hasCompletedWindow=false", 
+                oldWindow, normalizedSeconds, seconds, states.size());
         }
     }
     
@@ -137,6 +134,9 @@ public class SpotLtpTrendService {
             return;
         }
         
+        String underlying = UnderlyingConstants.normalize(chain.getUnderlying());
+        SpotLtpState state = states.computeIfAbsent(underlying, key -> new SpotLtpState());
+        
         try {
             // Get the actual spot price (NIFTY index price) from the chain
             Double currentSpotPrice = extractSpotPrice(chain);
@@ -144,16 +144,16 @@ public class SpotLtpTrendService {
             if (currentSpotPrice == null || currentSpotPrice <= 0) {
                 log.debug("calculateSpotLtpTrend: No spot price available");
                 // Maintain previous completed values
-                chain.setSpotLtpTrendPercent(completedTrendPercent);
-                chain.setSpotLtpTrendDirection(completedTrendDirection);
+                chain.setSpotLtpTrendPercent(state.completedTrendPercent);
+                chain.setSpotLtpTrendDirection(state.completedTrendDirection);
                 return;
             }
             
-            Instant now = Instant.now();
+            Instant now = marketClock.now(chain);
             
             // Use WindowManager for synchronized window tracking
             WindowManager.WindowState windowState = windowManager.getWindowState(
-                SPOT_LTP_FEATURE, SPOT_LTP_SYMBOL, windowSeconds);
+                SPOT_LTP_FEATURE, underlying, windowSeconds);
             
             // Check if we've moved to a new window (synchronized with WindowManager)
             boolean windowChanged = windowState.checkAndUpdateWindow(now);
@@ -161,58 +161,58 @@ public class SpotLtpTrendService {
             if (windowChanged && windowState.hasCompletedWindow()) {
                 // Window completed! Commit current result as completed result
                 log.info("SPOT_LTP_TREND WINDOW CHANGE: Window completed at epoch {}. Committing: {} ({}%). Window size: {}s",
-                    now.getEpochSecond(), currentTrendDirection, String.format("%.2f", currentTrendPercent), windowSeconds);
+                    now.getEpochSecond(), state.currentTrendDirection, String.format("%.2f", state.currentTrendPercent), windowSeconds);
                 
                 // Commit current to completed
-                completedTrendPercent = currentTrendPercent;
-                completedTrendDirection = currentTrendDirection;
-                hasCompletedWindow = true;
+                state.completedTrendPercent = state.currentTrendPercent;
+                state.completedTrendDirection = state.currentTrendDirection;
+                state.hasCompletedWindow = true;
                 
                 // Clear buffer for new window (keep only values within new window)
-                synchronized (ltpBuffer) {
+                synchronized (state.ltpBuffer) {
                     Instant windowStart = windowState.getWindowStartTime();
                     if (windowStart != null) {
-                        ltpBuffer.removeIf(snapshot -> snapshot.timestamp.isBefore(windowStart));
+                        state.ltpBuffer.removeIf(snapshot -> snapshot.timestamp.isBefore(windowStart));
                     }
                 }
                 
                 // Reset current calculation for new window
-                currentTrendPercent = 0.0;
-                currentTrendDirection = "NEUTRAL";
+                state.currentTrendPercent = 0.0;
+                state.currentTrendDirection = "NEUTRAL";
                 
                 log.info("SPOT_LTP_TREND WINDOW CHANGE: New window started: {}s-{}s. Display now: {} ({}%)", 
                     windowState.getWindowStartTime().getEpochSecond(), 
                     windowState.getWindowEndTime().getEpochSecond(),
-                    completedTrendDirection, String.format("%.2f", completedTrendPercent));
+                    state.completedTrendDirection, String.format("%.2f", state.completedTrendPercent));
             }
             
             // Maintain rolling buffer: remove values outside current window
             Instant windowStart = windowState.getWindowStartTime();
             if (windowStart != null) {
                 Instant windowEnd = windowStart.plusSeconds(windowSeconds);
-                synchronized (ltpBuffer) {
+                synchronized (state.ltpBuffer) {
                     // Remove values outside the current window
-                    ltpBuffer.removeIf(snapshot -> 
+                    state.ltpBuffer.removeIf(snapshot -> 
                         snapshot.timestamp.isBefore(windowStart) || snapshot.timestamp.isAfter(windowEnd));
                 }
             }
             
             // Add current spot price to buffer
-            synchronized (ltpBuffer) {
-                ltpBuffer.add(new LtpSnapshot(currentSpotPrice, now));
+            synchronized (state.ltpBuffer) {
+                state.ltpBuffer.add(new LtpSnapshot(currentSpotPrice, now));
             }
             
             // Calculate trend for current window using the specified algorithm
-            synchronized (ltpBuffer) {
-                if (ltpBuffer.size() >= 2) {
-                    TrendResult result = calculateTrendWithStabilityCheck(ltpBuffer);
-                    currentTrendPercent = result.deltaPercent;
-                    currentTrendDirection = result.direction;
+            synchronized (state.ltpBuffer) {
+                if (state.ltpBuffer.size() >= 2) {
+                    TrendResult result = calculateTrendWithStabilityCheck(state.ltpBuffer);
+                    state.currentTrendPercent = result.deltaPercent;
+                    state.currentTrendDirection = result.direction;
                     
                     log.debug("Spot LTP Trend: deltaPercent={}%, direction={}, bufferSize={}", 
                         String.format("%.4f", result.deltaPercent), 
                         result.direction,
-                        ltpBuffer.size());
+                        state.ltpBuffer.size());
                 }
             }
             
@@ -220,14 +220,14 @@ public class SpotLtpTrendService {
             double displayPercent;
             String displayDirection;
             
-            if (hasCompletedWindow) {
+            if (state.hasCompletedWindow) {
                 // After first window completes: ALWAYS show completed result (stable)
-                displayPercent = completedTrendPercent;
-                displayDirection = completedTrendDirection;
+                displayPercent = state.completedTrendPercent;
+                displayDirection = state.completedTrendDirection;
             } else {
                 // Before first window completes: Show current calculation
-                displayPercent = currentTrendPercent;
-                displayDirection = currentTrendDirection;
+                displayPercent = state.currentTrendPercent;
+                displayDirection = state.currentTrendDirection;
             }
             
             // Set on chain (convert direction to match existing format: UP/DOWN/NEUTRAL)
@@ -239,8 +239,8 @@ public class SpotLtpTrendService {
         } catch (Exception e) {
             log.error("Error calculating spot LTP trend: {}", e.getMessage(), e);
             // Maintain previous completed values on error
-            chain.setSpotLtpTrendPercent(completedTrendPercent);
-            chain.setSpotLtpTrendDirection("NEUTRAL".equals(completedTrendDirection) ? "FLAT" : completedTrendDirection);
+            chain.setSpotLtpTrendPercent(state.completedTrendPercent);
+            chain.setSpotLtpTrendDirection("NEUTRAL".equals(state.completedTrendDirection) ? "FLAT" : state.completedTrendDirection);
         }
     }
     
@@ -363,18 +363,132 @@ public class SpotLtpTrendService {
     }
     
     /**
-     * Get current trend percent (completed window value).
+     * Get current trend percent (completed window value) of the default underlying.
      */
     public double getTrendPercent() {
-        return completedTrendPercent;
+        return getTrendPercent(UnderlyingConstants.DEFAULT_UNDERLYING);
     }
     
     /**
-     * Get current trend direction (completed window value).
+     * Get current trend percent (completed window value) of an underlying.
+     */
+    public double getTrendPercent(String underlying) {
+        SpotLtpState state = states.get(UnderlyingConstants.normalize(underlying));
+        return state != null ? state.completedTrendPercent : 0.0;
+    }
+    
+    /**
+     * Get current trend direction (completed window value) of the default underlying.
      * Returns: UP, DOWN, or NEUTRAL
      */
     public String getTrendDirection() {
-        return completedTrendDirection;
+        return getTrendDirection(UnderlyingConstants.DEFAULT_UNDERLYING);
+    }
+    
+    /**
+     * Get current trend direction (completed window value) of an underlying.
+     * Returns: UP, DOWN, or NEUTRAL
+     */
+    public String getTrendDirection(String underlying) {
+        SpotLtpState state = states.get(UnderlyingConstants.normalize(underlying));
+        return state != null ? state.completedTrendDirection : "NEUTRAL";
+    }
+    
+    /**
+     * Checkpoint of every underlying's spot trend state (see EngineCheckpointService).
+     */
+    public static class Checkpoint {
+        public int windowSeconds;
+        public Map<String, StateCheckpoint> underlyings = new HashMap<>();
+    }
+    
+    /**
+     * One underlying: the rolling LTP buffer (parallel price / epoch-millis lists),
+     * current and completed results, and the WindowManager position they belong to.
+     */
+    public static class StateCheckpoint {
+        public List<Double> bufferLtp = new ArrayList<>();
+        public List<Long> bufferMillis = new ArrayList<>();
+        public double completedTrendPercent;
+        public String completedTrendDirection;
+        public double currentTrendPercent;
+        public String currentTrendDirection;
+        public boolean hasCompletedWindow;
+        public long windowNumber;
+        public boolean windowCompleted;
+    }
+    
+    /**
+     * Copy all spot trend state. Call from the thread that processes polls.
+     */
+    public Checkpoint exportCheckpoint() {
+        Checkpoint checkpoint = new Checkpoint();
+        checkpoint.windowSeconds = windowSeconds;
+        states.forEach((underlying, state) -> {
+            StateCheckpoint copy = new StateCheckpoint();
+            synchronized (state.ltpBuffer) {
+                for (LtpSnapshot snapshot : state.ltpBuffer) {
+                    copy.bufferLtp.add(snapshot.ltp);
+                    copy.bufferMillis.add(snapshot.timestamp.toEpochMilli());
+                }
+            }
+            copy.completedTrendPercent = state.completedTrendPercent;
+            copy.completedTrendDirection = state.completedTrendDirection;
+            copy.currentTrendPercent = state.currentTrendPercent;
+            copy.currentTrendDirection = state.currentTrendDirection;
+            copy.hasCompletedWindow = state.hasCompletedWindow;
+            WindowManager.WindowState windowState = windowManager.getWindowState(SPOT_LTP_FEATURE, underlying, windowSeconds);
+            copy.windowNumber = windowState.getWindowNumber();
+            copy.windowCompleted = windowState.hasCompletedWindow();
+            checkpoint.underlyings.put(underlying, copy);
+        });
+        return checkpoint;
+    }
+    
+    /**
+     * Restore spot trend state from a checkpoint. Returns false (and changes nothing)
+     * if it was taken with a different window size.
+     */
+    public boolean restoreCheckpoint(Checkpoint checkpoint) {
+        if (checkpoint == null || checkpoint.windowSeconds != windowSeconds) {
+            return false;
+        }
+        checkpoint.underlyings.forEach((underlying, copy) -> {
+            SpotLtpState state = new SpotLtpState();
+            int size = Math.min(copy.bufferLtp.size(), copy.bufferMillis.size());
+            for (int i = 0; i < size; i++) {
+                state.ltpBuffer.add(new LtpSnapshot(copy.bufferLtp.get(i), Instant.ofEpochMilli(copy.bufferMillis.get(i))));
+            }
+            state.completedTrendPercent = copy.completedTrendPercent;
+            state.completedTrendDirection = copy.completedTrendDirection;
+            state.currentTrendPercent = copy.currentTrendPercent;
+            state.currentTrendDirection = copy.currentTrendDirection;
+            state.hasCompletedWindow = copy.hasCompletedWindow;
+            windowManager.getWindowState(SPOT_LTP_FEATURE, underlying, windowSeconds)
+                .restore(copy.windowNumber, copy.windowCompleted);
+            states.put(underlying, state);
+        });
+        log.info("SPOT_LTP_TREND: Restored state for {} underlying(s) from checkpoint", checkpoint.underlyings.size());
+        return true;
+    }
+    
+    /**
+     * Calculation state of one underlying.
+     */
+    private static class SpotLtpState {
+        // Rolling buffer of LTP values with timestamps
+        final List<LtpSnapshot> ltpBuffer = new ArrayList<>();
+        
+        // COMPLETED WINDOW RESULT - Result from PREVIOUS completed window (DISPLAYED IN UI)
+        volatile double completedTrendPercent = 0.0;
+        volatile String completedTrendDirection = "NEUTRAL";
+        
+        // CURRENT WINDOW RESULT - Running calculation for CURRENT window (NOT displayed until window completes)
+        volatile double currentTrendPercent = 0.0;
+        volatile String currentTrendDirection = "NEUTRAL";
+        
+        // Track if we've completed at least one window
+        volatile boolean hasCompletedWindow = false;
     }
 }
 
@@ -0,0 +1,472 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.model.DerivativeContract;
+import com.zerodha.dashboard.model.DerivativesChain;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Stateful synthetic market for stress testing - the large, continuous counterpart of {@link MockDataService}.
+ *
+ * MockDataService returns an independent random chain on every call, which windowed engines
+ * cannot learn anything from. This generator keeps a persistent order book per contract and
+ * evolves it over time:
+ * - Underlyings follow correlated geometric random walks (one common market factor + idiosyncratic noise)
+ * - Futures and options are priced from their underlying (cost of carry / Black-Scholes), so the whole
+ *   chain moves together like a real one
+ * - Trades arrive at a configurable tick rate, drain bid/ask depth and move the touch when a level is exhausted;
+ *   depth refills towards its base level between trades
+ *
+ * Size is configurable (underlyings x expiries x strikes) - defaults produce ~2,400 contracts.
+ * The books are built on first use, so nothing is allocated unless market.source=synthetic.
+ * Output is deterministic for a given seed and sequence of {@link #advanceTo} calls.
+ */
+@Service
+public class SyntheticMarketGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticMarketGenerator.class);
+
+    private static final String DATA_SOURCE = "SYNTHETIC";
+    // NSE trading year: 252 days x 6.25 hours
+    private static final double SECONDS_PER_TRADING_YEAR = 252 * 6.25 * 3600;
+    private static final double RISK_FREE_RATE = 0.065;
+    private static final double TICK_SIZE = 0.05;
+    private static final double REFILL_RATE_PER_SECOND = 0.5;
+    // Cap on simulated time per advance so a long pause does not replay hours of ticks at once
+    private static final double MAX_STEP_SECONDS = 5.0;
+
+    /**
+     * Known index parameters: spot, strike step, lot size. Anything else is treated as a stock.
+     */
+    private static final Map<String, double[]> INDEX_PARAMETERS = Map.of(
+        "NIFTY", new double[]{25000, 50, 75},
+        "BANKNIFTY", new double[]{56000, 100, 35},
+        "FINNIFTY", new double[]{26500, 50, 65},
+        "MIDCPNIFTY", new double[]{13000, 25, 140}
+    );
+    private static final double[] STOCK_PARAMETERS = {1500, 10, 500};
+    private static final DateTimeFormatter MONTHLY_CODE = DateTimeFormatter.ofPattern("yyMMM", Locale.ENGLISH);
+
+    @Value("${synthetic.underlyings:NIFTY,BANKNIFTY,FINNIFTY,MIDCPNIFTY}")
+    private String underlyingsConfig;
+
+    @Value("${synthetic.expiries:3}")
+    private int expiriesPerUnderlying;
+
+    @Value("${synthetic.strikes.per.side:50}")
+    private int strikesPerSide;
+
+    @Value("${synthetic.ticks.per.second:2000}")
+    private int ticksPerSecond;
+
+    @Value("${synthetic.volatility:0.15}")
+    private double volatility;
+
+    @Value("${synthetic.correlation:0.8}")
+    private double correlation;
+
+    @Value("${synthetic.seed:42}")
+    private long seed;
+
+    private final Map<String, UnderlyingBook> books = new LinkedHashMap<>();
+    private final Map<String, ContractBook> contractsBySymbol = new HashMap<>();
+    private final List<ContractBook> allContracts = new ArrayList<>();
+    private SplittableRandom random;
+    private Instant simulatedTime;
+    private double pendingTicks = 0.0;
+    private long ticksGenerated = 0;
+    private boolean initialised = false;
+
+    /**
+     * Build (or rebuild) every book from the configuration. Called on first use.
+     */
+    public synchronized void init() {
+        books.clear();
+        contractsBySymbol.clear();
+        allContracts.clear();
+        random = new SplittableRandom(seed);
+        simulatedTime = null;
+        pendingTicks = 0.0;
+        ticksGenerated = 0;
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        List<String> underlyings = Arrays.stream(underlyingsConfig.split(","))
+            .map(String::trim)
+            .filter(s -> !s.isEmpty())
+            .map(s -> s.toUpperCase(Locale.ROOT))
+            .toList();
+
+        long tokenBase = 10_000_000L;
+        for (String underlying : underlyings) {
+            UnderlyingBook book = buildUnderlying(underlying, today, tokenBase);
+            books.put(underlying, book);
+            tokenBase += 1_000_000L;
+        }
+        initialised = true;
+        log.info("Synthetic market initialised: {} underlyings, {} contracts, {} ticks/s",
+            books.size(), allContracts.size(), ticksPerSecond);
+    }
+
+    private void ensureInitialised() {
+        if (!initialised) {
+            init();
+        }
+    }
+
+    public synchronized boolean isInitialised() {
+        return initialised;
+    }
+
+    private UnderlyingBook buildUnderlying(String underlying, LocalDate today, long tokenBase) {
+        double[] params = INDEX_PARAMETERS.getOrDefault(underlying, STOCK_PARAMETERS);
+        UnderlyingBook book = new UnderlyingBook(underlying, params[0], params[1]);
+        int lotSize = (int) params[2];
+        long token = tokenBase;
+
+        // Three monthly futures (last Thursday of month)
+        for (int m = 0; m < 3; m++) {
+            LocalDate expiry = today.plusMonths(m).with(TemporalAdjusters.lastInMonth(DayOfWeek.THURSDAY));
+            if (expiry.isBefore(today)) {
+                expiry = today.plusMonths(m + 1L).with(TemporalAdjusters.lastInMonth(DayOfWeek.THURSDAY));
+            }
+            String symbol = underlying + expiry.format(MONTHLY_CODE).toUpperCase(Locale.ROOT) + "FUT";
+            addContract(book, new ContractBook(String.valueOf(token++), symbol, underlying, "FUT", expiry, 0, lotSize));
+        }
+
+        // Weekly option expiries, strikes centred on the starting spot
+        LocalDate expiry = today.with(TemporalAdjusters.nextOrSame(DayOfWeek.THURSDAY));
+        double atm = Math.round(book.spot / book.strikeStep) * book.strikeStep;
+        for (int e = 0; e < expiriesPerUnderlying; e++) {
+            String prefix = underlying + weeklyCode(expiry);
+            for (int i = -strikesPerSide; i <= strikesPerSide; i++) {
+                double strike = atm + i * book.strikeStep;
+                String strikeText = BigDecimal.valueOf(strike).stripTrailingZeros().toPlainString();
+                addContract(book, new ContractBook(String.valueOf(token++), prefix + strikeText + "CE",
+                    underlying, "CE", expiry, strike, lotSize));
+                addContract(book, new ContractBook(String.valueOf(token++), prefix + strikeText + "PE",
+                    underlying, "PE", expiry, strike, lotSize));
+            }
+            expiry = expiry.plusWeeks(1);
+        }
+
+        // Seed prices so the first snapshot is already consistent
+        for (ContractBook contract : book.contracts) {
+            contract.lastPrice = roundToTick(fairValue(contract, book.spot, today));
+            contract.close = contract.lastPrice;
+            contract.bidLevel = Math.max(TICK_SIZE, contract.lastPrice - TICK_SIZE);
+            contract.askLevel = contract.lastPrice + TICK_SIZE;
+        }
+        return book;
+    }
+
+    private void addContract(UnderlyingBook book, ContractBook contract) {
+        contract.baseQuantity = contract.lotSize * (5 + random.nextInt(40));
+        contract.bidQuantity = contract.baseQuantity;
+        contract.askQuantity = contract.baseQuantity;
+        contract.openInterest = contract.lotSize * (1_000L + random.nextInt(50_000));
+        book.contracts.add(contract);
+        contractsBySymbol.put(contract.tradingsymbol, contract);
+        allContracts.add(contract);
+    }
+
+    /**
+     * Weekly option code as used by Kite: yy + month (1-9, O, N, D) + dd.
+     */
+    private static String weeklyCode(LocalDate expiry) {
+        int month = expiry.getMonthValue();
+        char monthCode = month <= 9 ? (char) ('0' + month) : "OND".charAt(month - 10);
+        return String.format("%02d%c%02d", expiry.getYear() % 100, monthCode, expiry.getDayOfMonth());
+    }
+
+    /**
+     * Advance the simulated market to the given time: move the underlyings, then apply
+     * the trades that arrived since the previous call at the configured tick rate.
+     */
+    public synchronized void advanceTo(Instant now) {
+        ensureInitialised();
+        if (simulatedTime == null) {
+            simulatedTime = now;
+            return;
+        }
+        double dtSeconds = Duration.between(simulatedTime, now).toNanos() / 1e9;
+        if (dtSeconds <= 0) {
+            return;
+        }
+        simulatedTime = now;
+        dtSeconds = Math.min(dtSeconds, MAX_STEP_SECONDS);
+
+        // Correlated GBM step: common market factor + idiosyncratic shock
+        double dtYears = dtSeconds / SECONDS_PER_TRADING_YEAR;
+        double marketShock = random.nextGaussian();
+        double idiosyncraticWeight = Math.sqrt(Math.max(0.0, 1.0 - correlation * correlation));
+        for (UnderlyingBook book : books.values()) {
+            double shock = correlation * marketShock + idiosyncraticWeight * random.nextGaussian();
+            double previous = book.spot;
+            book.spot = previous * Math.exp(-0.5 * volatility * volatility * dtYears
+                + volatility * Math.sqrt(dtYears) * shock);
+            book.lastMove = book.spot - previous;
+        }
+
+        // Depth refills towards its base level between trades
+        double refill = Math.min(1.0, REFILL_RATE_PER_SECOND * dtSeconds);
+        for (ContractBook contract : allContracts) {
+            contract.bidQuantity += Math.round((contract.baseQuantity - contract.bidQuantity) * refill);
+            contract.askQuantity += Math.round((contract.baseQuantity - contract.askQuantity) * refill);
+        }
+
+        // Re-anchor every touch to the new fair value before trades hit it
+        LocalDate today = LocalDate.ofInstant(now, ZoneOffset.UTC);
+        for (UnderlyingBook book : books.values()) {
+            for (ContractBook contract : book.contracts) {
+                double fair = roundToTick(fairValue(contract, book.spot, today));
+                if (fair < contract.bidLevel || fair > contract.askLevel) {
+                    contract.bidLevel = Math.max(TICK_SIZE, fair - TICK_SIZE);
+                    contract.askLevel = fair + TICK_SIZE;
+                }
+            }
+        }
+
+        pendingTicks += ticksPerSecond * dtSeconds;
+        int ticks = (int) pendingTicks;
+        pendingTicks -= ticks;
+        for (int i = 0; i < ticks && !allContracts.isEmpty(); i++) {
+            applyTrade(allContracts.get(random.nextInt(allContracts.size())));
+        }
+        ticksGenerated += ticks;
+    }
+
+    /**
+     * One trade: aggressor side leans with the underlying's last move, size drains the touch,
+     * an exhausted level moves the touch by one tick and refills from behind.
+     */
+    private void applyTrade(ContractBook contract) {
+        UnderlyingBook book = books.get(contract.underlying);
+        double lean = book.lastMove == 0 ? 0.0 : Math.signum(book.lastMove) * 0.15;
+        if ("PE".equals(contract.instrumentType)) {
+            lean = -lean;
+        }
+        boolean buyerInitiated = random.nextDouble() < 0.5 + lean;
+        long size = (long) contract.lotSize * (1 + random.nextInt(10));
+
+        if (buyerInitiated) {
+            contract.lastPrice = contract.askLevel;
+            contract.askQuantity -= size;
+            if (contract.askQuantity <= 0) {
+                contract.askLevel += TICK_SIZE;
+                contract.bidLevel += TICK_SIZE;
+                contract.askQuantity = contract.baseQuantity / 2 + random.nextInt(Math.max(1, (int) contract.baseQuantity));
+            }
+        } else {
+            contract.lastPrice = contract.bidLevel;
+            contract.bidQuantity -= size;
+            if (contract.bidQuantity <= 0) {
+                contract.bidLevel = Math.max(TICK_SIZE, contract.bidLevel - TICK_SIZE);
+                contract.askLevel = Math.max(contract.bidLevel + TICK_SIZE, contract.askLevel - TICK_SIZE);
+                contract.bidQuantity = contract.baseQuantity / 2 + random.nextInt(Math.max(1, (int) contract.baseQuantity));
+            }
+        }
+        contract.volume += size;
+        contract.high = Math.max(contract.high, contract.lastPrice);
+        contract.low = contract.low == 0 ? contract.lastPrice : Math.min(contract.low, contract.lastPrice);
+        if (random.nextInt(20) == 0) {
+            contract.openInterest += (random.nextBoolean() ? 1 : -1) * (long) contract.lotSize;
+        }
+    }
+
+    /**
+     * Build a chain snapshot for an underlying (advancing the market to {@code now} first).
+     */
+    public synchronized DerivativesChain nextChain(String underlying, Instant now) {
+        advanceTo(now);
+        UnderlyingBook book = books.get(underlying);
+        if (book == null) {
+            return null;
+        }
+
+        BigDecimal spot = BigDecimal.valueOf(book.spot).setScale(2, RoundingMode.HALF_UP);
+        DerivativesChain chain = new DerivativesChain(underlying, spot);
+        chain.setDailyStrikePrice(spot);
+        chain.setTimestamp(now);
+        chain.setDataSource(DATA_SOURCE);
+
+        for (ContractBook contract : book.contracts) {
+            DerivativeContract snapshot = contract.toContract(now);
+            switch (contract.instrumentType) {
+                case "FUT" -> chain.addFutures(snapshot);
+                case "CE" -> chain.addCallOption(snapshot);
+                default -> chain.addPutOption(snapshot);
+            }
+        }
+        return chain;
+    }
+
+    public synchronized List<String> getUnderlyings() {
+        ensureInitialised();
+        return Collections.unmodifiableList(new ArrayList<>(books.keySet()));
+    }
+
+    public synchronized int getContractCount() {
+        ensureInitialised();
+        return allContracts.size();
+    }
+
+    public synchronized long getTicksGenerated() {
+        return ticksGenerated;
+    }
+
+    /**
+     * Current state of a single contract, or null if the symbol is unknown.
+     */
+    public synchronized DerivativeContract getContract(String tradingsymbol, Instant now) {
+        ensureInitialised();
+        ContractBook contract = contractsBySymbol.get(tradingsymbol);
+        return contract != null ? contract.toContract(now) : null;
+    }
+
+    private double fairValue(ContractBook contract, double spot, LocalDate today) {
+        double years = Math.max(1.0, ChronoUnit.DAYS.between(today, contract.expiry)) / 365.0;
+        if ("FUT".equals(contract.instrumentType)) {
+            return spot * Math.exp(RISK_FREE_RATE * years);
+        }
+        return blackScholes(spot, contract.strike, years, volatility, "CE".equals(contract.instrumentType));
+    }
+
+    private static double blackScholes(double spot, double strike, double years, double sigma, boolean call) {
+        double sqrtT = Math.sqrt(years);
+        double d1 = (Math.log(spot / strike) + (RISK_FREE_RATE + 0.5 * sigma * sigma) * years) / (sigma * sqrtT);
+        double d2 = d1 - sigma * sqrtT;
+        double discount = Math.exp(-RISK_FREE_RATE * years);
+        double price = call
+            ? spot * normalCdf(d1) - strike * discount * normalCdf(d2)
+            : strike * discount * normalCdf(-d2) - spot * normalCdf(-d1);
+        return Math.max(TICK_SIZE, price);
+    }
+
+    /**
+     * Standard normal CDF (Abramowitz-Stegun 26.2.17, |error| < 7.5e-8).
+     */
+    private static double normalCdf(double x) {
+        double t = 1.0 / (1.0 + 0.2316419 * Math.abs(x));
+        double poly = t * (0.319381530 + t * (-0.356563782 + t * (1.781477937 + t * (-1.821255978 + t * 1.330274429))));
+        double tail = Math.exp(-0.5 * x * x) / Math.sqrt(2 * Math.PI) * poly;
+        return x >= 0 ? 1.0 - tail : tail;
+    }
+
+    private static double roundToTick(double price) {
+        return Math.max(TICK_SIZE, Math.round(price / TICK_SIZE) * TICK_SIZE);
+    }
+
+    /**
+     * Evolving state of one underlying.
+     */
+    private static class UnderlyingBook {
+        final String underlying;
+        final double strikeStep;
+        final List<ContractBook> contracts = new ArrayList<>();
+        double spot;
+        double lastMove;
+
+        UnderlyingBook(String underlying, double spot, double strikeStep) {
+            this.underlying = underlying;
+            this.spot = spot;
+            this.strikeStep = strikeStep;
+        }
+    }
+
+    /**
+     * Evolving top-of-book state of one contract.
+     */
+    private static class ContractBook {
+        final String instrumentToken;
+        final String tradingsymbol;
+        final String underlying;
+        final String instrumentType;
+        final LocalDate expiry;
+        final double strike;
+        final int lotSize;
+        long baseQuantity;
+        long bidQuantity;
+        long askQuantity;
+        long volume;
+        long openInterest;
+        double bidLevel;
+        double askLevel;
+        double lastPrice;
+        double close;
+        double high;
+        double low;
+
+        ContractBook(String instrumentToken, String tradingsymbol, String underlying, String instrumentType,
+                     LocalDate expiry, double strike, int lotSize) {
+            this.instrumentToken = instrumentToken;
+            this.tradingsymbol = tradingsymbol;
+            this.underlying = underlying;
+            this.instrumentType = instrumentType;
+            this.expiry = expiry;
+            this.strike = strike;
+            this.lotSize = lotSize;
+        }
+
+        DerivativeContract toContract(Instant now) {
+            DerivativeContract contract = new DerivativeContract();
+            contract.setInstrumentToken(instrumentToken);
+            contract.setTradingsymbol(tradingsymbol);
+            contract.setUnderlying(underlying);
+            contract.setInstrumentType(instrumentType);
+            contract.setSegment(switch (instrumentType) {
+                case "FUT" -> "FUTURES";
+                case "CE" -> "CALL_OPTIONS";
+                default -> "PUT_OPTIONS";
+            });
+            contract.setExpiryDate(expiry);
+            if (!"FUT".equals(instrumentType)) {
+                contract.setStrikePrice(BigDecimal.valueOf(strike));
+            }
+            contract.setLotSize(lotSize);
+            contract.setTickSize(BigDecimal.valueOf(TICK_SIZE));
+            contract.setLastPrice(price(lastPrice));
+            contract.setBid(price(bidLevel));
+            contract.setAsk(price(askLevel));
+            contract.setBidQuantity(Math.max(0, bidQuantity));
+            contract.setAskQuantity(Math.max(0, askQuantity));
+            contract.setVolume(volume);
+            contract.setOpenInterest(BigDecimal.valueOf(openInterest));
+            contract.setClose(price(close));
+            contract.setHigh(price(high > 0 ? high : lastPrice));
+            contract.setLow(price(low > 0 ? low : lastPrice));
+            BigDecimal change = contract.getLastPrice().subtract(contract.getClose());
+            contract.setChange(change);
+            contract.setChangePercent(close > 0
+                ? change.divide(contract.getClose(), 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100))
+                : BigDecimal.ZERO);
+            contract.setTimestamp(now);
+            return contract;
+        }
+
+        private static BigDecimal price(double value) {
+            return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+        }
+    }
+}
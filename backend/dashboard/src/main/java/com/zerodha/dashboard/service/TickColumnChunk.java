@@ -0,0 +1,351 @@
+package com.zerodha.dashboard.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * One block of {@link TickColumnStore}: the ticks of a single instrument, with every column
+ * compressed on its own bit stream (Gorilla-style).
+ *
+ * - timestamp: first value raw, then delta-of-delta
+ * - last price: XOR against the previous value, reusing the previous leading/trailing
+ *   zero window when the new XOR fits in it
+ * - bid quantity, ask quantity, volume, open interest: delta against the previous value
+ *
+ * Deltas and delta-of-deltas are zigzag encoded into buckets ('0' = 0, '10' = 7 bits,
+ * '110' = 12 bits, '1110' = 20 bits, '11110' = 32 bits, '11111' = 64 bits), so an unchanged
+ * column costs one bit per tick and a regular poll interval costs one bit per timestamp.
+ *
+ * Block layout: [magic][token length][token][count][min ts][max ts][6 x column bytes][columns].
+ * Not thread-safe - TickColumnStore guards each open chunk with its monitor.
+ */
+final class TickColumnChunk {
+
+    static final int BLOCK_MAGIC = 0x5A54424B; // "ZTBK"
+    static final int COLUMNS = 6;
+    private static final int COL_TIME = 0;
+    private static final int COL_LTP = 1;
+    private static final int FIRST_INT_COLUMN = 2; // bid, ask, volume, open interest
+
+    /**
+     * Receives decoded rows.
+     */
+    interface RowVisitor {
+        void visit(long timestampMillis, double lastPrice, long bidQuantity, long askQuantity,
+                   long volume, long openInterest);
+    }
+
+    /**
+     * Fixed part of a block, readable without decoding any column.
+     */
+    static final class Header {
+        final String token;
+        final int count;
+        final long minTs;
+        final long maxTs;
+        final int length;
+
+        private Header(String token, int count, long minTs, long maxTs, int length) {
+            this.token = token;
+            this.count = count;
+            this.minTs = minTs;
+            this.maxTs = maxTs;
+            this.length = length;
+        }
+    }
+
+    private final String token;
+    private final long createdAtMillis;
+    private final BitWriter[] columns = new BitWriter[COLUMNS];
+    private int count = 0;
+    private long minTs = Long.MAX_VALUE;
+    private long maxTs = Long.MIN_VALUE;
+    private boolean sealed = false;
+
+    // Encoder state
+    private long prevTs;
+    private long prevDelta;
+    private long prevLtpBits;
+    private int prevLeading = -1;
+    private int prevTrailing;
+    private final long[] prevInts = new long[COLUMNS - FIRST_INT_COLUMN];
+
+    TickColumnChunk(String token, long createdAtMillis) {
+        this.token = token;
+        this.createdAtMillis = createdAtMillis;
+        for (int i = 0; i < COLUMNS; i++) {
+            columns[i] = new BitWriter();
+        }
+    }
+
+    String getToken() { return token; }
+    int getCount() { return count; }
+    long getCreatedAtMillis() { return createdAtMillis; }
+    boolean isSealed() { return sealed; }
+    void markSealed() { sealed = true; }
+
+    void append(long timestampMillis, double lastPrice, long bidQuantity, long askQuantity,
+                long volume, long openInterest) {
+        long ltpBits = Double.doubleToLongBits(lastPrice);
+        long[] ints = {bidQuantity, askQuantity, volume, openInterest};
+        if (count == 0) {
+            columns[COL_TIME].write(timestampMillis, 64);
+            columns[COL_LTP].write(ltpBits, 64);
+            for (int i = 0; i < ints.length; i++) {
+                columns[FIRST_INT_COLUMN + i].write(ints[i], 64);
+            }
+            prevDelta = 0;
+        } else {
+            long delta = timestampMillis - prevTs;
+            writeBucketed(columns[COL_TIME], delta - prevDelta);
+            prevDelta = delta;
+            writeXor(columns[COL_LTP], ltpBits);
+            for (int i = 0; i < ints.length; i++) {
+                writeBucketed(columns[FIRST_INT_COLUMN + i], ints[i] - prevInts[i]);
+            }
+        }
+        prevTs = timestampMillis;
+        prevLtpBits = ltpBits;
+        System.arraycopy(ints, 0, prevInts, 0, ints.length);
+        minTs = Math.min(minTs, timestampMillis);
+        maxTs = Math.max(maxTs, timestampMillis);
+        count++;
+    }
+
+    /**
+     * Serialize the chunk as it is now. The chunk stays appendable.
+     */
+    byte[] toBlock() {
+        byte[] tokenBytes = token.getBytes(StandardCharsets.UTF_8);
+        int size = 4 + 2 + tokenBytes.length + 4 + 8 + 8 + 4 * COLUMNS;
+        for (BitWriter column : columns) {
+            size += column.byteLength();
+        }
+        ByteBuffer block = ByteBuffer.allocate(size);
+        block.putInt(BLOCK_MAGIC);
+        block.putShort((short) tokenBytes.length);
+        block.put(tokenBytes);
+        block.putInt(count);
+        block.putLong(minTs);
+        block.putLong(maxTs);
+        for (BitWriter column : columns) {
+            block.putInt(column.byteLength());
+        }
+        for (BitWriter column : columns) {
+            block.put(column.bytes(), 0, column.byteLength());
+        }
+        return block.array();
+    }
+
+    /**
+     * Read the header of the block at {@code offset}, or null if there is no valid block there.
+     */
+    static Header readHeader(ByteBuffer buffer, int offset, int limit) {
+        if (offset + 6 > limit || buffer.getInt(offset) != BLOCK_MAGIC) {
+            return null;
+        }
+        int tokenLength = buffer.getShort(offset + 4);
+        int columnsAt = offset + 6 + tokenLength + 4 + 8 + 8;
+        if (tokenLength <= 0 || columnsAt + 4 * COLUMNS > limit) {
+            return null;
+        }
+        byte[] tokenBytes = new byte[tokenLength];
+        buffer.get(offset + 6, tokenBytes);
+        int at = offset + 6 + tokenLength;
+        int count = buffer.getInt(at);
+        long minTs = buffer.getLong(at + 4);
+        long maxTs = buffer.getLong(at + 12);
+        int length = columnsAt + 4 * COLUMNS - offset;
+        for (int i = 0; i < COLUMNS; i++) {
+            length += buffer.getInt(columnsAt + 4 * i);
+        }
+        if (offset + length > limit) {
+            return null;
+        }
+        return new Header(new String(tokenBytes, StandardCharsets.UTF_8), count, minTs, maxTs, length);
+    }
+
+    /**
+     * Decode the block at {@code offset} and pass every row with from <= ts <= to to the visitor.
+     *
+     * @return number of rows visited
+     */
+    static int decode(ByteBuffer buffer, int offset, long from, long to, RowVisitor visitor) {
+        Header header = readHeader(buffer, offset, buffer.limit());
+        if (header == null || header.count == 0) {
+            return 0;
+        }
+        int columnsAt = offset + 6 + header.token.getBytes(StandardCharsets.UTF_8).length + 4 + 8 + 8;
+        BitReader[] readers = new BitReader[COLUMNS];
+        int dataAt = columnsAt + 4 * COLUMNS;
+        for (int i = 0; i < COLUMNS; i++) {
+            readers[i] = new BitReader(buffer, dataAt);
+            dataAt += buffer.getInt(columnsAt + 4 * i);
+        }
+
+        long ts = readers[COL_TIME].read(64);
+        long ltpBits = readers[COL_LTP].read(64);
+        long[] ints = new long[COLUMNS - FIRST_INT_COLUMN];
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = readers[FIRST_INT_COLUMN + i].read(64);
+        }
+        long delta = 0;
+        int leading = 0;
+        int trailing = 0;
+        int visited = 0;
+        for (int row = 0; row < header.count; row++) {
+            if (row > 0) {
+                delta += readBucketed(readers[COL_TIME]);
+                ts += delta;
+                BitReader ltp = readers[COL_LTP];
+                if (ltp.readBit()) {
+                    if (ltp.readBit()) {
+                        leading = (int) ltp.read(5);
+                        int significant = (int) ltp.read(6) + 1;
+                        trailing = 64 - leading - significant;
+                    }
+                    ltpBits ^= ltp.read(64 - leading - trailing) << trailing;
+                }
+                for (int i = 0; i < ints.length; i++) {
+                    ints[i] += readBucketed(readers[FIRST_INT_COLUMN + i]);
+                }
+            }
+            if (ts >= from && ts <= to) {
+                visitor.visit(ts, Double.longBitsToDouble(ltpBits), ints[0], ints[1], ints[2], ints[3]);
+                visited++;
+            }
+        }
+        return visited;
+    }
+
+    private void writeXor(BitWriter out, long bits) {
+        long xor = bits ^ prevLtpBits;
+        if (xor == 0) {
+            out.write(0, 1);
+            return;
+        }
+        out.write(1, 1);
+        int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        int trailing = Long.numberOfTrailingZeros(xor);
+        if (prevLeading >= 0 && leading >= prevLeading && trailing >= prevTrailing) {
+            out.write(0, 1);
+            out.write(xor >>> prevTrailing, 64 - prevLeading - prevTrailing);
+        } else {
+            int significant = 64 - leading - trailing;
+            out.write(1, 1);
+            out.write(leading, 5);
+            out.write(significant - 1, 6);
+            out.write(xor >>> trailing, significant);
+            prevLeading = leading;
+            prevTrailing = trailing;
+        }
+    }
+
+    private static void writeBucketed(BitWriter out, long value) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        if (zigzag == 0) {
+            out.write(0, 1);
+        } else if (zigzag >>> 7 == 0) {
+            out.write(0b10, 2);
+            out.write(zigzag, 7);
+        } else if (zigzag >>> 12 == 0) {
+            out.write(0b110, 3);
+            out.write(zigzag, 12);
+        } else if (zigzag >>> 20 == 0) {
+            out.write(0b1110, 4);
+            out.write(zigzag, 20);
+        } else if (zigzag >>> 32 == 0) {
+            out.write(0b11110, 5);
+            out.write(zigzag, 32);
+        } else {
+            out.write(0b11111, 5);
+            out.write(zigzag, 64);
+        }
+    }
+
+    private static long readBucketed(BitReader in) {
+        int ones = 0;
+        while (ones < 5 && in.readBit()) {
+            ones++;
+        }
+        int bits = switch (ones) {
+            case 0 -> 0;
+            case 1 -> 7;
+            case 2 -> 12;
+            case 3 -> 20;
+            case 4 -> 32;
+            default -> 64;
+        };
+        if (bits == 0) {
+            return 0;
+        }
+        long zigzag = in.read(bits);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    /**
+     * MSB-first bit stream over a growing byte array.
+     */
+    private static final class BitWriter {
+        private byte[] buffer = new byte[64];
+        private long bitCount = 0;
+
+        void write(long value, int bits) {
+            int remaining = bits;
+            while (remaining > 0) {
+                int byteIndex = (int) (bitCount >>> 3);
+                if (byteIndex >= buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int free = 8 - (int) (bitCount & 7);
+                int take = Math.min(free, remaining);
+                int chunk = (int) ((value >>> (remaining - take)) & ((1 << take) - 1));
+                buffer[byteIndex] |= (byte) (chunk << (free - take));
+                bitCount += take;
+                remaining -= take;
+            }
+        }
+
+        int byteLength() {
+            return (int) ((bitCount + 7) >>> 3);
+        }
+
+        byte[] bytes() {
+            return buffer;
+        }
+    }
+
+    /**
+     * Reads a BitWriter stream in place (absolute gets, so the buffer can be shared).
+     */
+    private static final class BitReader {
+        private final ByteBuffer buffer;
+        private final int base;
+        private long position = 0;
+
+        BitReader(ByteBuffer buffer, int base) {
+            this.buffer = buffer;
+            this.base = base;
+        }
+
+        boolean readBit() {
+            return read(1) == 1;
+        }
+
+        long read(int bits) {
+            long value = 0;
+            int remaining = bits;
+            while (remaining > 0) {
+                int available = 8 - (int) (position & 7);
+                int take = Math.min(available, remaining);
+                int current = buffer.get(base + (int) (position >>> 3)) & 0xFF;
+                int chunk = (current >>> (available - take)) & ((1 << take) - 1);
+                value = (value << take) | chunk;
+                position += take;
+                remaining -= take;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,502 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.model.DerivativeContract;
+import com.zerodha.dashboard.model.DerivativesChain;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Local, append-only columnar store of per-contract ticks (last price, bid quantity,
+ * ask quantity, volume, open interest), for history longer than Redis memory allows.
+ *
+ * Ticks are buffered per instrument in an open {@link TickColumnChunk}. A chunk is sealed
+ * into the current segment file when it holds tickstore.chunk.ticks ticks or is older than
+ * tickstore.chunk.max.age.ms, and on shutdown. A contract is only appended when one of its
+ * values changed since its previous tick.
+ *
+ * Segments are memory-mapped files of tickstore.segment.mb under tickstore.path, one or more
+ * per UTC day (ticks-YYYY-MM-DD-NNN.col), layout [magic][version][write position][blocks...].
+ * The write position is updated after each block, so after a crash everything up to the last
+ * sealed block is readable. On startup the block headers of all segments within
+ * tickstore.retention.days are indexed; older segments are deleted. The same retention sweep
+ * runs at each UTC day rollover while recording: expired segments are deleted and dropped from
+ * the index, and the last values of instruments no longer being polled are forgotten.
+ *
+ * Fed from the publish stage of DynamicCacheUpdateScheduler; queried by instrument token
+ * and time range. Blocks outside the range are skipped using their min/max timestamp.
+ */
+@Service
+public class TickColumnStore {
+
+    private static final Logger log = LoggerFactory.getLogger(TickColumnStore.class);
+
+    static final int FILE_MAGIC = 0x5A544353; // "ZTCS"
+    static final byte FILE_VERSION = 1;
+    static final int FILE_HEADER_BYTES = 16;
+    private static final int WRITE_POSITION_OFFSET = 8;
+    private static final String FILE_PREFIX = "ticks-";
+    private static final String FILE_SUFFIX = ".col";
+    private static final Pattern FILE_NAME = Pattern.compile("ticks-(\\d{4}-\\d{2}-\\d{2})-(\\d{3})\\.col");
+
+    /**
+     * The ticks of one instrument in a time range, column by column.
+     */
+    public static class Series {
+        public String token;
+        public int count;
+        public boolean truncated;
+        public long[] timestamps = new long[0];
+        public double[] lastPrice = new double[0];
+        public long[] bidQuantity = new long[0];
+        public long[] askQuantity = new long[0];
+        public long[] volume = new long[0];
+        public long[] openInterest = new long[0];
+    }
+
+    private static final class Segment {
+        final Path file;
+        final LocalDate date;
+        final int sequence;
+        final MappedByteBuffer buffer;
+        volatile int position;
+
+        Segment(Path file, LocalDate date, int sequence, MappedByteBuffer buffer, int position) {
+            this.file = file;
+            this.date = date;
+            this.sequence = sequence;
+            this.buffer = buffer;
+            this.position = position;
+        }
+    }
+
+    private static final class BlockRef {
+        final Segment segment;
+        final int offset;
+        final long minTs;
+        final long maxTs;
+
+        BlockRef(Segment segment, int offset, long minTs, long maxTs) {
+            this.segment = segment;
+            this.offset = offset;
+            this.minTs = minTs;
+            this.maxTs = maxTs;
+        }
+    }
+
+    @Value("${tickstore.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${tickstore.path:./tickstore}")
+    private String path = "./tickstore";
+
+    @Value("${tickstore.segment.mb:64}")
+    private int segmentMb = 64;
+
+    @Value("${tickstore.chunk.ticks:1024}")
+    private int chunkTicks = 1024;
+
+    @Value("${tickstore.chunk.max.age.ms:300000}")
+    private long chunkMaxAgeMs = 300000;
+
+    @Value("${tickstore.retention.days:5}")
+    private int retentionDays = 5;
+
+    @Value("${tickstore.max.ticks.per.request:50000}")
+    private int maxTicksPerRequest = 50000;
+
+    private final Map<String, List<BlockRef>> index = new ConcurrentHashMap<>();
+    private final Map<String, TickColumnChunk> openChunks = new ConcurrentHashMap<>();
+    // Last appended values per instrument (price bits first), outliving the chunk they were written to
+    private final Map<String, long[]> lastValues = new HashMap<>();
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private Segment active;
+    private long lastSweepMs = 0;
+    private LocalDate retentionCheckedFor;
+
+    private final AtomicLong ticksAppended = new AtomicLong();
+    private final AtomicLong ticksUnchanged = new AtomicLong();
+    private final AtomicLong blocksWritten = new AtomicLong();
+    private final AtomicLong blockBytesWritten = new AtomicLong();
+    private volatile String lastError = null;
+
+    @PostConstruct
+    public synchronized void open() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Path dir = Paths.get(path);
+            Files.createDirectories(dir);
+            LocalDate today = LocalDate.now(ZoneOffset.UTC);
+            LocalDate oldestKept = oldestKept(today);
+            retentionCheckedFor = today;
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(dir)) {
+                files = listing.filter(file -> FILE_NAME.matcher(file.getFileName().toString()).matches())
+                    .sorted()
+                    .toList();
+            }
+            int blocks = 0;
+            for (Path file : files) {
+                Matcher name = FILE_NAME.matcher(file.getFileName().toString());
+                name.matches();
+                LocalDate date = LocalDate.parse(name.group(1));
+                if (date.isBefore(oldestKept)) {
+                    Files.deleteIfExists(file);
+                    log.info("Deleted tick store segment {} (older than {} days)", file.getFileName(), retentionDays);
+                    continue;
+                }
+                blocks += indexSegment(file, date, Integer.parseInt(name.group(2)));
+            }
+            log.info("Tick store at {}: {} segment(s), {} block(s), {} instrument(s)",
+                dir.toAbsolutePath(), segments.size(), blocks, index.size());
+        } catch (IOException e) {
+            lastError = e.getMessage();
+            log.warn("Could not open tick store at {}: {}", path, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (!enabled) {
+            return;
+        }
+        for (TickColumnChunk chunk : new ArrayList<>(openChunks.values())) {
+            seal(chunk);
+        }
+        if (active != null) {
+            active.buffer.force();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Append the ticks of a processed chain. Called on the poll thread.
+     */
+    public synchronized void record(DerivativesChain chain) {
+        if (!enabled || chain == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long timestamp = chain.getTimestamp() != null ? chain.getTimestamp().toEpochMilli() : now;
+        try {
+            LocalDate today = LocalDate.now(ZoneOffset.UTC);
+            if (!today.equals(retentionCheckedFor)) {
+                sweepRetention(today);
+            }
+            recordAll(chain.getFutures(), timestamp, now);
+            recordAll(chain.getCallOptions(), timestamp, now);
+            recordAll(chain.getPutOptions(), timestamp, now);
+            if (now - lastSweepMs >= chunkMaxAgeMs) {
+                // Seal chunks of instruments that are no longer polled (e.g. after a strike shift)
+                lastSweepMs = now;
+                for (TickColumnChunk chunk : new ArrayList<>(openChunks.values())) {
+                    if (now - chunk.getCreatedAtMillis() >= chunkMaxAgeMs) {
+                        seal(chunk);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // Recording must never break live polling
+            lastError = e.getMessage();
+            log.warn("Failed to record ticks for {}: {}", chain.getUnderlying(), e.getMessage());
+        }
+    }
+
+    private LocalDate oldestKept(LocalDate today) {
+        return today.minusDays(Math.max(0, retentionDays - 1));
+    }
+
+    /**
+     * Delete segments older than tickstore.retention.days and drop their blocks from the index.
+     * Last values are kept only for instruments with an open chunk (polled within
+     * tickstore.chunk.max.age.ms), so expired contracts do not accumulate across days.
+     * Caller holds the store monitor.
+     */
+    void sweepRetention(LocalDate today) {
+        retentionCheckedFor = today;
+        LocalDate oldestKept = oldestKept(today);
+        List<Segment> expired = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (segment.date.isBefore(oldestKept)) {
+                expired.add(segment);
+            }
+        }
+        if (!expired.isEmpty()) {
+            segments.removeAll(expired);
+            if (expired.contains(active)) {
+                active = null;
+            }
+            // A scan that already copied a block list keeps reading the unlinked mapping
+            index.values().forEach(blocks -> blocks.removeIf(block -> expired.contains(block.segment)));
+            index.values().removeIf(List::isEmpty);
+            for (Segment segment : expired) {
+                try {
+                    Files.deleteIfExists(segment.file);
+                    log.info("Deleted tick store segment {} (older than {} days)", segment.file.getFileName(), retentionDays);
+                } catch (IOException e) {
+                    lastError = e.getMessage();
+                    log.warn("Could not delete tick store segment {}: {}", segment.file.getFileName(), e.getMessage());
+                }
+            }
+        }
+        lastValues.keySet().retainAll(openChunks.keySet());
+    }
+
+    private void recordAll(List<DerivativeContract> contracts, long timestamp, long now) {
+        if (contracts == null) {
+            return;
+        }
+        for (DerivativeContract contract : contracts) {
+            String token = contract.getInstrumentToken();
+            if (token == null || contract.getLastPrice() == null) {
+                continue;
+            }
+            double lastPrice = contract.getLastPrice().doubleValue();
+            long bid = contract.getBidQuantity() != null ? contract.getBidQuantity() : 0L;
+            long ask = contract.getAskQuantity() != null ? contract.getAskQuantity() : 0L;
+            long openInterest = contract.getOpenInterest() != null ? contract.getOpenInterest().longValue() : 0L;
+
+            long[] values = {Double.doubleToLongBits(lastPrice), bid, ask, contract.getVolume(), openInterest};
+            if (Arrays.equals(values, lastValues.get(token))) {
+                ticksUnchanged.incrementAndGet();
+                continue;
+            }
+            lastValues.put(token, values);
+
+            TickColumnChunk chunk = openChunks.get(token);
+            if (chunk != null && now - chunk.getCreatedAtMillis() >= chunkMaxAgeMs) {
+                seal(chunk);
+                chunk = null;
+            }
+            if (chunk == null) {
+                chunk = new TickColumnChunk(token, now);
+                openChunks.put(token, chunk);
+            }
+            synchronized (chunk) {
+                chunk.append(timestamp, lastPrice, bid, ask, contract.getVolume(), openInterest);
+            }
+            ticksAppended.incrementAndGet();
+            if (chunk.getCount() >= chunkTicks) {
+                seal(chunk);
+            }
+        }
+    }
+
+    /**
+     * Write a chunk into the active segment and index it. Caller holds the store monitor.
+     */
+    private void seal(TickColumnChunk chunk) {
+        synchronized (chunk) {
+            try {
+                if (chunk.getCount() > 0) {
+                    byte[] block = chunk.toBlock();
+                    Segment segment = segmentFor(block.length);
+                    int offset = segment.position;
+                    segment.buffer.put(offset, block);
+                    segment.position = offset + block.length;
+                    segment.buffer.putLong(WRITE_POSITION_OFFSET, segment.position);
+                    TickColumnChunk.Header header = TickColumnChunk.readHeader(segment.buffer, offset, segment.position);
+                    index.computeIfAbsent(chunk.getToken(), token -> new CopyOnWriteArrayList<>())
+                        .add(new BlockRef(segment, offset, header.minTs, header.maxTs));
+                    blocksWritten.incrementAndGet();
+                    blockBytesWritten.addAndGet(block.length);
+                }
+            } catch (IOException | RuntimeException e) {
+                lastError = e.getMessage();
+                log.warn("Dropping {} tick(s) of {} - could not write block: {}", chunk.getCount(), chunk.getToken(), e.getMessage());
+            } finally {
+                chunk.markSealed();
+                openChunks.remove(chunk.getToken(), chunk);
+            }
+        }
+    }
+
+    private Segment segmentFor(int blockLength) throws IOException {
+        long capacity = (long) segmentMb * 1024 * 1024;
+        if (FILE_HEADER_BYTES + blockLength > capacity) {
+            throw new IOException("Block of " + blockLength + " bytes does not fit a segment");
+        }
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        if (active != null && active.date.equals(today) && active.position + blockLength <= active.buffer.capacity()) {
+            return active;
+        }
+        if (active != null) {
+            active.buffer.force();
+        }
+        int sequence = active != null && active.date.equals(today) ? active.sequence + 1 : 0;
+        Path dir = Paths.get(path);
+        Files.createDirectories(dir);
+        Path file = dir.resolve(String.format("%s%s-%03d%s", FILE_PREFIX, today, sequence, FILE_SUFFIX));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            buffer.putInt(0, FILE_MAGIC);
+            buffer.put(4, FILE_VERSION);
+            buffer.putLong(WRITE_POSITION_OFFSET, FILE_HEADER_BYTES);
+            active = new Segment(file, today, sequence, buffer, FILE_HEADER_BYTES);
+        }
+        segments.add(active);
+        log.info("Tick store writing to new segment {}", file.getFileName());
+        return active;
+    }
+
+    private int indexSegment(Path file, LocalDate date, int sequence) throws IOException {
+        boolean appendable = date.equals(LocalDate.now(ZoneOffset.UTC));
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+                appendable ? StandardOpenOption.WRITE : StandardOpenOption.READ)) {
+            buffer = channel.map(appendable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                0, channel.size());
+        }
+        if (buffer.capacity() < FILE_HEADER_BYTES || buffer.getInt(0) != FILE_MAGIC || buffer.get(4) != FILE_VERSION) {
+            log.warn("Skipping {} - not a tick store segment (or unsupported version)", file.getFileName());
+            return 0;
+        }
+        int limit = (int) Math.min(buffer.getLong(WRITE_POSITION_OFFSET), buffer.capacity());
+        Segment segment = new Segment(file, date, sequence, buffer, FILE_HEADER_BYTES);
+        int offset = FILE_HEADER_BYTES;
+        int blocks = 0;
+        TickColumnChunk.Header header;
+        while ((header = TickColumnChunk.readHeader(buffer, offset, limit)) != null) {
+            index.computeIfAbsent(header.token, token -> new CopyOnWriteArrayList<>())
+                .add(new BlockRef(segment, offset, header.minTs, header.maxTs));
+            offset += header.length;
+            blocks++;
+        }
+        if (offset < limit) {
+            log.warn("Tick store segment {} has an unreadable block at {} - ignoring the rest", file.getFileName(), offset);
+        }
+        segment.position = offset;
+        segments.add(segment);
+        if (appendable) {
+            // Keep appending to today's latest segment
+            active = segment;
+        }
+        return blocks;
+    }
+
+    /**
+     * Visit every tick of {@code token} with from <= timestamp <= to: sealed blocks in write
+     * order, then the open chunk.
+     *
+     * @return number of ticks visited
+     */
+    public int scan(String token, long from, long to, TickColumnChunk.RowVisitor visitor) {
+        if (!enabled) {
+            return 0;
+        }
+        List<BlockRef> blocks;
+        byte[] open = null;
+        TickColumnChunk chunk = openChunks.get(token);
+        if (chunk != null) {
+            // Under the chunk monitor, so a chunk sealed concurrently shows up exactly once
+            synchronized (chunk) {
+                blocks = List.copyOf(index.getOrDefault(token, List.of()));
+                if (!chunk.isSealed() && chunk.getCount() > 0) {
+                    open = chunk.toBlock();
+                }
+            }
+        } else {
+            blocks = List.copyOf(index.getOrDefault(token, List.of()));
+        }
+
+        int visited = 0;
+        for (BlockRef block : blocks) {
+            if (block.maxTs < from || block.minTs > to) {
+                continue;
+            }
+            ByteBuffer buffer = block.segment.buffer.duplicate();
+            buffer.limit(block.segment.position);
+            visited += TickColumnChunk.decode(buffer, block.offset, from, to, visitor);
+        }
+        if (open != null) {
+            visited += TickColumnChunk.decode(ByteBuffer.wrap(open), 0, from, to, visitor);
+        }
+        return visited;
+    }
+
+    /**
+     * Ticks of {@code token} in a time range as columns, capped at tickstore.max.ticks.per.request
+     * (the earliest ticks are kept and {@code truncated} is set).
+     */
+    public Series query(String token, long from, long to) {
+        Series series = new Series();
+        series.token = token;
+        int initial = 256;
+        long[][] longs = {new long[initial], new long[initial], new long[initial], new long[initial], new long[initial]};
+        double[][] prices = {new double[initial]};
+        scan(token, from, to, (ts, ltp, bid, ask, volume, oi) -> {
+            if (series.count >= maxTicksPerRequest) {
+                series.truncated = true;
+                return;
+            }
+            if (series.count == longs[0].length) {
+                for (int i = 0; i < longs.length; i++) {
+                    longs[i] = Arrays.copyOf(longs[i], series.count * 2);
+                }
+                prices[0] = Arrays.copyOf(prices[0], series.count * 2);
+            }
+            int row = series.count++;
+            longs[0][row] = ts;
+            prices[0][row] = ltp;
+            longs[1][row] = bid;
+            longs[2][row] = ask;
+            longs[3][row] = volume;
+            longs[4][row] = oi;
+        });
+        series.timestamps = Arrays.copyOf(longs[0], series.count);
+        series.lastPrice = Arrays.copyOf(prices[0], series.count);
+        series.bidQuantity = Arrays.copyOf(longs[1], series.count);
+        series.askQuantity = Arrays.copyOf(longs[2], series.count);
+        series.volume = Arrays.copyOf(longs[3], series.count);
+        series.openInterest = Arrays.copyOf(longs[4], series.count);
+        return series;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("segments", segments.size());
+        stats.put("instruments", index.size());
+        stats.put("openChunks", openChunks.size());
+        stats.put("ticksAppended", ticksAppended.get());
+        stats.put("ticksUnchanged", ticksUnchanged.get());
+        stats.put("blocksWritten", blocksWritten.get());
+        stats.put("blockBytesWritten", blockBytesWritten.get());
+        Segment current = active;
+        stats.put("activeSegment", current != null ? current.file.getFileName().toString() : null);
+        stats.put("activeSegmentBytes", current != null ? current.position : 0);
+        stats.put("lastError", lastError);
+        return stats;
+    }
+}
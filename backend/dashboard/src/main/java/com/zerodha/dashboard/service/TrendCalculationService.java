@@ -1,5 +1,6 @@
 package com.zerodha.dashboard.service;
 
+import com.zerodha.dashboard.constants.UnderlyingConstants;
 import com.zerodha.dashboard.model.DerivativeContract;
 import com.zerodha.dashboard.model.DerivativesChain;
 import org.slf4j.Logger;
@@ -64,64 +65,18 @@ public class TrendCalculationService {
     
     // Use WindowManager for synchronized window tracking
     private final WindowManager windowManager;
-    private static final String TREND_SYMBOL = "NIFTY";
+    private final MarketClock marketClock; // Wall or event time - decides when windows roll over
     private static final String TREND_FEATURE = "trendScore";
     
-    // Caches for current window calculation (FIFO within each window)
-    // Use ConcurrentHashMap for thread safety (accessed by multiple threads during API polling)
-    private final Map<String, List<Double>> futuresCache = new ConcurrentHashMap<>();
-    private final Map<String, List<Double>> callsCache = new ConcurrentHashMap<>();
-    private final Map<String, List<Double>> putsCache = new ConcurrentHashMap<>();
+    // Per-underlying calculation state - NIFTY and BANKNIFTY trend independently
+    private final Map<String, TrendState> states = new ConcurrentHashMap<>();
     
-    // Classification history for smoothing
-    // Use synchronized collection for thread safety
-    private final Deque<String> classificationHistory = new ArrayDeque<>();
-    
-    /**
-     * COMPLETED WINDOW RESULT - Result from PREVIOUS completed window (DISPLAYED IN UI)
-     * This is what the frontend shows - stable until next window completes.
-     * 
-     * Example with 5s window:
-     * - 0-5s: Calculate currentClassification/Score, display completedClassification/Score (initially Neutral/0)
-     * - At 5s: Window completes, store current → completed, display the new completed value
-     * - 5-10s: Calculate new current values, display completed (stable)
-     */
-    private volatile String completedClassification = "Neutral";
-    private volatile double completedScore = 0.0;
-    
-    /**
-     * CURRENT WINDOW RESULT - Running calculation for CURRENT window (NOT displayed until window completes)
-     * These values are being calculated but not shown to the UI yet.
-     */
-    private volatile String currentClassification = "Neutral";
-    private volatile double currentScore = 0.0;
-    private volatile double currentFuturesScore = 0.0;
-    private volatile double currentCallsScore = 0.0;
-    private volatile double currentPutsScore = 0.0;
-    
-    /**
-     * DISPLAYED SEGMENT SCORES - Last displayed values (persist until new values arrive)
-     * These are shown in real-time and do NOT reset to 0 when window changes.
-     * They only update when new calculated values arrive.
-     */
-    private volatile double displayedFuturesScore = 0.0;
-    private volatile double displayedCallsScore = 0.0;
-    private volatile double displayedPutsScore = 0.0;
-    
-    /**
-     * Track if we've completed at least one window.
-     * Before the first window completes, we show the current calculation (like eaten delta does).
-     */
-    private volatile boolean hasCompletedWindow = false;
-    
-    public TrendCalculationService(WindowManager windowManager) {
+    public TrendCalculationService(WindowManager windowManager, MarketClock marketClock) {
         this.windowManager = windowManager;
-        initializeCache(futuresCache);
-        initializeCache(callsCache);
-        initializeCache(putsCache);
+        this.marketClock = marketClock;
     }
     
-    private void initializeCache(Map<String, List<Double>> cache) {
+    private static void initializeCache(Map<String, List<Double>> cache) {
         // Use synchronized lists for thread safety (accessed by multiple threads during API polling)
         cache.put("ltp", Collections.synchronizedList(new ArrayList<>()));
         cache.put("vol", Collections.synchronizedList(new ArrayList<>()));
@@ -153,19 +108,22 @@ public class TrendCalculationService {
         this.windowSeconds = normalizedSeconds; // Use normalized value to match WindowManager
         
         if (oldSize != normalizedSeconds) {
-            // Reset window tracking when size changes
-            // Synchronize with WindowManager (pass normalized value)
-            windowManager.updateWindowSize(TREND_FEATURE, TREND_SYMBOL, normalizedSeconds);
-            clearAllCaches();
-            classificationHistory.clear();
-            // Reset current calculation for new window
-            currentClassification = "Neutral";
-            currentScore = 0.0;
-            // Reset window completion flag - treat as new first window
-            hasCompletedWindow = false;
-            // DON'T clear completedClassification/Score - keep displaying last result for smooth transition
-            log.info("TREND WINDOW SIZE CHANGED: {}s -> {}s (normalized from {}s). Window tracking reset. hasCompletedWindow=false. Display: {} ({})", 
-                oldSize, normalizedSeconds, seconds, completedClassification, String.format("%.2f", completedScore));
+            // Reset window tracking when size changes - window size is shared by all underlyings
+            for (Map.Entry<String, TrendState> entry : states.entrySet()) {
+                TrendState state = entry.getValue();
+                // Synchronize with WindowManager (pass normalized value)
+                windowManager.updateWindowSize(TREND_FEATURE, entry.getKey(), normalizedSeconds);
+                clearAllCaches(state);
+                state.classificationHistory.clear();
+                // Reset current calculation for new window
+                state.currentClassification = "Neutral";
+                state.currentScore = 0.0;
+                // Reset window completion flag - treat as new first window
+                state.hasCompletedWindow = false;
+                // DON'T clear completedClassification/Score - keep displaying last result for smooth transition
+            }
+            log.info("TREND WINDOW SIZE CHANGED: {}s -> {}s (normalized from {}s). Window tracking reset for {} underlying(s). hasCompletedWindow=false", 
+                oldSize, normalizedSeconds, seconds, states.size());
         }
     }
     
@@ -191,10 +149,10 @@ public class TrendCalculationService {
         return bearishThreshold;
     }
     
-    private void clearAllCaches() {
-        clearCache(futuresCache);
-        clearCache(callsCache);
-        clearCache(putsCache);
+    private void clearAllCaches(TrendState state) {
+        clearCache(state.futuresCache);
+        clearCache(state.callsCache);
+        clearCache(state.putsCache);
     }
     
     private void clearCache(Map<String, List<Double>> cache) {
@@ -220,12 +178,15 @@ public class TrendCalculationService {
             return;
         }
         
+        String underlying = UnderlyingConstants.normalize(chain.getUnderlying());
+        TrendState state = states.computeIfAbsent(underlying, key -> new TrendState());
+        
         try {
-            Instant now = Instant.now();
+            Instant now = marketClock.now(chain);
             
-            // Use WindowManager for synchronized window tracking
+            // Use WindowManager for synchronized window tracking (one window per underlying)
             WindowManager.WindowState windowState = windowManager.getWindowState(
-                TREND_FEATURE, TREND_SYMBOL, windowSeconds);
+                TREND_FEATURE, underlying, windowSeconds);
             
             // Check if we've moved to a new window (synchronized with orchestrator)
             boolean windowChanged = windowState.checkAndUpdateWindow(now);
@@ -253,19 +214,19 @@ public class TrendCalculationService {
             if (windowChanged && windowState.hasCompletedWindow()) {
                 // Window completed! Commit current result as completed result
                 log.info("TREND WINDOW CHANGE: Window completed at epoch {}. Committing score: {} ({}). Window size: {}s",
-                    now.getEpochSecond(), currentClassification, String.format("%.2f", currentScore), windowSeconds);
+                    now.getEpochSecond(), state.currentClassification, String.format("%.2f", state.currentScore), windowSeconds);
                 
-                commitWindowResult();
+                commitWindowResult(state);
                 
                 // Clear caches for new window (discard all values from previous window)
-                clearAllCaches();
+                clearAllCaches(state);
                 
                 // Reset current calculation for new window
-                currentClassification = "Neutral";
-                currentScore = 0.0;
-                currentFuturesScore = 0.0;
-                currentCallsScore = 0.0;
-                currentPutsScore = 0.0;
+                state.currentClassification = "Neutral";
+                state.currentScore = 0.0;
+                state.currentFuturesScore = 0.0;
+                state.currentCallsScore = 0.0;
+                state.currentPutsScore = 0.0;
                 
                 // NOTE: displayedFuturesScore, displayedCallsScore, displayedPutsScore are NOT reset
                 // They persist until new values are calculated
@@ -273,7 +234,7 @@ public class TrendCalculationService {
                 log.info("TREND WINDOW CHANGE: New window started: {}s-{}s. Display now: {} ({})", 
                     windowState.getWindowStartTime().getEpochSecond(), 
                     windowState.getWindowEndTime().getEpochSecond(),
-                    completedClassification, String.format("%.2f", completedScore));
+                    state.completedClassification, String.format("%.2f", state.completedScore));
             }
             
             // Extract and cache current metrics
@@ -283,56 +244,56 @@ public class TrendCalculationService {
             
             // Update caches with current values
             if (futuresMetrics != null) {
-                updateCache(futuresCache, futuresMetrics);
+                updateCache(state.futuresCache, futuresMetrics);
             }
             if (callsMetrics != null) {
-                updateCache(callsCache, callsMetrics);
+                updateCache(state.callsCache, callsMetrics);
             }
             if (putsMetrics != null) {
-                updateCache(putsCache, putsMetrics);
+                updateCache(state.putsCache, putsMetrics);
             }
             
             // Store previous values before calculating
-            double previousCurrentScore = currentScore;
-            String previousCurrentClassification = currentClassification;
+            double previousCurrentScore = state.currentScore;
+            String previousCurrentClassification = state.currentClassification;
             
             // Calculate trend for current window (updates currentClassification/Score)
             // These are NOT displayed yet - only completedClassification/Score are displayed
-            calculateCurrentWindowTrend(futuresMetrics, callsMetrics, putsMetrics);
+            calculateCurrentWindowTrend(state, futuresMetrics, callsMetrics, putsMetrics);
             
             // If calculation returned 0 due to insufficient data (only 1 point in cache),
             // preserve the previous non-zero value to avoid oscillation
             int cacheSize = Math.max(
-                futuresCache.get("ltp").size(),
-                Math.max(callsCache.get("ltp").size(), putsCache.get("ltp").size())
+                state.futuresCache.get("ltp").size(),
+                Math.max(state.callsCache.get("ltp").size(), state.putsCache.get("ltp").size())
             );
-            if (cacheSize <= 1 && currentScore == 0.0 && previousCurrentScore != 0.0) {
+            if (cacheSize <= 1 && state.currentScore == 0.0 && previousCurrentScore != 0.0) {
                 // Not enough data to calculate meaningful score - preserve previous
-                currentScore = previousCurrentScore;
-                currentClassification = previousCurrentClassification;
+                state.currentScore = previousCurrentScore;
+                state.currentClassification = previousCurrentClassification;
                 log.debug("calculateTrend: Insufficient data (cacheSize={}), preserving previous score: {} ({})",
-                    cacheSize, currentClassification, String.format("%.2f", currentScore));
+                    cacheSize, state.currentClassification, String.format("%.2f", state.currentScore));
             }
             
             // Determine what to display
             String displayClassification;
             double displayScore;
             
-            if (hasCompletedWindow) {
+            if (state.hasCompletedWindow) {
                 // After first window completes: ALWAYS show completed result (stable)
-                displayClassification = completedClassification;
-                displayScore = completedScore;
+                displayClassification = state.completedClassification;
+                displayScore = state.completedScore;
             } else {
                 // Before first window completes: Show current calculation (like eaten delta)
                 // This gives immediate feedback rather than showing 0 for the entire first window
                 // But only if we have a meaningful value (not 0 from insufficient data)
-                if (currentScore != 0.0 || !"Neutral".equals(currentClassification)) {
-                    displayClassification = currentClassification;
-                    displayScore = currentScore;
+                if (state.currentScore != 0.0 || !"Neutral".equals(state.currentClassification)) {
+                    displayClassification = state.currentClassification;
+                    displayScore = state.currentScore;
                 } else {
                     // No meaningful calculation yet - keep previous display value
-                    displayClassification = completedClassification;
-                    displayScore = completedScore;
+                    displayClassification = state.completedClassification;
+                    displayScore = state.completedScore;
                 }
             }
             
@@ -343,30 +304,30 @@ public class TrendCalculationService {
             // Update displayed scores whenever new values are calculated (even if 0)
             // Persist last displayed values - do NOT reset to 0 when window changes
             // Only update if we have data in cache (meaning calculation was performed)
-            if (futuresCache.get("ltp").size() > 0) {
-                displayedFuturesScore = currentFuturesScore;
+            if (state.futuresCache.get("ltp").size() > 0) {
+                state.displayedFuturesScore = state.currentFuturesScore;
             }
-            if (callsCache.get("ltp").size() > 0) {
-                displayedCallsScore = currentCallsScore;
+            if (state.callsCache.get("ltp").size() > 0) {
+                state.displayedCallsScore = state.currentCallsScore;
             }
-            if (putsCache.get("ltp").size() > 0) {
-                displayedPutsScore = currentPutsScore;
+            if (state.putsCache.get("ltp").size() > 0) {
+                state.displayedPutsScore = state.currentPutsScore;
             }
             
             // Always use displayed scores (persist until new values arrive)
-            chain.setFuturesTrendScore(displayedFuturesScore);
-            chain.setCallsTrendScore(displayedCallsScore);
-            chain.setPutsTrendScore(displayedPutsScore);
+            chain.setFuturesTrendScore(state.displayedFuturesScore);
+            chain.setCallsTrendScore(state.displayedCallsScore);
+            chain.setPutsTrendScore(state.displayedPutsScore);
             
         } catch (Exception e) {
             log.error("Error calculating trend: {}", e.getMessage(), e);
             // Keep existing completed result on error
-            chain.setTrendClassification(completedClassification);
-            chain.setTrendScore(completedScore);
+            chain.setTrendClassification(state.completedClassification);
+            chain.setTrendScore(state.completedScore);
             // Use displayed scores (persist last values)
-            chain.setFuturesTrendScore(displayedFuturesScore);
-            chain.setCallsTrendScore(displayedCallsScore);
-            chain.setPutsTrendScore(displayedPutsScore);
+            chain.setFuturesTrendScore(state.displayedFuturesScore);
+            chain.setCallsTrendScore(state.displayedCallsScore);
+            chain.setPutsTrendScore(state.displayedPutsScore);
         }
     }
     
@@ -378,33 +339,33 @@ public class TrendCalculationService {
      * - The calculated value for window N should be displayed during window N+1
      * - If the market is flat and score is 0, that's a valid result to display
      */
-    private void commitWindowResult() {
+    private void commitWindowResult(TrendState state) {
         // Store current result as completed result (this is what UI will display)
-        completedClassification = currentClassification;
-        completedScore = currentScore;
+        state.completedClassification = state.currentClassification;
+        state.completedScore = state.currentScore;
         
         // Update displayed segment scores with final values from completed window
         // These persist until new values are calculated in the next window
-        displayedFuturesScore = currentFuturesScore;
-        displayedCallsScore = currentCallsScore;
-        displayedPutsScore = currentPutsScore;
+        state.displayedFuturesScore = state.currentFuturesScore;
+        state.displayedCallsScore = state.currentCallsScore;
+        state.displayedPutsScore = state.currentPutsScore;
         
         // Mark that we've completed at least one window
-        hasCompletedWindow = true;
+        state.hasCompletedWindow = true;
         
         log.debug("commitWindowResult: Committed {} ({}) as completed window result", 
-            completedClassification, String.format("%.2f", completedScore));
+            state.completedClassification, String.format("%.2f", state.completedScore));
     }
     
     /**
      * Calculate trend for the current window (updates currentClassification/Score).
      */
-    private void calculateCurrentWindowTrend(Metrics futuresMetrics, Metrics callsMetrics, Metrics putsMetrics) {
+    private void calculateCurrentWindowTrend(TrendState state, Metrics futuresMetrics, Metrics callsMetrics, Metrics putsMetrics) {
         // Check if we have any data in caches
         boolean hasData = 
-            futuresCache.get("ltp").size() > 0 ||
-            callsCache.get("ltp").size() > 0 ||
-            putsCache.get("ltp").size() > 0;
+            state.futuresCache.get("ltp").size() > 0 ||
+            state.callsCache.get("ltp").size() > 0 ||
+            state.putsCache.get("ltp").size() > 0;
         
         if (!hasData) {
             log.debug("calculateCurrentWindowTrend: No data in caches yet");
@@ -418,14 +379,14 @@ public class TrendCalculationService {
         }
         
         // Calculate segment scores
-        double futuresScore = futuresMetrics != null && futuresCache.get("ltp").size() > 0
-            ? calculateSegmentScore(futuresMetrics, futuresCache, "futures") 
+        double futuresScore = futuresMetrics != null && state.futuresCache.get("ltp").size() > 0
+            ? calculateSegmentScore(futuresMetrics, state.futuresCache, "futures") 
             : 0.0;
-        double callsScore = callsMetrics != null && callsCache.get("ltp").size() > 0
-            ? calculateSegmentScore(callsMetrics, callsCache, "calls") 
+        double callsScore = callsMetrics != null && state.callsCache.get("ltp").size() > 0
+            ? calculateSegmentScore(callsMetrics, state.callsCache, "calls") 
             : 0.0;
-        double putsScore = putsMetrics != null && putsCache.get("ltp").size() > 0
-            ? calculateSegmentScore(putsMetrics, putsCache, "puts") 
+        double putsScore = putsMetrics != null && state.putsCache.get("ltp").size() > 0
+            ? calculateSegmentScore(putsMetrics, state.putsCache, "puts") 
             : 0.0;
         
         // Calculate bullish and bearish scores with segment weights
@@ -477,16 +438,16 @@ public class TrendCalculationService {
         }
         
         // Apply smoothing
-        classificationHistory.addLast(classification);
-        while (classificationHistory.size() > SMOOTHING_CYCLES) {
-            classificationHistory.removeFirst();
+        state.classificationHistory.addLast(classification);
+        while (state.classificationHistory.size() > SMOOTHING_CYCLES) {
+            state.classificationHistory.removeFirst();
         }
         
         String finalClassification = classification;
         
-        if (classificationHistory.size() >= SMOOTHING_CYCLES) {
+        if (state.classificationHistory.size() >= SMOOTHING_CYCLES) {
             Map<String, Integer> counts = new HashMap<>();
-            for (String c : classificationHistory) {
+            for (String c : state.classificationHistory) {
                 counts.put(c, counts.getOrDefault(c, 0) + 1);
             }
             
@@ -515,16 +476,16 @@ public class TrendCalculationService {
         // Update current window result
         boolean shouldUpdate = 
             bullishCrossed || bearishCrossed ||
-            classificationHistory.size() < SMOOTHING_CYCLES ||
+            state.classificationHistory.size() < SMOOTHING_CYCLES ||
             finalClassification.equals(classification);
         
         if (shouldUpdate) {
-            currentClassification = finalClassification;
-            currentScore = finalScore;
+            state.currentClassification = finalClassification;
+            state.currentScore = finalScore;
             // Store segment scores for current window
-            currentFuturesScore = futuresScore;
-            currentCallsScore = callsScore;
-            currentPutsScore = putsScore;
+            state.currentFuturesScore = futuresScore;
+            state.currentCallsScore = callsScore;
+            state.currentPutsScore = putsScore;
         }
     }
     
@@ -721,6 +682,177 @@ public class TrendCalculationService {
         return Math.max(-10, Math.min(10, normalized));
     }
     
+    /**
+     * Checkpoint of every underlying's trend state (see EngineCheckpointService).
+     */
+    public static class Checkpoint {
+        public int windowSeconds;
+        public Map<String, StateCheckpoint> underlyings = new HashMap<>();
+    }
+    
+    /**
+     * One underlying: window caches per segment, smoothing history, current/completed/displayed
+     * results, and the WindowManager position they belong to.
+     */
+    public static class StateCheckpoint {
+        public Map<String, List<Double>> futuresCache = new HashMap<>();
+        public Map<String, List<Double>> callsCache = new HashMap<>();
+        public Map<String, List<Double>> putsCache = new HashMap<>();
+        public List<String> classificationHistory = new ArrayList<>();
+        public String completedClassification;
+        public double completedScore;
+        public String currentClassification;
+        public double currentScore;
+        public double currentFuturesScore;
+        public double currentCallsScore;
+        public double currentPutsScore;
+        public double displayedFuturesScore;
+        public double displayedCallsScore;
+        public double displayedPutsScore;
+        public boolean hasCompletedWindow;
+        public long windowNumber;
+        public boolean windowCompleted;
+    }
+    
+    /**
+     * Copy all trend state. Call from the thread that processes polls.
+     */
+    public Checkpoint exportCheckpoint() {
+        Checkpoint checkpoint = new Checkpoint();
+        checkpoint.windowSeconds = windowSeconds;
+        states.forEach((underlying, state) -> {
+            StateCheckpoint copy = new StateCheckpoint();
+            copyCache(state.futuresCache, copy.futuresCache);
+            copyCache(state.callsCache, copy.callsCache);
+            copyCache(state.putsCache, copy.putsCache);
+            copy.classificationHistory.addAll(state.classificationHistory);
+            copy.completedClassification = state.completedClassification;
+            copy.completedScore = state.completedScore;
+            copy.currentClassification = state.currentClassification;
+            copy.currentScore = state.currentScore;
+            copy.currentFuturesScore = state.currentFuturesScore;
+            copy.currentCallsScore = state.currentCallsScore;
+            copy.currentPutsScore = state.currentPutsScore;
+            copy.displayedFuturesScore = state.displayedFuturesScore;
+            copy.displayedCallsScore = state.displayedCallsScore;
+            copy.displayedPutsScore = state.displayedPutsScore;
+            copy.hasCompletedWindow = state.hasCompletedWindow;
+            WindowManager.WindowState windowState = windowManager.getWindowState(TREND_FEATURE, underlying, windowSeconds);
+            copy.windowNumber = windowState.getWindowNumber();
+            copy.windowCompleted = windowState.hasCompletedWindow();
+            checkpoint.underlyings.put(underlying, copy);
+        });
+        return checkpoint;
+    }
+    
+    /**
+     * Restore trend state from a checkpoint. Returns false (and changes nothing)
+     * if it was taken with a different window size.
+     */
+    public boolean restoreCheckpoint(Checkpoint checkpoint) {
+        if (checkpoint == null || checkpoint.windowSeconds != windowSeconds) {
+            return false;
+        }
+        checkpoint.underlyings.forEach((underlying, copy) -> {
+            TrendState state = new TrendState();
+            restoreCache(copy.futuresCache, state.futuresCache);
+            restoreCache(copy.callsCache, state.callsCache);
+            restoreCache(copy.putsCache, state.putsCache);
+            state.classificationHistory.addAll(copy.classificationHistory);
+            state.completedClassification = copy.completedClassification;
+            state.completedScore = copy.completedScore;
+            state.currentClassification = copy.currentClassification;
+            state.currentScore = copy.currentScore;
+            state.currentFuturesScore = copy.currentFuturesScore;
+            state.currentCallsScore = copy.currentCallsScore;
+            state.currentPutsScore = copy.currentPutsScore;
+            state.displayedFuturesScore = copy.displayedFuturesScore;
+            state.displayedCallsScore = copy.displayedCallsScore;
+            state.displayedPutsScore = copy.displayedPutsScore;
+            state.hasCompletedWindow = copy.hasCompletedWindow;
+            windowManager.getWindowState(TREND_FEATURE, underlying, windowSeconds)
+                .restore(copy.windowNumber, copy.windowCompleted);
+            states.put(underlying, state);
+        });
+        log.info("TREND: Restored state for {} underlying(s) from checkpoint", checkpoint.underlyings.size());
+        return true;
+    }
+    
+    private static void copyCache(Map<String, List<Double>> from, Map<String, List<Double>> to) {
+        from.forEach((metric, values) -> {
+            synchronized (values) {
+                to.put(metric, new ArrayList<>(values));
+            }
+        });
+    }
+    
+    private static void restoreCache(Map<String, List<Double>> from, Map<String, List<Double>> to) {
+        from.forEach((metric, values) -> {
+            List<Double> cache = to.get(metric);
+            if (cache != null && values != null) {
+                cache.addAll(values);
+            }
+        });
+    }
+    
+    /**
+     * Calculation state of one underlying.
+     */
+    private static class TrendState {
+        // Caches for current window calculation (FIFO within each window)
+        // Use ConcurrentHashMap for thread safety (accessed by multiple threads during API polling)
+        final Map<String, List<Double>> futuresCache = new ConcurrentHashMap<>();
+        final Map<String, List<Double>> callsCache = new ConcurrentHashMap<>();
+        final Map<String, List<Double>> putsCache = new ConcurrentHashMap<>();
+        
+        // Classification history for smoothing
+        // Use synchronized collection for thread safety
+        final Deque<String> classificationHistory = new ArrayDeque<>();
+        
+        /**
+         * COMPLETED WINDOW RESULT - Result from PREVIOUS completed window (DISPLAYED IN UI)
+         * This is what the frontend shows - stable until next window completes.
+         * 
+         * Example with 5s window:
+         * - 0-5s: Calculate currentClassification/Score, display completedClassification/Score (initially Neutral/0)
+         * - At 5s: Window completes, store current → completed, display the new completed value
+         * - 5-10s: Calculate new current values, display completed (stable)
+         */
+        volatile String completedClassification = "Neutral";
+        volatile double completedScore = 0.0;
+        
+        /**
+         * CURRENT WINDOW RESULT - Running calculation for CURRENT window (NOT displayed until window completes)
+         * These values are being calculated but not shown to the UI yet.
+         */
+        volatile String currentClassification = "Neutral";
+        volatile double currentScore = 0.0;
+        volatile double currentFuturesScore = 0.0;
+        volatile double currentCallsScore = 0.0;
+        volatile double currentPutsScore = 0.0;
+        
+        /**
+         * DISPLAYED SEGMENT SCORES - Last displayed values (persist until new values arrive)
+         * These are shown in real-time and do NOT reset to 0 when window changes.
+         * They only update when new calculated values arrive.
+         */
+        volatile double displayedFuturesScore = 0.0;
+        volatile double displayedCallsScore = 0.0;
+        volatile double displayedPutsScore = 0.0;
+        
+        /**
+         * Track if we've completed at least one window.
+         * Before the first window completes, we show the current calculation (like eaten delta does).
+         */
+        volatile boolean hasCompletedWindow = false;
+        
+        TrendState() {
+            initializeCache(futuresCache);
+            initializeCache(callsCache);
+            initializeCache(putsCache);
+        }
+    }
+    
     /**
      * Simple metrics container.
      */
@@ -1,13 +1,14 @@
 package com.zerodha.dashboard.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.Instant;
@@ -30,9 +31,11 @@ public class TrendMetricsCacheService {
     private static final String FUTURES_KEY = "futures";
     private static final String CALLS_KEY = "calls";
     private static final String PUTS_KEY = "puts";
+    private static final JavaType SNAPSHOT_LIST_TYPE =
+        TypeFactory.defaultInstance().constructCollectionType(List.class, TrendMetricsSnapshot.class);
     
-    private final StringRedisTemplate redisTemplate;
-    private final ObjectMapper objectMapper;
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final PayloadCodec payloadCodec;
     private final Duration cacheTtl;
     
     /**
@@ -87,11 +90,11 @@ public class TrendMetricsCacheService {
     }
     
     public TrendMetricsCacheService(
-            StringRedisTemplate redisTemplate,
-            ObjectMapper objectMapper,
+            RedisTemplate<String, byte[]> redisTemplate,
+            PayloadCodec payloadCodec,
             @Value("${redis.trend.cache.ttl:PT10M}") Duration cacheTtl) {
         this.redisTemplate = redisTemplate;
-        this.objectMapper = objectMapper;
+        this.payloadCodec = payloadCodec;
         this.cacheTtl = cacheTtl;
     }
     
@@ -123,12 +126,12 @@ public class TrendMetricsCacheService {
             }
             
             // Save back to Redis
-            String snapshotsJson = objectMapper.writeValueAsString(snapshots);
-            redisTemplate.opsForValue().set(cacheKey, snapshotsJson, cacheTtl);
+            byte[] payload = payloadCodec.encode(snapshots);
+            redisTemplate.opsForValue().set(cacheKey, payload, cacheTtl);
             
             log.debug("addSnapshot: Added snapshot for segment={}, total snapshots={}, windowSize={}", 
                 segment, snapshots.size(), windowSize);
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
             log.error("addSnapshot: Failed to serialize snapshots for segment={}", segment, e);
         } catch (Exception e) {
             log.error("addSnapshot: Error adding snapshot for segment={}", segment, e);
@@ -148,20 +151,17 @@ public class TrendMetricsCacheService {
         
         try {
             String cacheKey = getCacheKey(segment);
-            String snapshotsJson = redisTemplate.opsForValue().get(cacheKey);
+            byte[] payload = redisTemplate.opsForValue().get(cacheKey);
             
-            if (snapshotsJson != null) {
-                List<TrendMetricsSnapshot> snapshots = objectMapper.readValue(
-                    snapshotsJson,
-                    objectMapper.getTypeFactory().constructCollectionType(
-                        List.class, TrendMetricsSnapshot.class));
+            if (payload != null) {
+                List<TrendMetricsSnapshot> snapshots = payloadCodec.decode(payload, SNAPSHOT_LIST_TYPE);
                 log.debug("getSnapshots: Retrieved {} snapshots for segment={}", snapshots.size(), segment);
                 return snapshots;
             } else {
                 log.debug("getSnapshots: No snapshots found for segment={}", segment);
                 return new ArrayList<>();
             }
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
             log.error("getSnapshots: Failed to deserialize snapshots for segment={}", segment, e);
             return new ArrayList<>();
         } catch (Exception e) {
@@ -215,8 +215,8 @@ public class TrendMetricsCacheService {
                 
                 // Save trimmed list back to Redis
                 String cacheKey = getCacheKey(segment);
-                String trimmedJson = objectMapper.writeValueAsString(trimmed);
-                redisTemplate.opsForValue().set(cacheKey, trimmedJson, cacheTtl);
+                byte[] trimmedPayload = payloadCodec.encode(trimmed);
+                redisTemplate.opsForValue().set(cacheKey, trimmedPayload, cacheTtl);
                 
                 log.debug("trimSnapshotsToWindowSize: Trimmed {} snapshots to {} for segment={} (FIFO - kept most recent)", 
                     snapshots.size(), trimmed.size(), segment);
@@ -224,7 +224,7 @@ public class TrendMetricsCacheService {
                 log.debug("trimSnapshotsToWindowSize: No trimming needed for segment={} - current size {} <= new size {}", 
                     segment, snapshots.size(), newWindowSize);
             }
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
             log.warn("trimSnapshotsToWindowSize: Failed to trim snapshots for segment={}, will adapt naturally via FIFO", segment, e);
             // Don't fail - FIFO will handle it naturally on next addSnapshot
         } catch (Exception e) {
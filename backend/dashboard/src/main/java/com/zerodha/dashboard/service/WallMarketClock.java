@@ -0,0 +1,25 @@
+package com.zerodha.dashboard.service;
+
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * Wall-clock {@link MarketClock} - windows roll over in real time.
+ */
+public class WallMarketClock implements MarketClock {
+
+    private final Clock clock;
+
+    public WallMarketClock() {
+        this(Clock.systemUTC());
+    }
+
+    public WallMarketClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public Instant now() {
+        return clock.instant();
+    }
+}
@@ -145,6 +145,22 @@ public class WindowManager {
         public boolean hasCompletedWindow() {
             return hasCompletedWindow;
         }
+        
+        /**
+         * Current window number (epochSecond / windowSeconds), -1 before the first window.
+         */
+        public long getWindowNumber() {
+            return windowNumber;
+        }
+        
+        /**
+         * Resume tracking from a checkpoint taken with the same window size.
+         */
+        public void restore(long windowNumber, boolean hasCompletedWindow) {
+            this.windowNumber = windowNumber;
+            this.windowStartTime = windowNumber >= 0 ? Instant.ofEpochSecond(windowNumber * windowSeconds) : null;
+            this.hasCompletedWindow = hasCompletedWindow;
+        }
     }
     
     /**
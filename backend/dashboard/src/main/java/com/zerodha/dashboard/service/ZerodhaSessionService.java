@@ -3,20 +3,43 @@ package com.zerodha.dashboard.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Central place to manage Zerodha session state (access token, metadata).
  * Tokens are persisted in Redis so users don't have to update configuration files daily.
+ *
+ * The access token is cached in process, so polls and API requests don't each do an HGET.
+ * The cache is:
+ * - updated directly by saveSession / clearSession on this node
+ * - refreshed on every node through {@link #SESSION_CHANNEL} pub/sub when another node saves
+ *   or clears the session (keyspace notifications would need notify-keyspace-events on the server)
+ * - re-read in the background every zerodha.session.refresh.ms, as a safety net for a missed message
+ * - never kept past the Redis key's own expiry (24h after login), nor longer than zerodha.session.cache.ms
+ * If Redis is unreachable during a refresh, the last known token is kept and re-cached for
+ * zerodha.session.retry.ms, so callers back off instead of each retrying Redis.
+ *
+ * saveSession / clearSession bump a generation counter; a load that started before the bump
+ * discards its result, so an in-flight refresh cannot write a cleared token back.
  */
 @Service
 public class ZerodhaSessionService {
@@ -26,14 +49,85 @@ public class ZerodhaSessionService {
     private static final String SESSION_KEY = "zerodha:session";
     private static final String ACCESS_TOKEN_FIELD = "access_token";
     private static final String UPDATED_AT_FIELD = "updated_at";
+    public static final String SESSION_CHANNEL = "zerodha:session:events";
+
+    /**
+     * Token as last read from Redis (null = no session), valid until expiresAtMillis.
+     */
+    private static final class CachedToken {
+        final String token;
+        final long expiresAtMillis;
+
+        CachedToken(String token, long expiresAtMillis) {
+            this.token = token;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
 
     private final StringRedisTemplate redisTemplate;
+    private final TaskScheduler taskScheduler;
 
     @Value("${zerodha.access.token:}")
     private String fallbackAccessToken;
 
-    public ZerodhaSessionService(StringRedisTemplate redisTemplate) {
+    @Value("${zerodha.session.cache.ms:60000}")
+    private long cacheMs = 60000;
+
+    @Value("${zerodha.session.refresh.ms:30000}")
+    private long refreshMs = 30000;
+
+    @Value("${zerodha.session.retry.ms:5000}")
+    private long retryMs = 5000;
+
+    private volatile CachedToken cached = null;
+    // Bumped by local saves and clears; guarded by this for installs into cached
+    private long generation = 0;
+    private RedisMessageListenerContainer container;
+    private ScheduledFuture<?> refreshTask;
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong redisReads = new AtomicLong();
+    private final AtomicLong consecutiveFailures = new AtomicLong();
+
+    public ZerodhaSessionService(StringRedisTemplate redisTemplate, TaskScheduler taskScheduler) {
         this.redisTemplate = redisTemplate;
+        this.taskScheduler = taskScheduler;
+    }
+
+    @PostConstruct
+    public void start() {
+        try {
+            RedisConnectionFactory connectionFactory = redisTemplate.getConnectionFactory();
+            if (connectionFactory != null) {
+                RedisMessageListenerContainer listenerContainer = new RedisMessageListenerContainer();
+                listenerContainer.setConnectionFactory(connectionFactory);
+                listenerContainer.addMessageListener(
+                    (message, pattern) -> onSessionEvent(new String(message.getBody(), StandardCharsets.UTF_8)),
+                    new ChannelTopic(SESSION_CHANNEL));
+                listenerContainer.afterPropertiesSet();
+                listenerContainer.start();
+                container = listenerContainer;
+            }
+        } catch (Exception ex) {
+            // Still correct without it, just up to zerodha.session.refresh.ms late on other nodes' changes
+            log.warn("Could not subscribe to {}: {}", SESSION_CHANNEL, ex.getMessage());
+        }
+        refreshTask = taskScheduler.scheduleAtFixedRate(this::refresh, Duration.ofMillis(refreshMs));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+            refreshTask = null;
+        }
+        if (container != null) {
+            try {
+                container.destroy();
+            } catch (Exception ex) {
+                log.warn("Error stopping session listener: {}", ex.getMessage());
+            }
+            container = null;
+        }
     }
 
     /**
@@ -53,29 +147,102 @@ public class ZerodhaSessionService {
             // Zerodha tokens expire daily; auto-expire after 24 hours to avoid stale entries.
             redisTemplate.expire(SESSION_KEY, Duration.ofHours(24));
             log.info("Persisted Zerodha session details in Redis (fields: {})", payload.keySet());
+            String token = payload.get(ACCESS_TOKEN_FIELD);
+            replaceCache(StringUtils.hasText(token)
+                ? new CachedToken(token, cacheDeadline(Duration.ofHours(24).toMillis()))
+                : null);
+            publish("saved");
         } catch (Exception ex) {
             log.error("Failed to persist Zerodha session in Redis: {}", ex.getMessage(), ex);
         }
     }
 
     /**
-     * Returns the active access token, checking Redis first and falling back to the optional property.
+     * Returns the active access token, from the cache (loaded from Redis when missing or expired),
+     * falling back to the optional property.
      */
     public Optional<String> getAccessToken() {
-        String token = null;
+        CachedToken current = cached;
+        if (current != null && System.currentTimeMillis() < current.expiresAtMillis) {
+            cacheHits.incrementAndGet();
+        } else {
+            current = load(current);
+        }
+
+        String token = current != null ? current.token : null;
+        if (!StringUtils.hasText(token)) {
+            return Optional.ofNullable(fallbackAccessToken).filter(StringUtils::hasText);
+        }
+        return Optional.of(token);
+    }
+
+    /**
+     * Re-read the token from Redis now (background refresh and remote session events).
+     */
+    void refresh() {
+        load(cached);
+    }
+
+    /**
+     * A session event published by any node (including this one).
+     */
+    void onSessionEvent(String event) {
+        log.debug("Zerodha session event '{}' - reloading access token", event);
+        refresh();
+    }
+
+    private CachedToken load(CachedToken previous) {
+        long startGeneration;
+        synchronized (this) {
+            startGeneration = generation;
+        }
+        redisReads.incrementAndGet();
+        CachedToken loaded;
         try {
             Object value = redisTemplate.opsForHash().get(SESSION_KEY, ACCESS_TOKEN_FIELD);
-            if (value instanceof String) {
-                token = (String) value;
+            String token = value instanceof String ? (String) value : null;
+            Long ttlMs = StringUtils.hasText(token) ? redisTemplate.getExpire(SESSION_KEY, TimeUnit.MILLISECONDS) : null;
+            loaded = new CachedToken(token, cacheDeadline(ttlMs != null && ttlMs > 0 ? ttlMs : Long.MAX_VALUE));
+            long failures = consecutiveFailures.getAndSet(0);
+            if (failures > 0) {
+                log.info("Reading Zerodha access token from Redis again after {} failure(s)", failures);
             }
         } catch (Exception ex) {
-            log.error("Failed to read Zerodha access token from Redis: {}", ex.getMessage(), ex);
+            long failures = consecutiveFailures.incrementAndGet();
+            if (failures == 1) {
+                log.error("Failed to read Zerodha access token from Redis: {}", ex.getMessage(), ex);
+            } else if (failures % 100 == 0) {
+                log.error("Still failing to read Zerodha access token from Redis ({} times): {}", failures, ex.getMessage());
+            }
+            // Keep serving the last known token until Redis is back, without retrying on every call
+            loaded = new CachedToken(previous != null ? previous.token : null,
+                System.currentTimeMillis() + retryMs);
+        }
+        synchronized (this) {
+            if (generation != startGeneration) {
+                // Saved or cleared on this node meanwhile - what we read may already be stale
+                return cached;
+            }
+            cached = loaded;
+            return loaded;
         }
+    }
 
-        if (!StringUtils.hasText(token)) {
-            return Optional.ofNullable(fallbackAccessToken).filter(StringUtils::hasText);
+    private synchronized void replaceCache(CachedToken token) {
+        generation++;
+        cached = token;
+    }
+
+    private long cacheDeadline(long keyTtlMs) {
+        return System.currentTimeMillis() + Math.min(cacheMs, keyTtlMs);
+    }
+
+    private void publish(String event) {
+        try {
+            redisTemplate.convertAndSend(SESSION_CHANNEL, event);
+        } catch (Exception ex) {
+            log.warn("Failed to publish Zerodha session event '{}': {}", event, ex.getMessage());
         }
-        return Optional.of(token);
     }
 
     /**
@@ -89,9 +256,13 @@ public class ZerodhaSessionService {
      * Clears the cached session (used when Zerodha returns auth errors).
      */
     public void clearSession() {
+        replaceCache(new CachedToken(null, cacheDeadline(Long.MAX_VALUE)));
         try {
             redisTemplate.delete(SESSION_KEY);
+            // A load that started before the delete may have read the old token
+            replaceCache(new CachedToken(null, cacheDeadline(Long.MAX_VALUE)));
             log.info("Cleared Zerodha session cache from Redis");
+            publish("cleared");
         } catch (Exception ex) {
             log.error("Failed to clear Zerodha session cache: {}", ex.getMessage(), ex);
         }
@@ -119,26 +290,15 @@ public class ZerodhaSessionService {
             return Collections.emptyMap();
         }
     }
-}
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
 
+    public Map<String, Object> getTokenCacheStats() {
+        CachedToken current = cached;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("cached", current != null);
+        stats.put("cacheHits", cacheHits.get());
+        stats.put("redisReads", redisReads.get());
+        stats.put("consecutiveFailures", consecutiveFailures.get());
+        stats.put("expiresAt", current != null ? Instant.ofEpochMilli(current.expiresAtMillis) : null);
+        return stats;
+    }
+}
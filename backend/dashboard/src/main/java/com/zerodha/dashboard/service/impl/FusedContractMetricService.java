@@ -0,0 +1,126 @@
+package com.zerodha.dashboard.service.impl;
+
+import com.zerodha.dashboard.model.ContractType;
+import com.zerodha.dashboard.model.DerivativeContract;
+import com.zerodha.dashboard.model.DerivativesChain;
+import com.zerodha.dashboard.service.ContractMetricKernel;
+import com.zerodha.dashboard.service.IndependentMetricService;
+import com.zerodha.dashboard.service.MarketClock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fused per-contract pass - runs every {@link ContractMetricKernel} in one walk over the chain.
+ *
+ * Each contract is read once and classified once (from instrumentType); all enabled kernels are
+ * then called for it in registration order. Adding a per-contract feature adds a kernel call to
+ * the loop, not another pass over the chain.
+ *
+ * Isolation is kept per kernel: an exception in one kernel is logged and the remaining kernels
+ * still see the contract.
+ */
+@Service
+public class FusedContractMetricService implements IndependentMetricService {
+
+    private static final Logger log = LoggerFactory.getLogger(FusedContractMetricService.class);
+    private static final String SERVICE_NAME = "FusedContractMetrics";
+
+    private final List<ContractMetricKernel> kernels;
+    private final MarketClock marketClock;
+
+    public FusedContractMetricService(List<ContractMetricKernel> kernels, MarketClock marketClock) {
+        this.kernels = kernels != null ? List.copyOf(kernels) : List.of();
+        this.marketClock = marketClock;
+        log.info("{}: {} per-contract kernel(s) registered: {}", SERVICE_NAME, this.kernels.size(),
+            this.kernels.stream().map(ContractMetricKernel::getKernelName).toList());
+    }
+
+    @Override
+    public boolean process(DerivativesChain chain) {
+        if (chain == null) {
+            log.debug("{}: Chain is null, skipping", SERVICE_NAME);
+            return false;
+        }
+
+        try {
+            // One clock reading for the whole pass - every kernel sees the same window time
+            Instant now = marketClock.now(chain);
+
+            List<ContractMetricKernel> active = new ArrayList<>(kernels.size());
+            for (ContractMetricKernel kernel : kernels) {
+                if (kernel.isEnabled()) {
+                    active.add(kernel);
+                }
+            }
+            if (active.isEmpty()) {
+                return true;
+            }
+            ContractMetricKernel[] pass = active.toArray(new ContractMetricKernel[0]);
+
+            for (ContractMetricKernel kernel : pass) {
+                try {
+                    kernel.beginChain(chain, now);
+                } catch (Exception e) {
+                    log.error("{}: {} failed in beginChain - {}", SERVICE_NAME, kernel.getKernelName(), e.getMessage(), e);
+                }
+            }
+
+            visitAll(chain.getFutures(), pass, now);
+            visitAll(chain.getCallOptions(), pass, now);
+            visitAll(chain.getPutOptions(), pass, now);
+
+            for (ContractMetricKernel kernel : pass) {
+                try {
+                    kernel.endChain(chain, now);
+                } catch (Exception e) {
+                    log.error("{}: {} failed in endChain - {}", SERVICE_NAME, kernel.getKernelName(), e.getMessage(), e);
+                }
+            }
+            return true;
+
+        } catch (Exception e) {
+            log.error("{}: Error processing chain - {}", SERVICE_NAME, e.getMessage(), e);
+            // Isolated error handling - don't affect other services
+            return false;
+        }
+    }
+
+    private void visitAll(List<DerivativeContract> contracts, ContractMetricKernel[] pass, Instant now) {
+        if (contracts == null) {
+            return;
+        }
+        for (DerivativeContract contract : contracts) {
+            if (contract == null) {
+                continue;
+            }
+            ContractType contractType = ContractType.of(contract);
+            for (ContractMetricKernel kernel : pass) {
+                try {
+                    kernel.visitContract(contract, contractType, now);
+                } catch (Exception e) {
+                    log.error("{}: {} failed for contract {} - {}", SERVICE_NAME, kernel.getKernelName(),
+                        contract.getInstrumentToken(), e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    public List<ContractMetricKernel> getKernels() {
+        return kernels;
+    }
+
+    @Override
+    public String getServiceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true; // Always enabled
+    }
+}
@@ -1,12 +1,12 @@
 package com.zerodha.dashboard.service.impl;
 
+import com.zerodha.dashboard.model.ContractType;
 import com.zerodha.dashboard.model.DerivativeContract;
 import com.zerodha.dashboard.model.DerivativesChain;
 import com.zerodha.dashboard.model.MetricResult;
+import com.zerodha.dashboard.service.ContractMetricKernel;
 import com.zerodha.dashboard.service.EatenDeltaService;
 import com.zerodha.dashboard.service.MetricsCacheService;
-import com.zerodha.dashboard.service.IndependentMetricService;
-import com.zerodha.dashboard.util.ContractProcessingUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -14,7 +14,10 @@ import org.springframework.stereotype.Service;
 import java.time.Instant;
 
 /**
- * Independent Bid/Ask Eaten Service - operates as a microservice.
+ * Independent Bid/Ask Eaten Service - per-contract kernel of the fused contract pass.
+ * 
+ * Runs inside {@link FusedContractMetricService}, which visits every contract once for all
+ * per-contract kernels. State, windows and cache keys remain owned by this service.
  * 
  * CRITICAL: Uses time-driven windows (NOT API-poll-driven).
  * - Windows are computed from epoch time, independent of API polling
@@ -23,7 +26,7 @@ import java.time.Instant;
  * - Zero-change polls are ignored
  */
 @Service
-public class IndependentBidAskEatenService implements IndependentMetricService {
+public class IndependentBidAskEatenService implements ContractMetricKernel {
     
     private static final Logger log = LoggerFactory.getLogger(IndependentBidAskEatenService.class);
     private static final String SERVICE_NAME = "BidAskEaten";
@@ -39,32 +42,6 @@ public class IndependentBidAskEatenService implements IndependentMetricService {
         this.metricsCacheService = metricsCacheService;
     }
     
-    @Override
-    public boolean process(DerivativesChain chain) {
-        if (chain == null) {
-            log.debug("{}: Chain is null, skipping", SERVICE_NAME);
-            return false;
-        }
-        
-        try {
-            Instant now = Instant.now();
-            
-            // Process all contracts - each contract processes independently
-            ContractProcessingUtils.processAllContracts(chain, 
-                contract -> processSingleContract(contract, now));
-            
-            // Populate chain-level window metadata for UI timer
-            populateWindowMetadata(chain, now);
-            
-            return true;
-            
-        } catch (Exception e) {
-            log.error("{}: Error processing chain - {}", SERVICE_NAME, e.getMessage(), e);
-            // Isolated error handling - don't affect other services
-            return false;
-        }
-    }
-    
     /**
      * Process a single contract.
      * CRITICAL ORDER:
@@ -72,7 +49,8 @@ public class IndependentBidAskEatenService implements IndependentMetricService {
      * 2. Get last completed window result (IMMUTABLE - UI reads this only)
      * 3. Store in cache and populate contract values
      */
-    private void processSingleContract(DerivativeContract contract, Instant now) {
+    @Override
+    public void visitContract(DerivativeContract contract, ContractType contractType, Instant now) {
         if (contract == null || contract.getInstrumentToken() == null) {
             log.debug("{}: Skipping null contract or missing instrumentToken", SERVICE_NAME);
             return;
@@ -80,11 +58,6 @@ public class IndependentBidAskEatenService implements IndependentMetricService {
         
         try {
             String instrumentToken = contract.getInstrumentToken();
-            String contractType = contract.getTradingsymbol() != null 
-                ? (contract.getTradingsymbol().contains("FUT") ? "FUTURES" 
-                   : contract.getTradingsymbol().contains("CE") ? "CALLS" 
-                   : contract.getTradingsymbol().contains("PE") ? "PUTS" : "UNKNOWN")
-                : "UNKNOWN";
             
             Long bidQty = contract.getBidQuantity();
             Long askQty = contract.getAskQuantity();
@@ -141,6 +114,10 @@ public class IndependentBidAskEatenService implements IndependentMetricService {
                 result.setStatus("final");
                 result.setBidEaten(bidEaten);
                 result.setAskEaten(askEaten);
+                // The completed window's bounds identify it - re-stores of the same window are repeats
+                EatenDeltaService.WindowMetadata window = eatenDeltaService.getWindowMetadata(lastCompletedWindow.windowId);
+                result.setWindowStart(window.windowStart);
+                result.setWindowEnd(window.windowEnd);
                 result.setVersion(metricsCacheService.getVersion(contractSymbol, FEATURE_NAME));
                 
                 metricsCacheService.storeFinalResult(result);
@@ -185,7 +162,8 @@ public class IndependentBidAskEatenService implements IndependentMetricService {
      * Populate chain with window metadata for UI timer display.
      * Uses EatenDeltaService to get window metadata (time-driven, not API-poll-driven).
      */
-    private void populateWindowMetadata(DerivativesChain chain, Instant now) {
+    @Override
+    public void endChain(DerivativesChain chain, Instant now) {
         try {
             // Get window metadata from EatenDeltaService
             EatenDeltaService.WindowMetadata metadata = eatenDeltaService.getWindowMetadata(now);
@@ -203,7 +181,7 @@ public class IndependentBidAskEatenService implements IndependentMetricService {
     }
     
     @Override
-    public String getServiceName() {
+    public String getKernelName() {
         return SERVICE_NAME;
     }
     
@@ -0,0 +1,325 @@
+package com.zerodha.dashboard.service.impl;
+
+import com.zerodha.dashboard.constants.UnderlyingConstants;
+import com.zerodha.dashboard.model.DerivativeContract;
+import com.zerodha.dashboard.model.DerivativesChain;
+import com.zerodha.dashboard.model.MetricResult;
+import com.zerodha.dashboard.service.IndependentMetricService;
+import com.zerodha.dashboard.service.MarketClock;
+import com.zerodha.dashboard.service.MetricsCacheService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Independent Chain Aggregates Service - put-call ratio (by OI and by volume), OI change since
+ * the start of the session and max-pain strike of each underlying.
+ *
+ * Totals are kept running: every contract remembers the OI and volume it last contributed,
+ * and only contracts whose values moved since the previous poll change the totals.
+ * Max pain comes from a Fenwick tree of call + put OI per strike (one per expiry): total
+ * payout to option holders is convex in the settlement price, with slope
+ * (call OI at or below K) - (put OI above K) between strikes, so its minimum is the first
+ * strike whose cumulative OI reaches the expiry's put OI - one O(log strikes) descent.
+ *
+ * Features stored per underlying: pcrOi, pcrVolume, oiChange, maxPain (nearest expiry).
+ * Results are stored only when an aggregate moved. State starts over each exchange day;
+ * contracts that leave the chain are taken out of the totals.
+ */
+@Service
+public class IndependentChainAggregatesService implements IndependentMetricService {
+
+    private static final Logger log = LoggerFactory.getLogger(IndependentChainAggregatesService.class);
+    private static final String SERVICE_NAME = "ChainAggregates";
+    static final String FEATURE_PCR_OI = "pcrOi";
+    static final String FEATURE_PCR_VOLUME = "pcrVolume";
+    static final String FEATURE_OI_CHANGE = "oiChange";
+    static final String FEATURE_MAX_PAIN = "maxPain";
+    private static final ZoneId EXCHANGE_ZONE = ZoneId.of("Asia/Kolkata");
+
+    @Value("${chain.aggregates.enabled:true}")
+    private boolean enabled = true;
+
+    /**
+     * What one contract currently contributes to the totals.
+     */
+    private static final class Slot {
+        final boolean call;
+        final double strike;
+        final ExpiryBook expiry;
+        long oi;
+        long volume;
+        final long baselineOi;
+        int index = -1;
+        long seenPoll;
+
+        Slot(boolean call, double strike, ExpiryBook expiry, long oi) {
+            this.call = call;
+            this.strike = strike;
+            this.expiry = expiry;
+            this.oi = oi;
+            this.baselineOi = oi;
+        }
+    }
+
+    /**
+     * Call + put OI by strike of one expiry, as a Fenwick tree over the sorted strikes.
+     */
+    private static final class ExpiryBook {
+        private final List<Slot> slots = new ArrayList<>();
+        private double[] strikes = new double[0];
+        private long[] tree = new long[1];
+        private long putOi;
+
+        void add(Slot slot) {
+            slots.add(slot);
+            int index = Arrays.binarySearch(strikes, slot.strike);
+            if (index >= 0) {
+                slot.index = index;
+                change(slot, slot.oi);
+            } else {
+                // New strike (the chain moved) - rare, rebuild with the current strikes
+                rebuild();
+            }
+        }
+
+        void remove(Slot slot) {
+            slots.remove(slot);
+            change(slot, -slot.oi);
+        }
+
+        void change(Slot slot, long deltaOi) {
+            if (!slot.call) {
+                putOi += deltaOi;
+            }
+            for (int i = slot.index + 1; i < tree.length; i += i & -i) {
+                tree[i] += deltaOi;
+            }
+        }
+
+        /**
+         * Strike at which option holders are paid the least at expiry, null without OI.
+         */
+        Double maxPain() {
+            int n = strikes.length;
+            if (n == 0 || total() == 0) {
+                return null;
+            }
+            // First strike whose cumulative OI reaches putOi
+            int position = 0;
+            long remaining = putOi;
+            for (int step = Integer.highestOneBit(n); step > 0; step >>= 1) {
+                int next = position + step;
+                if (next <= n && tree[next] < remaining) {
+                    position = next;
+                    remaining -= tree[next];
+                }
+            }
+            return strikes[Math.min(position, n - 1)];
+        }
+
+        private long total() {
+            long sum = 0;
+            for (int i = strikes.length; i > 0; i -= i & -i) {
+                sum += tree[i];
+            }
+            return sum;
+        }
+
+        private void rebuild() {
+            strikes = slots.stream().mapToDouble(slot -> slot.strike).distinct().sorted().toArray();
+            tree = new long[strikes.length + 1];
+            putOi = 0;
+            for (Slot slot : slots) {
+                slot.index = Arrays.binarySearch(strikes, slot.strike);
+                change(slot, slot.oi);
+            }
+        }
+    }
+
+    /**
+     * Running totals of one underlying for one exchange day.
+     */
+    private static final class Book {
+        final LocalDate day;
+        final Map<String, Slot> slots = new HashMap<>();
+        final TreeMap<LocalDate, ExpiryBook> expiries = new TreeMap<>();
+        long callOi;
+        long putOi;
+        long callVolume;
+        long putVolume;
+        long baselineOi;
+        long poll;
+        int seen;
+        boolean dirty;
+
+        Book(LocalDate day) {
+            this.day = day;
+        }
+    }
+
+    private final MetricsCacheService metricsCacheService;
+    private final MarketClock marketClock;
+    private final Map<String, Book> books = new ConcurrentHashMap<>();
+
+    public IndependentChainAggregatesService(MetricsCacheService metricsCacheService, MarketClock marketClock) {
+        this.metricsCacheService = metricsCacheService;
+        this.marketClock = marketClock;
+    }
+
+    @Override
+    public boolean process(DerivativesChain chain) {
+        if (chain == null) {
+            log.debug("{}: Chain is null, skipping", SERVICE_NAME);
+            return false;
+        }
+
+        try {
+            Instant now = marketClock.now(chain);
+            String symbol = UnderlyingConstants.normalize(chain.getUnderlying());
+            LocalDate day = now.atZone(EXCHANGE_ZONE).toLocalDate();
+            Book book = books.compute(symbol, (key, current) ->
+                current != null && current.day.equals(day) ? current : new Book(day));
+
+            synchronized (book) {
+                book.poll++;
+                book.seen = 0;
+                apply(book, chain.getCallOptions(), true);
+                apply(book, chain.getPutOptions(), false);
+                if (book.seen < book.slots.size()) {
+                    removeUnseen(book);
+                }
+                if (book.dirty) {
+                    publish(book, symbol, now);
+                    book.dirty = false;
+                }
+            }
+            return true;
+
+        } catch (Exception e) {
+            log.error("{}: Error processing chain - {}", SERVICE_NAME, e.getMessage(), e);
+            // Isolated error handling - don't affect other services
+            return false;
+        }
+    }
+
+    /**
+     * Fold in the contracts whose OI or volume moved since the last poll.
+     */
+    private void apply(Book book, List<DerivativeContract> contracts, boolean call) {
+        if (contracts == null) {
+            return;
+        }
+        for (DerivativeContract contract : contracts) {
+            if (contract == null || contract.getInstrumentToken() == null || contract.getStrikePrice() == null) {
+                continue;
+            }
+            long oi = contract.getOpenInterest() != null ? contract.getOpenInterest().longValue() : 0L;
+            long volume = contract.getVolume();
+            Slot slot = book.slots.get(contract.getInstrumentToken());
+            if (slot == null) {
+                ExpiryBook expiry = book.expiries.computeIfAbsent(
+                    contract.getExpiryDate() != null ? contract.getExpiryDate() : LocalDate.MAX, e -> new ExpiryBook());
+                slot = new Slot(call, contract.getStrikePrice().doubleValue(), expiry, oi);
+                slot.volume = volume;
+                book.slots.put(contract.getInstrumentToken(), slot);
+                expiry.add(slot);
+                addTotals(book, slot, oi, volume);
+                book.baselineOi += oi;
+                book.dirty = true;
+            } else if (slot.oi != oi || slot.volume != volume) {
+                long deltaOi = oi - slot.oi;
+                long deltaVolume = volume - slot.volume;
+                slot.oi = oi;
+                slot.volume = volume;
+                if (deltaOi != 0) {
+                    slot.expiry.change(slot, deltaOi);
+                }
+                addTotals(book, slot, deltaOi, deltaVolume);
+                book.dirty = true;
+            }
+            if (slot.seenPoll != book.poll) {
+                slot.seenPoll = book.poll;
+                book.seen++;
+            }
+        }
+    }
+
+    private static void addTotals(Book book, Slot slot, long deltaOi, long deltaVolume) {
+        if (slot.call) {
+            book.callOi += deltaOi;
+            book.callVolume += deltaVolume;
+        } else {
+            book.putOi += deltaOi;
+            book.putVolume += deltaVolume;
+        }
+    }
+
+    /**
+     * Take contracts that are no longer in the chain (e.g. strikes that left the window) out of the totals.
+     */
+    private static void removeUnseen(Book book) {
+        Iterator<Slot> slots = book.slots.values().iterator();
+        while (slots.hasNext()) {
+            Slot slot = slots.next();
+            if (slot.seenPoll == book.poll) {
+                continue;
+            }
+            slots.remove();
+            slot.expiry.remove(slot);
+            addTotals(book, slot, -slot.oi, -slot.volume);
+            book.baselineOi -= slot.baselineOi;
+            book.dirty = true;
+        }
+        book.expiries.values().removeIf(expiry -> expiry.slots.isEmpty());
+    }
+
+    private void publish(Book book, String symbol, Instant now) {
+        if (book.callOi > 0) {
+            store(symbol, FEATURE_PCR_OI, (double) book.putOi / book.callOi, now);
+        }
+        if (book.callVolume > 0) {
+            store(symbol, FEATURE_PCR_VOLUME, (double) book.putVolume / book.callVolume, now);
+        }
+        store(symbol, FEATURE_OI_CHANGE, (double) (book.callOi + book.putOi - book.baselineOi), now);
+        if (!book.expiries.isEmpty()) {
+            Double maxPain = book.expiries.firstEntry().getValue().maxPain();
+            if (maxPain != null) {
+                store(symbol, FEATURE_MAX_PAIN, maxPain, now);
+            }
+        }
+        log.debug("{}: {} - callOi={}, putOi={}, callVolume={}, putVolume={}", SERVICE_NAME, symbol,
+            book.callOi, book.putOi, book.callVolume, book.putVolume);
+    }
+
+    private void store(String symbol, String feature, double value, Instant now) {
+        MetricResult result = new MetricResult(symbol, feature, value);
+        result.setComputedAt(now);
+        result.setStatus("final");
+        result.setVersion(metricsCacheService.getVersion(symbol, feature));
+        metricsCacheService.storeFinalResult(result);
+    }
+
+    @Override
+    public String getServiceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
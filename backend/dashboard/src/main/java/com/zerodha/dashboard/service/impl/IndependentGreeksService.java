@@ -0,0 +1,209 @@
+package com.zerodha.dashboard.service.impl;
+
+import com.zerodha.dashboard.constants.UnderlyingConstants;
+import com.zerodha.dashboard.model.DerivativeContract;
+import com.zerodha.dashboard.model.DerivativesChain;
+import com.zerodha.dashboard.model.MetricResult;
+import com.zerodha.dashboard.service.IndependentMetricService;
+import com.zerodha.dashboard.service.MarketClock;
+import com.zerodha.dashboard.service.MetricsCacheService;
+import com.zerodha.dashboard.service.OptionGreeksEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Independent Greeks Service - implied volatility, delta, gamma, theta and vega of every
+ * CE/PE contract of the chain, on every poll.
+ *
+ * The chain's options are copied into the primitive arrays of an {@link OptionGreeksEngine.Batch}
+ * (kept per underlying and reused between polls) and solved in one pass. Each contract's IV
+ * from the previous poll is the starting point of its Newton iteration.
+ *
+ * Results are stored per contract (symbol = instrument token, feature "greeks", value = IV)
+ * at most once per greeks.publish.interval.ms for each underlying; the solve itself runs every poll
+ * so the warm start stays close.
+ */
+@Service
+public class IndependentGreeksService implements IndependentMetricService {
+
+    private static final Logger log = LoggerFactory.getLogger(IndependentGreeksService.class);
+    private static final String SERVICE_NAME = "Greeks";
+    private static final String FEATURE_NAME = "greeks";
+    private static final double SECONDS_PER_YEAR = 365.0 * 24 * 60 * 60;
+    private static final ZoneId EXCHANGE_ZONE = ZoneId.of("Asia/Kolkata");
+
+    @Value("${greeks.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${greeks.risk.free.rate:0.065}")
+    private double riskFreeRate = 0.065;
+
+    @Value("${greeks.dividend.yield:0.0}")
+    private double dividendYield = 0.0;
+
+    @Value("${greeks.publish.interval.ms:1000}")
+    private long publishIntervalMs = 1000;
+
+    @Value("${greeks.expiry.time:15:30}")
+    private String expiryTime = "15:30";
+
+    /**
+     * Arrays and last IVs of one underlying's chain.
+     */
+    private static final class ChainState {
+        final OptionGreeksEngine.Batch batch = new OptionGreeksEngine.Batch(256);
+        String[] tokens = new String[0];
+        final Map<String, Double> lastIv = new HashMap<>();
+        final Map<LocalDate, Double> expiryYears = new HashMap<>();
+        Instant lastPublished;
+    }
+
+    private final MetricsCacheService metricsCacheService;
+    private final MarketClock marketClock;
+    private final Map<String, ChainState> states = new ConcurrentHashMap<>();
+
+    public IndependentGreeksService(MetricsCacheService metricsCacheService, MarketClock marketClock) {
+        this.metricsCacheService = metricsCacheService;
+        this.marketClock = marketClock;
+    }
+
+    @Override
+    public boolean process(DerivativesChain chain) {
+        if (chain == null) {
+            log.debug("{}: Chain is null, skipping", SERVICE_NAME);
+            return false;
+        }
+        if (chain.getSpotPrice() == null) {
+            log.debug("{}: No spot price for {}, skipping", SERVICE_NAME, chain.getUnderlying());
+            return true;
+        }
+
+        try {
+            Instant now = marketClock.now(chain);
+            String underlying = UnderlyingConstants.normalize(chain.getUnderlying());
+            ChainState state = states.computeIfAbsent(underlying, u -> new ChainState());
+
+            synchronized (state) {
+                long started = System.nanoTime();
+                int count = load(state, chain, now);
+                OptionGreeksEngine.compute(state.batch, chain.getSpotPrice().doubleValue(), riskFreeRate, dividendYield);
+                long micros = (System.nanoTime() - started) / 1000;
+
+                remember(state, count);
+                if (state.lastPublished == null
+                        || Duration.between(state.lastPublished, now).toMillis() >= publishIntervalMs) {
+                    publish(state, count, now);
+                    state.lastPublished = now;
+                }
+                log.debug("{}: Solved {} option(s) of {} in {} us", SERVICE_NAME, count, underlying, micros);
+            }
+            return true;
+
+        } catch (Exception e) {
+            log.error("{}: Error processing chain - {}", SERVICE_NAME, e.getMessage(), e);
+            // Isolated error handling - don't affect other services
+            return false;
+        }
+    }
+
+    /**
+     * Copy the chain's options into the batch, seeding each with its last IV.
+     */
+    private int load(ChainState state, DerivativesChain chain, Instant now) {
+        List<DerivativeContract> calls = chain.getCallOptions() != null ? chain.getCallOptions() : List.of();
+        List<DerivativeContract> puts = chain.getPutOptions() != null ? chain.getPutOptions() : List.of();
+        int capacity = calls.size() + puts.size();
+        OptionGreeksEngine.Batch batch = state.batch;
+        batch.resize(capacity);
+        if (state.tokens.length < capacity) {
+            state.tokens = Arrays.copyOf(state.tokens, Math.max(capacity, state.tokens.length * 2));
+        }
+        state.expiryYears.clear();
+
+        int count = load(state, calls, true, 0, now);
+        count = load(state, puts, false, count, now);
+        batch.resize(count);
+        return count;
+    }
+
+    private int load(ChainState state, List<DerivativeContract> contracts, boolean call, int start, Instant now) {
+        OptionGreeksEngine.Batch batch = state.batch;
+        int i = start;
+        for (DerivativeContract contract : contracts) {
+            if (contract == null || contract.getInstrumentToken() == null || contract.getStrikePrice() == null
+                    || contract.getLastPrice() == null || contract.getExpiryDate() == null) {
+                continue;
+            }
+            String token = contract.getInstrumentToken();
+            LocalDate expiry = contract.getExpiryDate();
+            state.tokens[i] = token;
+            batch.call[i] = call;
+            batch.strike[i] = contract.getStrikePrice().doubleValue();
+            batch.price[i] = contract.getLastPrice().doubleValue();
+            batch.timeYears[i] = state.expiryYears.computeIfAbsent(expiry, e -> yearsToExpiry(e, now));
+            Double lastIv = state.lastIv.get(token);
+            batch.iv[i] = lastIv != null ? lastIv : Double.NaN;
+            i++;
+        }
+        return i;
+    }
+
+    private double yearsToExpiry(LocalDate expiry, Instant now) {
+        Instant expiresAt = expiry.atTime(LocalTime.parse(expiryTime)).atZone(EXCHANGE_ZONE).toInstant();
+        // Expired (or expiring this second) contracts get no IV - the engine skips t <= 0
+        return Math.max(0.0, Duration.between(now, expiresAt).toMillis() / 1000.0 / SECONDS_PER_YEAR);
+    }
+
+    private static void remember(ChainState state, int count) {
+        // Only this poll's contracts are kept, so the map never outgrows the chain
+        state.lastIv.clear();
+        double[] iv = state.batch.iv;
+        for (int i = 0; i < count; i++) {
+            if (!Double.isNaN(iv[i])) {
+                state.lastIv.put(state.tokens[i], iv[i]);
+            }
+        }
+    }
+
+    private void publish(ChainState state, int count, Instant now) {
+        OptionGreeksEngine.Batch batch = state.batch;
+        for (int i = 0; i < count; i++) {
+            if (Double.isNaN(batch.iv[i])) {
+                continue;
+            }
+            String token = state.tokens[i];
+            MetricResult result = new MetricResult(token, FEATURE_NAME, batch.iv[i]);
+            result.setComputedAt(now);
+            result.setStatus("final");
+            result.setDelta(batch.delta[i]);
+            result.setGamma(batch.gamma[i]);
+            result.setTheta(batch.theta[i]);
+            result.setVega(batch.vega[i]);
+            result.setVersion(metricsCacheService.getVersion(token, FEATURE_NAME));
+            metricsCacheService.storeFinalResult(result);
+        }
+    }
+
+    @Override
+    public String getServiceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
@@ -1,7 +1,9 @@
 package com.zerodha.dashboard.service.impl;
 
+import com.zerodha.dashboard.constants.UnderlyingConstants;
 import com.zerodha.dashboard.model.DerivativesChain;
 import com.zerodha.dashboard.model.MetricResult;
+import com.zerodha.dashboard.service.MarketClock;
 import com.zerodha.dashboard.service.MetricsCacheService;
 import com.zerodha.dashboard.service.SpotLtpTrendService;
 import com.zerodha.dashboard.service.WindowManager;
@@ -27,19 +29,21 @@ public class IndependentSpotLtpTrendService implements IndependentMetricService
     private static final Logger log = LoggerFactory.getLogger(IndependentSpotLtpTrendService.class);
     private static final String SERVICE_NAME = "SpotLtpTrend";
     private static final String FEATURE_NAME = "spotLtpMovement";
-    private static final String SYMBOL = "NIFTY";
     
     private final SpotLtpTrendService spotLtpTrendService;
     private final WindowManager windowManager;
     private final MetricsCacheService metricsCacheService;
+    private final MarketClock marketClock;
     
     public IndependentSpotLtpTrendService(
             SpotLtpTrendService spotLtpTrendService,
             WindowManager windowManager,
-            MetricsCacheService metricsCacheService) {
+            MetricsCacheService metricsCacheService,
+            MarketClock marketClock) {
         this.spotLtpTrendService = spotLtpTrendService;
         this.windowManager = windowManager;
         this.metricsCacheService = metricsCacheService;
+        this.marketClock = marketClock;
     }
     
     @Override
@@ -50,7 +54,10 @@ public class IndependentSpotLtpTrendService implements IndependentMetricService
         }
         
         try {
-            Instant now = Instant.now();
+            // Window time comes from the injected clock (wall or quote event time)
+            Instant now = marketClock.now(chain);
+            // Windows and cached results are kept per underlying (NIFTY, BANKNIFTY, ...)
+            String symbol = UnderlyingConstants.normalize(chain.getUnderlying());
             
             // Step 1: Calculate spot LTP trend (maintains own internal state)
             spotLtpTrendService.calculateSpotLtpTrend(chain);
@@ -59,7 +66,7 @@ public class IndependentSpotLtpTrendService implements IndependentMetricService
             // NOTE: calculateSpotLtpTrend already called checkAndUpdateWindow, so we use the same state
             int windowSeconds = spotLtpTrendService.getWindowSeconds();
             WindowManager.WindowState windowState = windowManager.getWindowState(
-                FEATURE_NAME, SYMBOL, windowSeconds);
+                FEATURE_NAME, symbol, windowSeconds);
             
             // NOTE: calculateSpotLtpTrend already called checkAndUpdateWindow and updated the window state
             // We just need to check hasCompletedWindow() to determine if we should store a final result
@@ -68,8 +75,8 @@ public class IndependentSpotLtpTrendService implements IndependentMetricService
             // CRITICAL: Use completed values (from previous window) for stable display
             // The chain values are set for UI display, but cache should store completed values
             // This ensures the frontend always sees stable values from the previous completed window
-            Double percent = spotLtpTrendService.getTrendPercent();
-            String direction = spotLtpTrendService.getTrendDirection();
+            Double percent = spotLtpTrendService.getTrendPercent(symbol);
+            String direction = spotLtpTrendService.getTrendDirection(symbol);
             
             // Step 4: Store result in own cache (isolated keys)
             // CRITICAL: Store final results when window completes
@@ -83,13 +90,13 @@ public class IndependentSpotLtpTrendService implements IndependentMetricService
                 // Window has completed - store the completed result as final
                 // The completed values were already set by calculateSpotLtpTrend when the window completed
                 // Use the current window boundaries (which represent the completed window)
-                MetricResult result = new MetricResult(SYMBOL, FEATURE_NAME, percent);
+                MetricResult result = new MetricResult(symbol, FEATURE_NAME, percent);
                 result.setWindowStart(windowState.getWindowStartTime());
                 result.setWindowEnd(windowState.getWindowEndTime());
                 result.setComputedAt(now);
                 result.setStatus("final");
                 result.setDirection(direction);
-                result.setVersion(metricsCacheService.getVersion(SYMBOL, FEATURE_NAME));
+                result.setVersion(metricsCacheService.getVersion(symbol, FEATURE_NAME));
                 result.setNextExpectedUpdate(windowState.getNextWindowStartTime());
                 
                 metricsCacheService.storeFinalResult(result);
@@ -100,13 +107,13 @@ public class IndependentSpotLtpTrendService implements IndependentMetricService
                 // During window calculation (before first window completes) - store partial result with completed values
                 // This ensures frontend always sees stable completed values, not current window values
                 if (percent != null) {
-                    MetricResult result = new MetricResult(SYMBOL, FEATURE_NAME, percent);
+                    MetricResult result = new MetricResult(symbol, FEATURE_NAME, percent);
                     result.setWindowStart(windowState.getWindowStartTime());
                     result.setWindowEnd(windowState.getWindowEndTime());
                     result.setComputedAt(now);
                     result.setStatus("partial");
                     result.setDirection(direction);
-                    result.setVersion(metricsCacheService.getVersion(SYMBOL, FEATURE_NAME));
+                    result.setVersion(metricsCacheService.getVersion(symbol, FEATURE_NAME));
                     result.setNextExpectedUpdate(windowState.getNextWindowStartTime());
                     
                     metricsCacheService.storePartialResult(result);
@@ -116,7 +123,7 @@ public class IndependentSpotLtpTrendService implements IndependentMetricService
             // Step 5: Populate chain with window metadata (similar to IndependentTrendScoreService)
             // The calculated values from Step 1 are already on the chain
             // Only populate window metadata for UI timer display
-            populateWindowMetadata(chain, windowState, windowSeconds);
+            populateWindowMetadata(chain, windowState, windowSeconds, now);
             
             return true;
             
@@ -131,7 +138,7 @@ public class IndependentSpotLtpTrendService implements IndependentMetricService
      * Populate chain with window metadata only (not calculated values).
      * Calculated values come directly from SpotLtpTrendService.calculateSpotLtpTrend().
      */
-    private void populateWindowMetadata(DerivativesChain chain, WindowManager.WindowState windowState, int windowSeconds) {
+    private void populateWindowMetadata(DerivativesChain chain, WindowManager.WindowState windowState, int windowSeconds, Instant now) {
         try {
             // Always set window size
             chain.setSpotLtpWindowSeconds(windowSeconds);
@@ -142,7 +149,6 @@ public class IndependentSpotLtpTrendService implements IndependentMetricService
                 chain.setSpotLtpWindowEnd(windowState.getWindowEndTime());
             } else {
                 // Calculate from current time if window state not initialized
-                Instant now = Instant.now();
                 long currentEpochSecond = now.getEpochSecond();
                 long windowNumber = currentEpochSecond / windowSeconds;
                 long windowStartEpochSecond = windowNumber * windowSeconds;
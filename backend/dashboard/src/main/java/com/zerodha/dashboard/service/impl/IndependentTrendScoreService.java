@@ -1,7 +1,9 @@
 package com.zerodha.dashboard.service.impl;
 
+import com.zerodha.dashboard.constants.UnderlyingConstants;
 import com.zerodha.dashboard.model.DerivativesChain;
 import com.zerodha.dashboard.model.MetricResult;
+import com.zerodha.dashboard.service.MarketClock;
 import com.zerodha.dashboard.service.MetricsCacheService;
 import com.zerodha.dashboard.service.TrendCalculationService;
 import com.zerodha.dashboard.service.WindowManager;
@@ -27,19 +29,21 @@ public class IndependentTrendScoreService implements IndependentMetricService {
     private static final Logger log = LoggerFactory.getLogger(IndependentTrendScoreService.class);
     private static final String SERVICE_NAME = "TrendScore";
     private static final String FEATURE_NAME = "trendScore";
-    private static final String SYMBOL = "NIFTY";
     
     private final TrendCalculationService trendCalculationService;
     private final WindowManager windowManager;
     private final MetricsCacheService metricsCacheService;
+    private final MarketClock marketClock;
     
     public IndependentTrendScoreService(
             TrendCalculationService trendCalculationService,
             WindowManager windowManager,
-            MetricsCacheService metricsCacheService) {
+            MetricsCacheService metricsCacheService,
+            MarketClock marketClock) {
         this.trendCalculationService = trendCalculationService;
         this.windowManager = windowManager;
         this.metricsCacheService = metricsCacheService;
+        this.marketClock = marketClock;
     }
     
     @Override
@@ -50,7 +54,10 @@ public class IndependentTrendScoreService implements IndependentMetricService {
         }
         
         try {
-            Instant now = Instant.now();
+            // Window time comes from the injected clock (wall or quote event time)
+            Instant now = marketClock.now(chain);
+            // Windows and cached results are kept per underlying (NIFTY, BANKNIFTY, ...)
+            String symbol = UnderlyingConstants.normalize(chain.getUnderlying());
             
             // Step 1: Calculate trend using TrendCalculationService (maintains own internal state)
             trendCalculationService.calculateTrend(chain);
@@ -58,7 +65,7 @@ public class IndependentTrendScoreService implements IndependentMetricService {
             // Step 2: Get window state (isolated for this service)
             int windowSeconds = trendCalculationService.getWindowSeconds();
             WindowManager.WindowState windowState = windowManager.getWindowState(
-                FEATURE_NAME, SYMBOL, windowSeconds);
+                FEATURE_NAME, symbol, windowSeconds);
             
             boolean windowChanged = windowState.checkAndUpdateWindow(now);
             
@@ -72,7 +79,7 @@ public class IndependentTrendScoreService implements IndependentMetricService {
             // Step 4: Store result in own cache (isolated keys)
             if (windowChanged && windowState.hasCompletedWindow()) {
                 // Window completed - store final result
-                MetricResult result = new MetricResult(SYMBOL, FEATURE_NAME, score);
+                MetricResult result = new MetricResult(symbol, FEATURE_NAME, score);
                 result.setWindowStart(windowState.getWindowStartTime());
                 result.setWindowEnd(windowState.getWindowEndTime());
                 result.setComputedAt(now);
@@ -81,7 +88,7 @@ public class IndependentTrendScoreService implements IndependentMetricService {
                 result.setFuturesScore(futuresScore);
                 result.setCallsScore(callsScore);
                 result.setPutsScore(putsScore);
-                result.setVersion(metricsCacheService.getVersion(SYMBOL, FEATURE_NAME));
+                result.setVersion(metricsCacheService.getVersion(symbol, FEATURE_NAME));
                 result.setNextExpectedUpdate(windowState.getNextWindowStartTime());
                 
                 metricsCacheService.storeFinalResult(result);
@@ -89,7 +96,7 @@ public class IndependentTrendScoreService implements IndependentMetricService {
                     SERVICE_NAME, score, classification);
             } else if (score != null) {
                 // Store partial result
-                MetricResult result = new MetricResult(SYMBOL, FEATURE_NAME, score);
+                MetricResult result = new MetricResult(symbol, FEATURE_NAME, score);
                 result.setWindowStart(windowState.getWindowStartTime());
                 result.setWindowEnd(windowState.getWindowEndTime());
                 result.setComputedAt(now);
@@ -98,7 +105,7 @@ public class IndependentTrendScoreService implements IndependentMetricService {
                 result.setFuturesScore(futuresScore);
                 result.setCallsScore(callsScore);
                 result.setPutsScore(putsScore);
-                result.setVersion(metricsCacheService.getVersion(SYMBOL, FEATURE_NAME));
+                result.setVersion(metricsCacheService.getVersion(symbol, FEATURE_NAME));
                 result.setNextExpectedUpdate(windowState.getNextWindowStartTime());
                 
                 metricsCacheService.storePartialResult(result);
@@ -107,7 +114,7 @@ public class IndependentTrendScoreService implements IndependentMetricService {
             // Step 5: Keep calculated values on chain (don't overwrite with cache)
             // The calculated values from Step 1 are already on the chain
             // Only populate window metadata (not the calculated values)
-            populateWindowMetadata(chain, windowState, windowSeconds);
+            populateWindowMetadata(chain, windowState, windowSeconds, now);
             
             return true;
             
@@ -122,7 +129,7 @@ public class IndependentTrendScoreService implements IndependentMetricService {
      * Populate chain with window metadata only (not calculated values).
      * Calculated values come directly from TrendCalculationService.calculateTrend().
      */
-    private void populateWindowMetadata(DerivativesChain chain, WindowManager.WindowState windowState, int windowSeconds) {
+    private void populateWindowMetadata(DerivativesChain chain, WindowManager.WindowState windowState, int windowSeconds, Instant now) {
         try {
             // Always set window size
             chain.setTrendWindowSeconds(windowSeconds);
@@ -133,7 +140,6 @@ public class IndependentTrendScoreService implements IndependentMetricService {
                 chain.setTrendWindowEnd(windowState.getWindowEndTime());
             } else {
                 // Calculate from current time if window state not initialized
-                Instant now = Instant.now();
                 long currentEpochSecond = now.getEpochSecond();
                 long windowNumber = currentEpochSecond / windowSeconds;
                 long windowStartEpochSecond = windowNumber * windowSeconds;
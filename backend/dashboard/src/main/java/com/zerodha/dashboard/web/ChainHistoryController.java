@@ -0,0 +1,175 @@
+package com.zerodha.dashboard.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.zerodha.dashboard.model.ChainTick;
+import com.zerodha.dashboard.model.DerivativeContract;
+import com.zerodha.dashboard.service.ChainHistoryService;
+import com.zerodha.dashboard.service.TickColumnStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Intraday chain history from {@link ChainHistoryService}, streamed as NDJSON
+ * (one JSON object per line) so long ranges never sit in memory, and per-contract tick
+ * columns from {@link TickColumnStore}.
+ *
+ * Times are epoch millis; without from/to the last 5 minutes are returned.
+ */
+@RestController
+@RequestMapping("/api/history")
+public class ChainHistoryController {
+
+    private static final Logger log = LoggerFactory.getLogger(ChainHistoryController.class);
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final long DEFAULT_RANGE_MS = 5 * 60_000L;
+
+    private final ChainHistoryService chainHistoryService;
+    private final TickColumnStore tickColumnStore;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter lineWriter;
+
+    public ChainHistoryController(ChainHistoryService chainHistoryService, TickColumnStore tickColumnStore,
+                                  ObjectMapper objectMapper) {
+        this.chainHistoryService = chainHistoryService;
+        this.tickColumnStore = tickColumnStore;
+        this.objectMapper = objectMapper;
+        // Let the generator buffer fill instead of flushing the response on every line
+        this.lineWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Chain history between two timestamps.
+     *
+     * GET /api/history/chain?underlying=NIFTY&from=1700000000000&to=1700000300000
+     *
+     * The first line is a full snapshot ("type":"snapshot"); after that each line only has the
+     * contracts that changed since the previous line ("type":"delta"), except keyframes,
+     * which are full snapshots again.
+     */
+    @GetMapping("/chain")
+    public ResponseEntity<StreamingResponseBody> getChainHistory(
+            @RequestParam(value = "underlying", defaultValue = "NIFTY") String underlying,
+            @RequestParam(value = "from", required = false) Long from,
+            @RequestParam(value = "to", required = false) Long to) {
+        long toMillis = to != null ? to : System.currentTimeMillis();
+        long fromMillis = from != null ? from : toMillis - DEFAULT_RANGE_MS;
+        if (fromMillis > toMillis) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = output -> {
+            try (JsonGenerator generator = newLineGenerator(output)) {
+                int ticks = chainHistoryService.replay(underlying, fromMillis, toMillis, (tick, state, first) -> {
+                    boolean snapshot = first || tick.isKeyframe();
+                    Map<String, Object> line = tickHeader(tick, snapshot ? "snapshot" : "delta");
+                    line.put("contracts", first ? new ArrayList<>(state.values()) : tick.getContracts());
+                    writeLine(generator, line);
+                });
+                log.debug("Streamed {} history tick(s) for {} between {} and {}", ticks, underlying, fromMillis, toMillis);
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    /**
+     * History of one contract between two timestamps - a line for the state at the start of
+     * the range and one for every tick in which the contract changed.
+     *
+     * GET /api/history/contract?underlying=NIFTY&token=12345&from=...&to=...
+     */
+    @GetMapping("/contract")
+    public ResponseEntity<StreamingResponseBody> getContractHistory(
+            @RequestParam(value = "underlying", defaultValue = "NIFTY") String underlying,
+            @RequestParam("token") String token,
+            @RequestParam(value = "from", required = false) Long from,
+            @RequestParam(value = "to", required = false) Long to) {
+        long toMillis = to != null ? to : System.currentTimeMillis();
+        long fromMillis = from != null ? from : toMillis - DEFAULT_RANGE_MS;
+        if (fromMillis > toMillis) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = output -> {
+            try (JsonGenerator generator = newLineGenerator(output)) {
+                chainHistoryService.replay(underlying, fromMillis, toMillis, (tick, state, first) -> {
+                    DerivativeContract contract = state.get(token);
+                    if (contract == null || (!first && !changedIn(tick, token))) {
+                        return;
+                    }
+                    Map<String, Object> line = tickHeader(tick, first ? "snapshot" : "delta");
+                    line.put("contract", contract);
+                    writeLine(generator, line);
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    /**
+     * Ticks of one contract from the on-disk tick store, one array per column.
+     *
+     * GET /api/history/ticks?token=12345&from=...&to=...
+     */
+    @GetMapping("/ticks")
+    public ResponseEntity<TickColumnStore.Series> getTicks(
+            @RequestParam("token") String token,
+            @RequestParam(value = "from", required = false) Long from,
+            @RequestParam(value = "to", required = false) Long to) {
+        if (!tickColumnStore.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        long toMillis = to != null ? to : System.currentTimeMillis();
+        long fromMillis = from != null ? from : toMillis - DEFAULT_RANGE_MS;
+        if (fromMillis > toMillis) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(tickColumnStore.query(token, fromMillis, toMillis));
+    }
+
+    private static boolean changedIn(ChainTick tick, String token) {
+        for (DerivativeContract contract : tick.getContracts()) {
+            if (token.equals(contract.getInstrumentToken())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, Object> tickHeader(ChainTick tick, String type) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("type", type);
+        line.put("timestamp", tick.getTimestampMillis());
+        line.put("underlying", tick.getUnderlying());
+        line.put("spotPrice", tick.getSpotPrice());
+        line.put("trendScore", tick.getTrendScore());
+        line.put("trendClassification", tick.getTrendClassification());
+        line.put("spotLtpTrendPercent", tick.getSpotLtpTrendPercent());
+        line.put("spotLtpTrendDirection", tick.getSpotLtpTrendDirection());
+        return line;
+    }
+
+    private JsonGenerator newLineGenerator(OutputStream output) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+        generator.setRootValueSeparator(null); // lines are separated by '\n' only
+        return generator;
+    }
+
+    private void writeLine(JsonGenerator generator, Map<String, Object> line) throws IOException {
+        lineWriter.writeValue(generator, line);
+        generator.writeRaw('\n');
+    }
+}
@@ -0,0 +1,182 @@
+package com.zerodha.dashboard.web;
+
+import com.zerodha.dashboard.constants.UnderlyingConstants;
+import com.zerodha.dashboard.model.ChainRowFields;
+import com.zerodha.dashboard.model.StrikeIndex;
+import com.zerodha.dashboard.service.ChainPushService;
+import com.zerodha.dashboard.service.LatestSnapshotCacheService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Option chain as strike rows: one row per strike with the CE and PE side by side, sorted
+ * by strike, carrying only the requested fields.
+ *
+ * GET /api/chain-rows?underlying=NIFTY&fields=ltp,bidQty,askQty,eatenDelta&minStrike=24800&maxStrike=25200
+ *
+ * Rows come from the strike index of the latest published chain, so the join and sort
+ * happen once per chain version. The projection of a given query is kept until the next
+ * version, so dashboards polling the same view share one copy.
+ *
+ * GET /api/chain-rows/stream pushes the same rows as they change (see {@link ChainPushService}).
+ */
+@RestController
+@RequestMapping("/api")
+public class ChainRowsController {
+
+    private static final Logger log = LoggerFactory.getLogger(ChainRowsController.class);
+    private static final int MAX_CACHED_VIEWS = 64;
+
+    /**
+     * Projected rows of one query for one chain version.
+     * Keyed on the cache version, not the index: a poll publishes the same chain (and index)
+     * twice, the second time with its metric fields filled in.
+     */
+    private static final class View {
+        final long version;
+        final List<Map<String, Object>> rows;
+
+        View(long version, List<Map<String, Object>> rows) {
+            this.version = version;
+            this.rows = rows;
+        }
+    }
+
+    private final LatestSnapshotCacheService latestSnapshotCacheService;
+    private final ChainPushService chainPushService;
+    private final Map<String, View> views = new ConcurrentHashMap<>();
+
+    public ChainRowsController(LatestSnapshotCacheService latestSnapshotCacheService,
+                               ChainPushService chainPushService) {
+        this.latestSnapshotCacheService = latestSnapshotCacheService;
+        this.chainPushService = chainPushService;
+    }
+
+    /**
+     * Strike rows of the latest chain.
+     *
+     * @param fields comma-separated field names (all fields when omitted)
+     * @param minStrike lowest strike to include (inclusive, optional)
+     * @param maxStrike highest strike to include (inclusive, optional)
+     */
+    @GetMapping("/chain-rows")
+    public ResponseEntity<?> getChainRows(
+            @RequestParam(value = "underlying", defaultValue = "NIFTY") String underlying,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestParam(value = "minStrike", required = false) BigDecimal minStrike,
+            @RequestParam(value = "maxStrike", required = false) BigDecimal maxStrike) {
+        List<String> selected = ChainRowFields.parse(fields);
+        if (selected == null) {
+            return validationError("fields", "Fields must be a comma-separated subset of " + String.join(",", ChainRowFields.names()));
+        }
+        if (minStrike != null && maxStrike != null && minStrike.compareTo(maxStrike) > 0) {
+            return validationError("strike", "minStrike must not be greater than maxStrike");
+        }
+
+        String normalized = UnderlyingConstants.normalize(underlying);
+        // Version first: a newer index under an older version only costs an extra projection
+        long version = latestSnapshotCacheService.getVersion(normalized);
+        Optional<StrikeIndex> indexOpt = latestSnapshotCacheService.getStrikeIndex(normalized);
+        if (indexOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        StrikeIndex index = indexOpt.get();
+        List<Map<String, Object>> rows = rowsFor(normalized, version, index, selected, minStrike, maxStrike);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("underlying", index.getUnderlying());
+        response.put("spotPrice", index.getSpotPrice());
+        response.put("dailyStrikePrice", index.getDailyStrikePrice());
+        response.put("timestamp", index.getTimestamp());
+        response.put("fields", selected);
+        response.put("rows", rows);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Push feed of strike rows and metrics (Server-Sent Events).
+     *
+     * GET /api/chain-rows/stream?underlying=NIFTY&minStrike=24800&maxStrike=25200&fields=ltp,eatenDelta&features=bidAskEaten
+     *
+     * @param features comma-separated metric features (all when omitted)
+     */
+    @GetMapping(value = "/chain-rows/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChainRows(
+            @RequestParam(value = "underlying", defaultValue = "NIFTY") String underlying,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestParam(value = "features", required = false) String features,
+            @RequestParam(value = "minStrike", required = false) BigDecimal minStrike,
+            @RequestParam(value = "maxStrike", required = false) BigDecimal maxStrike) {
+        List<String> selected = ChainRowFields.parse(fields);
+        if (selected == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Fields must be a comma-separated subset of " + String.join(",", ChainRowFields.names()));
+        }
+        if (minStrike != null && maxStrike != null && minStrike.compareTo(maxStrike) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "minStrike must not be greater than maxStrike");
+        }
+        Set<String> featureSet = null;
+        if (features != null && !features.isBlank()) {
+            featureSet = Arrays.stream(features.split(","))
+                .map(String::trim)
+                .filter(feature -> !feature.isEmpty())
+                .collect(Collectors.toSet());
+        }
+        return chainPushService.subscribe(UnderlyingConstants.normalize(underlying), minStrike, maxStrike,
+            selected, featureSet);
+    }
+
+    private List<Map<String, Object>> rowsFor(String underlying, long version, StrikeIndex index, List<String> selected,
+                                              BigDecimal minStrike, BigDecimal maxStrike) {
+        String key = underlying + '|' + String.join(",", selected) + '|'
+            + (minStrike == null ? "" : minStrike.stripTrailingZeros().toPlainString()) + '|'
+            + (maxStrike == null ? "" : maxStrike.stripTrailingZeros().toPlainString());
+        View view = views.get(key);
+        if (view != null && view.version == version) {
+            return view.rows;
+        }
+
+        List<StrikeIndex.Row> range = index.between(minStrike, maxStrike);
+        List<Map<String, Object>> rows = new ArrayList<>(range.size());
+        for (StrikeIndex.Row row : range) {
+            rows.add(ChainRowFields.project(row, selected));
+        }
+        List<Map<String, Object>> result = List.copyOf(rows);
+
+        if (views.size() >= MAX_CACHED_VIEWS && !views.containsKey(key)) {
+            // Arbitrary query strings must not grow the map without bound
+            views.clear();
+        }
+        views.put(key, new View(version, result));
+        log.debug("Projected {} chain row(s) for {} with fields {}", result.size(), underlying, selected);
+        return result;
+    }
+
+    private ResponseEntity<Map<String, Object>> validationError(String field, String message) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", "INVALID_" + field.toUpperCase());
+        body.put("message", message);
+        return ResponseEntity.badRequest().body(body);
+    }
+}
@@ -11,6 +11,7 @@ import java.util.Map;
 
 /**
  * Controller for receiving frontend logs and writing them to files
+ * (queued - the file write happens on the logging service's writer thread)
  */
 @RestController
 @RequestMapping("/api/logs")
@@ -35,9 +36,12 @@ public class LoggingController {
                 return ResponseEntity.ok().body("No logs to process");
             }
             
-            loggingService.writeLogs(logEntries);
+            int accepted = loggingService.writeLogs(logEntries);
+            if (accepted < logEntries.size()) {
+                return ResponseEntity.ok().body("Logs received, " + (logEntries.size() - accepted) + " dropped (queue full)");
+            }
             
-            return ResponseEntity.ok().body("Logs received and written");
+            return ResponseEntity.ok().body("Logs received");
         } catch (Exception e) {
             log.error("Error processing logs: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body("Error processing logs: " + e.getMessage());
@@ -52,6 +56,15 @@ public class LoggingController {
     public ResponseEntity<?> health() {
         return ResponseEntity.ok().body("Logging service is running");
     }
+    
+    /**
+     * Writer queue and drop counters
+     * GET /api/logs/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> stats() {
+        return ResponseEntity.ok(loggingService.getStats());
+    }
 }
 
 
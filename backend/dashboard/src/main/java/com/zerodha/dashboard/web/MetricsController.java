@@ -1,17 +1,28 @@
 package com.zerodha.dashboard.web;
 
+import com.zerodha.dashboard.constants.UnderlyingConstants;
+import com.zerodha.dashboard.model.DerivativeContract;
 import com.zerodha.dashboard.model.MetricResult;
+import com.zerodha.dashboard.service.LatestSnapshotCacheService;
 import com.zerodha.dashboard.service.MetricsCacheService;
+import com.zerodha.dashboard.service.MetricsStreamService;
+import com.zerodha.dashboard.service.ResponseEncodingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 /**
@@ -27,9 +38,18 @@ public class MetricsController {
     private static final Logger log = LoggerFactory.getLogger(MetricsController.class);
     
     private final MetricsCacheService metricsCacheService;
+    private final ResponseEncodingService responseEncodingService;
+    private final LatestSnapshotCacheService latestSnapshotCacheService;
+    private final MetricsStreamService metricsStreamService;
     
-    public MetricsController(MetricsCacheService metricsCacheService) {
+    public MetricsController(MetricsCacheService metricsCacheService,
+                             ResponseEncodingService responseEncodingService,
+                             LatestSnapshotCacheService latestSnapshotCacheService,
+                             MetricsStreamService metricsStreamService) {
         this.metricsCacheService = metricsCacheService;
+        this.responseEncodingService = responseEncodingService;
+        this.latestSnapshotCacheService = latestSnapshotCacheService;
+        this.metricsStreamService = metricsStreamService;
     }
     
     /**
@@ -47,21 +67,9 @@ public class MetricsController {
             @RequestParam(value = "features", required = false) String features) {
         
         try {
-            Set<String> featureSet = null;
-            if (features != null && !features.trim().isEmpty()) {
-                featureSet = Arrays.stream(features.split(","))
-                    .map(String::trim)
-                    .filter(s -> !s.isEmpty())
-                    .collect(Collectors.toSet());
-            }
-            
+            Set<String> featureSet = parseList(features);
             Map<String, MetricResult> results = metricsCacheService.getLatestResults(symbol, featureSet);
             
-            // Build response
-            Map<String, Object> response = new HashMap<>();
-            response.put("symbol", symbol);
-            response.put("features", results);
-            
             // If no results found, return empty map with symbol
             if (results.isEmpty()) {
                 log.debug("No metrics found for symbol={}, features={}", symbol, features);
@@ -69,7 +77,7 @@ public class MetricsController {
                 log.debug("Retrieved {} metrics for symbol={}", results.size(), symbol);
             }
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(latestResponse(symbol, results));
         } catch (Exception e) {
             log.error("Error retrieving latest metrics for symbol={}, features={}", symbol, features, e);
             return ResponseEntity.status(500).body(Map.of(
@@ -79,6 +87,149 @@ public class MetricsController {
         }
     }
     
+    /**
+     * /latest as columnar JSON (Accept: application/vnd.dashboard.columnar+json or ?format=columnar):
+     * one array per MetricResult field across the requested features, plus a "key" column.
+     */
+    @GetMapping(value = "/latest", produces = ResponseEncodingService.COLUMNAR_JSON_VALUE)
+    public ResponseEntity<byte[]> getLatestMetricsColumnar(
+            @RequestParam(value = "symbol", defaultValue = "NIFTY") String symbol,
+            @RequestParam(value = "features", required = false) String features) {
+        return encodedLatest(symbol, features, ResponseEncodingService.Format.COLUMNAR);
+    }
+    
+    /**
+     * /latest as MessagePack (Accept: application/msgpack or ?format=msgpack).
+     */
+    @GetMapping(value = "/latest", produces = ResponseEncodingService.MSGPACK_VALUE)
+    public ResponseEntity<byte[]> getLatestMetricsMsgpack(
+            @RequestParam(value = "symbol", defaultValue = "NIFTY") String symbol,
+            @RequestParam(value = "features", required = false) String features) {
+        return encodedLatest(symbol, features, ResponseEncodingService.Format.MSGPACK);
+    }
+    
+    private ResponseEntity<byte[]> encodedLatest(String symbol, String features, ResponseEncodingService.Format format) {
+        try {
+            Set<String> featureSet = parseList(features);
+            Map<String, MetricResult> results = metricsCacheService.getLatestResults(symbol, featureSet);
+            // Results are re-encoded only when a feature's version or computation time moves
+            List<String> version = results.values().stream()
+                .map(result -> result.getFeature() + ':' + result.getVersion() + ':' + result.getComputedAt())
+                .sorted()
+                .collect(Collectors.toList());
+            String slot = "metrics:" + symbol + ':' + (featureSet == null ? "*" : String.join(",", new TreeSet<>(featureSet)));
+            byte[] body = responseEncodingService.encode(slot, version, latestResponse(symbol, results), format);
+            return ResponseEntity.ok().contentType(format.getMediaType()).body(body);
+        } catch (Exception e) {
+            log.error("Error encoding latest metrics for symbol={}, features={} as {}", symbol, features, format, e);
+            return ResponseEntity.status(500).build();
+        }
+    }
+    
+    private static Set<String> parseList(String values) {
+        if (values == null || values.trim().isEmpty()) {
+            return null;
+        }
+        return Arrays.stream(values.split(","))
+            .map(String::trim)
+            .filter(s -> !s.isEmpty())
+            .collect(Collectors.toSet());
+    }
+    
+    private static Map<String, Object> latestResponse(String symbol, Map<String, MetricResult> results) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("symbol", symbol);
+        response.put("features", results);
+        return response;
+    }
+    
+    /**
+     * Latest metrics of an underlying and every contract in its chain, in one call.
+     * 
+     * GET /api/metrics/bulk?underlying=NIFTY&features=bidAskEaten,ltpMovement&minVersion=120
+     * 
+     * Per-contract results (bidAskEaten, ltpMovement, greeks) are keyed by instrument token,
+     * underlying-level results (trendScore, spotLtpMovement, pcrOi, pcrVolume, oiChange, maxPain)
+     * by the underlying.
+     * Contracts come from the latest cached chain.
+     * 
+     * @param features Comma-separated features to keep (optional, all if not specified)
+     * @param minVersion Only results with at least this version (optional)
+     * @return {"underlying", "symbols", "results": {symbol: {feature: MetricResult}}}
+     */
+    @GetMapping("/bulk")
+    public ResponseEntity<Map<String, Object>> getBulkMetrics(
+            @RequestParam(value = "underlying", defaultValue = "NIFTY") String underlying,
+            @RequestParam(value = "features", required = false) String features,
+            @RequestParam(value = "minVersion", required = false) Long minVersion) {
+        
+        try {
+            String normalized = UnderlyingConstants.normalize(underlying);
+            List<String> symbols = new ArrayList<>();
+            symbols.add(normalized);
+            latestSnapshotCacheService.getLatest(normalized).ifPresent(chain -> {
+                addTokens(symbols, chain.getFutures());
+                addTokens(symbols, chain.getCallOptions());
+                addTokens(symbols, chain.getPutOptions());
+            });
+            
+            Map<String, Map<String, MetricResult>> results =
+                metricsCacheService.getLatestResults(symbols, parseList(features), minVersion);
+            
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("underlying", normalized);
+            response.put("symbols", results.size());
+            response.put("results", results);
+            log.debug("Retrieved metrics for {} of {} symbol(s) of {}", results.size(), symbols.size(), normalized);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error retrieving bulk metrics for underlying={}, features={}", underlying, features, e);
+            return ResponseEntity.status(500).body(Map.of(
+                "error", "Failed to retrieve metrics",
+                "message", e.getMessage()
+            ));
+        }
+    }
+    
+    private static void addTokens(List<String> symbols, List<DerivativeContract> contracts) {
+        if (contracts == null) {
+            return;
+        }
+        for (DerivativeContract contract : contracts) {
+            if (contract != null && contract.getInstrumentToken() != null) {
+                symbols.add(contract.getInstrumentToken());
+            }
+        }
+    }
+    
+    /**
+     * Stream of completed metric windows (Server-Sent Events).
+     * 
+     * GET /api/metrics/stream?symbols=NIFTY,BANKNIFTY&features=trendScore&partial=true
+     * 
+     * Events are named "final" (once per completed window) or "partial" (throttled, only
+     * with partial=true); the data is the MetricResult including its version. A client
+     * reconnecting with Last-Event-ID gets what it missed, or the current finals.
+     * 
+     * @param symbols Comma-separated symbols or instrument tokens, "*" for all
+     * @param features Comma-separated features (optional, all if not specified)
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMetrics(
+            @RequestParam(value = "symbols", defaultValue = "NIFTY") String symbols,
+            @RequestParam(value = "features", required = false) String features,
+            @RequestParam(value = "partial", defaultValue = "false") boolean partial,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Set<String> symbolSet = parseList(symbols);
+        return metricsStreamService.subscribe(symbolSet != null ? symbolSet : Set.of("NIFTY"),
+            parseList(features), partial, lastEventId);
+    }
+    
+    @GetMapping("/stream/stats")
+    public Map<String, Object> getStreamStats() {
+        return metricsStreamService.getStats();
+    }
+    
     /**
      * Get latest metric for a specific symbol and feature.
      * 
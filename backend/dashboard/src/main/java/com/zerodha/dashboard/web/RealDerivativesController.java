@@ -1,12 +1,15 @@
 package com.zerodha.dashboard.web;
 
 import com.zerodha.dashboard.adapter.ZerodhaApiAdapter;
+import com.zerodha.dashboard.model.DerivativeContract;
 import com.zerodha.dashboard.model.DerivativesChain;
+import com.zerodha.dashboard.model.StrikeIndex;
 import com.zerodha.dashboard.service.LatestSnapshotCacheService;
 import com.zerodha.dashboard.service.BasicValuesCacheService;
 import com.zerodha.dashboard.service.MockDataService;
 import com.zerodha.dashboard.service.ZerodhaSessionService;
 import com.zerodha.dashboard.service.DynamicCacheUpdateScheduler;
+import com.zerodha.dashboard.service.ResponseEncodingService;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
@@ -23,6 +26,7 @@ import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Pattern;
@@ -50,6 +54,7 @@ public class RealDerivativesController {
     private final LatestSnapshotCacheService latestSnapshotCacheService;
     private final BasicValuesCacheService basicValuesCacheService; // Separate cache for basic values
     private final DynamicCacheUpdateScheduler dynamicCacheUpdateScheduler;
+    private final ResponseEncodingService responseEncodingService;
     
     @Value("${zerodha.enabled:false}")
     private boolean zerodhaEnabled;
@@ -62,13 +67,15 @@ public class RealDerivativesController {
                                      ZerodhaSessionService zerodhaSessionService,
                                      LatestSnapshotCacheService latestSnapshotCacheService,
                                      BasicValuesCacheService basicValuesCacheService,
-                                     DynamicCacheUpdateScheduler dynamicCacheUpdateScheduler) {
+                                     DynamicCacheUpdateScheduler dynamicCacheUpdateScheduler,
+                                     ResponseEncodingService responseEncodingService) {
         this.zerodhaApiAdapter = zerodhaApiAdapter;
         this.mockDataService = mockDataService;
         this.zerodhaSessionService = zerodhaSessionService;
         this.latestSnapshotCacheService = latestSnapshotCacheService;
         this.basicValuesCacheService = basicValuesCacheService;
         this.dynamicCacheUpdateScheduler = dynamicCacheUpdateScheduler;
+        this.responseEncodingService = responseEncodingService;
     }
 
     /**
@@ -195,78 +202,78 @@ public class RealDerivativesController {
         }
     }
 
+    /**
+     * Strike price monitoring with the default ±50 point band.
+     */
+    public ResponseEntity<?> getRealStrikePriceMonitoring(String underlying) {
+        return getRealStrikePriceMonitoring(underlying, DerivativesChain.MONITORING_BAND);
+    }
+
     /**
      * Get strike price monitoring data using real derivatives
-     * GET /api/real-strike-monitoring?underlying=NIFTY
+     * GET /api/real-strike-monitoring?underlying=NIFTY&band=50
+     *
+     * Calls and puts are ordered: within ±band of the daily strike, above the band, below
+     * the band. Served from the strike index of the latest published chain; the Kite API is
+     * only called when nothing has been published yet.
      */
     @GetMapping("/real-strike-monitoring")
-    public ResponseEntity<?> getRealStrikePriceMonitoring(@RequestParam(value = "underlying", defaultValue = "NIFTY") String underlying) {
-        log.info("real-strike-monitoring request received for underlying='{}'", underlying);
+    public ResponseEntity<?> getRealStrikePriceMonitoring(
+            @RequestParam(value = "underlying", defaultValue = "NIFTY") String underlying,
+            @RequestParam(value = "band", defaultValue = "50") BigDecimal band) {
+        log.debug("real-strike-monitoring request received for underlying='{}'", underlying);
 
         String normalizedUnderlying = sanitizeUnderlying(underlying);
         if (normalizedUnderlying == null) {
             return validationError("underlying", "Underlying must be 1-15 characters (A-Z, 0-9, hyphen or underscore)");
         }
+        if (band == null || band.signum() < 0) {
+            return validationError("band", "Band must be zero or positive");
+        }
 
         try {
-            // Get full derivatives chain
-            ResponseEntity<?> chainResponse = getRealDerivativesChain(normalizedUnderlying);
-            if (chainResponse.getStatusCode().is2xxSuccessful() && chainResponse.getBody() instanceof DerivativesChain chain) {
-                // Create strike price monitoring response
-                DerivativesChain monitoringResponse = new DerivativesChain();
-                monitoringResponse.setUnderlying(chain.getUnderlying());
-                monitoringResponse.setSpotPrice(chain.getSpotPrice());
-                monitoringResponse.setDailyStrikePrice(chain.getDailyStrikePrice());
-                monitoringResponse.setTimestamp(chain.getTimestamp());
-                
-                // Filter contracts around strike price (±50 points)
-                BigDecimal strikePrice = chain.getDailyStrikePrice();
-                BigDecimal lowerBound = strikePrice.subtract(new BigDecimal("50"));
-                BigDecimal upperBound = strikePrice.add(new BigDecimal("50"));
-                
-                // Add monitoring contracts (around strike)
-                chain.getCallOptions().stream()
-                    .filter(opt -> opt.getStrikePrice().compareTo(lowerBound) >= 0 && opt.getStrikePrice().compareTo(upperBound) <= 0)
-                    .forEach(monitoringResponse::addCallOption);
-                
-                chain.getPutOptions().stream()
-                    .filter(opt -> opt.getStrikePrice().compareTo(lowerBound) >= 0 && opt.getStrikePrice().compareTo(upperBound) <= 0)
-                    .forEach(monitoringResponse::addPutOption);
-                
-                // Add above strike contracts
-                chain.getCallOptions().stream()
-                    .filter(opt -> opt.getStrikePrice().compareTo(upperBound) > 0)
-                    .forEach(opt -> {
-                        opt.setSegment("ABOVE_STRIKE_CALLS");
-                        monitoringResponse.addCallOption(opt);
-                    });
-                
-                chain.getPutOptions().stream()
-                    .filter(opt -> opt.getStrikePrice().compareTo(upperBound) > 0)
-                    .forEach(opt -> {
-                        opt.setSegment("ABOVE_STRIKE_PUTS");
-                        monitoringResponse.addPutOption(opt);
-                    });
-                
-                // Add below strike contracts
-                chain.getCallOptions().stream()
-                    .filter(opt -> opt.getStrikePrice().compareTo(lowerBound) < 0)
-                    .forEach(opt -> {
-                        opt.setSegment("BELOW_STRIKE_CALLS");
-                        monitoringResponse.addCallOption(opt);
-                    });
-                
-                chain.getPutOptions().stream()
-                    .filter(opt -> opt.getStrikePrice().compareTo(lowerBound) < 0)
-                    .forEach(opt -> {
-                        opt.setSegment("BELOW_STRIKE_PUTS");
-                        monitoringResponse.addPutOption(opt);
-                    });
-                
-                return ResponseEntity.ok(monitoringResponse);
+            Optional<StrikeIndex> cached = latestSnapshotCacheService.getStrikeIndex(normalizedUnderlying);
+            StrikeIndex index;
+            if (cached.isPresent()) {
+                index = cached.get();
             } else {
-                return chainResponse;
+                ResponseEntity<?> chainResponse = getRealDerivativesChain(normalizedUnderlying);
+                if (!(chainResponse.getStatusCode().is2xxSuccessful() && chainResponse.getBody() instanceof DerivativesChain chain)) {
+                    return chainResponse;
+                }
+                index = latestSnapshotCacheService.getStrikeIndex(normalizedUnderlying)
+                        .orElseGet(() -> StrikeIndex.of(chain));
+            }
+
+            DerivativesChain monitoringResponse = new DerivativesChain();
+            monitoringResponse.setUnderlying(index.getUnderlying());
+            monitoringResponse.setSpotPrice(index.getSpotPrice());
+            monitoringResponse.setDailyStrikePrice(index.getDailyStrikePrice());
+            monitoringResponse.setTimestamp(index.getTimestamp());
+
+            BigDecimal strikePrice = index.getDailyStrikePrice();
+            if (strikePrice == null) {
+                monitoringResponse.setCallOptions(StrikeIndex.calls(index.getRows()));
+                monitoringResponse.setPutOptions(StrikeIndex.puts(index.getRows()));
+                return ResponseEntity.ok(monitoringResponse);
             }
+            BigDecimal lowerBound = strikePrice.subtract(band);
+            BigDecimal upperBound = strikePrice.add(band);
+            List<StrikeIndex.Row> around = index.between(lowerBound, upperBound);
+            List<StrikeIndex.Row> above = index.above(upperBound);
+            List<StrikeIndex.Row> below = index.below(lowerBound);
+
+            // Contracts are shared with the cache, so they keep their own segment
+            List<DerivativeContract> calls = StrikeIndex.calls(around);
+            calls.addAll(StrikeIndex.calls(above));
+            calls.addAll(StrikeIndex.calls(below));
+            List<DerivativeContract> puts = StrikeIndex.puts(around);
+            puts.addAll(StrikeIndex.puts(above));
+            puts.addAll(StrikeIndex.puts(below));
+            monitoringResponse.setCallOptions(calls);
+            monitoringResponse.setPutOptions(puts);
+
+            return ResponseEntity.ok(monitoringResponse);
         } catch (Exception e) {
             log.error("Error getting real strike price monitoring for {}: {}", underlying, e.getMessage(), e);
             return ResponseEntity.status(500).body("Error: " + e.getMessage());
@@ -346,7 +353,7 @@ public class RealDerivativesController {
         
         try {
             // Return ONLY basic values from separate cache (updated immediately on API poll)
-            Optional<DerivativesChain> cached = basicValuesCacheService.getLatest();
+            Optional<DerivativesChain> cached = basicValuesCacheService.getLatest(normalizedUnderlying);
             if (cached.isPresent()) {
                 DerivativesChain chain = cached.get();
                 if (normalizedUnderlying.equals(chain.getUnderlying())) {
@@ -395,10 +402,10 @@ public class RealDerivativesController {
             // CRITICAL: Do NOT recalculate eatenDelta or LTP movement here
             // These values are already calculated and stored in the cache by DynamicCacheUpdateScheduler
             // The calculation window is independent and runs at API polling rate, not UI refresh rate
-            Optional<DerivativesChain> cached = latestSnapshotCacheService.getLatest();
+            Optional<DerivativesChain> cached = latestSnapshotCacheService.getLatest(normalizedUnderlying);
             if (cached.isPresent()) {
                 DerivativesChain chain = cached.get();
-                // Verify underlying matches (for future multi-underlying support)
+                // Caches are keyed per underlying - this guards against a mislabelled chain
                 if (normalizedUnderlying.equals(chain.getUnderlying())) {
                     // Return cached data as-is - eatenDelta and LTP movement are already calculated
                     // The calculation window runs independently at API polling rate
@@ -423,7 +430,7 @@ public class RealDerivativesController {
             
             // Last resort: try to return cached data even on error
             try {
-                Optional<DerivativesChain> cached = latestSnapshotCacheService.getLatest();
+                Optional<DerivativesChain> cached = latestSnapshotCacheService.getLatest(normalizedUnderlying);
                 if (cached.isPresent()) {
                     DerivativesChain chain = cached.get();
                     if (normalizedUnderlying.equals(chain.getUnderlying())) {
@@ -440,6 +447,83 @@ public class RealDerivativesController {
         }
     }
     
+    /**
+     * /api/basic as columnar JSON (Accept: application/vnd.dashboard.columnar+json or ?format=columnar).
+     */
+    @GetMapping(value = "/basic", produces = ResponseEncodingService.COLUMNAR_JSON_VALUE)
+    public ResponseEntity<byte[]> getBasicColumnar(@RequestParam(value = "underlying", defaultValue = "NIFTY") String underlying) {
+        return encodedBasic(underlying, ResponseEncodingService.Format.COLUMNAR);
+    }
+    
+    /**
+     * /api/basic as MessagePack (Accept: application/msgpack or ?format=msgpack).
+     */
+    @GetMapping(value = "/basic", produces = ResponseEncodingService.MSGPACK_VALUE)
+    public ResponseEntity<byte[]> getBasicMsgpack(@RequestParam(value = "underlying", defaultValue = "NIFTY") String underlying) {
+        return encodedBasic(underlying, ResponseEncodingService.Format.MSGPACK);
+    }
+    
+    /**
+     * /api/latest as columnar JSON (Accept: application/vnd.dashboard.columnar+json or ?format=columnar).
+     */
+    @GetMapping(value = "/latest", produces = ResponseEncodingService.COLUMNAR_JSON_VALUE)
+    public ResponseEntity<byte[]> getLatestColumnar(@RequestParam(value = "underlying", defaultValue = "NIFTY") String underlying) {
+        return encodedLatest(underlying, ResponseEncodingService.Format.COLUMNAR);
+    }
+    
+    /**
+     * /api/latest as MessagePack (Accept: application/msgpack or ?format=msgpack).
+     */
+    @GetMapping(value = "/latest", produces = ResponseEncodingService.MSGPACK_VALUE)
+    public ResponseEntity<byte[]> getLatestMsgpack(@RequestParam(value = "underlying", defaultValue = "NIFTY") String underlying) {
+        return encodedLatest(underlying, ResponseEncodingService.Format.MSGPACK);
+    }
+    
+    private ResponseEntity<byte[]> encodedBasic(String underlying, ResponseEncodingService.Format format) {
+        String normalizedUnderlying = sanitizeUnderlying(underlying);
+        if (normalizedUnderlying == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        // Version first: a chain newer than its version only costs a re-encode
+        long version = basicValuesCacheService.getVersion(normalizedUnderlying);
+        return encodedChain("basic:", normalizedUnderlying, version,
+                basicValuesCacheService.getLatest(normalizedUnderlying), format);
+    }
+    
+    private ResponseEntity<byte[]> encodedLatest(String underlying, ResponseEncodingService.Format format) {
+        String normalizedUnderlying = sanitizeUnderlying(underlying);
+        if (normalizedUnderlying == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        long version = latestSnapshotCacheService.getVersion(normalizedUnderlying);
+        return encodedChain("latest:", normalizedUnderlying, version,
+                latestSnapshotCacheService.getLatest(normalizedUnderlying), format);
+    }
+    
+    private ResponseEntity<byte[]> encodedChain(String slotPrefix, String normalizedUnderlying, long version,
+                                                Optional<DerivativesChain> cached,
+                                                ResponseEncodingService.Format format) {
+        try {
+            DerivativesChain chain = cached
+                    .filter(c -> normalizedUnderlying.equals(c.getUnderlying()))
+                    .orElse(null);
+            byte[] body;
+            if (chain != null) {
+                body = responseEncodingService.encode(slotPrefix + normalizedUnderlying, version, chain, format);
+            } else {
+                DerivativesChain emptyChain = new DerivativesChain(normalizedUnderlying, new BigDecimal("25000"));
+                emptyChain.setDailyStrikePrice(new BigDecimal("25000"));
+                emptyChain.setTimestamp(Instant.now());
+                emptyChain.setDataSource("NO_DATA");
+                body = responseEncodingService.encode(slotPrefix + normalizedUnderlying, null, emptyChain, format);
+            }
+            return ResponseEntity.ok().contentType(format.getMediaType()).body(body);
+        } catch (Exception e) {
+            log.error("Error encoding {} snapshot for {} as {}: {}", slotPrefix, normalizedUnderlying, format, e.getMessage(), e);
+            return ResponseEntity.status(500).build();
+        }
+    }
+    
     /**
      * Update the API polling interval for backend cache updates.
      * PUT /api/api-polling-interval
@@ -0,0 +1,111 @@
+package com.zerodha.dashboard.web;
+
+import com.zerodha.dashboard.adapter.MarketDataJournal;
+import com.zerodha.dashboard.adapter.ReplayMarketAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * REST controller for market data recording and replay.
+ *
+ * Replays a journal written by {@link MarketDataJournal} through the live processing pipeline.
+ * Intended for load testing and offline regression of metric outputs (run with zerodha.enabled=false).
+ */
+@RestController
+@RequestMapping("/api/replay")
+public class ReplayController {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplayController.class);
+
+    private final ReplayMarketAdapter replayMarketAdapter;
+    private final MarketDataJournal marketDataJournal;
+
+    public ReplayController(ReplayMarketAdapter replayMarketAdapter, MarketDataJournal marketDataJournal) {
+        this.replayMarketAdapter = replayMarketAdapter;
+        this.marketDataJournal = marketDataJournal;
+    }
+
+    /**
+     * Start replaying a journal file or directory.
+     *
+     * POST /api/replay
+     * Body: { "path": "./journal", "speed": 10 }  (speed: 1 = recorded pace, N = N times faster, 0 = max)
+     */
+    @PostMapping
+    public ResponseEntity<?> startReplay(@RequestBody Map<String, Object> request) {
+        try {
+            Object pathObj = request.get("path");
+            if (pathObj == null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "path is required"));
+            }
+            Path source = Paths.get(pathObj.toString());
+            if (!Files.exists(source)) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Journal not found: " + source));
+            }
+
+            Object speedObj = request.getOrDefault("speed", 1.0);
+            double speed = speedObj instanceof Number
+                ? ((Number) speedObj).doubleValue()
+                : Double.parseDouble(speedObj.toString());
+
+            if (!replayMarketAdapter.startAsync(source, speed)) {
+                return ResponseEntity.status(409).body(Map.of("error", "A replay is already running"));
+            }
+            log.info("Replay started for {} at speed {}", source, speed);
+            return ResponseEntity.ok(Map.of("success", true, "path", source.toString(), "speed", speed));
+        } catch (Exception e) {
+            log.error("Error starting replay: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of(
+                "error", "Failed to start replay",
+                "message", String.valueOf(e.getMessage())
+            ));
+        }
+    }
+
+    /**
+     * Stop a running replay.
+     * DELETE /api/replay
+     */
+    @DeleteMapping
+    public ResponseEntity<?> stopReplay() {
+        replayMarketAdapter.stop();
+        return ResponseEntity.ok(Map.of("success", true));
+    }
+
+    /**
+     * Replay and recording status.
+     * GET /api/replay/status
+     */
+    @GetMapping("/status")
+    public ResponseEntity<?> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("running", replayMarketAdapter.isRunning());
+        status.put("recordingEnabled", marketDataJournal.isEnabled());
+        status.put("recordsWritten", marketDataJournal.getRecordsWritten());
+        Path currentFile = marketDataJournal.getCurrentFile();
+        status.put("journalFile", currentFile != null ? currentFile.toString() : null);
+
+        ReplayMarketAdapter.ReplayStats stats = replayMarketAdapter.getLastStats();
+        if (stats != null) {
+            Map<String, Object> last = new HashMap<>();
+            last.put("records", stats.records);
+            last.put("chains", stats.chains);
+            last.put("recordsSkipped", stats.recordsSkipped);
+            last.put("recordedSpanMillis", stats.recordedSpanMillis);
+            last.put("elapsedMillis", stats.elapsedMillis);
+            last.put("speed", stats.speed);
+            last.put("chainsPerSecond", stats.getChainsPerSecond());
+            last.put("stopped", stats.stopped);
+            status.put("lastReplay", last);
+        }
+        return ResponseEntity.ok(status);
+    }
+}
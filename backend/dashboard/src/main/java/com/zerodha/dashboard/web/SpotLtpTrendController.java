@@ -1,5 +1,6 @@
 package com.zerodha.dashboard.web;
 
+import com.zerodha.dashboard.constants.UnderlyingConstants;
 import com.zerodha.dashboard.service.SpotLtpTrendService;
 import com.zerodha.dashboard.service.WindowManager;
 import org.slf4j.Logger;
@@ -20,7 +21,6 @@ public class SpotLtpTrendController {
     
     private static final Logger log = LoggerFactory.getLogger(SpotLtpTrendController.class);
     private static final String FEATURE_NAME = "spotLtpMovement";
-    private static final String SYMBOL = "NIFTY";
     
     private final SpotLtpTrendService spotLtpTrendService;
     private final WindowManager windowManager;
@@ -34,24 +34,30 @@ public class SpotLtpTrendController {
      * Get current spot LTP trend window configuration.
      */
     @GetMapping("/window")
-    public ResponseEntity<Map<String, Object>> getWindow() {
+    public ResponseEntity<Map<String, Object>> getWindow(
+            @RequestParam(value = "underlying", defaultValue = "NIFTY") String underlying) {
+        String symbol = UnderlyingConstants.normalize(underlying);
         int windowSeconds = spotLtpTrendService.getWindowSeconds();
         Map<String, Object> response = new HashMap<>();
         response.put("windowSeconds", windowSeconds);
-        response.put("trendPercent", spotLtpTrendService.getTrendPercent());
-        response.put("trendDirection", spotLtpTrendService.getTrendDirection());
-        log.info("GET /api/spot-ltp-trend/window: {}s (SpotLtpTrendService={}, WindowManager={})", 
-            windowSeconds, windowSeconds, 
-            windowManager.getWindowState(FEATURE_NAME, SYMBOL, windowSeconds).getWindowSeconds());
+        response.put("underlying", symbol);
+        response.put("trendPercent", spotLtpTrendService.getTrendPercent(symbol));
+        response.put("trendDirection", spotLtpTrendService.getTrendDirection(symbol));
+        log.info("GET /api/spot-ltp-trend/window for {}: {}s (SpotLtpTrendService={}, WindowManager={})", 
+            symbol, windowSeconds, windowSeconds, 
+            windowManager.getWindowState(FEATURE_NAME, symbol, windowSeconds).getWindowSeconds());
         return ResponseEntity.ok(response);
     }
     
     /**
      * Update spot LTP trend window size.
      * Valid values: 5, 10, 15, 20, 25, 30, 35, 40, 45, 50, 55, 60 seconds.
+     * The size applies to every underlying; {@code underlying} is the one the update is verified on.
      */
     @PostMapping("/window")
-    public ResponseEntity<Map<String, Object>> updateWindow(@RequestParam Integer seconds) {
+    public ResponseEntity<Map<String, Object>> updateWindow(@RequestParam Integer seconds,
+            @RequestParam(value = "underlying", defaultValue = "NIFTY") String underlying) {
+        String symbol = UnderlyingConstants.normalize(underlying);
         int oldWindowSeconds = spotLtpTrendService.getWindowSeconds();
         
         if (seconds == null || seconds < 5 || seconds > 60) {
@@ -64,17 +70,17 @@ public class SpotLtpTrendController {
         
         log.info("SPOT_LTP_TREND WINDOW UPDATE REQUEST: {}s -> {}s (current SpotLtpTrendService={}, WindowManager={})", 
             oldWindowSeconds, seconds, oldWindowSeconds,
-            windowManager.getWindowState(FEATURE_NAME, SYMBOL, oldWindowSeconds).getWindowSeconds());
+            windowManager.getWindowState(FEATURE_NAME, symbol, oldWindowSeconds).getWindowSeconds());
         
         // Step 1: Update SpotLtpTrendService (this also updates WindowManager internally)
         spotLtpTrendService.setWindowSeconds(seconds);
         
         // Step 2: Verify WindowManager is synchronized (redundant but ensures consistency)
-        windowManager.updateWindowSize(FEATURE_NAME, SYMBOL, seconds);
+        windowManager.updateWindowSize(FEATURE_NAME, symbol, seconds);
         
         // Step 3: Verify the update was successful
         int actualWindowSeconds = spotLtpTrendService.getWindowSeconds();
-        int windowManagerSeconds = windowManager.getWindowState(FEATURE_NAME, SYMBOL, seconds).getWindowSeconds();
+        int windowManagerSeconds = windowManager.getWindowState(FEATURE_NAME, symbol, seconds).getWindowSeconds();
         
         if (actualWindowSeconds != seconds || windowManagerSeconds != seconds) {
             log.error("WARNING: Spot LTP Trend window size update mismatch! Requested={}, SpotLtpTrendService={}, WindowManager={}", 
@@ -84,6 +90,7 @@ public class SpotLtpTrendController {
         Map<String, Object> response = new HashMap<>();
         response.put("windowSeconds", actualWindowSeconds);
         response.put("previousWindowSeconds", oldWindowSeconds);
+        response.put("underlying", symbol);
         response.put("message", "Spot LTP trend window updated successfully");
         
         log.info("Spot LTP trend window updated successfully: {}s -> {}s (SpotLtpTrendService={}, WindowManager={})", 
@@ -1,9 +1,11 @@
 package com.zerodha.dashboard.web;
 
 import com.zerodha.dashboard.adapter.ZerodhaApiAdapter;
-import com.zerodha.dashboard.model.DerivativesChain;
 import com.zerodha.dashboard.model.DerivativeContract;
+import com.zerodha.dashboard.model.StrikeIndex;
+import com.zerodha.dashboard.service.LatestSnapshotCacheService;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,50 +41,69 @@ public class StrikePriceMonitoringController {
     private static final Logger log = LoggerFactory.getLogger(StrikePriceMonitoringController.class);
 
     private final ZerodhaApiAdapter zerodhaApiAdapter;
+    private final LatestSnapshotCacheService latestSnapshotCacheService;
 
     @Value("${zerodha.enabled:false}")
     private boolean zerodhaEnabled;
 
-    public StrikePriceMonitoringController(ZerodhaApiAdapter zerodhaApiAdapter) {
+    public StrikePriceMonitoringController(ZerodhaApiAdapter zerodhaApiAdapter,
+                                           LatestSnapshotCacheService latestSnapshotCacheService) {
         this.zerodhaApiAdapter = zerodhaApiAdapter;
+        this.latestSnapshotCacheService = latestSnapshotCacheService;
     }
     
     /**
      * Get strike price monitoring data
-     * Returns contracts around the daily strike price (±50 points)
+     * Returns contracts around the daily strike price (±band points, default 50).
+     * offset/limit page the strikes inside the band.
      */
     @GetMapping
     public ResponseEntity<?> getStrikePriceMonitoring(
             @RequestParam(defaultValue = "NIFTY") @Size(min = 1, max = 15) String underlying,
-            @RequestParam(defaultValue = "25000") @Positive BigDecimal spot) {
+            @RequestParam(defaultValue = "25000") @Positive BigDecimal spot,
+            @RequestParam(defaultValue = "50") @PositiveOrZero BigDecimal band,
+            @RequestParam(defaultValue = "0") @PositiveOrZero int offset,
+            @RequestParam(required = false) @Positive Integer limit) {
         
         String normalizedUnderlying = sanitizeUnderlying(underlying);
         if (normalizedUnderlying == null) {
             return invalidUnderlyingResponse();
         }
 
-        log.info("Strike price monitoring request: underlying={}, spot={}", normalizedUnderlying, spot);
+        log.debug("Strike price monitoring request: underlying={}, spot={}, band={}", normalizedUnderlying, spot, band);
         
         try {
-            Optional<DerivativesChain> chainOpt = loadChain(normalizedUnderlying);
+            Optional<StrikeIndex> indexOpt = loadIndex(normalizedUnderlying);
             
-            if (chainOpt.isEmpty()) {
+            if (indexOpt.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
             
-            DerivativesChain chain = chainOpt.get();
-            Map<String, Object> response = new HashMap<>();
+            StrikeIndex index = indexOpt.get();
+            List<StrikeIndex.Row> rows = List.of();
+            List<DerivativeContract> above = List.of();
+            List<DerivativeContract> below = List.of();
+            BigDecimal dailyStrike = index.getDailyStrikePrice();
+            if (dailyStrike != null) {
+                rows = StrikeIndex.page(index.between(dailyStrike.subtract(band), dailyStrike.add(band)), offset, limit);
+                above = StrikeIndex.calls(index.above(dailyStrike.add(band)));
+                below = StrikeIndex.puts(index.below(dailyStrike.subtract(band)));
+            }
+            List<DerivativeContract> monitoring = StrikeIndex.calls(rows);
+            monitoring.addAll(StrikeIndex.puts(rows));
             
-            response.put("underlying", chain.getUnderlying());
-            response.put("spotPrice", chain.getSpotPrice());
-            response.put("dailyStrikePrice", chain.getDailyStrikePrice());
-            response.put("monitoringContracts", chain.getStrikePriceMonitoring());
-            response.put("aboveStrike", chain.getAboveStrikePrice());
-            response.put("belowStrike", chain.getBelowStrikePrice());
-            response.put("timestamp", chain.getTimestamp());
+            Map<String, Object> response = new HashMap<>();
+            response.put("underlying", index.getUnderlying());
+            response.put("spotPrice", index.getSpotPrice());
+            response.put("dailyStrikePrice", dailyStrike);
+            response.put("band", band);
+            response.put("monitoringContracts", monitoring);
+            response.put("aboveStrike", above);
+            response.put("belowStrike", below);
+            response.put("timestamp", index.getTimestamp());
             
-            log.info("Returned strike price monitoring data: {} contracts around strike {}", 
-                    chain.getStrikePriceMonitoring().size(), chain.getDailyStrikePrice());
+            log.debug("Returned strike price monitoring data: {} contracts around strike {}", 
+                    monitoring.size(), dailyStrike);
             
             return ResponseEntity.ok(response);
             
@@ -93,31 +114,38 @@ public class StrikePriceMonitoringController {
     }
     
     /**
-     * Get contracts above the daily strike price
+     * Get call contracts above the daily strike price + band
      */
     @GetMapping("/above")
     public ResponseEntity<?> getAboveStrikePrice(
             @RequestParam(defaultValue = "NIFTY") @Size(min = 1, max = 15) String underlying,
-            @RequestParam(defaultValue = "25000") @Positive BigDecimal spot) {
+            @RequestParam(defaultValue = "25000") @Positive BigDecimal spot,
+            @RequestParam(defaultValue = "50") @PositiveOrZero BigDecimal band,
+            @RequestParam(defaultValue = "0") @PositiveOrZero int offset,
+            @RequestParam(required = false) @Positive Integer limit) {
         
         String normalizedUnderlying = sanitizeUnderlying(underlying);
         if (normalizedUnderlying == null) {
             return invalidUnderlyingResponse();
         }
 
-        log.info("Above strike price request: underlying={}, spot={}", normalizedUnderlying, spot);
+        log.debug("Above strike price request: underlying={}, spot={}, band={}", normalizedUnderlying, spot, band);
         
         try {
-            Optional<DerivativesChain> chainOpt = loadChain(normalizedUnderlying);
+            Optional<StrikeIndex> indexOpt = loadIndex(normalizedUnderlying);
             
-            if (chainOpt.isEmpty()) {
+            if (indexOpt.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
             
-            DerivativesChain chain = chainOpt.get();
-            List<DerivativeContract> aboveStrike = chain.getAboveStrikePrice();
+            StrikeIndex index = indexOpt.get();
+            if (index.getDailyStrikePrice() == null) {
+                return ResponseEntity.ok(List.of());
+            }
+            List<DerivativeContract> aboveStrike = StrikeIndex.page(
+                StrikeIndex.calls(index.above(index.getDailyStrikePrice().add(band))), offset, limit);
             
-            log.info("Returned {} contracts above strike price {}", aboveStrike.size(), chain.getDailyStrikePrice());
+            log.debug("Returned {} contracts above strike price {}", aboveStrike.size(), index.getDailyStrikePrice());
             return ResponseEntity.ok(aboveStrike);
             
         } catch (Exception e) {
@@ -127,31 +155,38 @@ public class StrikePriceMonitoringController {
     }
     
     /**
-     * Get contracts below the daily strike price
+     * Get put contracts below the daily strike price - band
      */
     @GetMapping("/below")
     public ResponseEntity<?> getBelowStrikePrice(
             @RequestParam(defaultValue = "NIFTY") @Size(min = 1, max = 15) String underlying,
-            @RequestParam(defaultValue = "25000") @Positive BigDecimal spot) {
+            @RequestParam(defaultValue = "25000") @Positive BigDecimal spot,
+            @RequestParam(defaultValue = "50") @PositiveOrZero BigDecimal band,
+            @RequestParam(defaultValue = "0") @PositiveOrZero int offset,
+            @RequestParam(required = false) @Positive Integer limit) {
         
         String normalizedUnderlying = sanitizeUnderlying(underlying);
         if (normalizedUnderlying == null) {
             return invalidUnderlyingResponse();
         }
 
-        log.info("Below strike price request: underlying={}, spot={}", normalizedUnderlying, spot);
+        log.debug("Below strike price request: underlying={}, spot={}, band={}", normalizedUnderlying, spot, band);
         
         try {
-            Optional<DerivativesChain> chainOpt = loadChain(normalizedUnderlying);
+            Optional<StrikeIndex> indexOpt = loadIndex(normalizedUnderlying);
             
-            if (chainOpt.isEmpty()) {
+            if (indexOpt.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
             
-            DerivativesChain chain = chainOpt.get();
-            List<DerivativeContract> belowStrike = chain.getBelowStrikePrice();
+            StrikeIndex index = indexOpt.get();
+            if (index.getDailyStrikePrice() == null) {
+                return ResponseEntity.ok(List.of());
+            }
+            List<DerivativeContract> belowStrike = StrikeIndex.page(
+                StrikeIndex.puts(index.below(index.getDailyStrikePrice().subtract(band))), offset, limit);
             
-            log.info("Returned {} contracts below strike price {}", belowStrike.size(), chain.getDailyStrikePrice());
+            log.debug("Returned {} contracts below strike price {}", belowStrike.size(), index.getDailyStrikePrice());
             return ResponseEntity.ok(belowStrike);
             
         } catch (Exception e) {
@@ -160,11 +195,16 @@ public class StrikePriceMonitoringController {
         }
     }
 
-    private Optional<DerivativesChain> loadChain(String normalizedUnderlying) {
-        if (zerodhaEnabled) {
-            return zerodhaApiAdapter.getDerivativesChain(normalizedUnderlying);
+    /**
+     * Index of the latest published chain; only goes to the Kite API when nothing has been
+     * published yet for this underlying.
+     */
+    private Optional<StrikeIndex> loadIndex(String normalizedUnderlying) {
+        Optional<StrikeIndex> cached = latestSnapshotCacheService.getStrikeIndex(normalizedUnderlying);
+        if (cached.isPresent() || !zerodhaEnabled) {
+            return cached;
         }
-        return Optional.empty();
+        return zerodhaApiAdapter.getDerivativesChain(normalizedUnderlying).map(StrikeIndex::of);
     }
 
     private String sanitizeUnderlying(String rawUnderlying) {
@@ -0,0 +1,44 @@
+package com.zerodha.dashboard.web;
+
+import com.zerodha.dashboard.adapter.SyntheticMarketAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * REST controller for the synthetic stress-test feed (market.source=synthetic).
+ */
+@RestController
+@RequestMapping("/api/synthetic")
+public class SyntheticMarketController {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticMarketController.class);
+
+    private final SyntheticMarketAdapter syntheticMarketAdapter;
+
+    public SyntheticMarketController(SyntheticMarketAdapter syntheticMarketAdapter) {
+        this.syntheticMarketAdapter = syntheticMarketAdapter;
+    }
+
+    /**
+     * Throughput statistics of the synthetic feed.
+     * GET /api/synthetic/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<?> getStats() {
+        try {
+            return ResponseEntity.ok(syntheticMarketAdapter.getStats());
+        } catch (Exception e) {
+            log.error("Error retrieving synthetic feed stats: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of(
+                "error", "Failed to retrieve synthetic feed stats",
+                "message", String.valueOf(e.getMessage())
+            ));
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.zerodha.dashboard.web;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zerodha.dashboard.adapter.KiteHttpClient;
 import com.zerodha.dashboard.service.ZerodhaSessionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,13 +13,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
 import java.net.URI;
-import java.net.URL;
 import java.net.URLEncoder;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.time.Instant;
@@ -50,10 +47,12 @@ public class ZerodhaAuthController {
     private String publicTunnelUrl;
     
     private final ZerodhaSessionService zerodhaSessionService;
+    private final KiteHttpClient kiteHttpClient;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    public ZerodhaAuthController(ZerodhaSessionService zerodhaSessionService) {
+    public ZerodhaAuthController(ZerodhaSessionService zerodhaSessionService, KiteHttpClient kiteHttpClient) {
         this.zerodhaSessionService = zerodhaSessionService;
+        this.kiteHttpClient = kiteHttpClient;
     }
     
     /**
@@ -156,14 +155,6 @@ public class ZerodhaAuthController {
             log.debug("Checksum calculation - Input length: {}, API Key: {}, Request Token length: {}", 
                     checksumInput.length(), apiKey.length(), requestToken.length());
             
-            // Prepare POST request
-            URL url = URI.create("https://api.kite.trade/session/token").toURL();
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("POST");
-            connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
-            connection.setRequestProperty("X-Kite-Version", "3"); // Required by Zerodha Kite API
-            connection.setDoOutput(true);
-            
             // Build request body
             String postData = "api_key=" + URLEncoder.encode(apiKey, StandardCharsets.UTF_8) +
                              "&request_token=" + URLEncoder.encode(requestToken, StandardCharsets.UTF_8) +
@@ -173,33 +164,17 @@ public class ZerodhaAuthController {
             log.debug("Token exchange request - API Key length: {}, Request Token length: {}, Checksum calculated", 
                     apiKey.length(), requestToken.length());
             
-            // Send request
-            try (OutputStream os = connection.getOutputStream()) {
-                byte[] input = postData.getBytes(StandardCharsets.UTF_8);
-                os.write(input, 0, input.length);
-            }
+            // Send request (X-Kite-Version is required by Zerodha Kite API)
+            HttpResponse<String> httpResponse = kiteHttpClient.await(kiteHttpClient.postFormAsync(
+                    "https://api.kite.trade/session/token", postData, Map.of("X-Kite-Version", "3")));
             
-            int responseCode = connection.getResponseCode();
+            int responseCode = httpResponse.statusCode();
             log.info("Token exchange response code: {}", responseCode);
-            
-            // Read response
-            BufferedReader reader;
-            if (responseCode >= 200 && responseCode < 300) {
-                reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-            } else {
-                reader = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
-            }
-            
-            StringBuilder response = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                response.append(line);
-            }
-            reader.close();
+            String response = httpResponse.body();
             
             if (responseCode == 200) {
                 // Parse JSON response
-                JsonNode jsonResponse = objectMapper.readTree(response.toString());
+                JsonNode jsonResponse = objectMapper.readTree(response);
                 
                 if (jsonResponse.has("data") && jsonResponse.get("data").has("access_token")) {
                     String accessToken = jsonResponse.get("data").get("access_token").asText();
@@ -225,17 +200,17 @@ public class ZerodhaAuthController {
                     
                     log.info("Successfully exchanged request token for access token");
                 } else {
-                    log.error("Access token not found in response: {}", response.toString());
+                    log.error("Access token not found in response: {}", response);
                     result.put("success", false);
                     result.put("error", "Access token not found in response");
                 }
             } else {
-                log.error("Token exchange failed with code {}: {}", responseCode, response.toString());
+                log.error("Token exchange failed with code {}: {}", responseCode, response);
                 result.put("success", false);
                 
                 // Try to parse error message
                 try {
-                    JsonNode errorResponse = objectMapper.readTree(response.toString());
+                    JsonNode errorResponse = objectMapper.readTree(response);
                     if (errorResponse.has("message")) {
                         String errorMessage = errorResponse.get("message").asText();
                         result.put("error", errorMessage);
@@ -251,10 +226,10 @@ public class ZerodhaAuthController {
                             result.put("hint", "Request tokens expire in 30-60 seconds. Complete OAuth login immediately after getting the URL.");
                         }
                     } else {
-                        result.put("error", "Token exchange failed: " + response.toString());
+                        result.put("error", "Token exchange failed: " + response);
                     }
                 } catch (Exception e) {
-                    result.put("error", "Token exchange failed: " + response.toString());
+                    result.put("error", "Token exchange failed: " + response);
                 }
             }
             
@@ -312,6 +287,7 @@ public class ZerodhaAuthController {
         status.put("status_endpoint", "/api/zerodha/status");
         status.put("message", zerodhaEnabled ? "Zerodha Kite API authentication endpoints are ready" : "Zerodha Kite API is disabled");
         status.put("session_active", zerodhaSessionService.hasActiveAccessToken());
+        status.put("token_cache", zerodhaSessionService.getTokenCacheStats());
 
         Map<String, String> snapshot = zerodhaSessionService.getSessionSnapshot();
         if (!snapshot.isEmpty()) {
@@ -0,0 +1,126 @@
+package com.zerodha.dashboard.adapter;
+
+import com.zerodha.dashboard.model.DerivativesChain;
+import com.zerodha.dashboard.service.DynamicCacheUpdateScheduler;
+import com.zerodha.dashboard.service.EventTimeMarketClock;
+import com.zerodha.dashboard.service.ZerodhaSessionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ReplayMarketAdapterTest {
+
+    private static final String SPOT_PAYLOAD = "{\"data\":{\"NSE:NIFTY 50\":{\"last_price\":25010.5}}}";
+    private static final String FUT_PAYLOAD = "{\"data\":{\"NFO:NIFTY24DECFUT\":{\"last_price\":25050,"
+        + "\"volume\":1200,\"oi\":5000,\"depth\":{\"buy\":[{\"price\":25049,\"quantity\":75}],"
+        + "\"sell\":[{\"price\":25051,\"quantity\":150}]}}}}";
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private ZerodhaSessionService sessionService;
+
+    @Mock
+    private DynamicCacheUpdateScheduler scheduler;
+
+    private MarketDataJournal journal;
+    private ReplayMarketAdapter replayAdapter;
+
+    @BeforeEach
+    void setUp() {
+        journal = new MarketDataJournal();
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "directory", tempDir.toString());
+        replayAdapter = new ReplayMarketAdapter(new ZerodhaApiAdapter(sessionService, journal, new KiteRateLimiter(), new KiteHttpClient()), scheduler,
+            new EventTimeMarketClock());
+    }
+
+    @Test
+    void journalRoundTripsRecordsWithInstruments() throws Exception {
+        journal.recordSpot("NIFTY", SPOT_PAYLOAD);
+        journal.recordQuotes(MarketDataJournal.KIND_FUTURES, "NIFTY", List.of(futures()), FUT_PAYLOAD);
+        journal.close();
+
+        List<MarketDataJournal.Entry> entries = new ArrayList<>();
+        long count = MarketDataJournal.read(tempDir, entries::add);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(entries.get(0).kind).isEqualTo(MarketDataJournal.KIND_SPOT);
+        assertThat(entries.get(0).payload).isEqualTo(SPOT_PAYLOAD);
+        assertThat(entries.get(1).instruments).hasSize(1);
+        assertThat(entries.get(1).instruments.get(0).getTradingsymbol()).isEqualTo("NIFTY24DECFUT");
+        assertThat(entries.get(1).instruments.get(0).getExpiry()).isEqualTo(LocalDate.of(2024, 12, 26));
+    }
+
+    @Test
+    void replayRebuildsChainsAndFeedsPipeline() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            journal.recordSpot("NIFTY", SPOT_PAYLOAD);
+            journal.recordQuotes(MarketDataJournal.KIND_FUTURES, "NIFTY", List.of(futures()), FUT_PAYLOAD);
+        }
+        journal.close();
+
+        ReplayMarketAdapter.ReplayStats stats = replayAdapter.replay(tempDir, 0);
+
+        ArgumentCaptor<DerivativesChain> captor = ArgumentCaptor.forClass(DerivativesChain.class);
+        verify(scheduler, times(3)).processChain(captor.capture());
+        DerivativesChain chain = captor.getValue();
+        assertThat(chain.getDataSource()).isEqualTo("REPLAY");
+        assertThat(chain.getSpotPrice()).isEqualByComparingTo("25010.5");
+        assertThat(chain.getFutures()).hasSize(1);
+        assertThat(chain.getFutures().get(0).getBidQuantity()).isEqualTo(75L);
+        assertThat(chain.getFutures().get(0).getTimestamp()).isEqualTo(chain.getTimestamp());
+        assertThat(stats.records).isEqualTo(6);
+        assertThat(stats.chains).isEqualTo(3);
+        assertThat(replayAdapter.isRunning()).isFalse();
+    }
+
+    @Test
+    void stopEndsReadingOfTheJournal() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            journal.recordSpot("NIFTY", SPOT_PAYLOAD);
+            journal.recordQuotes(MarketDataJournal.KIND_FUTURES, "NIFTY", List.of(futures()), FUT_PAYLOAD);
+        }
+        journal.close();
+        doAnswer(invocation -> {
+            replayAdapter.stop();
+            return null;
+        }).when(scheduler).processChain(any());
+
+        ReplayMarketAdapter.ReplayStats stats = replayAdapter.replay(tempDir, 0);
+
+        // The first chain is emitted when the second spot arrives; nothing after that is read
+        verify(scheduler, times(1)).processChain(any());
+        assertThat(stats.records).isEqualTo(3);
+        assertThat(stats.stopped).isTrue();
+    }
+
+    private ZerodhaInstrument futures() {
+        ZerodhaInstrument instrument = new ZerodhaInstrument();
+        instrument.setInstrumentToken(123L);
+        instrument.setTradingsymbol("NIFTY24DECFUT");
+        instrument.setInstrumentType("FUT");
+        instrument.setExpiry(LocalDate.of(2024, 12, 26));
+        instrument.setLotSize(50);
+        instrument.setTickSize(0.05);
+        return instrument;
+    }
+}
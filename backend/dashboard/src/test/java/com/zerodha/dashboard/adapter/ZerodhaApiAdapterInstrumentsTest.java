@@ -25,7 +25,7 @@ class ZerodhaApiAdapterInstrumentsTest {
 
     @BeforeEach
     void setUp() {
-        adapter = new ZerodhaApiAdapter(sessionService);
+        adapter = new ZerodhaApiAdapter(sessionService, new MarketDataJournal(), new KiteRateLimiter(), new KiteHttpClient());
         ReflectionTestUtils.setField(adapter, "zerodhaEnabled", true);
         ReflectionTestUtils.setField(adapter, "apiKey", "key");
     }
@@ -55,7 +55,7 @@ class ZerodhaApiAdapterInstrumentsTest {
     }
 
     @Test
-    void getNiftyFuturesInstruments_filtersByExpiryAndType() {
+    void getFuturesInstruments_filtersByExpiryAndType() {
         List<ZerodhaInstrument> cache = new ArrayList<>();
         cache.add(buildInstrument("NIFTY24APR7500FUT", "FUT", LocalDate.now().plusDays(10), 7500));
         cache.add(buildInstrument("NIFTYBANK24APR7500FUT", "FUT", LocalDate.now().plusDays(10), 7500));
@@ -65,7 +65,7 @@ class ZerodhaApiAdapterInstrumentsTest {
         ReflectionTestUtils.setField(adapter, "instrumentsCacheDate", LocalDate.now());
 
         @SuppressWarnings("unchecked")
-        List<ZerodhaInstrument> result = ReflectionTestUtils.invokeMethod(adapter, "getNiftyFuturesInstruments", "NIFTY", "token");
+        List<ZerodhaInstrument> result = ReflectionTestUtils.invokeMethod(adapter, "getFuturesInstruments", "NIFTY", "token");
 
         assertThat(result)
                 .hasSize(2)
@@ -75,7 +75,7 @@ class ZerodhaApiAdapterInstrumentsTest {
     }
 
     @Test
-    void getNiftyOptionInstruments_selectsNearestExpiryAndReferenceRange() {
+    void getOptionInstruments_selectsNearestExpiryAndReferenceRange() {
         LocalDate today = LocalDate.now();
         LocalDate thisThursday = today.plusDays(Math.max(1, 4 - today.getDayOfWeek().getValue()));
 
@@ -91,7 +91,7 @@ class ZerodhaApiAdapterInstrumentsTest {
         @SuppressWarnings("unchecked")
         List<ZerodhaInstrument> result = ReflectionTestUtils.invokeMethod(
                 adapter,
-                "getNiftyOptionInstruments",
+                "getOptionInstruments",
                 "NIFTY",
                 BigDecimal.valueOf(24025),
                 "token"
@@ -117,6 +117,38 @@ class ZerodhaApiAdapterInstrumentsTest {
         assertThat(chain.getFutures()).isEmpty();
     }
 
+    @Test
+    void getFuturesInstruments_matchesUnderlyingByInstrumentName() {
+        List<ZerodhaInstrument> cache = new ArrayList<>();
+        cache.add(named(buildInstrument("NIFTY24APRFUT", "FUT", LocalDate.now().plusDays(10), 0), "NIFTY"));
+        cache.add(named(buildInstrument("NIFTYNXT5024APRFUT", "FUT", LocalDate.now().plusDays(10), 0), "NIFTYNXT50"));
+        cache.add(named(buildInstrument("BANKNIFTY24APRFUT", "FUT", LocalDate.now().plusDays(10), 0), "BANKNIFTY"));
+
+        ReflectionTestUtils.setField(adapter, "cachedInstruments", cache);
+        ReflectionTestUtils.setField(adapter, "instrumentsCacheDate", LocalDate.now());
+
+        @SuppressWarnings("unchecked")
+        List<ZerodhaInstrument> nifty = ReflectionTestUtils.invokeMethod(adapter, "getFuturesInstruments", "NIFTY", "token");
+        @SuppressWarnings("unchecked")
+        List<ZerodhaInstrument> bankNifty = ReflectionTestUtils.invokeMethod(adapter, "getFuturesInstruments", "BANKNIFTY", "token");
+
+        assertThat(nifty).extracting(ZerodhaInstrument::getTradingsymbol).containsExactly("NIFTY24APRFUT");
+        assertThat(bankNifty).extracting(ZerodhaInstrument::getTradingsymbol).containsExactly("BANKNIFTY24APRFUT");
+    }
+
+    @Test
+    void parseSpotPrice_readsIndexQuoteKeyForUnderlying() {
+        String response = "{\"data\":{\"NSE:NIFTY 50\":{\"last_price\":25000.5},\"NSE:NIFTY BANK\":{\"last_price\":56000.25}}}";
+
+        assertThat(adapter.parseSpotPrice(response, "BANKNIFTY")).contains(new BigDecimal("56000.25"));
+        assertThat(adapter.parseSpotPrice(response, "NIFTY")).contains(new BigDecimal("25000.5"));
+    }
+
+    private ZerodhaInstrument named(ZerodhaInstrument instrument, String name) {
+        instrument.setName(name);
+        return instrument;
+    }
+
     private ZerodhaInstrument buildInstrument(String symbol, String type, LocalDate expiry, double strike) {
         ZerodhaInstrument instrument = new ZerodhaInstrument();
         instrument.setInstrumentToken(symbol.hashCode());
@@ -24,7 +24,7 @@ class ZerodhaApiAdapterTest {
 
     @BeforeEach
     void setUp() {
-        adapter = new ZerodhaApiAdapter(zerodhaSessionService);
+        adapter = new ZerodhaApiAdapter(zerodhaSessionService, new MarketDataJournal(), new KiteRateLimiter(), new KiteHttpClient());
         ReflectionTestUtils.setField(adapter, "apiKey", "test-key");
     }
 
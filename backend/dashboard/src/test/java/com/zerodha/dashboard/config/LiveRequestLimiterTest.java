@@ -0,0 +1,39 @@
+package com.zerodha.dashboard.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LiveRequestLimiterTest {
+
+    private final LiveRequestLimiter limiter = new LiveRequestLimiter(2);
+
+    @Test
+    void rejectsLiveRequestsBeyondTheLimitUntilOneCompletes() throws Exception {
+        MockHttpServletRequest first = request();
+        MockHttpServletRequest second = request();
+        assertThat(limiter.preHandle(first, new MockHttpServletResponse(), null)).isTrue();
+        assertThat(limiter.preHandle(second, new MockHttpServletResponse(), null)).isTrue();
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        assertThat(limiter.preHandle(request(), rejected, null)).isFalse();
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(rejected.getContentAsString()).contains("LIVE_CAPACITY_EXCEEDED");
+
+        // An async re-dispatch of a request holding a permit does not take another
+        assertThat(limiter.preHandle(first, new MockHttpServletResponse(), null)).isTrue();
+
+        limiter.afterCompletion(first, new MockHttpServletResponse(), null, null);
+        limiter.afterCompletion(first, new MockHttpServletResponse(), null, null);
+        assertThat(limiter.getAvailablePermits()).isEqualTo(1);
+        assertThat(limiter.preHandle(request(), new MockHttpServletResponse(), null)).isTrue();
+        assertThat(limiter.getRejectedCount()).isEqualTo(1);
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/real-derivatives");
+    }
+}
@@ -0,0 +1,64 @@
+package com.zerodha.dashboard.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StrikeIndexTest {
+
+    @Test
+    void joinsCallsAndPutsByStrikeAndAnswersRangeQueries() {
+        DerivativesChain chain = new DerivativesChain("NIFTY", BigDecimal.valueOf(25010));
+        chain.setDailyStrikePrice(BigDecimal.valueOf(25000));
+        // Deliberately out of order, with one put-only strike
+        for (int strike : new int[] {25100, 24900, 25050, 25000, 24950}) {
+            chain.addCallOption(option("CE", strike));
+            chain.addPutOption(option("PE", strike));
+        }
+        chain.addPutOption(option("PE", 24850));
+
+        StrikeIndex index = StrikeIndex.of(chain);
+
+        assertThat(index.getRows()).extracting(row -> row.getStrike().intValue())
+            .containsExactly(24850, 24900, 24950, 25000, 25050, 25100);
+        assertThat(index.getRows().get(0).getCall()).isNull();
+        assertThat(index.getRows().get(3).getPut().getInstrumentType()).isEqualTo("PE");
+
+        List<StrikeIndex.Row> band = index.between(BigDecimal.valueOf(24950), new BigDecimal("25050.00"));
+        assertThat(band).extracting(row -> row.getStrike().intValue()).containsExactly(24950, 25000, 25050);
+        assertThat(index.above(BigDecimal.valueOf(25050))).extracting(row -> row.getStrike().intValue()).containsExactly(25100);
+        assertThat(index.below(BigDecimal.valueOf(24950))).extracting(row -> row.getStrike().intValue()).containsExactly(24850, 24900);
+        assertThat(index.between(BigDecimal.valueOf(25001), BigDecimal.valueOf(25049))).isEmpty();
+
+        // Same contracts as the chain's own ±50 helpers (which keep chain order)
+        assertThat(StrikeIndex.calls(index.above(BigDecimal.valueOf(25050)))).containsExactlyInAnyOrderElementsOf(chain.getAboveStrikePrice());
+        assertThat(StrikeIndex.puts(index.below(BigDecimal.valueOf(24950)))).containsExactlyInAnyOrderElementsOf(chain.getBelowStrikePrice());
+        assertThat(StrikeIndex.calls(band).size() + StrikeIndex.puts(band).size()).isEqualTo(chain.getStrikePriceMonitoring().size());
+
+        assertThat(StrikeIndex.page(index.getRows(), 4, 5)).hasSize(2);
+        assertThat(StrikeIndex.page(index.getRows(), 1, 2)).extracting(row -> row.getStrike().intValue()).containsExactly(24900, 24950);
+        assertThat(StrikeIndex.page(index.getRows(), 10, null)).isEmpty();
+    }
+
+    @Test
+    void detectsANewChainVersion() {
+        DerivativesChain chain = new DerivativesChain("NIFTY", BigDecimal.valueOf(25000));
+        chain.addCallOption(option("CE", 25000));
+        StrikeIndex index = StrikeIndex.of(chain);
+
+        assertThat(index.isBuiltFrom(chain)).isTrue();
+        chain.addPutOption(option("PE", 25000));
+        assertThat(index.isBuiltFrom(chain)).isFalse();
+        assertThat(index.isBuiltFrom(new DerivativesChain("NIFTY", BigDecimal.valueOf(25000)))).isFalse();
+    }
+
+    private static DerivativeContract option(String type, int strike) {
+        DerivativeContract contract = new DerivativeContract();
+        contract.setInstrumentType(type);
+        contract.setStrikePrice(BigDecimal.valueOf(strike));
+        return contract;
+    }
+}
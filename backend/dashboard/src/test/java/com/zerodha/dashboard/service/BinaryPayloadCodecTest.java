@@ -0,0 +1,88 @@
+package com.zerodha.dashboard.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zerodha.dashboard.model.DerivativeContract;
+import com.zerodha.dashboard.model.DerivativesChain;
+import com.zerodha.dashboard.model.MetricResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryPayloadCodecTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final BinaryPayloadCodec codec = new BinaryPayloadCodec(objectMapper);
+
+    @Test
+    void roundTripsChainAndIsSmallerThanJson() throws Exception {
+        DerivativesChain chain = chainWithStrikes(200);
+
+        byte[] payload = codec.encode(chain);
+        DerivativesChain decoded = codec.decode(payload, DerivativesChain.class);
+
+        assertThat(payload[0]).isEqualTo(BinaryPayloadCodec.FORMAT_VERSION);
+        assertThat(objectMapper.writeValueAsString(decoded)).isEqualTo(objectMapper.writeValueAsString(chain));
+        assertThat(decoded.getCallOptions().get(7).getLastPrice()).isEqualByComparingTo("107.35");
+        assertThat(payload.length).isLessThan(objectMapper.writeValueAsBytes(chain).length / 2);
+    }
+
+    @Test
+    void readsLegacyJsonPayloads() throws Exception {
+        MetricResult result = new MetricResult();
+        result.setSymbol("NIFTY");
+        result.setFeature("trendScore");
+        result.setVersion(42L);
+
+        MetricResult decoded = codec.decode(objectMapper.writeValueAsBytes(result), MetricResult.class);
+
+        assertThat(decoded.getSymbol()).isEqualTo("NIFTY");
+        assertThat(decoded.getVersion()).isEqualTo(42L);
+    }
+
+    @Test
+    void rejectsUnknownFormatVersion() {
+        assertThatThrownBy(() -> codec.decode(new byte[] {(byte) 0x7F, 1, 2}, DerivativesChain.class))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("version");
+    }
+
+    private DerivativesChain chainWithStrikes(int strikes) {
+        Instant now = Instant.parse("2025-01-02T09:15:30.123Z");
+        DerivativesChain chain = new DerivativesChain("NIFTY", new BigDecimal("24012.45"));
+        chain.setTimestamp(now);
+        chain.setDataSource("ZERODHA_KITE");
+        for (int i = 0; i < strikes; i++) {
+            chain.addCallOption(contract("CE", i, now));
+            chain.addPutOption(contract("PE", i, now));
+        }
+        return chain;
+    }
+
+    private DerivativeContract contract(String type, int i, Instant now) {
+        DerivativeContract contract = new DerivativeContract();
+        contract.setInstrumentToken(String.valueOf(12_000_000 + i));
+        contract.setTradingsymbol("NIFTY25JAN" + (22000 + i * 50) + type);
+        contract.setUnderlying("NIFTY");
+        contract.setSegment("NFO-OPT");
+        contract.setInstrumentType(type);
+        contract.setExpiryDate(LocalDate.of(2025, 1, 30));
+        contract.setStrikePrice(BigDecimal.valueOf(22000 + i * 50L));
+        contract.setLastPrice(new BigDecimal("100.00").add(new BigDecimal("1.05").multiply(BigDecimal.valueOf(i))));
+        contract.setBid(new BigDecimal("99.95"));
+        contract.setAsk(new BigDecimal("100.05"));
+        contract.setBidQuantity(1500L + i);
+        contract.setAskQuantity(900L + i);
+        contract.setVolume(1_250_000L + i);
+        contract.setOpenInterest(new BigDecimal("3450000"));
+        contract.setLotSize(75);
+        contract.setTimestamp(now);
+        return contract;
+    }
+}
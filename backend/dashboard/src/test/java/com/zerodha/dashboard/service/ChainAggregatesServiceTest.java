@@ -0,0 +1,128 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.model.DerivativeContract;
+import com.zerodha.dashboard.model.DerivativesChain;
+import com.zerodha.dashboard.model.MetricResult;
+import com.zerodha.dashboard.service.impl.IndependentChainAggregatesService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class ChainAggregatesServiceTest {
+
+    private static final LocalDate EXPIRY = LocalDate.of(2026, 10, 20);
+
+    private final MetricsCacheService metricsCache = mock(MetricsCacheService.class);
+    private final Map<String, Double> stored = new HashMap<>();
+    private final IndependentChainAggregatesService service =
+        new IndependentChainAggregatesService(metricsCache, new EventTimeMarketClock());
+
+    @Test
+    void runningTotalsAndMaxPainMatchFullRecomputeAsContractsChange() {
+        doAnswer(invocation -> {
+            MetricResult result = invocation.getArgument(0);
+            stored.put(result.getFeature(), result.getValue());
+            return 1L;
+        }).when(metricsCache).storeFinalResult(any());
+
+        Random random = new Random(7);
+        DerivativesChain chain = new DerivativesChain("NIFTY", BigDecimal.valueOf(25000));
+        for (int strike = 24500; strike <= 25500; strike += 50) {
+            chain.addCallOption(option("CE", strike, random.nextInt(100_000), random.nextInt(5_000)));
+            chain.addPutOption(option("PE", strike, random.nextInt(100_000), random.nextInt(5_000)));
+        }
+        Map<String, Long> baseline = new HashMap<>();
+        allOptions(chain).forEach(c -> baseline.put(c.getInstrumentToken(), c.getOpenInterest().longValue()));
+
+        for (int poll = 0; poll < 20; poll++) {
+            chain.setTimestamp(Instant.parse("2026-10-18T05:00:00Z").plusSeconds(poll));
+            // A few contracts move on each later poll
+            for (int moved = 0; poll > 0 && moved < 3; moved++) {
+                List<DerivativeContract> side = random.nextBoolean() ? chain.getCallOptions() : chain.getPutOptions();
+                DerivativeContract contract = side.get(random.nextInt(side.size()));
+                contract.setOpenInterest(BigDecimal.valueOf(random.nextInt(100_000)));
+                contract.setVolume(contract.getVolume() + random.nextInt(500));
+            }
+            if (poll == 10) {
+                // The window moves up: lowest strike leaves the chain, a new one joins
+                chain.getCallOptions().remove(0);
+                chain.getPutOptions().remove(0);
+                chain.addCallOption(option("CE", 25550, 40_000, 100));
+                chain.addPutOption(option("PE", 25550, 1_000, 10));
+                baseline.put("CE25550", 40_000L);
+                baseline.put("PE25550", 1_000L);
+            }
+
+            assertThat(service.process(chain)).isTrue();
+            assertMatchesRecompute(chain, baseline);
+        }
+    }
+
+    private void assertMatchesRecompute(DerivativesChain chain, Map<String, Long> baseline) {
+        long callOi = sum(chain.getCallOptions(), true);
+        long putOi = sum(chain.getPutOptions(), true);
+        long callVolume = sum(chain.getCallOptions(), false);
+        long putVolume = sum(chain.getPutOptions(), false);
+        long baselineOi = allOptions(chain).mapToLong(c -> baseline.get(c.getInstrumentToken())).sum();
+
+        assertThat(stored.get("pcrOi")).isCloseTo((double) putOi / callOi, within(1e-12));
+        assertThat(stored.get("pcrVolume")).isCloseTo((double) putVolume / callVolume, within(1e-12));
+        assertThat(stored.get("oiChange")).isEqualTo((double) (callOi + putOi - baselineOi));
+        assertThat(stored.get("maxPain")).isEqualTo(bruteForceMaxPain(chain));
+    }
+
+    /**
+     * Strike with the lowest total payout to option holders, evaluated at every strike.
+     */
+    private static double bruteForceMaxPain(DerivativesChain chain) {
+        double best = Double.NaN;
+        double bestPayout = Double.MAX_VALUE;
+        List<Double> strikes = allOptions(chain).map(c -> c.getStrikePrice().doubleValue()).distinct().sorted().toList();
+        for (double settle : strikes) {
+            double payout = 0;
+            for (DerivativeContract c : chain.getCallOptions()) {
+                payout += c.getOpenInterest().doubleValue() * Math.max(0, settle - c.getStrikePrice().doubleValue());
+            }
+            for (DerivativeContract c : chain.getPutOptions()) {
+                payout += c.getOpenInterest().doubleValue() * Math.max(0, c.getStrikePrice().doubleValue() - settle);
+            }
+            if (payout < bestPayout) {
+                bestPayout = payout;
+                best = settle;
+            }
+        }
+        return best;
+    }
+
+    private static long sum(List<DerivativeContract> contracts, boolean oi) {
+        return contracts.stream().mapToLong(c -> oi ? c.getOpenInterest().longValue() : c.getVolume()).sum();
+    }
+
+    private static Stream<DerivativeContract> allOptions(DerivativesChain chain) {
+        return Stream.concat(chain.getCallOptions().stream(), chain.getPutOptions().stream());
+    }
+
+    private static DerivativeContract option(String type, int strike, long oi, long volume) {
+        DerivativeContract contract = new DerivativeContract();
+        contract.setInstrumentToken(type + strike);
+        contract.setInstrumentType(type);
+        contract.setStrikePrice(BigDecimal.valueOf(strike));
+        contract.setExpiryDate(EXPIRY);
+        contract.setOpenInterest(BigDecimal.valueOf(oi));
+        contract.setVolume(volume);
+        return contract;
+    }
+}
@@ -0,0 +1,124 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.config.DeploymentRole;
+import com.zerodha.dashboard.model.ChainTick;
+import com.zerodha.dashboard.model.DerivativeContract;
+import com.zerodha.dashboard.model.DerivativesChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ChainHistoryServiceTest {
+
+    private static final Instant SESSION_START = Instant.ofEpochSecond(1_700_000_000L);
+
+    private ChainHistoryService history;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        LeaderElectionService leaderElection = new LeaderElectionService(
+            mock(StringRedisTemplate.class), DeploymentRole.STANDALONE, mock(TaskScheduler.class));
+        history = new ChainHistoryService(mock(RedisTemplate.class), mock(RedisWriteBehindService.class), leaderElection,
+            new BinaryPayloadCodec(Jackson2ObjectMapperBuilder.json().build()));
+        ReflectionTestUtils.setField(history, "store", "memory");
+        ReflectionTestUtils.setField(history, "keyframeEvery", 3);
+        ReflectionTestUtils.setField(history, "maxEntries", 5L);
+    }
+
+    @Test
+    void appendsOnlyChangedContractsAndRebuildsFullStateFromKeyframe() throws Exception {
+        history.record(chainAt(0, "100.00", "200.00"));   // keyframe
+        history.record(chainAt(1, "100.50", "200.00"));   // CE changed
+        history.record(chainAt(2, "100.50", "199.00"));   // PE changed
+        history.record(chainAt(3, "100.50", "199.00"));   // keyframe (nothing changed)
+        history.record(chainAt(4, "101.00", "199.00"));   // CE changed
+
+        List<ChainTick> ticks = new ArrayList<>();
+        List<Integer> stateSizes = new ArrayList<>();
+        int visited = history.replay("NIFTY", SESSION_START.plusSeconds(2).toEpochMilli(),
+            SESSION_START.plusSeconds(4).toEpochMilli(), (tick, state, first) -> {
+                ticks.add(tick);
+                stateSizes.add(state.size());
+                if (first) {
+                    // Seeded from the keyframe at 0s plus the delta at 1s
+                    assertThat(state.get("CE").getLastPrice()).isEqualByComparingTo("100.50");
+                    assertThat(state.get("PE").getLastPrice()).isEqualByComparingTo("199.00");
+                }
+            });
+
+        assertThat(visited).isEqualTo(3);
+        assertThat(ticks).extracting(ChainTick::isKeyframe).containsExactly(false, true, false);
+        assertThat(ticks.get(0).getContracts()).extracting(DerivativeContract::getInstrumentToken).containsExactly("PE");
+        assertThat(ticks.get(2).getContracts()).extracting(DerivativeContract::getInstrumentToken).containsExactly("CE");
+        assertThat(stateSizes).containsOnly(2);
+    }
+
+    @Test
+    void trimsTheLogToMaxEntries() throws Exception {
+        for (int second = 0; second < 8; second++) {
+            history.record(chainAt(second, String.valueOf(100 + second), "200.00"));
+        }
+
+        List<Long> timestamps = new ArrayList<>();
+        history.replay("NIFTY", 0, Long.MAX_VALUE, (tick, state, first) -> timestamps.add(tick.getTimestampMillis()));
+
+        assertThat(timestamps).hasSize(5);
+        assertThat(timestamps.get(0)).isEqualTo(SESSION_START.plusSeconds(3).toEpochMilli());
+    }
+
+    @Test
+    void lostRedisAppendMakesTheNextTickAKeyframe() {
+        RedisWriteBehindService writeBehind = mock(RedisWriteBehindService.class);
+        LeaderElectionService leaderElection = new LeaderElectionService(
+            mock(StringRedisTemplate.class), DeploymentRole.STANDALONE, mock(TaskScheduler.class));
+        ChainHistoryService redisHistory = new ChainHistoryService(mock(RedisTemplate.class), writeBehind,
+            leaderElection, new BinaryPayloadCodec(Jackson2ObjectMapperBuilder.json().build()));
+        ReflectionTestUtils.setField(redisHistory, "keyframeEvery", 60);
+
+        redisHistory.record(chainAt(0, "100.00", "200.00"));   // keyframe
+        redisHistory.record(chainAt(1, "100.50", "200.00"));   // delta, rejected by Redis below
+        ArgumentCaptor<Runnable> onLost = ArgumentCaptor.forClass(Runnable.class);
+        verify(writeBehind, times(2)).submit(anyString(), any(RedisWriteBehindService.Write.class), onLost.capture());
+        onLost.getValue().run();
+        redisHistory.record(chainAt(2, "100.50", "199.00"));
+        redisHistory.record(chainAt(3, "101.00", "199.00"));
+
+        assertThat(redisHistory.getStats())
+            .containsEntry("appended", 4L)
+            .containsEntry("keyframes", 2L)
+            .containsEntry("failed", 1L);
+    }
+
+    private DerivativesChain chainAt(int second, String callPrice, String putPrice) {
+        DerivativesChain chain = new DerivativesChain("NIFTY", new BigDecimal("25000"));
+        chain.setTimestamp(SESSION_START.plusSeconds(second));
+        chain.setCallOptions(new ArrayList<>(List.of(contract("CE", callPrice))));
+        chain.setPutOptions(new ArrayList<>(List.of(contract("PE", putPrice))));
+        return chain;
+    }
+
+    private DerivativeContract contract(String token, String lastPrice) {
+        DerivativeContract contract = new DerivativeContract();
+        contract.setInstrumentToken(token);
+        contract.setLastPrice(new BigDecimal(lastPrice));
+        return contract;
+    }
+}
@@ -0,0 +1,79 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.model.DerivativeContract;
+import com.zerodha.dashboard.model.DerivativesChain;
+import com.zerodha.dashboard.model.MetricResult;
+import com.zerodha.dashboard.model.StrikeIndex;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChainPushServiceTest {
+
+    private final PushDeliveryService push = mock(PushDeliveryService.class);
+    private final LatestSnapshotCacheService snapshots = mock(LatestSnapshotCacheService.class);
+    private final ChainPushService chainPush = new ChainPushService(push, snapshots,
+        mock(MetricsCacheService.class), mock(MetricsStreamService.class));
+
+    @Test
+    void sendsOnlyChangedRowsAndMetricsOfContractsInRange() {
+        DerivativesChain chain = new DerivativesChain("NIFTY", BigDecimal.valueOf(25000));
+        for (int strike : new int[] {24900, 25000, 25100}) {
+            chain.addCallOption(option("CE", strike));
+            chain.addPutOption(option("PE", strike));
+        }
+        StrikeIndex index = StrikeIndex.of(chain);
+        when(snapshots.getStrikeIndex("NIFTY")).thenReturn(Optional.of(index));
+        when(push.open(anyString())).thenReturn(new PushDeliveryService.Client("chain:NIFTY", new SseEmitter(), 16));
+
+        chainPush.subscribe("NIFTY", BigDecimal.valueOf(24950), BigDecimal.valueOf(25100), List.of("ltp"),
+            Set.of("bidAskEaten", "trendScore"));
+        assertThat(offeredKeys()).containsExactly("chain", "row:25000", "row:25100");
+
+        // Same chain published again after one contract moved
+        clearInvocations(push);
+        chain.getCallOptions().get(1).setLastPrice(BigDecimal.valueOf(260));
+        chainPush.onChain(index);
+        assertThat(offeredKeys()).containsExactly("row:25000");
+
+        clearInvocations(push);
+        chainPush.onMetric(event("CE24900", "bidAskEaten"));
+        chainPush.onMetric(event("PE25100", "bidAskEaten"));
+        chainPush.onMetric(event("PE25100", "ltpMovement"));
+        chainPush.onMetric(event("NIFTY", "trendScore"));
+        assertThat(offeredKeys()).containsExactly("metric:PE25100:bidAskEaten", "metric:NIFTY:trendScore");
+    }
+
+    private List<String> offeredKeys() {
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        verify(push, atLeast(0)).offer(any(), keys.capture(), any());
+        return keys.getAllValues();
+    }
+
+    private static MetricsStreamService.StreamEvent event(String symbol, String feature) {
+        return new MetricsStreamService.StreamEvent(1, "final", new MetricResult(symbol, feature, 1.0));
+    }
+
+    private static DerivativeContract option(String type, int strike) {
+        DerivativeContract contract = new DerivativeContract();
+        contract.setInstrumentToken(type + strike);
+        contract.setInstrumentType(type);
+        contract.setStrikePrice(BigDecimal.valueOf(strike));
+        contract.setLastPrice(BigDecimal.valueOf(strike / 100));
+        return contract;
+    }
+}
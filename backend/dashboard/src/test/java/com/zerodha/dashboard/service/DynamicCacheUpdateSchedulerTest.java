@@ -0,0 +1,15 @@
+package com.zerodha.dashboard.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DynamicCacheUpdateSchedulerTest {
+
+    @Test
+    void parsesConfiguredUnderlyingsForRoundRobinPolling() {
+        assertThat(DynamicCacheUpdateScheduler.parseUnderlyings(" nifty,BANKNIFTY,,NIFTY , reliance"))
+            .containsExactly("NIFTY", "BANKNIFTY", "RELIANCE");
+        assertThat(DynamicCacheUpdateScheduler.parseUnderlyings("")).containsExactly("NIFTY");
+    }
+}
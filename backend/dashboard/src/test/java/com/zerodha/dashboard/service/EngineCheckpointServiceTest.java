@@ -0,0 +1,92 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.model.DerivativeContract;
+import com.zerodha.dashboard.model.DerivativesChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class EngineCheckpointServiceTest {
+
+    private static final Instant SESSION_START = Instant.ofEpochSecond(1_700_000_000L);
+
+    private final PayloadCodec codec = new BinaryPayloadCodec(Jackson2ObjectMapperBuilder.json().build());
+
+    @Test
+    void restoredEnginesContinueFromCheckpointedState() throws Exception {
+        Engines before = new Engines();
+        before.eaten.processApiPoll(contract("101", 500L, 400L), SESSION_START);
+        before.eaten.processApiPoll(contract("101", 450L, 300L), SESSION_START.plusSeconds(1));
+        // Next window: the first one completes, snapshot stays at bid=450 / ask=300
+        before.eaten.processApiPoll(contract("101", 450L, 300L), SESSION_START.plusSeconds(100));
+        for (int second = 0; second <= 6; second += 3) {
+            before.spot.calculateSpotLtpTrend(chainAt(second, 25000 + second * 5));
+        }
+        before.spot.calculateSpotLtpTrend(chainAt(10, 25030));
+
+        byte[] frame = before.checkpoints.encodeFrame(before.checkpoints.capture(), System.currentTimeMillis());
+
+        Engines after = new Engines();
+        assertThat(after.checkpoints.restore(frame, System.currentTimeMillis())).isTrue();
+
+        EatenDeltaService.WindowResult completed = after.eaten.getLastCompletedWindow("101");
+        assertThat(completed.askEaten).isEqualTo(100L);
+        assertThat(completed.bidEaten).isEqualTo(50L);
+        assertThat(after.spot.getTrendDirection("NIFTY")).isEqualTo(before.spot.getTrendDirection("NIFTY"));
+
+        // The restored snapshot is the baseline for the next poll
+        after.eaten.processApiPoll(contract("101", 450L, 250L), SESSION_START.plusSeconds(101));
+        after.eaten.processApiPoll(contract("101", 450L, 250L), SESSION_START.plusSeconds(200));
+        assertThat(after.eaten.getLastCompletedWindow("101").askEaten).isEqualTo(50L);
+    }
+
+    @Test
+    void ignoresStaleCheckpointsAndRejectsCorruptOnes() throws Exception {
+        Engines before = new Engines();
+        before.eaten.processApiPoll(contract("101", 500L, 400L), SESSION_START);
+        long savedAt = System.currentTimeMillis();
+        byte[] frame = before.checkpoints.encodeFrame(before.checkpoints.capture(), savedAt);
+
+        Engines after = new Engines();
+        assertThat(after.checkpoints.restore(frame, savedAt + 10 * 60_000L)).isFalse();
+
+        frame[frame.length - 1] ^= 0x5A;
+        assertThatThrownBy(() -> after.checkpoints.restore(frame, savedAt)).isInstanceOf(IOException.class);
+    }
+
+    private class Engines {
+        final EatenDeltaService eaten = new EatenDeltaService();
+        final LtpMovementService ltp = new LtpMovementService();
+        final WindowManager windowManager = new WindowManager();
+        final EventTimeMarketClock clock = new EventTimeMarketClock();
+        final TrendCalculationService trend = new TrendCalculationService(windowManager, clock);
+        final SpotLtpTrendService spot = new SpotLtpTrendService(windowManager, clock);
+        @SuppressWarnings("unchecked")
+        final EngineCheckpointService checkpoints = new EngineCheckpointService(eaten, ltp, trend, spot, codec,
+            mock(RedisTemplate.class), mock(RedisWriteBehindService.class), mock(TaskScheduler.class));
+    }
+
+    private DerivativeContract contract(String token, long bidQty, long askQty) {
+        DerivativeContract contract = new DerivativeContract();
+        contract.setInstrumentToken(token);
+        contract.setBidQuantity(bidQty);
+        contract.setAskQuantity(askQty);
+        contract.setLastPrice(new BigDecimal("120.50"));
+        return contract;
+    }
+
+    private DerivativesChain chainAt(int second, double spot) {
+        DerivativesChain chain = new DerivativesChain("NIFTY", BigDecimal.valueOf(spot));
+        chain.setTimestamp(SESSION_START.plusSeconds(second));
+        return chain;
+    }
+}
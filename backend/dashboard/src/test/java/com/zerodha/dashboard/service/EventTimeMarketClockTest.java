@@ -0,0 +1,48 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.model.DerivativesChain;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventTimeMarketClockTest {
+
+    private static final Instant SESSION_START = Instant.ofEpochSecond(1_700_000_000L);
+
+    @Test
+    void advancesWithChainTimestampsAndNeverMovesBackwards() {
+        EventTimeMarketClock clock = new EventTimeMarketClock();
+
+        assertThat(clock.now(chainAt(SESSION_START.plusSeconds(5), 25000))).isEqualTo(SESSION_START.plusSeconds(5));
+        assertThat(clock.now(chainAt(SESSION_START.plusSeconds(2), 25000))).isEqualTo(SESSION_START.plusSeconds(5));
+        assertThat(clock.now()).isEqualTo(SESSION_START.plusSeconds(5));
+
+        clock.reset();
+        assertThat(clock.now(chainAt(SESSION_START, 25000))).isEqualTo(SESSION_START);
+    }
+
+    @Test
+    void windowsCompleteAtEventPaceNotWallClockPace() {
+        SpotLtpTrendService service = new SpotLtpTrendService(new WindowManager(), new EventTimeMarketClock());
+
+        // A 10s window of rising spot prices, processed back-to-back in a few milliseconds
+        service.calculateSpotLtpTrend(chainAt(SESSION_START, 25000));
+        service.calculateSpotLtpTrend(chainAt(SESSION_START.plusSeconds(3), 25010));
+        service.calculateSpotLtpTrend(chainAt(SESSION_START.plusSeconds(6), 25020));
+        assertThat(service.getTrendDirection()).isEqualTo("NEUTRAL");
+
+        service.calculateSpotLtpTrend(chainAt(SESSION_START.plusSeconds(10), 25020));
+
+        assertThat(service.getTrendDirection()).isEqualTo("UP");
+        assertThat(service.getTrendPercent()).isGreaterThan(0.0);
+    }
+
+    private DerivativesChain chainAt(Instant timestamp, double spot) {
+        DerivativesChain chain = new DerivativesChain("NIFTY", BigDecimal.valueOf(spot));
+        chain.setTimestamp(timestamp);
+        return chain;
+    }
+}
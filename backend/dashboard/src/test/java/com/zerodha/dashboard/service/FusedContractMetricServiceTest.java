@@ -0,0 +1,98 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.model.ContractType;
+import com.zerodha.dashboard.model.DerivativeContract;
+import com.zerodha.dashboard.model.DerivativesChain;
+import com.zerodha.dashboard.service.impl.FusedContractMetricService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FusedContractMetricServiceTest {
+
+    @Test
+    void visitsEachContractOnceForEveryKernelWithTypeFromInstrumentType() {
+        RecordingKernel first = new RecordingKernel("first", false);
+        RecordingKernel second = new RecordingKernel("second", false);
+        FusedContractMetricService service = new FusedContractMetricService(List.of(first, second), new EventTimeMarketClock());
+
+        DerivativesChain chain = new DerivativesChain("BANKNIFTY", BigDecimal.valueOf(56000));
+        chain.setTimestamp(Instant.ofEpochSecond(1_700_000_000L));
+        // "CE"/"PE" inside the tradingsymbol must not drive classification
+        chain.getFutures().add(contract("1", "BANKNIFTY24DECFUT", "FUT"));
+        chain.getCallOptions().add(contract("2", "BANKNIFTY24DEC56000CE", "CE"));
+        chain.getPutOptions().add(contract("3", "BANKNIFTY24DEC56000PE", "PE"));
+
+        assertThat(service.process(chain)).isTrue();
+
+        for (RecordingKernel kernel : List.of(first, second)) {
+            assertThat(kernel.visits).containsExactly("1:FUTURES", "2:CALLS", "3:PUTS");
+            assertThat(kernel.begun).isEqualTo(1);
+            assertThat(kernel.ended).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void failingKernelDoesNotStopOtherKernels() {
+        RecordingKernel failing = new RecordingKernel("failing", true);
+        RecordingKernel healthy = new RecordingKernel("healthy", false);
+        FusedContractMetricService service = new FusedContractMetricService(List.of(failing, healthy), new EventTimeMarketClock());
+
+        DerivativesChain chain = new DerivativesChain("NIFTY", BigDecimal.valueOf(25000));
+        chain.getFutures().add(contract("1", "NIFTY24DECFUT", "FUT"));
+        chain.getCallOptions().add(contract("2", "NIFTY24DEC25000CE", "CE"));
+
+        assertThat(service.process(chain)).isTrue();
+        assertThat(healthy.visits).containsExactly("1:FUTURES", "2:CALLS");
+        assertThat(healthy.ended).isEqualTo(1);
+    }
+
+    private DerivativeContract contract(String token, String symbol, String instrumentType) {
+        DerivativeContract contract = new DerivativeContract();
+        contract.setInstrumentToken(token);
+        contract.setTradingsymbol(symbol);
+        contract.setInstrumentType(instrumentType);
+        return contract;
+    }
+
+    private static class RecordingKernel implements ContractMetricKernel {
+        private final String name;
+        private final boolean failOnVisit;
+        private final List<String> visits = new ArrayList<>();
+        private int begun;
+        private int ended;
+
+        RecordingKernel(String name, boolean failOnVisit) {
+            this.name = name;
+            this.failOnVisit = failOnVisit;
+        }
+
+        @Override
+        public void beginChain(DerivativesChain chain, Instant now) {
+            begun++;
+        }
+
+        @Override
+        public void visitContract(DerivativeContract contract, ContractType contractType, Instant now) {
+            if (failOnVisit) {
+                throw new IllegalStateException("boom");
+            }
+            visits.add(contract.getInstrumentToken() + ":" + contractType);
+        }
+
+        @Override
+        public void endChain(DerivativesChain chain, Instant now) {
+            ended++;
+        }
+
+        @Override
+        public String getKernelName() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.config.DeploymentRole;
+import io.lettuce.core.cluster.SlotHash;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LeaderElectionServiceTest {
+
+    private StringRedisTemplate redisTemplate;
+    private LeaderElectionService election;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        election = new LeaderElectionService(redisTemplate, DeploymentRole.STANDALONE, mock(TaskScheduler.class));
+        ReflectionTestUtils.setField(election, "enabled", true);
+        ReflectionTestUtils.setField(election, "leaseMs", 60_000L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void acquiresLeaseWithFencingTokenAndStepsDownWhenRenewalFails() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(LeaderElectionService.LEADER_KEY,
+            LeaderElectionService.FENCING_KEY)), any(Object[].class))).thenReturn(42L);
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(LeaderElectionService.LEADER_KEY)),
+            any(Object[].class))).thenReturn(1L, 0L);
+
+        assertThat(election.isLeader()).isFalse();
+        assertThat(election.writesAllowed()).isFalse();
+
+        election.tick();
+        assertThat(election.isLeader()).isTrue();
+        assertThat(election.currentFencingToken()).isEqualTo(42L);
+
+        election.tick(); // renewed
+        assertThat(election.isLeader()).isTrue();
+
+        election.tick(); // another instance owns the lease now
+        assertThat(election.isLeader()).isFalse();
+        assertThat(election.currentFencingToken()).isZero();
+        assertThat(election.writesAllowed()).isFalse();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void leaderStepsDownWhenLeaseRunsOutWithoutReachingRedis() {
+        ReflectionTestUtils.setField(election, "leaseMs", 0L);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(7L);
+
+        election.tick();
+
+        assertThat(election.isLeader()).isFalse();
+        assertThat(election.getStatus()).containsEntry("leader", false);
+    }
+
+    @Test
+    void everyPollingRoleLeadsWhenElectionIsDisabled() {
+        ReflectionTestUtils.setField(election, "enabled", false);
+        LeaderElectionService serve = new LeaderElectionService(redisTemplate, DeploymentRole.SERVE, mock(TaskScheduler.class));
+
+        assertThat(election.isLeader()).isTrue();
+        assertThat(election.writesAllowed()).isTrue();
+        assertThat(election.currentFencingToken()).isZero();
+        assertThat(serve.isLeader()).isFalse();
+        assertThat(serve.writesAllowed()).isTrue();
+    }
+
+    @Test
+    void leaseAndFencingKeysShareAClusterSlot() {
+        // The acquire script touches both keys in one EVAL
+        assertThat(SlotHash.getSlot(LeaderElectionService.LEADER_KEY))
+            .isEqualTo(SlotHash.getSlot(LeaderElectionService.FENCING_KEY));
+    }
+}
@@ -0,0 +1,52 @@
+package com.zerodha.dashboard.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoggingServiceTest {
+
+    @TempDir
+    Path logDir;
+
+    private final LoggingService loggingService = new LoggingService();
+
+    @AfterEach
+    void tearDown() {
+        loggingService.shutdown();
+    }
+
+    @Test
+    void queuesLinesForTheWriterAndDropsWhatDoesNotFit() throws Exception {
+        ReflectionTestUtils.setField(loggingService, "logDirectory", logDir.toString());
+        ReflectionTestUtils.setField(loggingService, "queueCapacity", 2);
+        // No writer thread: the test runs the writer's batch itself
+        assertThat(loggingService.open()).isTrue();
+
+        int accepted = loggingService.writeLogs(List.of(
+            Map.of("timestamp", "t1", "level", "warn", "message", "first", "url", "/chain"),
+            Map.of("timestamp", "t2", "message", "second"),
+            Map.of("timestamp", "t3", "message", "third")));
+
+        assertThat(accepted).isEqualTo(2);
+        assertThat(loggingService.getStats()).containsEntry("queued", 2).containsEntry("dropped", 1L);
+
+        loggingService.writePending();
+        try (Stream<Path> files = Files.list(logDir)) {
+            Path logFile = files.filter(path -> path.getFileName().toString().startsWith("frontend-")).findFirst().orElseThrow();
+            assertThat(Files.readAllLines(logFile)).containsExactly(
+                "t1 | WARN | first | URL: /chain",
+                "t2 | INFO | second");
+        }
+        assertThat(loggingService.getStats()).containsEntry("written", 2L).containsEntry("queued", 0);
+    }
+}
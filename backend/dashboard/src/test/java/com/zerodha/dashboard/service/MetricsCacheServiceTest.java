@@ -0,0 +1,107 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.model.MetricResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MetricsCacheServiceTest {
+
+    private final PayloadCodec codec = new BinaryPayloadCodec(Jackson2ObjectMapperBuilder.json().build());
+    private RedisTemplate<String, byte[]> redisTemplate;
+    private RedisWriteBehindService writeBehind;
+    private MetricsCacheService metricsCache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        writeBehind = mock(RedisWriteBehindService.class);
+        when(writeBehind.isRedisAvailable()).thenReturn(true);
+        metricsCache = new MetricsCacheService(redisTemplate, codec, writeBehind, mock(ReplicationPublisher.class));
+    }
+
+    @Test
+    void writesValueAndVersionIntoOneHashTaggedKey() {
+        metricsCache.storeFinalResult(result("256265", "ltpMovement"));
+
+        ArgumentCaptor<RedisWriteBehindService.Write> write = ArgumentCaptor.forClass(RedisWriteBehindService.Write.class);
+        verify(writeBehind).submit(eq("metrics:{256265}#ltpMovement"), write.capture());
+
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisScriptingCommands scripting = mock(RedisScriptingCommands.class);
+        when(connection.scriptingCommands()).thenReturn(scripting);
+        write.getValue().apply(connection);
+
+        ArgumentCaptor<byte[][]> keysAndArgs = ArgumentCaptor.forClass(byte[][].class);
+        verify(scripting).eval(any(byte[].class), eq(ReturnType.INTEGER), eq(1), keysAndArgs.capture());
+        assertThat(new String(keysAndArgs.getValue()[0], StandardCharsets.UTF_8)).isEqualTo("metrics:{256265}");
+        assertThat(new String(keysAndArgs.getValue()[1], StandardCharsets.UTF_8)).isEqualTo("ltpMovement");
+        assertThat(new String(keysAndArgs.getValue()[3], StandardCharsets.UTF_8)).isEqualTo("1");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void readsResultsAndVersionsBackFromTheSameHash() throws Exception {
+        HashOperations<String, Object, Object> hashes = mock(HashOperations.class);
+        when(redisTemplate.opsForHash()).thenReturn(hashes);
+        when(hashes.entries("metrics:{NIFTY}")).thenReturn(Map.of(
+            "trendScore", codec.encode(result("NIFTY", "trendScore")),
+            "#v:trendScore", "42".getBytes(StandardCharsets.UTF_8),
+            "#fence", "3".getBytes(StandardCharsets.UTF_8)));
+        when(hashes.get("metrics:{NIFTY}", "#v:trendScore")).thenReturn("42".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(metricsCache.getLatestResults("NIFTY", null)).containsOnlyKeys("trendScore");
+        assertThat(metricsCache.getVersion("NIFTY", "trendScore")).isEqualTo(42L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bulkReadServesTheMirrorAndPipelinesTheRestFromRedis() throws Exception {
+        metricsCache.storeFinalResult(result("101", "ltpMovement"));
+        metricsCache.storeFinalResult(result("101", "ltpMovement"));
+        metricsCache.storeFinalResult(result("101", "bidAskEaten"));
+        MetricResult stored = result("202", "bidAskEaten");
+        stored.setVersion(7L);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(
+            Map.of("bidAskEaten", codec.encode(stored), "#v:bidAskEaten", "7".getBytes(StandardCharsets.UTF_8)),
+            Map.of()));
+
+        Map<String, Map<String, MetricResult>> all = metricsCache.getLatestResults(List.of("101", "202", "303"), null, null);
+        assertThat(all).containsOnlyKeys("101", "202");
+        assertThat(all.get("101")).containsOnlyKeys("ltpMovement", "bidAskEaten");
+        assertThat(all.get("202").get("bidAskEaten").getVersion()).isEqualTo(7L);
+
+        Map<String, Map<String, MetricResult>> filtered =
+            metricsCache.getLatestResults(List.of("101", "202", "303"), Set.of("ltpMovement", "bidAskEaten"), 2L);
+        assertThat(filtered).containsOnlyKeys("101", "202");
+        assertThat(filtered.get("101")).containsOnlyKeys("ltpMovement");
+    }
+
+    private MetricResult result(String symbol, String feature) {
+        MetricResult result = new MetricResult();
+        result.setSymbol(symbol);
+        result.setFeature(feature);
+        result.setValue(1.5);
+        return result;
+    }
+}
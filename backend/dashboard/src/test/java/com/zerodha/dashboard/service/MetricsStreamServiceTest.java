@@ -0,0 +1,83 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.model.MetricResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MetricsStreamServiceTest {
+
+    private final MetricsCacheService metricsCache = mock(MetricsCacheService.class);
+    private final MetricsStreamService stream = new MetricsStreamService(metricsCache, mock(PushDeliveryService.class));
+
+    @Test
+    void sendsEachCompletedWindowOnceAndThrottlesPartials() {
+        stream.onResult(windowed("NIFTY", "trendScore", "final", "09:15:00", 1));
+        stream.onResult(windowed("NIFTY", "trendScore", "final", "09:15:00", 2)); // same window re-stored
+        stream.onResult(windowed("NIFTY", "trendScore", "partial", "09:15:30", 3));
+        stream.onResult(windowed("NIFTY", "trendScore", "partial", "09:15:30", 4)); // within the interval
+        stream.onResult(windowed("NIFTY", "trendScore", "final", "09:15:30", 5));
+        stream.onResult(perContract("256265", 10L, "09:15:00", 1));
+        stream.onResult(perContract("256265", 10L, "09:15:00", 2)); // same window polled again
+        stream.onResult(perContract("256265", 10L, "09:15:30", 3)); // next window, same values
+        stream.onResult(unwindowed("256265", 7));
+        stream.onResult(unwindowed("256265", 7)); // same version delivered twice
+        stream.onResult(unwindowed("256265", 8)); // recomputed, same value
+
+        assertThat(stream.getStats().get("lastEventId")).isEqualTo(7L);
+        List<MetricsStreamService.StreamEvent> all = stream.catchUp(subscription(Set.of("*"), true), 0L);
+        assertThat(all).extracting(event -> event.result.getVersion()).containsExactly(1L, 3L, 5L, 1L, 3L, 7L, 8L);
+        assertThat(all).extracting(event -> event.name).containsOnly("final", "partial");
+    }
+
+    @Test
+    void resumesFromLastEventIdOrFallsBackToCurrentFinals() {
+        stream.onResult(windowed("NIFTY", "trendScore", "final", "09:15:00", 1));
+        stream.onResult(windowed("BANKNIFTY", "trendScore", "final", "09:15:00", 1));
+        stream.onResult(windowed("NIFTY", "trendScore", "final", "09:15:30", 2));
+
+        MetricsStreamService.Subscription nifty = subscription(Set.of("NIFTY"), false);
+        assertThat(stream.catchUp(nifty, 1L)).extracting(event -> event.id).containsExactly(3L);
+
+        // Unknown or future ids cannot be resumed - send what is current instead
+        MetricResult current = windowed("NIFTY", "trendScore", "final", "09:15:30", 2);
+        when(metricsCache.getMirroredResults("NIFTY")).thenReturn(Map.of("trendScore", current));
+        assertThat(stream.catchUp(nifty, 99L)).extracting(event -> event.result).containsExactly(current);
+        assertThat(stream.catchUp(nifty, null)).extracting(event -> event.result).containsExactly(current);
+    }
+
+    private static MetricsStreamService.Subscription subscription(Set<String> symbols, boolean partials) {
+        return new MetricsStreamService.Subscription(
+            new PushDeliveryService.Client("metrics", new SseEmitter(), 16), symbols, null, partials);
+    }
+
+    private static MetricResult windowed(String symbol, String feature, String status, String windowEnd, long version) {
+        MetricResult result = new MetricResult(symbol, feature, 0.5);
+        result.setStatus(status);
+        result.setWindowEnd("2025-01-02T" + windowEnd + "Z");
+        result.setVersion(version);
+        return result;
+    }
+
+    private static MetricResult perContract(String token, long bidEaten, String windowEnd, long version) {
+        MetricResult result = new MetricResult(token, "bidAskEaten", null);
+        result.setBidEaten(bidEaten);
+        result.setAskEaten(4L);
+        result.setWindowEnd("2025-01-02T" + windowEnd + "Z");
+        result.setVersion(version);
+        return result;
+    }
+
+    private static MetricResult unwindowed(String token, long version) {
+        MetricResult result = new MetricResult(token, "greeks", 0.18);
+        result.setVersion(version);
+        return result;
+    }
+}
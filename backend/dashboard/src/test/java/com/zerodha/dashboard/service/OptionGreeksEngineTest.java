@@ -0,0 +1,124 @@
+package com.zerodha.dashboard.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class OptionGreeksEngineTest {
+
+    private static final double RATE = 0.065;
+    private static final double DIVIDEND = 0.0;
+    private static final double T = 7.0 / 365.0;
+
+    @Test
+    void pricesMatchTextbookValuesAndSolverRecoversVolatilityAcrossChain() {
+        // Hull: S=100, K=100, T=1, r=5%, vol=20%
+        assertThat(OptionGreeksEngine.price(true, 100, 100, 1, 0.2, 0.05, 0)).isCloseTo(10.4506, within(1e-4));
+        assertThat(OptionGreeksEngine.price(false, 100, 100, 1, 0.2, 0.05, 0)).isCloseTo(5.5735, within(1e-4));
+
+        double spot = 24000;
+        OptionGreeksEngine.Batch batch = chain(spot);
+        OptionGreeksEngine.compute(batch, spot, RATE, DIVIDEND);
+
+        int half = batch.size() / 2;
+        for (int i = 0; i < batch.size(); i++) {
+            if (timeValue(batch, i, spot) < 0.05) {
+                continue; // below one tick of time value there is no volatility to recover
+            }
+            assertThat(batch.iv[i]).isCloseTo(smile(batch.strike[i], spot), within(1e-5));
+        }
+        // Same strike and vol: call delta - put delta = 1, gammas and vegas equal
+        int atm = 100;
+        assertThat(batch.delta[atm] - batch.delta[half + atm]).isCloseTo(1.0, within(1e-9));
+        assertThat(batch.gamma[atm]).isCloseTo(batch.gamma[half + atm], within(1e-12));
+        assertThat(batch.vega[atm]).isCloseTo(batch.vega[half + atm], within(1e-9));
+        assertThat(batch.theta[atm]).isNegative();
+    }
+
+    @Test
+    void warmStartFromPreviousIvConvergesInFewerIterations() {
+        double spot = 24000;
+        OptionGreeksEngine.Batch batch = chain(spot);
+        OptionGreeksEngine.compute(batch, spot, RATE, DIVIDEND);
+        int cold = totalIterations(batch);
+
+        // Next poll: spot moves 10 points, prices follow; iv still holds the last solution
+        double moved = spot + 10;
+        for (int i = 0; i < batch.size(); i++) {
+            batch.price[i] = OptionGreeksEngine.price(batch.call[i], moved, batch.strike[i], T,
+                smile(batch.strike[i], spot), RATE, DIVIDEND);
+        }
+        OptionGreeksEngine.compute(batch, moved, RATE, DIVIDEND);
+
+        assertThat(totalIterations(batch)).isLessThan(cold / 2);
+        for (int i = 0; i < batch.size(); i++) {
+            if (timeValue(batch, i, moved) >= 0.05) {
+                assertThat(batch.iterations[i]).isLessThanOrEqualTo(4);
+            }
+        }
+    }
+
+    @Test
+    void priceOutsideNoArbitrageBoundsHasNoVolatility() {
+        OptionGreeksEngine.Batch batch = new OptionGreeksEngine.Batch();
+        batch.resize(2);
+        batch.call[0] = true;
+        batch.strike[0] = 23000;
+        batch.timeYears[0] = T;
+        batch.price[0] = 900; // below intrinsic of ~1029
+        batch.iv[0] = Double.NaN;
+        batch.call[1] = false;
+        batch.strike[1] = 24000;
+        batch.timeYears[1] = 0; // expired
+        batch.price[1] = 10;
+        batch.iv[1] = 0.2;
+
+        OptionGreeksEngine.compute(batch, 24000, RATE, DIVIDEND);
+
+        assertThat(batch.iv[0]).isNaN();
+        assertThat(batch.delta[0]).isNaN();
+        assertThat(batch.iv[1]).isNaN();
+    }
+
+    /**
+     * ±100 strikes around spot, calls first then puts, priced off a volatility smile.
+     */
+    private static OptionGreeksEngine.Batch chain(double spot) {
+        int strikes = 201;
+        OptionGreeksEngine.Batch batch = new OptionGreeksEngine.Batch();
+        batch.resize(strikes * 2);
+        for (int s = 0; s < strikes; s++) {
+            double strike = spot + (s - 100) * 50;
+            for (int side = 0; side < 2; side++) {
+                int i = side * strikes + s;
+                batch.call[i] = side == 0;
+                batch.strike[i] = strike;
+                batch.timeYears[i] = T;
+                batch.price[i] = OptionGreeksEngine.price(side == 0, spot, strike, T, smile(strike, spot), RATE, DIVIDEND);
+                batch.iv[i] = Double.NaN;
+            }
+        }
+        return batch;
+    }
+
+    private static double smile(double strike, double spot) {
+        double m = Math.log(strike / spot);
+        return 0.13 + 0.9 * m * m - 0.05 * m;
+    }
+
+    private static double timeValue(OptionGreeksEngine.Batch batch, int i, double spot) {
+        // Above the no-arbitrage lower bound (intrinsic value against the discounted strike)
+        double discountedStrike = batch.strike[i] * Math.exp(-RATE * batch.timeYears[i]);
+        double intrinsic = batch.call[i] ? spot - discountedStrike : discountedStrike - spot;
+        return batch.price[i] - Math.max(0, intrinsic);
+    }
+
+    private static int totalIterations(OptionGreeksEngine.Batch batch) {
+        int total = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            total += batch.iterations[i];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,117 @@
+package com.zerodha.dashboard.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class PushDeliveryServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch sending = new CountDownLatch(1);
+    private PushDeliveryService push;
+
+    @BeforeEach
+    void setUp() {
+        push = new PushDeliveryService(mock(TaskScheduler.class));
+        ReflectionTestUtils.setField(push, "mailboxCapacity", 2);
+        push.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        push.shutdown();
+    }
+
+    @Test
+    void mailboxKeepsTheLatestMessagePerKeyInOfferOrder() {
+        ConflatingMailbox<String> mailbox = new ConflatingMailbox<>(2);
+
+        assertThat(mailbox.offer("a", "a1", 100)).isEqualTo(ConflatingMailbox.Offer.ADDED);
+        assertThat(mailbox.offer("b", "b1", 150)).isEqualTo(ConflatingMailbox.Offer.ADDED);
+        assertThat(mailbox.offer("a", "a2", 200)).isEqualTo(ConflatingMailbox.Offer.CONFLATED);
+        assertThat(mailbox.offer("c", "c1", 250)).isEqualTo(ConflatingMailbox.Offer.FULL);
+        assertThat(mailbox.lag(1_100)).isEqualTo(1_000);
+
+        assertThat(mailbox.drain()).containsExactly("b1", "a2");
+        assertThat(mailbox.lag(1_100)).isZero();
+    }
+
+    @Test
+    void dropsClientsThatFillTheirMailboxOrStayBehind() throws Exception {
+        PushDeliveryService.Client stuck = push.open("test", blockingEmitter());
+        push.offer(stuck, "first", message("1"));
+        assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // The write is stuck - further updates wait in the mailbox, one per key
+        push.offer(stuck, "row:25000", message("2"));
+        push.offer(stuck, "row:25000", message("3"));
+        push.offer(stuck, "row:25100", message("4"));
+        assertThat(stuck.isClosed()).isFalse();
+        assertThat(push.getStats().get("conflated")).isEqualTo(1L);
+
+        push.offer(stuck, "row:25200", message("5"));
+        assertThat(stuck.isClosed()).isTrue();
+
+        PushDeliveryService.Client slow = push.open("test", blockingEmitter());
+        push.offer(slow, "first", message("6"));
+        push.checkClients(System.currentTimeMillis());
+        assertThat(slow.isClosed()).isFalse();
+        push.checkClients(System.currentTimeMillis() + 60_000);
+        assertThat(slow.isClosed()).isTrue();
+
+        assertThat(push.getStats().get("dropped")).isEqualTo(2L);
+        assertThat(push.getStats().get("clients")).isEqualTo(0);
+        assertThat(push.getStats().get("pending")).isEqualTo(0);
+    }
+
+    @Test
+    void clientsStuckInASendDoNotHoldUpOtherClients() throws Exception {
+        // More stuck clients than a small fixed pool would have threads
+        for (int i = 0; i < 16; i++) {
+            PushDeliveryService.Client stuck = push.open("test", blockingEmitter());
+            push.offer(stuck, "first", message("stuck-" + i));
+        }
+        assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CountDownLatch received = new CountDownLatch(2);
+        PushDeliveryService.Client healthy = push.open("test", new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                received.countDown();
+            }
+        });
+        push.offer(healthy, "row:25000", message("1"));
+        push.offer(healthy, "row:25100", message("2"));
+
+        assertThat(received.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(healthy.isClosed()).isFalse();
+    }
+
+    private SseEmitter blockingEmitter() {
+        return new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                sending.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+
+    private static PushDeliveryService.Message message(String id) {
+        return new PushDeliveryService.Message(id, "test", id);
+    }
+}
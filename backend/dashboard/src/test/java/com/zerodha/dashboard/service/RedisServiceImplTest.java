@@ -0,0 +1,97 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.model.TickSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RedisServiceImplTest {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    private final PayloadCodec codec = new BinaryPayloadCodec(Jackson2ObjectMapperBuilder.json().build());
+    private RedisTemplate<String, byte[]> redisTemplate;
+    private RedisWriteBehindService writeBehind;
+    private RedisServiceImpl redisService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        writeBehind = mock(RedisWriteBehindService.class);
+        redisService = new RedisServiceImpl(redisTemplate, codec, writeBehind, TTL, "zerodha:snapshot:");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void savesAllSnapshotsInOnePipelineWithExpiry() {
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            invocation.getArgument(0, RedisCallback.class).doInRedis(connection);
+            return List.of();
+        });
+
+        int saved = redisService.saveSnapshots(List.of(snapshot("101", "120.50"), snapshot("102", "98.25")));
+
+        assertThat(saved).isEqualTo(2);
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        verify(stringCommands).set(eq("zerodha:snapshot:101".getBytes(StandardCharsets.UTF_8)), any(byte[].class),
+            eq(Expiration.from(TTL)), eq(RedisStringCommands.SetOption.upsert()));
+        verify(stringCommands).set(eq("zerodha:snapshot:102".getBytes(StandardCharsets.UTF_8)), any(byte[].class),
+            eq(Expiration.from(TTL)), eq(RedisStringCommands.SetOption.upsert()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fetchesSnapshotsWithOneMultiGetAndSkipsMisses() throws Exception {
+        ValueOperations<String, byte[]> values = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        when(values.multiGet(List.of("zerodha:snapshot:101", "zerodha:snapshot:999", "zerodha:snapshot:102")))
+            .thenReturn(Arrays.asList(codec.encode(snapshot("101", "120.50")), null, codec.encode(snapshot("102", "98.25"))));
+
+        Map<String, TickSnapshot> snapshots = redisService.getSnapshots(List.of("101", "999", "102"));
+
+        assertThat(snapshots).containsOnlyKeys("101", "102");
+        assertThat(snapshots.get("102").getLastPrice()).isEqualByComparingTo("98.25");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void queuesAPollsSnapshotsAsOneWriteBehindEntry() {
+        redisService.saveSnapshotsAsync("NIFTY", List.of(snapshot("101", "120.50"), snapshot("102", "98.25")));
+
+        ArgumentCaptor<Map<String, byte[]>> values = ArgumentCaptor.forClass(Map.class);
+        verify(writeBehind).submitValues(eq("snapshots:NIFTY"), values.capture(), eq(TTL));
+        assertThat(values.getValue()).containsOnlyKeys("zerodha:snapshot:101", "zerodha:snapshot:102");
+    }
+
+    private TickSnapshot snapshot(String token, String lastPrice) {
+        return new TickSnapshot(token, "NIFTY25DEC" + token, new BigDecimal(lastPrice), 1000L, "CALL_OPTIONS",
+            Instant.ofEpochSecond(1_700_000_000L));
+    }
+}
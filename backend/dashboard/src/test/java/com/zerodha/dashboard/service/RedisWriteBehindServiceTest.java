@@ -0,0 +1,157 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.config.DeploymentRole;
+import io.lettuce.core.cluster.SlotHash;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RedisWriteBehindServiceTest {
+
+    private RedisTemplate<String, byte[]> redisTemplate;
+    private RedisWriteBehindService writeBehind;
+    private final List<String> applied = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        // Election disabled: standalone leader, unfenced writes
+        LeaderElectionService leaderElection = new LeaderElectionService(
+            mock(StringRedisTemplate.class), DeploymentRole.STANDALONE, mock(TaskScheduler.class));
+        writeBehind = new RedisWriteBehindService(redisTemplate, leaderElection);
+        // No writer thread - flushes are driven by the test
+        ReflectionTestUtils.setField(writeBehind, "capacity", 2);
+        ReflectionTestUtils.setField(writeBehind, "keys", new LinkedBlockingQueue<String>(2));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void coalescesPendingWritesPerKeyAndFlushesInOnePipeline() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            RedisCallback<Object> callback = invocation.getArgument(0);
+            callback.doInRedis(mock(RedisConnection.class));
+            return List.of();
+        });
+
+        writeBehind.submit("zerodha:latest:NIFTY", connection -> applied.add("nifty-1"));
+        writeBehind.submit("zerodha:latest:NIFTY", connection -> applied.add("nifty-2"));
+        writeBehind.submit("zerodha:latest:BANKNIFTY", connection -> applied.add("banknifty-1"));
+
+        assertThat(writeBehind.flushPending(10)).isTrue();
+        assertThat(applied).containsExactly("nifty-2", "banknifty-1");
+        assertThat(writeBehind.getStats())
+            .containsEntry("coalesced", 1L)
+            .containsEntry("flushedWrites", 2L)
+            .containsEntry("pendingKeys", 0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void keepsWritesAndReportsDegradedWhileRedisIsDown() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+            .thenThrow(new RedisConnectionFailureException("connection refused"))
+            .thenReturn(List.of());
+
+        writeBehind.submit("zerodha:basic:NIFTY", connection -> applied.add("basic"));
+
+        assertThat(writeBehind.flushPending(10)).isFalse();
+        assertThat(writeBehind.isRedisAvailable()).isFalse();
+        assertThat(writeBehind.getPendingCount()).isEqualTo(1);
+
+        assertThat(writeBehind.flushPending(10)).isTrue();
+        assertThat(writeBehind.isRedisAvailable()).isTrue();
+        assertThat(writeBehind.getPendingCount()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void doesNotRetryCommandsRedisRejected() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenThrow(new RedisPipelineException(
+            "Pipeline contained one or more invalid commands",
+            List.of("OK", new IllegalStateException("ERR The ID specified in XADD is equal or smaller"))));
+
+        writeBehind.submit("zerodha:latest:NIFTY", connection -> applied.add("latest"));
+        writeBehind.submit("zerodha:history:NIFTY#1", connection -> applied.add("history"),
+            () -> applied.add("history lost"));
+
+        assertThat(writeBehind.flushPending(10)).isTrue();
+        assertThat(writeBehind.isRedisAvailable()).isTrue();
+        assertThat(writeBehind.getPendingCount()).isZero();
+        assertThat(writeBehind.getStats()).containsEntry("rejectedWrites", 1L);
+        // The writer that asked to know is told its write may not have been stored
+        assertThat(applied).containsExactly("history lost");
+    }
+
+    @Test
+    void dropsWritesForNewKeysWhenQueueIsFull() {
+        writeBehind.submit("a", connection -> applied.add("a"));
+        writeBehind.submit("b", connection -> applied.add("b"));
+        writeBehind.submit("c", connection -> applied.add("c"));
+
+        assertThat(writeBehind.getPendingCount()).isEqualTo(2);
+        assertThat(writeBehind.getStats()).containsEntry("dropped", 1L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void groupOfValuesTakesOneQueueSlotAndIsReplacedWhole() {
+        RedisConnection connection = mock(RedisConnection.class, RETURNS_DEEP_STUBS);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection);
+            return List.of();
+        });
+        Map<String, byte[]> poll = new LinkedHashMap<>();
+        for (int token = 0; token < 600; token++) {
+            poll.put("zerodha:snapshot:" + token, new byte[] {1});
+        }
+
+        writeBehind.submitValues("snapshots:NIFTY", poll, Duration.ofSeconds(60));
+        poll.replaceAll((key, value) -> new byte[] {2});
+        writeBehind.submitValues("snapshots:NIFTY", poll, Duration.ofSeconds(60));
+        // The 600 ticks left room in the 2-key queue for other keys
+        writeBehind.submit("zerodha:latest:NIFTY", c -> applied.add("latest"));
+
+        assertThat(writeBehind.getPendingCount()).isEqualTo(2);
+        assertThat(writeBehind.flushPending(10)).isTrue();
+        assertThat(applied).containsExactly("latest");
+        verify(connection.stringCommands(), times(600)).set(any(byte[].class), eq(new byte[] {2}),
+            any(Expiration.class), any(RedisStringCommands.SetOption.class));
+        verify(connection.stringCommands(), never()).set(any(byte[].class), eq(new byte[] {1}),
+            any(Expiration.class), any(RedisStringCommands.SetOption.class));
+    }
+
+    @Test
+    void fenceKeyIsInTheSameClusterSlotAsItsValue() {
+        for (String key : List.of("zerodha:latest:NIFTY", "zerodha:snapshot:101", "metrics:{NIFTY}", "x{y")) {
+            assertThat(SlotHash.getSlot(RedisWriteBehindService.fenceKey(key))).as(key).isEqualTo(SlotHash.getSlot(key));
+        }
+        assertThat(RedisWriteBehindService.fenceKey("zerodha:latest:NIFTY")).isEqualTo("{zerodha:latest:NIFTY}#fence");
+    }
+}
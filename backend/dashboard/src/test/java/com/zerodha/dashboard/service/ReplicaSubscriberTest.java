@@ -0,0 +1,79 @@
+package com.zerodha.dashboard.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zerodha.dashboard.config.DeploymentRole;
+import com.zerodha.dashboard.model.DerivativesChain;
+import com.zerodha.dashboard.model.MetricResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ReplicaSubscriberTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final PayloadCodec codec = new BinaryPayloadCodec(objectMapper);
+
+    private LatestSnapshotCacheService latestCache;
+    private BasicValuesCacheService basicCache;
+    private MetricsCacheService metricsCache;
+    private ReplicaSubscriber subscriber;
+
+    @BeforeEach
+    void setUp() {
+        latestCache = mock(LatestSnapshotCacheService.class);
+        basicCache = mock(BasicValuesCacheService.class);
+        metricsCache = mock(MetricsCacheService.class);
+        subscriber = new ReplicaSubscriber(DeploymentRole.SERVE, mock(RedisConnectionFactory.class), codec,
+            latestCache, basicCache, metricsCache,
+            new LeaderElectionService(mock(StringRedisTemplate.class), DeploymentRole.SERVE, mock(TaskScheduler.class)));
+    }
+
+    @Test
+    void appliesPublishedFramesToInMemoryCaches() throws Exception {
+        DerivativesChain chain = new DerivativesChain("BANKNIFTY", new BigDecimal("56012.40"));
+        MetricResult result = new MetricResult();
+        result.setSymbol("NIFTY");
+        result.setFeature("trendScore");
+        result.setVersion(7L);
+
+        subscriber.handle(frame(ReplicationMessage.Type.LATEST, "BANKNIFTY", 10, codec.encode(chain)));
+        subscriber.handle(frame(ReplicationMessage.Type.METRIC, "NIFTY:trendScore", 11, codec.encode(result)));
+
+        ArgumentCaptor<DerivativesChain> replicated = ArgumentCaptor.forClass(DerivativesChain.class);
+        verify(latestCache).applyReplica(replicated.capture());
+        assertThat(replicated.getValue().getUnderlying()).isEqualTo("BANKNIFTY");
+        assertThat(replicated.getValue().getSpotPrice()).isEqualByComparingTo("56012.40");
+        verify(metricsCache).applyReplica(any(MetricResult.class));
+        verify(basicCache, never()).applyReplica(any());
+    }
+
+    @Test
+    void ignoresOlderFramesForTheSameStream() throws Exception {
+        byte[] payload = codec.encode(new DerivativesChain("NIFTY", new BigDecimal("25000")));
+
+        subscriber.handle(frame(ReplicationMessage.Type.BASIC, "NIFTY", 20, payload));
+        subscriber.handle(frame(ReplicationMessage.Type.BASIC, "NIFTY", 19, payload));
+        subscriber.handle(frame(ReplicationMessage.Type.LATEST, "NIFTY", 19, payload));
+
+        verify(basicCache, times(1)).applyReplica(any());
+        verify(latestCache, times(1)).applyReplica(any());
+        assertThat(subscriber.getStats()).containsEntry("stale", 1L).containsEntry("applied", 2L);
+    }
+
+    private byte[] frame(ReplicationMessage.Type type, String key, long sequence, byte[] payload) {
+        return new ReplicationMessage(type, key, sequence, System.currentTimeMillis(), payload).toBytes();
+    }
+}
@@ -0,0 +1,64 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.config.DeploymentRole;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicationPublisherTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void finalIsSentEvenWhenTheNextPartialFollowsBeforeTheFlush() throws Exception {
+        RedisTemplate<String, byte[]> redisTemplate = mock(RedisTemplate.class);
+        LeaderElectionService leaderElection = new LeaderElectionService(
+            mock(StringRedisTemplate.class), DeploymentRole.INGEST, mock(TaskScheduler.class));
+        RedisWriteBehindService writeBehind = new RedisWriteBehindService(redisTemplate, leaderElection);
+        // No writer thread - the flush below stands in for a slow one
+        ReflectionTestUtils.setField(writeBehind, "keys", new LinkedBlockingQueue<String>(16));
+        ReplicationPublisher publisher = new ReplicationPublisher(DeploymentRole.INGEST, writeBehind,
+            mock(PayloadCodec.class), leaderElection);
+
+        List<ReplicationMessage> sent = new ArrayList<>();
+        RedisConnection connection = mock(RedisConnection.class);
+        doAnswer(invocation -> {
+            sent.add(ReplicationMessage.fromBytes(invocation.getArgument(1)));
+            return 1L;
+        }).when(connection).publish(any(byte[].class), any(byte[].class));
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection);
+            return List.of();
+        });
+
+        // Window closes (final), the next poll starts the next window (partials)
+        publisher.publishFinal(ReplicationMessage.Type.METRIC, "NIFTY:trendScore", 7, bytes("final-7"));
+        publisher.publish(ReplicationMessage.Type.METRIC, "NIFTY:trendScore", bytes("partial-1"));
+        publisher.publish(ReplicationMessage.Type.METRIC, "NIFTY:trendScore", bytes("partial-2"));
+        publisher.publishFinal(ReplicationMessage.Type.METRIC, "NIFTY:trendScore", 8, bytes("final-8"));
+        assertThat(writeBehind.flushPending(16)).isTrue();
+
+        assertThat(sent).extracting(message -> new String(message.getPayload(), StandardCharsets.UTF_8))
+            .containsExactly("final-7", "partial-2", "final-8");
+        assertThat(sent).extracting(ReplicationMessage::getKey)
+            .containsExactly("NIFTY:trendScore#final", "NIFTY:trendScore", "NIFTY:trendScore#final");
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,83 @@
+package com.zerodha.dashboard.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zerodha.dashboard.model.DerivativeContract;
+import com.zerodha.dashboard.model.DerivativesChain;
+import org.junit.jupiter.api.Test;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseEncodingServiceTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ResponseEncodingService service = new ResponseEncodingService(objectMapper);
+
+    @Test
+    void columnarChainHasOneArrayPerFieldAndIsMuchSmaller() throws Exception {
+        DerivativesChain chain = chainWithStrikes(200);
+
+        byte[] columnar = service.encode("latest:NIFTY", 1L, chain, ResponseEncodingService.Format.COLUMNAR);
+        JsonNode root = objectMapper.readTree(columnar);
+
+        assertThat(root.get("underlying").asText()).isEqualTo("NIFTY");
+        JsonNode calls = root.get("callOptions");
+        assertThat(calls.get("count").asInt()).isEqualTo(200);
+        assertThat(calls.get("strikePrice").get(3).decimalValue()).isEqualByComparingTo("24150");
+        assertThat(calls.get("lastPrice").get(7).decimalValue()).isEqualByComparingTo("107.35");
+        assertThat(root.get("futures").isArray()).isTrue();
+        assertThat(columnar.length).isLessThan(objectMapper.writeValueAsBytes(chain).length / 2);
+    }
+
+    @Test
+    void encodingsAreReusedUntilTheVersionChanges() throws Exception {
+        DerivativesChain chain = chainWithStrikes(10);
+
+        byte[] first = service.encode("basic:NIFTY", 5L, chain, ResponseEncodingService.Format.COLUMNAR);
+        assertThat(service.encode("basic:NIFTY", 5L, chain, ResponseEncodingService.Format.COLUMNAR)).isSameAs(first);
+        assertThat(service.encode("basic:NIFTY", 6L, chain, ResponseEncodingService.Format.COLUMNAR)).isNotSameAs(first);
+        assertThat(service.encode("basic:NIFTY", null, chain, ResponseEncodingService.Format.COLUMNAR)).isNotSameAs(first);
+        assertThat(service.getStats().get("hits")).isEqualTo(1L);
+    }
+
+    @Test
+    void msgpackDecodesToTheJsonDocument() throws Exception {
+        DerivativesChain chain = chainWithStrikes(50);
+
+        byte[] msgpack = service.encode("latest:NIFTY", 1L, chain, ResponseEncodingService.Format.MSGPACK);
+        JsonNode decoded = new ObjectMapper(new MessagePackFactory()).readTree(msgpack);
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsBytes(chain));
+
+        assertThat(decoded.get("underlying").asText()).isEqualTo("NIFTY");
+        assertThat(decoded.get("timestamp").decimalValue()).isEqualByComparingTo(json.get("timestamp").decimalValue());
+        assertThat(decoded.get("spotPrice").decimalValue()).isEqualByComparingTo("25012.45");
+        JsonNode call = decoded.get("callOptions").get(7);
+        assertThat(call.get("tradingsymbol").asText()).isEqualTo("NIFTY25JAN24350CE");
+        assertThat(call.get("lastPrice").decimalValue()).isEqualByComparingTo("107.35");
+        assertThat(call.get("bidQuantity").asLong()).isEqualTo(525L);
+        assertThat(msgpack.length).isLessThan(objectMapper.writeValueAsBytes(chain).length);
+    }
+
+    private static DerivativesChain chainWithStrikes(int strikes) {
+        DerivativesChain chain = new DerivativesChain("NIFTY", new BigDecimal("25012.45"));
+        chain.setTimestamp(Instant.parse("2025-01-02T09:15:00Z"));
+        for (int i = 0; i < strikes; i++) {
+            DerivativeContract call = new DerivativeContract();
+            call.setInstrumentToken(String.valueOf(1000 + i));
+            call.setTradingsymbol("NIFTY25JAN" + (24000 + i * 50) + "CE");
+            call.setSegment("NFO-OPT");
+            call.setInstrumentType("CE");
+            call.setStrikePrice(BigDecimal.valueOf(24000 + i * 50L));
+            call.setLastPrice(new BigDecimal("100.35").add(BigDecimal.valueOf(i)));
+            call.setBidQuantity(75L * i);
+            call.setAskQuantity(50L * i);
+            chain.addCallOption(call);
+        }
+        return chain;
+    }
+}
@@ -0,0 +1,38 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.model.DerivativesChain;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpotLtpTrendServiceTest {
+
+    private static final Instant SESSION_START = Instant.ofEpochSecond(1_700_000_000L);
+
+    @Test
+    void keepsSeparateTrendStatePerUnderlying() {
+        SpotLtpTrendService service = new SpotLtpTrendService(new WindowManager(), new EventTimeMarketClock());
+
+        // Interleaved polls: NIFTY rises while BANKNIFTY falls within the same 10s window
+        for (int second = 0; second <= 6; second += 3) {
+            service.calculateSpotLtpTrend(chainAt("NIFTY", second, 25000 + second * 5));
+            service.calculateSpotLtpTrend(chainAt("BANKNIFTY", second, 56000 - second * 20));
+        }
+        service.calculateSpotLtpTrend(chainAt("NIFTY", 10, 25030));
+        service.calculateSpotLtpTrend(chainAt("BANKNIFTY", 10, 55880));
+
+        assertThat(service.getTrendDirection("NIFTY")).isEqualTo("UP");
+        assertThat(service.getTrendDirection("BANKNIFTY")).isEqualTo("DOWN");
+        assertThat(service.getTrendPercent("BANKNIFTY")).isLessThan(0.0);
+        assertThat(service.getTrendDirection("FINNIFTY")).isEqualTo("NEUTRAL");
+    }
+
+    private DerivativesChain chainAt(String underlying, int second, double spot) {
+        DerivativesChain chain = new DerivativesChain(underlying, BigDecimal.valueOf(spot));
+        chain.setTimestamp(SESSION_START.plusSeconds(second));
+        return chain;
+    }
+}
@@ -0,0 +1,94 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.model.DerivativeContract;
+import com.zerodha.dashboard.model.DerivativesChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SyntheticMarketGeneratorTest {
+
+    private static final Instant START = Instant.parse("2025-01-06T04:00:00Z");
+
+    private SyntheticMarketGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        generator = newGenerator();
+    }
+
+    @Test
+    void buildsLargeMultiUnderlyingChains() {
+        // 4 underlyings x (3 futures + 3 expiries x 101 strikes x 2)
+        assertThat(generator.getUnderlyings()).containsExactly("NIFTY", "BANKNIFTY", "FINNIFTY", "MIDCPNIFTY");
+        assertThat(generator.getContractCount()).isEqualTo(4 * (3 + 3 * 101 * 2));
+
+        DerivativesChain chain = generator.nextChain("BANKNIFTY", START);
+        assertThat(chain.getFutures()).hasSize(3);
+        assertThat(chain.getCallOptions()).hasSize(303);
+        assertThat(chain.getPutOptions()).hasSize(303);
+        assertThat(chain.getCallOptions()).allSatisfy(c -> {
+            assertThat(c.getUnderlying()).isEqualTo("BANKNIFTY");
+            assertThat(c.getBid()).isLessThan(c.getAsk());
+        });
+    }
+
+    @Test
+    void evolvesContinuouslyAndDrainsDepth() {
+        DerivativesChain first = generator.nextChain("NIFTY", START);
+        DerivativesChain second = generator.nextChain("NIFTY", START.plusSeconds(1));
+
+        // Correlated walk: spot moves, but only by a fraction of a percent in one second
+        double move = second.getSpotPrice().subtract(first.getSpotPrice()).abs().doubleValue();
+        assertThat(move).isLessThan(first.getSpotPrice().doubleValue() * 0.005);
+
+        // 2000 ticks/s across ~2,400 contracts - volume accumulates and some touches were hit
+        long volume = second.getCallOptions().stream().mapToLong(DerivativeContract::getVolume).sum()
+            + second.getPutOptions().stream().mapToLong(DerivativeContract::getVolume).sum();
+        assertThat(volume).isGreaterThan(0);
+        assertThat(generator.getTicksGenerated()).isEqualTo(2000);
+    }
+
+    @Test
+    void isDeterministicForSeed() {
+        SyntheticMarketGenerator other = newGenerator();
+        generator.nextChain("NIFTY", START);
+        other.nextChain("NIFTY", START);
+
+        BigDecimal spotA = generator.nextChain("NIFTY", START.plusSeconds(3)).getSpotPrice();
+        BigDecimal spotB = other.nextChain("NIFTY", START.plusSeconds(3)).getSpotPrice();
+        assertThat(spotA).isEqualByComparingTo(spotB);
+    }
+
+    @Test
+    void buildsBooksOnFirstUseOnly() {
+        SyntheticMarketGenerator lazy = configuredGenerator();
+        assertThat(lazy.isInitialised()).isFalse();
+
+        assertThat(lazy.nextChain("NIFTY", START).getCallOptions()).hasSize(303);
+        assertThat(lazy.isInitialised()).isTrue();
+    }
+
+    private SyntheticMarketGenerator newGenerator() {
+        SyntheticMarketGenerator g = configuredGenerator();
+        g.init();
+        return g;
+    }
+
+    private SyntheticMarketGenerator configuredGenerator() {
+        SyntheticMarketGenerator g = new SyntheticMarketGenerator();
+        ReflectionTestUtils.setField(g, "underlyingsConfig", "NIFTY,BANKNIFTY,FINNIFTY,MIDCPNIFTY");
+        ReflectionTestUtils.setField(g, "expiriesPerUnderlying", 3);
+        ReflectionTestUtils.setField(g, "strikesPerSide", 50);
+        ReflectionTestUtils.setField(g, "ticksPerSecond", 2000);
+        ReflectionTestUtils.setField(g, "volatility", 0.15);
+        ReflectionTestUtils.setField(g, "correlation", 0.8);
+        ReflectionTestUtils.setField(g, "seed", 7L);
+        return g;
+    }
+}
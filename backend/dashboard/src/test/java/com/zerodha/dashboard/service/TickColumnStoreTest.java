@@ -0,0 +1,168 @@
+package com.zerodha.dashboard.service;
+
+import com.zerodha.dashboard.model.DerivativeContract;
+import com.zerodha.dashboard.model.DerivativesChain;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TickColumnStoreTest {
+
+    private static final Instant SESSION_START = Instant.ofEpochSecond(1_700_000_000L);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void returnsExactValuesForARangeAcrossSealedBlocksAndTheOpenChunk() {
+        TickColumnStore store = openStore();
+        for (int second = 0; second < 10; second++) {
+            // Quantities only change on even seconds, so odd seconds are not stored
+            long quantity = 1000 + (second / 2) * 25;
+            store.record(chainAt(second, contract("101", (12005 + (second / 2) * 5) / 100.0, quantity, quantity * 2, second / 2 * 300L, 5_000_000L)));
+        }
+
+        TickColumnStore.Series series = store.query("101",
+            SESSION_START.plusSeconds(2).toEpochMilli(), SESSION_START.plusSeconds(7).toEpochMilli());
+
+        assertThat(series.count).isEqualTo(3);
+        assertThat(series.timestamps).containsExactly(
+            SESSION_START.plusSeconds(2).toEpochMilli(),
+            SESSION_START.plusSeconds(4).toEpochMilli(),
+            SESSION_START.plusSeconds(6).toEpochMilli());
+        assertThat(series.lastPrice).containsExactly(120.10, 120.15, 120.20);
+        assertThat(series.bidQuantity).containsExactly(1025L, 1050L, 1075L);
+        assertThat(series.askQuantity).containsExactly(2050L, 2100L, 2150L);
+        assertThat(series.volume).containsExactly(300L, 600L, 900L);
+        assertThat(series.openInterest).containsOnly(5_000_000L);
+        assertThat(store.query("999", 0, Long.MAX_VALUE).count).isZero();
+    }
+
+    @Test
+    void reopensSegmentsAndKeepsAppending() {
+        TickColumnStore first = openStore();
+        for (int second = 0; second < 6; second++) {
+            first.record(chainAt(second, contract("101", 100 + second, 10, 20, second, 0)));
+        }
+        first.close();
+
+        TickColumnStore second = openStore();
+        assertThat(second.query("101", 0, Long.MAX_VALUE).count).isEqualTo(6);
+        second.record(chainAt(6, contract("101", 106, 10, 20, 6, 0)));
+        second.close();
+
+        TickColumnStore third = openStore();
+        assertThat(third.query("101", 0, Long.MAX_VALUE).lastPrice).containsExactly(100, 101, 102, 103, 104, 105, 106);
+        assertThat(third.getStats().get("segments")).isEqualTo(1);
+    }
+
+    @Test
+    void dayRolloverDropsExpiredSegmentsFromDiskAndIndex() throws Exception {
+        TickColumnStore store = openStore();
+        for (int second = 0; second < 4; second++) {
+            store.record(chainAt(second, contract("101", 100 + second, 10, 20, second, 0)));
+        }
+        store.close();
+        assertThat(store.query("101", 0, Long.MAX_VALUE).count).isEqualTo(4);
+
+        // tickstore.retention.days (5) later, today's segment has expired
+        synchronized (store) {
+            store.sweepRetention(LocalDate.now(ZoneOffset.UTC).plusDays(5));
+        }
+
+        assertThat(store.query("101", 0, Long.MAX_VALUE).count).isZero();
+        assertThat(store.getStats()).containsEntry("segments", 0).containsEntry("instruments", 0);
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files).isEmpty();
+        }
+        // Forgotten last values: an unchanged tick is stored again, into a new segment
+        store.record(chainAt(10, contract("101", 103, 10, 20, 3, 0)));
+        store.close();
+        assertThat(store.query("101", 0, Long.MAX_VALUE).count).isEqualTo(1);
+    }
+
+    @Test
+    void compressesARealisticChainWellBelowRawSize() {
+        TickColumnStore store = openStore();
+        ReflectionTestUtils.setField(store, "chunkTicks", 1024);
+        Random random = new Random(42);
+        int contracts = 100;
+        int seconds = 3000;
+        double[] prices = new double[contracts];
+        long[] volumes = new long[contracts];
+        for (int i = 0; i < contracts; i++) {
+            prices[i] = 50 + i * 5;
+        }
+        long start = SESSION_START.toEpochMilli();
+        for (int second = 0; second < seconds; second++) {
+            List<DerivativeContract> options = new ArrayList<>();
+            for (int i = 0; i < contracts; i++) {
+                if (random.nextInt(3) == 0) {
+                    prices[i] = Math.max(0.05, Math.round((prices[i] + (random.nextInt(9) - 4) * 0.05) * 20) / 20.0);
+                    volumes[i] += random.nextInt(5000);
+                }
+                long bid = 500 + random.nextInt(20) * 75L;
+                options.add(contract(String.valueOf(i), prices[i], bid, bid + 75, volumes[i], 1_000_000L + volumes[i] / 10));
+            }
+            DerivativesChain chain = new DerivativesChain("NIFTY", new BigDecimal("25000"));
+            // Polls land within a few ms of the second boundary
+            chain.setTimestamp(Instant.ofEpochMilli(start + second * 1000L + random.nextInt(15)));
+            chain.setCallOptions(options);
+            store.record(chain);
+        }
+        store.close();
+
+        long ticks = (long) store.getStats().get("ticksAppended");
+        long bytes = (long) store.getStats().get("blockBytesWritten");
+        // Raw: 8-byte timestamp + 8-byte price + 4 longs = 48 bytes per tick
+        assertThat(bytes).isLessThan(ticks * 12);
+
+        long started = System.nanoTime();
+        int scanned = 0;
+        for (int i = 0; i < contracts; i++) {
+            scanned += store.query(String.valueOf(i), 0, Long.MAX_VALUE).count;
+        }
+        assertThat(scanned).isEqualTo((int) ticks);
+        assertThat((System.nanoTime() - started) / 1_000_000).isLessThan(2_000);
+    }
+
+    private TickColumnStore openStore() {
+        TickColumnStore store = new TickColumnStore();
+        ReflectionTestUtils.setField(store, "path", dir.toString());
+        ReflectionTestUtils.setField(store, "segmentMb", 1);
+        ReflectionTestUtils.setField(store, "chunkTicks", 2);
+        store.open();
+        return store;
+    }
+
+    private DerivativesChain chainAt(int second, DerivativeContract contract) {
+        DerivativesChain chain = new DerivativesChain("NIFTY", new BigDecimal("25000"));
+        chain.setTimestamp(SESSION_START.plusSeconds(second));
+        chain.setCallOptions(new ArrayList<>(List.of(contract)));
+        return chain;
+    }
+
+    private DerivativeContract contract(String token, double lastPrice, long bid, long ask, long volume, long openInterest) {
+        DerivativeContract contract = new DerivativeContract();
+        contract.setInstrumentToken(token);
+        contract.setLastPrice(BigDecimal.valueOf(lastPrice));
+        contract.setBidQuantity(bid);
+        contract.setAskQuantity(ask);
+        contract.setVolume(volume);
+        contract.setOpenInterest(BigDecimal.valueOf(openInterest));
+        return contract;
+    }
+}
@@ -8,11 +8,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.Duration;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.eq;
@@ -27,12 +29,15 @@ class ZerodhaSessionServiceTest {
     @Mock
     private HashOperations<String, Object, Object> hashOperations;
 
+    @Mock
+    private TaskScheduler taskScheduler;
+
     private ZerodhaSessionService service;
 
     @BeforeEach
     void setUp() {
         lenient().when(redisTemplate.opsForHash()).thenReturn(hashOperations);
-        service = new ZerodhaSessionService(redisTemplate);
+        service = new ZerodhaSessionService(redisTemplate, taskScheduler);
     }
 
     @SuppressWarnings("unchecked")
@@ -96,4 +101,94 @@ class ZerodhaSessionServiceTest {
         when(hashOperations.entries("zerodha:session")).thenReturn(Collections.emptyMap());
         assertThat(service.getSessionSnapshot()).isEmpty();
     }
+
+    @Test
+    void getAccessTokenServesRepeatedReadsFromTheCache() {
+        when(hashOperations.get("zerodha:session", "access_token")).thenReturn("redis-token");
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(service.getAccessToken()).contains("redis-token");
+            assertThat(service.hasActiveAccessToken()).isTrue();
+        }
+
+        verify(hashOperations, times(1)).get("zerodha:session", "access_token");
+    }
+
+    @Test
+    void cachedTokenNeverOutlivesTheRedisKey() throws InterruptedException {
+        when(hashOperations.get("zerodha:session", "access_token")).thenReturn("redis-token", (Object) null);
+        when(redisTemplate.getExpire("zerodha:session", TimeUnit.MILLISECONDS)).thenReturn(1L);
+        assertThat(service.getAccessToken()).contains("redis-token");
+
+        // The key expired in Redis - the next read goes back to Redis instead of the cache
+        Thread.sleep(5);
+
+        assertThat(service.getAccessToken()).isEmpty();
+    }
+
+    @Test
+    void saveAndClearUpdateTheCacheAndNotifyOtherNodes() {
+        service.saveSession(Map.of("access_token", "fresh-token"));
+        assertThat(service.getAccessToken()).contains("fresh-token");
+
+        service.clearSession();
+        assertThat(service.hasActiveAccessToken()).isFalse();
+
+        verify(hashOperations, never()).get("zerodha:session", "access_token");
+        verify(redisTemplate).convertAndSend(ZerodhaSessionService.SESSION_CHANNEL, "saved");
+        verify(redisTemplate).convertAndSend(ZerodhaSessionService.SESSION_CHANNEL, "cleared");
+    }
+
+    @Test
+    void sessionEventFromAnotherNodeReloadsTheToken() {
+        when(hashOperations.get("zerodha:session", "access_token")).thenReturn("old-token", "new-token");
+        assertThat(service.getAccessToken()).contains("old-token");
+
+        service.onSessionEvent("saved");
+
+        assertThat(service.getAccessToken()).contains("new-token");
+        verify(hashOperations, times(2)).get("zerodha:session", "access_token");
+    }
+
+    @Test
+    void keepsTheLastKnownTokenWhileRedisIsDown() {
+        when(hashOperations.get("zerodha:session", "access_token"))
+            .thenReturn("redis-token")
+            .thenThrow(new RuntimeException("connection refused"));
+        assertThat(service.getAccessToken()).contains("redis-token");
+
+        service.refresh();
+
+        assertThat(service.getAccessToken()).contains("redis-token");
+    }
+
+    @Test
+    void backsOffFromRedisAfterAFailedRead() {
+        ReflectionTestUtils.setField(service, "cacheMs", 0L);
+        when(hashOperations.get("zerodha:session", "access_token"))
+            .thenReturn("redis-token")
+            .thenThrow(new RuntimeException("connection refused"));
+        assertThat(service.getAccessToken()).contains("redis-token");
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(service.getAccessToken()).contains("redis-token");
+        }
+
+        // One failed read, then the last known token is served for zerodha.session.retry.ms
+        verify(hashOperations, times(2)).get("zerodha:session", "access_token");
+        assertThat(service.getTokenCacheStats()).containsEntry("consecutiveFailures", 1L);
+    }
+
+    @Test
+    void refreshInFlightDuringClearDoesNotRestoreTheOldToken() {
+        when(hashOperations.get("zerodha:session", "access_token")).thenAnswer(invocation -> {
+            // Auth error handled on another thread while this read is in flight
+            service.clearSession();
+            return "old-token";
+        });
+
+        service.refresh();
+
+        assertThat(service.hasActiveAccessToken()).isFalse();
+    }
 }
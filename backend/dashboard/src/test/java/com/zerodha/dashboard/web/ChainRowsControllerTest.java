@@ -0,0 +1,77 @@
+package com.zerodha.dashboard.web;
+
+import com.zerodha.dashboard.model.DerivativeContract;
+import com.zerodha.dashboard.model.DerivativesChain;
+import com.zerodha.dashboard.model.StrikeIndex;
+import com.zerodha.dashboard.service.ChainPushService;
+import com.zerodha.dashboard.service.LatestSnapshotCacheService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChainRowsControllerTest {
+
+    private final LatestSnapshotCacheService cache = mock(LatestSnapshotCacheService.class);
+    private final ChainRowsController controller = new ChainRowsController(cache, mock(ChainPushService.class));
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void returnsJoinedRowsWithOnlyTheRequestedFieldsInRange() {
+        DerivativesChain chain = new DerivativesChain("NIFTY", BigDecimal.valueOf(25000));
+        for (int strike : new int[] {25100, 24900, 25000}) {
+            chain.addCallOption(option("CE", strike, 100));
+            chain.addPutOption(option("PE", strike, 200));
+        }
+        StrikeIndex index = StrikeIndex.of(chain);
+        when(cache.getStrikeIndex("NIFTY")).thenReturn(Optional.of(index));
+        when(cache.getVersion("NIFTY")).thenReturn(1L);
+
+        Map<String, Object> body = (Map<String, Object>) controller
+            .getChainRows("NIFTY", "eatenDelta, ltp", BigDecimal.valueOf(24950), null).getBody();
+
+        assertThat(body.get("fields")).isEqualTo(List.of("ltp", "eatenDelta"));
+        List<Map<String, Object>> rows = (List<Map<String, Object>>) body.get("rows");
+        assertThat(rows).extracting(row -> ((BigDecimal) row.get("strike")).intValue()).containsExactly(25000, 25100);
+        Map<String, Object> ce = (Map<String, Object>) rows.get(0).get("ce");
+        assertThat(ce).containsOnlyKeys("ltp", "eatenDelta");
+        assertThat(ce.get("eatenDelta")).isEqualTo(100L);
+        assertThat(((Map<String, Object>) rows.get(0).get("pe")).get("eatenDelta")).isEqualTo(200L);
+
+        // Same query against the same chain version reuses the projection
+        Map<String, Object> again = (Map<String, Object>) controller
+            .getChainRows("NIFTY", "ltp,eatenDelta", new BigDecimal("24950.0"), null).getBody();
+        assertThat(again.get("rows")).isSameAs(rows);
+
+        // Second publish of the same poll: same index, metrics filled in, new version
+        chain.getCallOptions().get(2).setEatenDelta(150L);
+        when(cache.getVersion("NIFTY")).thenReturn(2L);
+        Map<String, Object> republished = (Map<String, Object>) controller
+            .getChainRows("NIFTY", "ltp,eatenDelta", BigDecimal.valueOf(24950), null).getBody();
+        List<Map<String, Object>> fresh = (List<Map<String, Object>>) republished.get("rows");
+        assertThat(((Map<String, Object>) fresh.get(0).get("ce")).get("eatenDelta")).isEqualTo(150L);
+    }
+
+    @Test
+    void rejectsUnknownFieldsAndInvertedRanges() {
+        assertThat(controller.getChainRows("NIFTY", "ltp,gamma", null, null).getStatusCode().value()).isEqualTo(400);
+        assertThat(controller.getChainRows("NIFTY", null, BigDecimal.TEN, BigDecimal.ONE).getStatusCode().value()).isEqualTo(400);
+        when(cache.getStrikeIndex("NIFTY")).thenReturn(Optional.empty());
+        assertThat(controller.getChainRows("NIFTY", null, null, null).getStatusCode().value()).isEqualTo(404);
+    }
+
+    private static DerivativeContract option(String type, int strike, long eatenDelta) {
+        DerivativeContract contract = new DerivativeContract();
+        contract.setInstrumentType(type);
+        contract.setStrikePrice(BigDecimal.valueOf(strike));
+        contract.setLastPrice(BigDecimal.valueOf(strike / 100));
+        contract.setEatenDelta(eatenDelta);
+        return contract;
+    }
+}